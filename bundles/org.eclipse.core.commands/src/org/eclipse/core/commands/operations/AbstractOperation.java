@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,7 @@ package org.eclipse.core.commands.operations;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.runtime.Assert;
@@ -39,6 +40,13 @@ import org.eclipse.core.runtime.IStatus;
 public abstract class AbstractOperation implements IUndoableOperation {
 	List<IUndoContext> contexts = new ArrayList<>();
 
+	/**
+	 * The histories that index the operation by its contexts and must learn
+	 * about context changes. A history removes itself when it drops the
+	 * operation.
+	 */
+	private final CopyOnWriteArrayList<DefaultOperationHistory> histories = new CopyOnWriteArrayList<>();
+
 	private String label = ""; //$NON-NLS-1$
 
 	/**
@@ -57,6 +65,7 @@ public abstract class AbstractOperation implements IUndoableOperation {
 	public void addContext(IUndoContext context) {
 		if (!contexts.contains(context)) {
 			contexts.add(context);
+			contextsChanged();
 		}
 	}
 
@@ -124,7 +133,36 @@ public abstract class AbstractOperation implements IUndoableOperation {
 
 	@Override
 	public void removeContext(IUndoContext context) {
-		contexts.remove(context);
+		if (contexts.remove(context)) {
+			contextsChanged();
+		}
+	}
+
+	/**
+	 * Registers a history that has to be told when the contexts of the
+	 * operation change.
+	 *
+	 * @param history
+	 *            the history that added the operation
+	 */
+	void addHistory(DefaultOperationHistory history) {
+		histories.addIfAbsent(history);
+	}
+
+	/**
+	 * Unregisters a history that no longer has the operation.
+	 *
+	 * @param history
+	 *            the history that removed the operation
+	 */
+	void removeHistory(DefaultOperationHistory history) {
+		histories.remove(history);
+	}
+
+	private void contextsChanged() {
+		for (DefaultOperationHistory history : histories) {
+			history.contextsChanged(this);
+		}
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,12 +19,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
-import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
 
 import org.eclipse.core.commands.ExecutionException;
 import org.eclipse.core.commands.internal.util.Tracing;
+import org.eclipse.core.internal.commands.operations.OperationHistoryList;
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -135,18 +134,18 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	ListenerList<IOperationHistoryListener> listeners = new ListenerList<>(ListenerList.IDENTITY);
 
 	/**
-	 * the list of operations available for redo, LIFO
+	 * the list of operations available for redo, LIFO, indexed by undo context
 	 */
-	private List<IUndoableOperation> redoList = Collections.synchronizedList(new ArrayList<>());
+	private final OperationHistoryList redoList = new OperationHistoryList();
 
 	/**
-	 * the list of operations available for undo, LIFO
+	 * the list of operations available for undo, LIFO, indexed by undo context
 	 */
-	private List<IUndoableOperation> undoList = Collections.synchronizedList(new ArrayList<>());
+	private final OperationHistoryList undoList = new OperationHistoryList();
 
 	/**
 	 * a lock that is used to synchronize access between the undo and redo
-	 * history
+	 * history, and to the lists themselves
 	 */
 	final Object undoRedoHistoryLock = new Object();
 
@@ -191,6 +190,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 
 		if (checkUndoLimit(operation)) {
 			synchronized (undoRedoHistoryLock) {
+				track(operation);
 				undoList.add(operation);
 			}
 			notifyAdd(operation);
@@ -372,6 +372,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			synchronized (undoRedoHistoryLock) {
 				redoList.remove(operation);
 				if (checkUndoLimit(operation)) {
+					track(operation);
 					undoList.add(operation);
 				} else {
 					addedToUndo = false;
@@ -380,6 +381,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			// dispose the operation since we could not add it to the
 			// stack and will no longer have a reference to it.
 			if (!addedToUndo) {
+				untrack(operation);
 				operation.dispose();
 			}
 
@@ -431,6 +433,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			synchronized (undoRedoHistoryLock) {
 				undoList.remove(operation);
 				if (checkRedoLimit(operation)) {
+					track(operation);
 					redoList.add(operation);
 				} else {
 					addedToRedo = false;
@@ -439,6 +442,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 			// dispose the operation since we could not add it to the
 			// stack and will no longer have a reference to it.
 			if (!addedToRedo) {
+				untrack(operation);
 				operation.dispose();
 			}
 			// notification occurs after the undo and redo histories are
@@ -525,27 +529,16 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	/*
 	 * Filter the specified list to include only the specified undo context.
 	 */
-	private IUndoableOperation[] filter(List<IUndoableOperation> list, IUndoContext context) {
+	private IUndoableOperation[] filter(OperationHistoryList list, IUndoContext context) {
 		/*
 		 * This method is used whenever there is a need to filter the undo or
-		 * redo history on a particular context. Currently there are no caches
-		 * kept to optimize repeated requests for the same filter. If benchmarks
-		 * show this to be a common pattern that causes performances problems,
-		 * we could implement a filtered cache here that is nullified whenever
-		 * the global history changes.
+		 * redo history on a particular context. The lists index their
+		 * operations by context, so only the operations of matching contexts
+		 * are looked at.
 		 */
-
-		List<IUndoableOperation> filtered = new ArrayList<>();
 		synchronized (undoRedoHistoryLock) {
-			Iterator<IUndoableOperation> iterator = list.iterator();
-			while (iterator.hasNext()) {
-				IUndoableOperation operation = iterator.next();
-				if (operation.hasContext(context)) {
-					filtered.add(operation);
-				}
-			}
+			return list.filter(context);
 		}
-		return filtered.toArray(new IUndoableOperation[filtered.size()]);
 	}
 
 	/*
@@ -580,6 +573,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					if (operation.getContexts().length == 0) {
 						redoList.remove(operation);
 						internalRemove(operation);
+					} else {
+						redoList.update(operation);
 					}
 				}
 			}
@@ -619,6 +614,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 					if (operation.getContexts().length == 0) {
 						undoList.remove(operation);
 						internalRemove(operation);
+					} else {
+						undoList.update(operation);
 					}
 				}
 			}
@@ -654,29 +651,22 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	private void forceRedoLimit(IUndoContext context, int max) {
 		synchronized (undoRedoHistoryLock) {
-			Object[] filtered = filter(redoList, context);
-			int size = filtered.length;
-			if (size > 0) {
-				int index = 0;
-				while (size > max) {
-					IUndoableOperation removed = (IUndoableOperation) filtered[index];
-					if (context == GLOBAL_UNDO_CONTEXT || removed.getContexts().length == 1) {
-						/*
-						 * remove the operation if we are enforcing a global limit
-						 * or if the operation only has the specified context
-						 */
-						redoList.remove(removed);
-						internalRemove(removed);
-					} else {
-						/*
-						 * if the operation has multiple contexts and we've reached
-						 * the limit for only one of them, then just remove the
-						 * context, not the operation.
-						 */
-						removed.removeContext(context);
-					}
-					size--;
-					index++;
+			for (IUndoableOperation removed : redoList.getOldest(context, max)) {
+				if (context == GLOBAL_UNDO_CONTEXT || removed.getContexts().length == 1) {
+					/*
+					 * remove the operation if we are enforcing a global limit
+					 * or if the operation only has the specified context
+					 */
+					redoList.remove(removed);
+					internalRemove(removed);
+				} else {
+					/*
+					 * if the operation has multiple contexts and we've reached
+					 * the limit for only one of them, then just remove the
+					 * context, not the operation.
+					 */
+					removed.removeContext(context);
+					redoList.update(removed);
 				}
 			}
 		}
@@ -688,29 +678,22 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 */
 	private void forceUndoLimit(IUndoContext context, int max) {
 		synchronized (undoRedoHistoryLock) {
-			Object[] filtered = filter(undoList, context);
-			int size = filtered.length;
-			if (size > 0) {
-				int index = 0;
-				while (size > max) {
-					IUndoableOperation removed = (IUndoableOperation) filtered[index];
-					if (context == GLOBAL_UNDO_CONTEXT || removed.getContexts().length == 1) {
-						/*
-						 * remove the operation if we are enforcing a global limit
-						 * or if the operation only has the specified context
-						 */
-						undoList.remove(removed);
-						internalRemove(removed);
-					} else {
-						/*
-						 * if the operation has multiple contexts and we've reached
-						 * the limit for only one of them, then just remove the
-						 * context, not the operation.
-						 */
-						removed.removeContext(context);
-					}
-					size--;
-					index++;
+			for (IUndoableOperation removed : undoList.getOldest(context, max)) {
+				if (context == GLOBAL_UNDO_CONTEXT || removed.getContexts().length == 1) {
+					/*
+					 * remove the operation if we are enforcing a global limit
+					 * or if the operation only has the specified context
+					 */
+					undoList.remove(removed);
+					internalRemove(removed);
+				} else {
+					/*
+					 * if the operation has multiple contexts and we've reached
+					 * the limit for only one of them, then just remove the
+					 * context, not the operation.
+					 */
+					removed.removeContext(context);
+					undoList.update(removed);
 				}
 			}
 		}
@@ -755,14 +738,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	public IUndoableOperation getRedoOperation(IUndoContext context) {
 		Assert.isNotNull(context);
 		synchronized (undoRedoHistoryLock) {
-			for (int i = redoList.size() - 1; i >= 0; i--) {
-				IUndoableOperation operation = redoList.get(i);
-				if (operation.hasContext(context)) {
-					return operation;
-				}
-			}
+			return redoList.getLast(context);
 		}
-		return null;
 	}
 
 	/*
@@ -796,14 +773,8 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	public IUndoableOperation getUndoOperation(IUndoContext context) {
 		Assert.isNotNull(context);
 		synchronized (undoRedoHistoryLock) {
-			for (int i = undoList.size() - 1; i >= 0; i--) {
-				IUndoableOperation operation = undoList.get(i);
-				if (operation.hasContext(context)) {
-					return operation;
-				}
-			}
+			return undoList.getLast(context);
 		}
-		return null;
 	}
 
 	/*
@@ -836,6 +807,7 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	 * Remove the operation by disposing it and notifying listeners.
 	 */
 	private void internalRemove(IUndoableOperation operation) {
+		untrack(operation);
 		operation.dispose();
 		notifyRemoved(operation);
 	}
@@ -1050,22 +1022,20 @@ public final class DefaultOperationHistory implements IOperationHistory {
 	public void replaceOperation(IUndoableOperation operation, IUndoableOperation[] replacements) {
 		// check the undo history first.
 		boolean inUndo = false;
+		for (IUndoableOperation replacement : replacements) {
+			track(replacement);
+		}
 		synchronized (undoRedoHistoryLock) {
-			int index = undoList.indexOf(operation);
-			if (index > -1) {
+			if (undoList.replace(operation, replacements)) {
 				inUndo = true;
-				undoList.remove(operation);
-				// notify listeners after the lock on undoList is released
+				// notify listeners after the lock on the history is released
 				ArrayList<IUndoContext> allContexts = new ArrayList<>(replacements.length);
 				for (IUndoableOperation replacement : replacements) {
 					IUndoContext[] opContexts = replacement.getContexts();
 					allContexts.addAll(Arrays.asList(opContexts));
-					undoList.add(index, replacement);
-					// notify listeners after the lock on the history is
-					// released
 				}
-				// recheck all the limits. We do this at the end so the index
-				// doesn't change during replacement
+				// recheck all the limits. We do this at the end so the
+				// replacements are all in place
 				for (IUndoContext context : allContexts) {
 					forceUndoLimit(context, getLimit(context));
 				}
@@ -1083,21 +1053,20 @@ public final class DefaultOperationHistory implements IOperationHistory {
 		// operation was not in the undo history. Check the redo history.
 
 		synchronized (undoRedoHistoryLock) {
-			int index = redoList.indexOf(operation);
-			if (index == -1) {
+			if (!redoList.replace(operation, replacements)) {
+				for (IUndoableOperation replacement : replacements) {
+					untrack(replacement);
+				}
 				return;
 			}
-			ArrayList<IUndoContext> allContexts = new ArrayList<>(replacements.length);
-			redoList.remove(operation);
 			// notify listeners after we release the lock on redoList
+			ArrayList<IUndoContext> allContexts = new ArrayList<>(replacements.length);
 			for (IUndoableOperation replacement : replacements) {
 				IUndoContext[] opContexts = replacement.getContexts();
 				allContexts.addAll(Arrays.asList(opContexts));
-				redoList.add(index, replacement);
-				// notify listeners after we release the lock on redoList
 			}
-			// recheck all the limits. We do this at the end so the index
-			// doesn't change during replacement
+			// recheck all the limits. We do this at the end so the
+			// replacements are all in place
 			for (IUndoContext context : allContexts) {
 				forceRedoLimit(context, getLimit(context));
 			}
@@ -1227,9 +1196,47 @@ public final class DefaultOperationHistory implements IOperationHistory {
 		}
 	}
 
+	/**
+	 * Registers the history with an operation it adds, so that changes of the
+	 * contexts of the operation reach the index of the history.
+	 */
+	private void track(IUndoableOperation operation) {
+		if (operation instanceof AbstractOperation) {
+			((AbstractOperation) operation).addHistory(this);
+		}
+	}
+
+	/**
+	 * Unregisters the history from an operation it no longer has, so that the
+	 * operation does not keep the history alive.
+	 */
+	private void untrack(IUndoableOperation operation) {
+		if (operation instanceof AbstractOperation) {
+			((AbstractOperation) operation).removeHistory(this);
+		}
+	}
+
+	/**
+	 * Called by an operation of the history when contexts were added to or
+	 * removed from it. The operation may be in the middle of a change, so its
+	 * contexts are read when the history is accessed the next time.
+	 */
+	void contextsChanged(IUndoableOperation operation) {
+		undoList.contextsChanged(operation);
+		redoList.contextsChanged(operation);
+	}
+
 	@Override
 	public void operationChanged(IUndoableOperation operation) {
-		if (undoList.contains(operation) || redoList.contains(operation)) {
+		boolean inHistory;
+		synchronized (undoRedoHistoryLock) {
+			// the contexts of the operation may have changed as well
+			inHistory = undoList.update(operation);
+			if (redoList.update(operation)) {
+				inHistory = true;
+			}
+		}
+		if (inHistory) {
 			notifyChanged(operation);
 		}
 	}
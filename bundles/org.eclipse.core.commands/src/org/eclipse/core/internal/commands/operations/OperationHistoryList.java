@@ -0,0 +1,502 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.core.internal.commands.operations;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.eclipse.core.commands.operations.AbstractOperation;
+import org.eclipse.core.commands.operations.ICompositeOperation;
+import org.eclipse.core.commands.operations.IUndoContext;
+import org.eclipse.core.commands.operations.IUndoableOperation;
+
+/**
+ * <p>
+ * The operations of an undo or redo history, in the order in which they were
+ * added. Besides this global order, the operations are indexed by each of their
+ * undo contexts, so that the operations of one context can be found without
+ * looking at the operations of all other contexts.
+ * </p>
+ * <p>
+ * The index is built from the contexts an operation has when it is added or
+ * {@link #update(IUndoableOperation) updated}. Operations that report
+ * {@link #contextsChanged(IUndoableOperation) context changes} are updated
+ * before the list is searched the next time. Operations that do not extend {@link AbstractOperation} and composite
+ * operations, whose contexts follow those of their children, are not indexed
+ * and are always checked with
+ * {@link IUndoableOperation#hasContext(IUndoContext)}.
+ * </p>
+ * <p>
+ * This class is not thread safe; the operation history synchronizes all access
+ * except for reporting context changes.
+ * </p>
+ */
+public final class OperationHistoryList {
+
+	/**
+	 * An operation at one position in the history.
+	 */
+	private static final class Entry {
+
+		final IUndoableOperation operation;
+
+		final long sequence;
+
+		/**
+		 * the contexts under which the entry is indexed, or <code>null</code>
+		 * if it is not indexed
+		 */
+		IUndoContext[] contexts;
+
+		boolean removed;
+
+		/**
+		 * a later entry of the same operation, if it was added twice
+		 */
+		Entry next;
+
+		Entry(IUndoableOperation operation, long sequence) {
+			this.operation = operation;
+			this.sequence = sequence;
+		}
+	}
+
+	/**
+	 * The entries indexed under one context, or the entries that are not
+	 * indexed, in the order of the history. Entries that were removed or lost
+	 * the context stay until more than half of the entries are stale.
+	 */
+	private static final class ContextEntries {
+
+		final IUndoContext context;
+
+		final List<Entry> entries = new ArrayList<>();
+
+		int stale;
+
+		ContextEntries(IUndoContext context) {
+			this.context = context;
+		}
+
+		boolean isValid(Entry entry) {
+			return !entry.removed && (context == null || contains(entry.contexts, context));
+		}
+
+		int indexOf(Entry entry) {
+			int low = 0;
+			int high = entries.size() - 1;
+			while (low <= high) {
+				int middle = (low + high) >>> 1;
+				long sequence = entries.get(middle).sequence;
+				if (sequence < entry.sequence) {
+					low = middle + 1;
+				} else if (sequence > entry.sequence) {
+					high = middle - 1;
+				} else {
+					return middle;
+				}
+			}
+			return -(low + 1);
+		}
+	}
+
+	private static final IUndoableOperation[] NO_OPERATIONS = new IUndoableOperation[0];
+
+	private static final Comparator<Entry> SEQUENCE_ORDER = Comparator.comparingLong(entry -> entry.sequence);
+
+	private final List<Entry> entries = new ArrayList<>();
+
+	private int removedCount;
+
+	private final Map<IUndoableOperation, Entry> operations = new HashMap<>();
+
+	private final Map<IUndoContext, ContextEntries> contexts = new HashMap<>();
+
+	private final ContextEntries unindexed = new ContextEntries(null);
+
+	private long nextSequence;
+
+	/**
+	 * The operations whose contexts changed since they were indexed. Filled
+	 * by any thread, drained when the list is searched.
+	 */
+	private final Set<IUndoableOperation> changed = ConcurrentHashMap.newKeySet();
+
+	/**
+	 * Adds the operation at the end of the list.
+	 *
+	 * @param operation
+	 *            the operation
+	 */
+	public void add(IUndoableOperation operation) {
+		Entry entry = new Entry(operation, nextSequence++);
+		entries.add(entry);
+		Entry first = operations.putIfAbsent(operation, entry);
+		if (first != null) {
+			while (first.next != null) {
+				first = first.next;
+			}
+			first.next = entry;
+		}
+		if (isIndexed(operation)) {
+			entry.contexts = distinct(operation.getContexts());
+			for (IUndoContext context : entry.contexts) {
+				contexts.computeIfAbsent(context, ContextEntries::new).entries.add(entry);
+			}
+		} else {
+			unindexed.entries.add(entry);
+		}
+	}
+
+	/**
+	 * Removes the first occurrence of the operation.
+	 *
+	 * @param operation
+	 *            the operation
+	 * @return whether the operation was in the list
+	 */
+	public boolean remove(IUndoableOperation operation) {
+		Entry entry = operations.get(operation);
+		if (entry == null) {
+			return false;
+		}
+		if (entry.next == null) {
+			operations.remove(operation);
+		} else {
+			operations.put(operation, entry.next);
+		}
+		entry.removed = true;
+		if (entry.contexts == null) {
+			discard(unindexed);
+		} else {
+			for (IUndoContext context : entry.contexts) {
+				discard(contexts.get(context));
+			}
+		}
+		if (++removedCount * 2 > entries.size()) {
+			entries.removeIf(e -> e.removed);
+			removedCount = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * @param operation
+	 *            the operation
+	 * @return whether the operation is in the list
+	 */
+	public boolean contains(IUndoableOperation operation) {
+		return operations.containsKey(operation);
+	}
+
+	/**
+	 * Indexes the operation again under the contexts it has now.
+	 *
+	 * @param operation
+	 *            the operation
+	 * @return whether the operation was in the list
+	 */
+	public boolean update(IUndoableOperation operation) {
+		Entry entry = operations.get(operation);
+		if (entry == null) {
+			return false;
+		}
+		for (; entry != null; entry = entry.next) {
+			if (entry.contexts == null) {
+				continue;
+			}
+			IUndoContext[] previous = entry.contexts;
+			entry.contexts = distinct(operation.getContexts());
+			for (IUndoContext context : previous) {
+				if (!contains(entry.contexts, context)) {
+					discard(contexts.get(context));
+				}
+			}
+			for (IUndoContext context : entry.contexts) {
+				if (!contains(previous, context)) {
+					ContextEntries indexed = contexts.computeIfAbsent(context, ContextEntries::new);
+					int index = indexed.indexOf(entry);
+					if (index >= 0) {
+						// the entry lost the context before and was not dropped yet
+						indexed.stale--;
+					} else {
+						indexed.entries.add(-(index + 1), entry);
+					}
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Records that contexts were added to or removed from the operation, so
+	 * that it is indexed again before the list is searched the next time. May
+	 * be called from any thread, also while the operation is changed.
+	 *
+	 * @param operation
+	 *            the operation
+	 */
+	public void contextsChanged(IUndoableOperation operation) {
+		if (isIndexed(operation)) {
+			changed.add(operation);
+		}
+	}
+
+	/**
+	 * Replaces the first occurrence of the operation with the given
+	 * replacements. As if each replacement was inserted at the position of the
+	 * operation, the replacements end up in reverse order.
+	 *
+	 * @param operation
+	 *            the operation
+	 * @param replacements
+	 *            the replacements
+	 * @return whether the operation was in the list
+	 */
+	public boolean replace(IUndoableOperation operation, IUndoableOperation[] replacements) {
+		Entry replaced = operations.get(operation);
+		if (replaced == null) {
+			return false;
+		}
+		// all operations are indexed again
+		changed.clear();
+		List<IUndoableOperation> order = new ArrayList<>(entries.size() + replacements.length);
+		for (Entry entry : entries) {
+			if (entry == replaced) {
+				for (int i = replacements.length - 1; i >= 0; i--) {
+					order.add(replacements[i]);
+				}
+			} else if (!entry.removed) {
+				order.add(entry.operation);
+			}
+		}
+		entries.clear();
+		removedCount = 0;
+		operations.clear();
+		contexts.clear();
+		unindexed.entries.clear();
+		unindexed.stale = 0;
+		for (IUndoableOperation each : order) {
+			add(each);
+		}
+		return true;
+	}
+
+	/**
+	 * Returns the operations that have the given context, in the order of the
+	 * list.
+	 *
+	 * @param context
+	 *            the context
+	 * @return the operations
+	 */
+	public IUndoableOperation[] filter(IUndoContext context) {
+		updateChanged();
+		List<ContextEntries> candidates = getCandidates(context);
+		List<Entry> filtered = new ArrayList<>();
+		if (candidates == null) {
+			for (Entry entry : entries) {
+				if (!entry.removed && entry.operation.hasContext(context)) {
+					filtered.add(entry);
+				}
+			}
+		} else {
+			for (ContextEntries candidate : candidates) {
+				for (Entry entry : candidate.entries) {
+					if (!entry.removed && entry.operation.hasContext(context)) {
+						filtered.add(entry);
+					}
+				}
+			}
+			if (candidates.size() > 1) {
+				// an entry may be indexed under several matching contexts
+				filtered.sort(SEQUENCE_ORDER);
+				Entry previous = null;
+				for (int i = filtered.size() - 1; i >= 0; i--) {
+					Entry entry = filtered.get(i);
+					if (entry == previous) {
+						filtered.remove(i);
+					}
+					previous = entry;
+				}
+			}
+		}
+		IUndoableOperation[] operations = new IUndoableOperation[filtered.size()];
+		for (int i = 0; i < operations.length; i++) {
+			operations[i] = filtered.get(i).operation;
+		}
+		return operations;
+	}
+
+	/**
+	 * Returns the operations that have the given context, except for the last
+	 * <code>max</code> ones, in the order of the list. These are the operations
+	 * to drop when the history of the context is limited to <code>max</code>
+	 * operations.
+	 *
+	 * @param context
+	 *            the context
+	 * @param max
+	 *            the number of operations to keep
+	 * @return the operations
+	 */
+	public IUndoableOperation[] getOldest(IUndoContext context, int max) {
+		updateChanged();
+		List<ContextEntries> candidates = getCandidates(context);
+		if (candidates == null || candidates.size() != 1 || candidates.get(0) == unindexed) {
+			IUndoableOperation[] filtered = filter(context);
+			return filtered.length > max ? Arrays.copyOf(filtered, filtered.length - max) : NO_OPERATIONS;
+		}
+		// the entries of a single context can be counted without checking them
+		ContextEntries indexed = candidates.get(0);
+		// stale entries pile up at the start, as the oldest entries are dropped
+		int leading = 0;
+		while (leading < indexed.entries.size() && !indexed.isValid(indexed.entries.get(leading))) {
+			leading++;
+		}
+		indexed.entries.subList(0, leading).clear();
+		indexed.stale -= leading;
+		int count = indexed.entries.size() - indexed.stale;
+		if (count <= max) {
+			return NO_OPERATIONS;
+		}
+		IUndoableOperation[] oldest = new IUndoableOperation[count - max];
+		for (int i = 0, found = 0; found < oldest.length; i++) {
+			Entry entry = indexed.entries.get(i);
+			if (indexed.isValid(entry)) {
+				oldest[found++] = entry.operation;
+			}
+		}
+		return oldest;
+	}
+
+	/**
+	 * Returns the last operation that has the given context.
+	 *
+	 * @param context
+	 *            the context
+	 * @return the operation, or <code>null</code> if there is none
+	 */
+	public IUndoableOperation getLast(IUndoContext context) {
+		updateChanged();
+		List<ContextEntries> candidates = getCandidates(context);
+		if (candidates == null) {
+			for (int i = entries.size() - 1; i >= 0; i--) {
+				Entry entry = entries.get(i);
+				if (!entry.removed && entry.operation.hasContext(context)) {
+					return entry.operation;
+				}
+			}
+			return null;
+		}
+		Entry last = null;
+		for (ContextEntries candidate : candidates) {
+			for (int i = candidate.entries.size() - 1; i >= 0; i--) {
+				Entry entry = candidate.entries.get(i);
+				if (last != null && entry.sequence < last.sequence) {
+					break;
+				}
+				if (!entry.removed && entry.operation.hasContext(context)) {
+					last = entry;
+					break;
+				}
+			}
+		}
+		return last == null ? null : last.operation;
+	}
+
+	/**
+	 * Returns the entries of the contexts that match the given context, or
+	 * <code>null</code> if these are not fewer than the entries of the whole
+	 * list, as for the global undo context.
+	 */
+	private List<ContextEntries> getCandidates(IUndoContext context) {
+		List<ContextEntries> candidates = new ArrayList<>(2);
+		int size = 0;
+		ContextEntries exact = contexts.get(context);
+		if (exact != null) {
+			candidates.add(exact);
+			size += exact.entries.size();
+		}
+		for (ContextEntries indexed : contexts.values()) {
+			if (indexed != exact && (context.matches(indexed.context) || indexed.context.matches(context))) {
+				candidates.add(indexed);
+				size += indexed.entries.size();
+				if (size >= entries.size()) {
+					return null;
+				}
+			}
+		}
+		if (!unindexed.entries.isEmpty()) {
+			candidates.add(unindexed);
+			size += unindexed.entries.size();
+		}
+		return size >= entries.size() ? null : candidates;
+	}
+
+	private void updateChanged() {
+		if (changed.isEmpty()) {
+			return;
+		}
+		for (Iterator<IUndoableOperation> it = changed.iterator(); it.hasNext();) {
+			IUndoableOperation operation = it.next();
+			it.remove();
+			update(operation);
+		}
+	}
+
+	/**
+	 * Counts a stale entry of the given context entries, dropping the stale
+	 * entries once they are the majority.
+	 */
+	private void discard(ContextEntries indexed) {
+		if (++indexed.stale * 2 <= indexed.entries.size()) {
+			return;
+		}
+		indexed.entries.removeIf(entry -> !indexed.isValid(entry));
+		indexed.stale = 0;
+		if (indexed.entries.isEmpty() && indexed.context != null) {
+			contexts.remove(indexed.context);
+		}
+	}
+
+	private static boolean isIndexed(IUndoableOperation operation) {
+		return operation instanceof AbstractOperation && !(operation instanceof ICompositeOperation);
+	}
+
+	private static IUndoContext[] distinct(IUndoContext[] contexts) {
+		List<IUndoContext> distinct = new ArrayList<>(contexts.length);
+		for (IUndoContext context : contexts) {
+			if (!distinct.contains(context)) {
+				distinct.add(context);
+			}
+		}
+		return distinct.size() == contexts.length ? contexts : distinct.toArray(new IUndoContext[distinct.size()]);
+	}
+
+	private static boolean contains(IUndoContext[] contexts, IUndoContext context) {
+		for (IUndoContext each : contexts) {
+			if (each.equals(context)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
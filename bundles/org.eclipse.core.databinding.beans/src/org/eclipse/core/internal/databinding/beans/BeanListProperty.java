@@ -37,6 +37,7 @@ import org.eclipse.core.databinding.property.list.SimpleListProperty;
  */
 public class BeanListProperty<S, E> extends SimpleListProperty<S, E> {
 	private final PropertyDescriptor propertyDescriptor;
+	private final BeanPropertyAccessor accessor;
 	private final Class<E> elementType;
 
 	/**
@@ -46,6 +47,7 @@ public class BeanListProperty<S, E> extends SimpleListProperty<S, E> {
 	@SuppressWarnings("unchecked")
 	public BeanListProperty(PropertyDescriptor propertyDescriptor, Class<E> elementType) {
 		this.propertyDescriptor = propertyDescriptor;
+		this.accessor = new BeanPropertyAccessor(propertyDescriptor);
 		this.elementType = elementType == null
 				? (Class<E>) BeanPropertyHelper.getCollectionPropertyElementType(propertyDescriptor)
 				: elementType;
@@ -58,7 +60,7 @@ public class BeanListProperty<S, E> extends SimpleListProperty<S, E> {
 
 	@Override
 	protected List<E> doGetList(S source) {
-		return asList(BeanPropertyHelper.readProperty(source, propertyDescriptor));
+		return asList(accessor.read(source));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -77,7 +79,7 @@ public class BeanListProperty<S, E> extends SimpleListProperty<S, E> {
 
 	@Override
 	protected void doSetList(S source, List<E> list) {
-		BeanPropertyHelper.writeProperty(source, propertyDescriptor, convertListToBeanPropertyType(list));
+		accessor.write(source, convertListToBeanPropertyType(list));
 	}
 
 	private Object convertListToBeanPropertyType(List<E> list) {
@@ -35,6 +35,7 @@ import org.eclipse.core.databinding.property.map.SimpleMapProperty;
  */
 public class BeanMapProperty<S, K, V> extends SimpleMapProperty<S, K, V> {
 	private final PropertyDescriptor propertyDescriptor;
+	private final BeanPropertyAccessor accessor;
 	private final Class<K> keyType;
 	private final Class<V> valueType;
 
@@ -45,6 +46,7 @@ public class BeanMapProperty<S, K, V> extends SimpleMapProperty<S, K, V> {
 	 */
 	public BeanMapProperty(PropertyDescriptor propertyDescriptor, Class<K> keyType, Class<V> valueType) {
 		this.propertyDescriptor = propertyDescriptor;
+		this.accessor = new BeanPropertyAccessor(propertyDescriptor);
 		this.keyType = keyType;
 		this.valueType = valueType;
 	}
@@ -61,7 +63,7 @@ public class BeanMapProperty<S, K, V> extends SimpleMapProperty<S, K, V> {
 
 	@Override
 	protected Map<K, V> doGetMap(S source) {
-		return asMap(BeanPropertyHelper.readProperty(source, propertyDescriptor));
+		return asMap(accessor.read(source));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -78,7 +80,7 @@ public class BeanMapProperty<S, K, V> extends SimpleMapProperty<S, K, V> {
 
 	@Override
 	protected void doSetMap(S source, Map<K, V> map) {
-		BeanPropertyHelper.writeProperty(source, propertyDescriptor, map);
+		accessor.write(source, map);
 	}
 
 	@Override
@@ -0,0 +1,147 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.core.internal.databinding.beans;
+
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Reads and writes a bean property through method handles instead of
+ * reflection. The handles are created once per accessor method and shared by
+ * all properties using that method. Whenever a handle cannot be used, for
+ * instance because the source or the value does not have the expected type,
+ * the accessor falls back to {@link BeanPropertyHelper#readProperty} and
+ * {@link BeanPropertyHelper#writeProperty}, which report the problem.
+ */
+final class BeanPropertyAccessor {
+
+	private static final MethodType READER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	private static final MethodType WRITER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	/**
+	 * Marks a method that cannot be called through a handle.
+	 */
+	private static final MethodHandle UNAVAILABLE = MethodHandles.identity(Object.class);
+
+	private static final ClassValue<Map<Method, MethodHandle>> HANDLES = new ClassValue<>() {
+		@Override
+		protected Map<Method, MethodHandle> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<>(4);
+		}
+	};
+
+	private final PropertyDescriptor propertyDescriptor;
+
+	private final MethodHandle reader;
+
+	private final Class<?> readerType;
+
+	private final MethodHandle writer;
+
+	private final Class<?> writerType;
+
+	private final Class<?> valueType;
+
+	private final boolean primitiveValue;
+
+	/**
+	 * @param propertyDescriptor
+	 *            the property to access
+	 */
+	BeanPropertyAccessor(PropertyDescriptor propertyDescriptor) {
+		this.propertyDescriptor = propertyDescriptor;
+		Method readMethod = propertyDescriptor.getReadMethod();
+		reader = getHandle(readMethod, READER_TYPE);
+		readerType = reader == null ? null : readMethod.getDeclaringClass();
+		Method writeMethod = propertyDescriptor.getWriteMethod();
+		writer = getHandle(writeMethod, WRITER_TYPE);
+		writerType = writer == null ? null : writeMethod.getDeclaringClass();
+		Class<?> parameterType = writer == null ? null : writeMethod.getParameterTypes()[0];
+		valueType = parameterType == null ? null : MethodType.methodType(parameterType).wrap().returnType();
+		primitiveValue = parameterType != null && parameterType.isPrimitive();
+	}
+
+	/**
+	 * @param source
+	 *            the source bean
+	 * @return the contents of the property for the given bean
+	 * @see BeanPropertyHelper#readProperty(Object, PropertyDescriptor)
+	 */
+	Object read(Object source) {
+		if (reader == null || !readerType.isInstance(source)) {
+			return BeanPropertyHelper.readProperty(source, propertyDescriptor);
+		}
+		try {
+			return reader.invokeExact(source);
+		} catch (Throwable e) {
+			// the types are checked, so e was thrown by the read method
+			throw new RuntimeException(e);
+		}
+	}
+
+	/**
+	 * @param source
+	 *            the source bean
+	 * @param value
+	 *            the new value of the property
+	 * @see BeanPropertyHelper#writeProperty(Object, PropertyDescriptor, Object)
+	 */
+	void write(Object source, Object value) {
+		if (writer == null || !writerType.isInstance(source) || !isAssignable(value)) {
+			BeanPropertyHelper.writeProperty(source, propertyDescriptor, value);
+			return;
+		}
+		try {
+			writer.invokeExact(source, value);
+		} catch (Throwable e) {
+			// the types are checked, so e was thrown by the write method
+			throw new RuntimeException(e);
+		}
+	}
+
+	private boolean isAssignable(Object value) {
+		if (value == null) {
+			return !primitiveValue;
+		}
+		// wrappers are final, so this only accepts the exact wrapper of a
+		// primitive parameter and leaves widening conversions to reflection
+		return valueType.isInstance(value);
+	}
+
+	private static MethodHandle getHandle(Method method, MethodType type) {
+		if (method == null) {
+			return null;
+		}
+		Map<Method, MethodHandle> handles = HANDLES.get(method.getDeclaringClass());
+		MethodHandle handle = handles.computeIfAbsent(method, m -> createHandle(m, type));
+		return handle == UNAVAILABLE ? null : handle;
+	}
+
+	private static MethodHandle createHandle(Method method, MethodType type) {
+		try {
+			BeanPropertyHelper.setAccessible(method);
+			return MethodHandles.lookup().unreflect(method).asType(type);
+		} catch (IllegalAccessException | RuntimeException e) {
+			// leave it to reflection, which logs the problem on every access
+			return UNAVAILABLE;
+		}
+	}
+}
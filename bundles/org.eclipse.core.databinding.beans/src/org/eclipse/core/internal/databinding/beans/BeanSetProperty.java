@@ -37,6 +37,7 @@ import org.eclipse.core.databinding.property.set.SimpleSetProperty;
  */
 public class BeanSetProperty<S, E> extends SimpleSetProperty<S, E> {
 	private final PropertyDescriptor propertyDescriptor;
+	private final BeanPropertyAccessor accessor;
 	private final Class<E> elementType;
 
 	/**
@@ -46,6 +47,7 @@ public class BeanSetProperty<S, E> extends SimpleSetProperty<S, E> {
 	@SuppressWarnings("unchecked")
 	public BeanSetProperty(PropertyDescriptor propertyDescriptor, Class<E> elementType) {
 		this.propertyDescriptor = propertyDescriptor;
+		this.accessor = new BeanPropertyAccessor(propertyDescriptor);
 		this.elementType = elementType == null
 				? (Class<E>) BeanPropertyHelper.getCollectionPropertyElementType(propertyDescriptor)
 				: elementType;
@@ -58,7 +60,7 @@ public class BeanSetProperty<S, E> extends SimpleSetProperty<S, E> {
 
 	@Override
 	protected Set<E> doGetSet(Object source) {
-		return asSet(BeanPropertyHelper.readProperty(source, propertyDescriptor));
+		return asSet(accessor.read(source));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -77,7 +79,7 @@ public class BeanSetProperty<S, E> extends SimpleSetProperty<S, E> {
 
 	@Override
 	protected void doSetSet(S source, Set<E> set) {
-		BeanPropertyHelper.writeProperty(source, propertyDescriptor, convertSetToBeanPropertyType(set));
+		accessor.write(source, convertSetToBeanPropertyType(set));
 	}
 
 	private Object convertSetToBeanPropertyType(Set<E> set) {
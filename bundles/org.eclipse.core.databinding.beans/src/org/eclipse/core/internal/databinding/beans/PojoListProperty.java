@@ -36,6 +36,7 @@ import org.eclipse.core.databinding.property.list.SimpleListProperty;
  */
 public class PojoListProperty<S, E> extends SimpleListProperty<S, E> {
 	private final PropertyDescriptor propertyDescriptor;
+	private final BeanPropertyAccessor accessor;
 	private final Class<E> elementType;
 
 	/**
@@ -45,6 +46,7 @@ public class PojoListProperty<S, E> extends SimpleListProperty<S, E> {
 	@SuppressWarnings("unchecked")
 	public PojoListProperty(PropertyDescriptor propertyDescriptor, Class<E> elementType) {
 		this.propertyDescriptor = propertyDescriptor;
+		this.accessor = new BeanPropertyAccessor(propertyDescriptor);
 		this.elementType = elementType == null
 				? (Class<E>) BeanPropertyHelper.getCollectionPropertyElementType(propertyDescriptor)
 				: elementType;
@@ -57,7 +59,7 @@ public class PojoListProperty<S, E> extends SimpleListProperty<S, E> {
 
 	@Override
 	protected List<E> doGetList(S source) {
-		return asList(BeanPropertyHelper.readProperty(source, propertyDescriptor));
+		return asList(accessor.read(source));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -76,7 +78,7 @@ public class PojoListProperty<S, E> extends SimpleListProperty<S, E> {
 
 	@Override
 	protected void doSetList(S source, List<E> list) {
-		BeanPropertyHelper.writeProperty(source, propertyDescriptor, convertListToBeanPropertyType(list));
+		accessor.write(source, convertListToBeanPropertyType(list));
 	}
 
 	private Object convertListToBeanPropertyType(List<E> list) {
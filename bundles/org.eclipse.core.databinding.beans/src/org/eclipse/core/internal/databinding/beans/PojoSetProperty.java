@@ -36,6 +36,7 @@ import org.eclipse.core.databinding.property.set.SimpleSetProperty;
  */
 public class PojoSetProperty<S, E> extends SimpleSetProperty<S, E> {
 	private final PropertyDescriptor propertyDescriptor;
+	private final BeanPropertyAccessor accessor;
 	private final Class<E> elementType;
 
 	/**
@@ -45,6 +46,7 @@ public class PojoSetProperty<S, E> extends SimpleSetProperty<S, E> {
 	@SuppressWarnings("unchecked")
 	public PojoSetProperty(PropertyDescriptor propertyDescriptor, Class<E> elementType) {
 		this.propertyDescriptor = propertyDescriptor;
+		this.accessor = new BeanPropertyAccessor(propertyDescriptor);
 		this.elementType = elementType == null
 				? (Class<E>) BeanPropertyHelper.getCollectionPropertyElementType(propertyDescriptor)
 				: elementType;
@@ -57,7 +59,7 @@ public class PojoSetProperty<S, E> extends SimpleSetProperty<S, E> {
 
 	@Override
 	protected Set<E> doGetSet(S source) {
-		return asSet(BeanPropertyHelper.readProperty(source, propertyDescriptor));
+		return asSet(accessor.read(source));
 	}
 
 	@SuppressWarnings("unchecked")
@@ -76,7 +78,7 @@ public class PojoSetProperty<S, E> extends SimpleSetProperty<S, E> {
 
 	@Override
 	protected void doSetSet(S source, Set<E> set) {
-		BeanPropertyHelper.writeProperty(source, propertyDescriptor, convertSetToBeanPropertyType(set));
+		accessor.write(source, convertSetToBeanPropertyType(set));
 	}
 
 	private Object convertSetToBeanPropertyType(Set<E> set) {
@@ -0,0 +1,96 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.emf.internal.xpath;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import org.apache.commons.jxpath.CompiledExpression;
+import org.apache.commons.jxpath.JXPathContext;
+import org.eclipse.e4.emf.xpath.XPathExpression;
+
+/**
+ * An expression compiled for JXPath and, if it is supported, for the
+ * {@link EObjectXPathEvaluator}.
+ */
+final class CompiledXPath implements XPathExpression {
+
+	private static final int CACHE_SIZE = 256;
+
+	private static final Map<String, CompiledXPath> cache = new LinkedHashMap<String, CompiledXPath>(64, 0.75f,
+			true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, CompiledXPath> eldest) {
+			return size() > CACHE_SIZE;
+		}
+	};
+
+	private final String expression;
+
+	private final CompiledExpression jxpathExpression;
+
+	private final EObjectXPathEvaluator evaluator;
+
+	private CompiledXPath(String expression) {
+		this.expression = expression;
+		this.jxpathExpression = JXPathContext.compile(expression);
+		this.evaluator = EObjectXPathEvaluator.parse(expression);
+	}
+
+	/**
+	 * Returns the compiled expression from the cache of recently used
+	 * expressions, compiling it if necessary.
+	 *
+	 * @param expression
+	 *            the expression
+	 * @return the compiled expression
+	 */
+	static CompiledXPath get(String expression) {
+		synchronized (cache) {
+			CompiledXPath compiled = cache.get(expression);
+			if (compiled != null) {
+				return compiled;
+			}
+		}
+		// compile outside the lock, a concurrent duplicate does no harm
+		CompiledXPath compiled = new CompiledXPath(expression);
+		synchronized (cache) {
+			cache.put(expression, compiled);
+		}
+		return compiled;
+	}
+
+	@Override
+	public String getExpression() {
+		return expression;
+	}
+
+	CompiledExpression getJXPathExpression() {
+		return jxpathExpression;
+	}
+
+	/**
+	 * @return the evaluator, or <code>null</code> if the expression is not
+	 *         supported by it
+	 */
+	EObjectXPathEvaluator getEvaluator() {
+		return evaluator;
+	}
+
+	@Override
+	public String toString() {
+		return expression;
+	}
+}
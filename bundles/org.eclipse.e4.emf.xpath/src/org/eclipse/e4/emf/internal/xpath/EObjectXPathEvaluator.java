@@ -0,0 +1,486 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.emf.internal.xpath;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.emf.common.util.EMap;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EStructuralFeature;
+import org.eclipse.emf.ecore.util.FeatureMapUtil;
+
+/**
+ * Evaluates the XPath expressions commonly used to query the application
+ * model directly on {@link EObject}s, without going through the JXPath node
+ * pointers.
+ * <p>
+ * Supported are location paths made of the steps <code>.</code>,
+ * <code>name</code>, <code>*</code> and a final <code>@name</code>, separated
+ * by <code>/</code> or <code>//</code>, with predicates that are either a
+ * position or a combination of comparisons of <code>@name</code> or
+ * <code>ecore:eClassName(.)</code> with a string literal using
+ * <code>=</code>, <code>!=</code>, <code>and</code>, <code>or</code> and
+ * parentheses. {@link #parse(String)} returns <code>null</code> for any other
+ * expression.
+ * </p>
+ * <p>
+ * Child steps by name select the values of the feature of that name, like
+ * JXPath does. Without containment semantics the evaluator throws
+ * {@link #UNSUPPORTED} for every case in which its result could differ from
+ * the one of JXPath, and the caller has to evaluate the expression with
+ * JXPath. With containment semantics, <code>*</code> selects the contents of
+ * an object and <code>//</code> descends along the containment tree only, and
+ * the objects selected by each step are distinct.
+ * </p>
+ */
+final class EObjectXPathEvaluator {
+
+	/**
+	 * Thrown when an expression cannot be evaluated for the given objects.
+	 */
+	static final class UnsupportedException extends RuntimeException {
+
+		private static final long serialVersionUID = 1L;
+
+		UnsupportedException() {
+			super(null, null, false, false);
+		}
+	}
+
+	static final UnsupportedException UNSUPPORTED = new UnsupportedException();
+
+	private static final String ECLASS_NAME_FUNCTION = "ecore:eClassName"; //$NON-NLS-1$
+
+	private enum Axis {
+		SELF, CHILD, ANY_CHILD, ATTRIBUTE
+	}
+
+	private static final class Step {
+		final Axis axis;
+		final String name;
+		final boolean descendant;
+		final List<Predicate> predicates = new ArrayList<>(2);
+
+		Step(Axis axis, String name, boolean descendant) {
+			this.axis = axis;
+			this.name = name;
+			this.descendant = descendant;
+		}
+	}
+
+	private interface Predicate {
+		boolean test(Object node, int position);
+	}
+
+	private final List<Step> steps;
+
+	private EObjectXPathEvaluator(List<Step> steps) {
+		this.steps = steps;
+	}
+
+	/**
+	 * @param xpath
+	 *            the expression
+	 * @return the evaluator for the expression, or <code>null</code> if it is
+	 *         not supported
+	 */
+	static EObjectXPathEvaluator parse(String xpath) {
+		try {
+			return new Parser(xpath).parse();
+		} catch (UnsupportedException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Evaluates the expression.
+	 *
+	 * @param root
+	 *            the context bean
+	 * @param containment
+	 *            whether to use containment semantics
+	 * @param single
+	 *            whether only the first result is needed, in which case
+	 *            collections selected as a whole cannot be handled
+	 * @return the results
+	 * @throws UnsupportedException
+	 *             if the result could differ from the one of JXPath
+	 */
+	List<Object> evaluate(Object root, boolean containment, boolean single) {
+		List<Object> nodes = Collections.singletonList(root);
+		for (int i = 0; i < steps.size(); i++) {
+			Step step = steps.get(i);
+			if (step.descendant) {
+				if (!containment) {
+					throw UNSUPPORTED;
+				}
+				List<Object> descendants = new ArrayList<>();
+				for (Object node : nodes) {
+					addDescendantsOrSelf(node, descendants);
+				}
+				nodes = descendants;
+			}
+			boolean last = i == steps.size() - 1;
+			List<Object> next = new ArrayList<>();
+			for (Object node : nodes) {
+				List<Object> selected = select(step, node, containment, single && last);
+				for (Predicate predicate : step.predicates) {
+					selected = filter(selected, predicate);
+				}
+				next.addAll(selected);
+			}
+			nodes = containment && next.size() > 1 ? distinct(next) : next;
+			if (nodes.isEmpty()) {
+				break;
+			}
+		}
+		return nodes;
+	}
+
+	private static void addDescendantsOrSelf(Object node, List<Object> result) {
+		if (!(node instanceof EObject)) {
+			throw UNSUPPORTED;
+		}
+		result.add(node);
+		for (EObject child : ((EObject) node).eContents()) {
+			addDescendantsOrSelf(child, result);
+		}
+	}
+
+	private static List<Object> select(Step step, Object node, boolean containment, boolean wholeCollection) {
+		if (step.axis == Axis.SELF) {
+			return Collections.singletonList(node);
+		}
+		if (!(node instanceof EObject)) {
+			throw UNSUPPORTED;
+		}
+		EObject object = (EObject) node;
+		if (step.axis == Axis.ANY_CHILD) {
+			if (!containment) {
+				throw UNSUPPORTED;
+			}
+			return new ArrayList<>(object.eContents());
+		}
+		EStructuralFeature feature = getFeature(object, step.name);
+		if (feature == null) {
+			return Collections.emptyList();
+		}
+		Object value = object.eGet(feature);
+		if (feature.isMany()) {
+			// JXPath selects collections as a whole for a single result and
+			// treats maps and the entries of non-object collections differently
+			if (step.axis == Axis.ATTRIBUTE || value instanceof EMap<?, ?>
+					|| wholeCollection && step.predicates.isEmpty()) {
+				throw UNSUPPORTED;
+			}
+			List<Object> values = new ArrayList<>((List<?>) value);
+			for (Object element : values) {
+				if (!(element instanceof EObject)) {
+					throw UNSUPPORTED;
+				}
+			}
+			return values;
+		}
+		// JXPath iterates over collections and arrays stored in attributes
+		if (value == null || value instanceof Collection<?> || value instanceof Map<?, ?>
+				|| value.getClass().isArray()) {
+			throw UNSUPPORTED;
+		}
+		return Collections.singletonList(value);
+	}
+
+	private static EStructuralFeature getFeature(EObject object, String name) {
+		EStructuralFeature feature = object.eClass().getEStructuralFeature(name);
+		if (feature != null && FeatureMapUtil.isFeatureMap(feature)) {
+			throw UNSUPPORTED;
+		}
+		return feature;
+	}
+
+	private static List<Object> filter(List<Object> nodes, Predicate predicate) {
+		List<Object> result = new ArrayList<>(nodes.size());
+		for (int i = 0; i < nodes.size(); i++) {
+			Object node = nodes.get(i);
+			if (predicate.test(node, i + 1)) {
+				result.add(node);
+			}
+		}
+		return result;
+	}
+
+	private static List<Object> distinct(List<Object> nodes) {
+		Map<Object, Boolean> seen = new IdentityHashMap<>(nodes.size());
+		List<Object> result = new ArrayList<>(nodes.size());
+		for (Object node : nodes) {
+			// values of attributes are not nodes of the graph
+			if (!(node instanceof EObject) || seen.put(node, Boolean.TRUE) == null) {
+				result.add(node);
+			}
+		}
+		return result;
+	}
+
+	private static String getAttributeValue(Object node, String name) {
+		if (!(node instanceof EObject)) {
+			throw UNSUPPORTED;
+		}
+		EObject object = (EObject) node;
+		EStructuralFeature feature = getFeature(object, name);
+		if (feature == null) {
+			return null;
+		}
+		if (feature.isMany()) {
+			throw UNSUPPORTED;
+		}
+		Object value = object.eGet(feature);
+		if (value == null) {
+			// like JXPath, compare unset attributes as empty strings
+			return ""; //$NON-NLS-1$
+		}
+		if (value instanceof String) {
+			return (String) value;
+		}
+		throw UNSUPPORTED;
+	}
+
+	private static final class Parser {
+
+		private final String source;
+
+		private int pos;
+
+		Parser(String source) {
+			this.source = source;
+		}
+
+		EObjectXPathEvaluator parse() {
+			List<Step> steps = new ArrayList<>();
+			skipWhitespace();
+			boolean descendant = false;
+			if (consume("//")) { //$NON-NLS-1$
+				descendant = true;
+			} else if (consume("/")) { //$NON-NLS-1$
+				skipWhitespace();
+				if (atEnd()) {
+					steps.add(new Step(Axis.SELF, null, false));
+					return new EObjectXPathEvaluator(steps);
+				}
+			}
+			while (true) {
+				skipWhitespace();
+				Step step = parseStep(descendant);
+				steps.add(step);
+				skipWhitespace();
+				if (atEnd()) {
+					break;
+				}
+				if (step.axis == Axis.ATTRIBUTE) {
+					throw UNSUPPORTED;
+				}
+				if (consume("//")) { //$NON-NLS-1$
+					descendant = true;
+				} else if (consume("/")) { //$NON-NLS-1$
+					descendant = false;
+				} else {
+					throw UNSUPPORTED;
+				}
+			}
+			return new EObjectXPathEvaluator(steps);
+		}
+
+		private Step parseStep(boolean descendant) {
+			Step step;
+			if (consume("..")) { //$NON-NLS-1$
+				throw UNSUPPORTED;
+			} else if (consume(".")) { //$NON-NLS-1$
+				step = new Step(Axis.SELF, null, descendant);
+			} else if (consume("*")) { //$NON-NLS-1$
+				step = new Step(Axis.ANY_CHILD, null, descendant);
+			} else if (consume("@")) { //$NON-NLS-1$
+				step = new Step(Axis.ATTRIBUTE, parseName(), descendant);
+			} else {
+				step = new Step(Axis.CHILD, parseName(), descendant);
+			}
+			// axes, node tests, functions and prefixed names
+			if (!atEnd() && (peek() == ':' || peek() == '(')) {
+				throw UNSUPPORTED;
+			}
+			skipWhitespace();
+			while (consume("[")) { //$NON-NLS-1$
+				step.predicates.add(parsePredicate());
+				skipWhitespace();
+			}
+			return step;
+		}
+
+		private Predicate parsePredicate() {
+			skipWhitespace();
+			Predicate predicate;
+			if (!atEnd() && Character.isDigit(peek())) {
+				int start = pos;
+				while (!atEnd() && Character.isDigit(peek())) {
+					pos++;
+				}
+				int position;
+				try {
+					position = Integer.parseInt(source.substring(start, pos));
+				} catch (NumberFormatException e) {
+					throw UNSUPPORTED;
+				}
+				predicate = (node, p) -> p == position;
+			} else {
+				predicate = parseOr();
+			}
+			skipWhitespace();
+			expect("]"); //$NON-NLS-1$
+			return predicate;
+		}
+
+		private Predicate parseOr() {
+			Predicate predicate = parseAnd();
+			while (consumeKeyword("or")) { //$NON-NLS-1$
+				Predicate left = predicate;
+				Predicate right = parseAnd();
+				predicate = (node, p) -> left.test(node, p) || right.test(node, p);
+			}
+			return predicate;
+		}
+
+		private Predicate parseAnd() {
+			Predicate predicate = parseComparison();
+			while (consumeKeyword("and")) { //$NON-NLS-1$
+				Predicate left = predicate;
+				Predicate right = parseComparison();
+				predicate = (node, p) -> left.test(node, p) && right.test(node, p);
+			}
+			return predicate;
+		}
+
+		private Predicate parseComparison() {
+			skipWhitespace();
+			if (consume("(")) { //$NON-NLS-1$
+				Predicate predicate = parseOr();
+				skipWhitespace();
+				expect(")"); //$NON-NLS-1$
+				return predicate;
+			}
+			String attribute = null;
+			if (consume("@")) { //$NON-NLS-1$
+				attribute = parseName();
+			} else if (consume(ECLASS_NAME_FUNCTION)) {
+				skipWhitespace();
+				expect("("); //$NON-NLS-1$
+				skipWhitespace();
+				expect("."); //$NON-NLS-1$
+				skipWhitespace();
+				expect(")"); //$NON-NLS-1$
+			} else {
+				throw UNSUPPORTED;
+			}
+			skipWhitespace();
+			boolean equals;
+			if (consume("=")) { //$NON-NLS-1$
+				equals = true;
+			} else if (consume("!=")) { //$NON-NLS-1$
+				equals = false;
+			} else {
+				throw UNSUPPORTED;
+			}
+			skipWhitespace();
+			String literal = parseLiteral();
+			if (attribute == null) {
+				return (node, p) -> {
+					if (!(node instanceof EObject)) {
+						throw UNSUPPORTED;
+					}
+					return literal.equals(((EObject) node).eClass().getName()) == equals;
+				};
+			}
+			String name = attribute;
+			return (node, p) -> {
+				String value = getAttributeValue(node, name);
+				// comparisons with an empty node set are false
+				return value != null && literal.equals(value) == equals;
+			};
+		}
+
+		private String parseLiteral() {
+			if (atEnd() || peek() != '\'' && peek() != '"') {
+				throw UNSUPPORTED;
+			}
+			char quote = source.charAt(pos++);
+			int end = source.indexOf(quote, pos);
+			if (end < 0) {
+				throw UNSUPPORTED;
+			}
+			String literal = source.substring(pos, end);
+			pos = end + 1;
+			return literal;
+		}
+
+		private String parseName() {
+			int start = pos;
+			if (atEnd() || !Character.isJavaIdentifierStart(peek())) {
+				throw UNSUPPORTED;
+			}
+			while (!atEnd() && Character.isJavaIdentifierPart(peek())) {
+				pos++;
+			}
+			return source.substring(start, pos);
+		}
+
+		private boolean consumeKeyword(String keyword) {
+			skipWhitespace();
+			int end = pos + keyword.length();
+			if (source.startsWith(keyword, pos)
+					&& (end == source.length() || !Character.isJavaIdentifierPart(source.charAt(end)))) {
+				pos = end;
+				return true;
+			}
+			return false;
+		}
+
+		private boolean consume(String token) {
+			if (source.startsWith(token, pos)) {
+				pos += token.length();
+				return true;
+			}
+			return false;
+		}
+
+		private void expect(String token) {
+			if (!consume(token)) {
+				throw UNSUPPORTED;
+			}
+		}
+
+		private char peek() {
+			return source.charAt(pos);
+		}
+
+		private boolean atEnd() {
+			return pos >= source.length();
+		}
+
+		private void skipWhitespace() {
+			while (!atEnd() && Character.isWhitespace(peek())) {
+				pos++;
+			}
+		}
+	}
+}
@@ -25,6 +25,26 @@ import org.eclipse.e4.emf.xpath.XPathContextFactory;
  */
 public class JXPathContextFactoryImpl<Type> extends XPathContextFactory<Type> {
 
+	private final boolean containment;
+
+	/**
+	 * Create a factory for contexts with the JXPath semantics
+	 */
+	public JXPathContextFactoryImpl() {
+		this(false);
+	}
+
+	/**
+	 * Create a factory
+	 *
+	 * @param containment
+	 *            whether <code>*</code> and <code>//</code> only follow
+	 *            containment references in the contexts created
+	 */
+	public JXPathContextFactoryImpl(boolean containment) {
+		this.containment = containment;
+	}
+
 	@Override
 	public XPathContext newContext(XPathContext parentContext, Object contextBean) {
 		return new JXPathContextImpl(parentContext, contextBean);
@@ -32,7 +52,7 @@ public class JXPathContextFactoryImpl<Type> extends XPathContextFactory<Type> {
 
 	@Override
 	public XPathContext newContext(Type contextBean) {
-		return new JXPathContextImpl(contextBean);
+		return new JXPathContextImpl(contextBean, containment);
 	}
 
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2015 BestSolution.at and others.
+ * Copyright (c) 2010, 2022 BestSolution.at and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,18 +19,25 @@ import java.util.List;
 
 import org.apache.commons.jxpath.ClassFunctions;
 import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathNotFoundException;
+import org.apache.commons.jxpath.JXPathTypeConversionException;
 import org.apache.commons.jxpath.NodeSet;
 import org.apache.commons.jxpath.Pointer;
+import org.apache.commons.jxpath.util.TypeUtils;
 import org.eclipse.e4.emf.xpath.XPathContext;
+import org.eclipse.e4.emf.xpath.XPathExpression;
 import org.eclipse.emf.ecore.EObject;
 
 /**
- * Context which uses JXPath to evaluate XPath expressions
+ * Context which uses JXPath to evaluate XPath expressions. Expressions
+ * supported by the {@link EObjectXPathEvaluator} are evaluated by it instead.
  */
 public final class JXPathContextImpl implements XPathContext {
 
 	private JXPathContext context;
 
+	private final boolean containment;
+
 	public static class EMFFunctions {
 		public static String eClassName(Object o) {
 			if( o instanceof Collection<?> ) {
@@ -61,8 +68,22 @@ public final class JXPathContextImpl implements XPathContext {
 	 *            the context bean (=root of the xpath expression)
 	 */
 	JXPathContextImpl(Object contextBean) {
+		this(contextBean, false);
+	}
+
+	/**
+	 * Create a new context
+	 *
+	 * @param contextBean
+	 *            the context bean (=root of the xpath expression)
+	 * @param containment
+	 *            whether <code>*</code> and <code>//</code> only follow
+	 *            containment references
+	 */
+	JXPathContextImpl(Object contextBean, boolean containment) {
 		this.context = JXPathContext.newContext(contextBean);
 		this.context.setFunctions(new ClassFunctions(EMFFunctions.class, "ecore"));
+		this.containment = containment;
 	}
 
 	/**
@@ -74,23 +95,107 @@ public final class JXPathContextImpl implements XPathContext {
 	 *            the context bean (=root of the xpath expression)
 	 */
 	JXPathContextImpl(XPathContext parentContext, Object contextBean) {
-		JXPathContext jContext = ((JXPathContextImpl) parentContext).getJXPathContext();
-		this.context = JXPathContext.newContext(jContext, contextBean);
+		JXPathContextImpl parent = (JXPathContextImpl) parentContext;
+		this.context = JXPathContext.newContext(parent.getJXPathContext(), contextBean);
+		this.containment = parent.containment;
 	}
 
 	@Override
 	public Object getValue(String xpath) {
-		return context.getValue(xpath);
+		return getValue(CompiledXPath.get(xpath));
 	}
 
 	@Override
 	public Object getValue(String xpath, Class<?> requiredType) {
-		return context.getValue(xpath, requiredType);
+		return getValue(CompiledXPath.get(xpath), requiredType);
 	}
 
 	@Override
 	public <Type> Iterator<Type> iterate(String xpath) {
-		return context.iterate(xpath);
+		return iterate(CompiledXPath.get(xpath));
+	}
+
+	@Override
+	public XPathExpression compile(String xpath) {
+		return CompiledXPath.get(xpath);
+	}
+
+	@Override
+	public Object getValue(XPathExpression xpath) {
+		CompiledXPath compiled = toCompiled(xpath);
+		List<Object> values = evaluate(compiled, true);
+		if (values == null) {
+			return compiled.getJXPathExpression().getValue(context);
+		}
+		return getFirst(compiled, values);
+	}
+
+	@Override
+	public Object getValue(XPathExpression xpath, Class<?> requiredType) {
+		CompiledXPath compiled = toCompiled(xpath);
+		List<Object> values = evaluate(compiled, true);
+		if (values == null) {
+			return compiled.getJXPathExpression().getValue(context, requiredType);
+		}
+		Object value = getFirst(compiled, values);
+		if (value == null || requiredType == null || requiredType.isInstance(value)) {
+			return value;
+		}
+		// convert like JXPath does
+		if (!TypeUtils.canConvert(value, requiredType)) {
+			throw new JXPathTypeConversionException(
+					"Invalid expression type. '" + compiled.getExpression() + "' returns " //$NON-NLS-1$ //$NON-NLS-2$
+							+ value.getClass().getName() + ". It cannot be converted to " //$NON-NLS-1$
+							+ requiredType.getName());
+		}
+		return TypeUtils.convert(value, requiredType);
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public <Type> Iterator<Type> iterate(XPathExpression xpath) {
+		CompiledXPath compiled = toCompiled(xpath);
+		List<Object> values = evaluate(compiled, false);
+		if (values == null) {
+			return compiled.getJXPathExpression().iterate(context);
+		}
+		return (Iterator<Type>) values.iterator();
+	}
+
+	/**
+	 * Evaluates the expression with the {@link EObjectXPathEvaluator}.
+	 *
+	 * @return the results, or <code>null</code> if the expression has to be
+	 *         evaluated with JXPath
+	 */
+	private List<Object> evaluate(CompiledXPath compiled, boolean single) {
+		EObjectXPathEvaluator evaluator = compiled.getEvaluator();
+		if (evaluator != null) {
+			try {
+				return evaluator.evaluate(context.getContextBean(), containment, single);
+			} catch (EObjectXPathEvaluator.UnsupportedException e) {
+				// evaluate with JXPath
+			}
+		}
+		return null;
+	}
+
+	private Object getFirst(CompiledXPath compiled, List<Object> values) {
+		if (!values.isEmpty()) {
+			return values.get(0);
+		}
+		// like JXPath for a path without any match
+		if (!context.isLenient()) {
+			throw new JXPathNotFoundException("No value for xpath: " + compiled.getExpression()); //$NON-NLS-1$
+		}
+		return null;
+	}
+
+	private static CompiledXPath toCompiled(XPathExpression xpath) {
+		if (xpath instanceof CompiledXPath) {
+			return (CompiledXPath) xpath;
+		}
+		return CompiledXPath.get(xpath.getExpression());
 	}
 
 	private JXPathContext getJXPathContext() {
@@ -38,4 +38,20 @@ public class EcoreXPathContextFactory{
 		return new JXPathContextFactoryImpl<>();
 	}
 
+	/**
+	 * Create a new factory for contexts in which <code>*</code> selects the
+	 * objects contained in an object, and <code>//</code> descends along the
+	 * containment references only. Unlike in the contexts created by
+	 * {@link #newInstance()}, the descendants of an object are found at most
+	 * once and without following other references, which makes queries like
+	 * <code>//*[@elementId='id']</code> considerably faster. Expressions using
+	 * other axes or functions are evaluated like in those contexts.
+	 *
+	 * @return the factory
+	 * @since 0.4
+	 */
+	public static XPathContextFactory<EObject> newContainmentInstance() {
+		return new JXPathContextFactoryImpl<>(true);
+	}
+
 }
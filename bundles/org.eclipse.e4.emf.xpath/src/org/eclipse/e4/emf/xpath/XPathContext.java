@@ -57,4 +57,64 @@ public interface XPathContext {
 	 * @return Iterator&lt;Object&gt;
 	 */
 	<O> Iterator<O> iterate(String xpath);
+
+	/**
+	 * Compiles the xpath for repeated evaluation. Contexts cache the
+	 * expressions they evaluate, compiling is useful to avoid the cache lookup
+	 * for expressions evaluated very often.
+	 *
+	 * @param xpath
+	 *            to compile
+	 * @return the compiled expression
+	 * @since 0.4
+	 */
+	default XPathExpression compile(String xpath) {
+		return () -> xpath;
+	}
+
+	/**
+	 * Evaluates the compiled xpath and returns the resulting object.
+	 *
+	 * @param xpath
+	 *            to evaluate
+	 * @return Object found
+	 * @see #getValue(String)
+	 * @since 0.4
+	 */
+	default Object getValue(XPathExpression xpath) {
+		return getValue(xpath.getExpression());
+	}
+
+	/**
+	 * Evaluates the compiled xpath, converts the result to the specified class
+	 * and returns the resulting object.
+	 *
+	 * @param xpath
+	 *            to evaluate
+	 * @param requiredType
+	 *            required type
+	 * @return Object found
+	 * @see #getValue(String, Class)
+	 * @since 0.4
+	 */
+	default Object getValue(XPathExpression xpath, Class<?> requiredType) {
+		return getValue(xpath.getExpression(), requiredType);
+	}
+
+	/**
+	 * Traverses the compiled xpath and returns an Iterator of all results found
+	 * for the path.
+	 *
+	 * @param <O>
+	 *            the expected object type
+	 *
+	 * @param xpath
+	 *            to iterate
+	 * @return Iterator&lt;Object&gt;
+	 * @see #iterate(String)
+	 * @since 0.4
+	 */
+	default <O> Iterator<O> iterate(XPathExpression xpath) {
+		return iterate(xpath.getExpression());
+	}
 }
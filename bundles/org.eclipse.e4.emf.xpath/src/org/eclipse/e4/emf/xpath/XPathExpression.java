@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.emf.xpath;
+
+/**
+ * An XPath expression compiled by {@link XPathContext#compile(String)}, which
+ * can be evaluated repeatedly without being parsed again. Compiled expressions
+ * do not depend on the context that compiled them and may be evaluated in any
+ * context and on any thread.
+ *
+ * @since 0.4
+ */
+public interface XPathExpression {
+
+	/**
+	 * @return the source of the expression
+	 */
+	String getExpression();
+}
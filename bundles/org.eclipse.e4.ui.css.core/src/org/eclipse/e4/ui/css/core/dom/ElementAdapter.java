@@ -14,9 +14,13 @@
 package org.eclipse.e4.ui.css.core.dom;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
 import org.eclipse.e4.ui.css.core.impl.dom.CSSExtendedPropertiesImpl;
 import org.w3c.dom.Attr;
@@ -47,6 +51,10 @@ public abstract class ElementAdapter implements Element, CSSStylableElement {
 
 	private List<String> staticPseudoInstances;
 
+	private String cssClass;
+
+	private Set<String> cssClassNames = Collections.emptySet();
+
 	public ElementAdapter(Object nativeWidget, CSSEngine engine) {
 		this.nativeWidget = nativeWidget;
 		this.engine = engine;
@@ -359,6 +367,51 @@ public abstract class ElementAdapter implements Element, CSSStylableElement {
 		return null;
 	}
 
+	/**
+	 * Returns the class names of {@link #getCSSClass()}. They are only split
+	 * again when the class attribute has changed.
+	 *
+	 * @return the class names, not to be modified
+	 */
+	public Set<String> getCSSClassNames() {
+		String currentClass = getCSSClass();
+		if (!Objects.equals(currentClass, cssClass)) {
+			cssClassNames = splitClassNames(currentClass);
+			cssClass = currentClass;
+		}
+		return cssClassNames;
+	}
+
+	/**
+	 * Splits a class attribute at spaces.
+	 *
+	 * @param classes the class attribute, may be <code>null</code>
+	 * @return the class names, not to be modified
+	 */
+	public static Set<String> splitClassNames(String classes) {
+		if (classes == null || classes.isEmpty()) {
+			return Collections.emptySet();
+		}
+		Set<String> classNames = null;
+		int length = classes.length();
+		int start = 0;
+		for (int i = 0; i <= length; i++) {
+			if (i == length || Character.isSpaceChar(classes.charAt(i))) {
+				if (i > start) {
+					if (start == 0 && i == length) {
+						return Collections.singleton(classes);
+					}
+					if (classNames == null) {
+						classNames = new HashSet<>(4);
+					}
+					classNames.add(classes.substring(start, i));
+				}
+				start = i + 1;
+			}
+		}
+		return classNames == null ? Collections.emptySet() : classNames;
+	}
+
 	@Override
 	public CSSStyleDeclaration getDefaultStyleDeclaration(String pseudoE) {
 		return defaultStyleDeclarationMap.get(pseudoE);
@@ -21,6 +21,7 @@ import java.util.ArrayList;
 import java.util.List;
 import org.eclipse.e4.ui.css.core.dom.ExtendedCSSRule;
 import org.eclipse.e4.ui.css.core.dom.ExtendedDocumentCSS;
+import org.eclipse.e4.ui.css.core.impl.sac.AncestorFilter;
 import org.eclipse.e4.ui.css.core.impl.sac.ExtendedSelector;
 import org.w3c.css.sac.Selector;
 import org.w3c.css.sac.SelectorList;
@@ -115,12 +116,14 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 		Node parent = elt.getParentNode();
 
 		Node[] hierarchy = null;
+		AncestorFilter ancestorFilter = null;
 		if (parent != null) {
 			List<Node> hierarchyList = new ArrayList<>();
 			for (Node n = parent; n != null; n = n.getParentNode()) {
 				hierarchyList.add(n);
 			}
 			hierarchy = hierarchyList.toArray(new Node[hierarchyList.size()]);
+			ancestorFilter = new AncestorFilter(hierarchy);
 		}
 
 		List<StyleWrapper> styleDeclarations = null;
@@ -139,6 +142,9 @@ public class ViewCSSImpl implements ViewCSS, ExtendedDocumentCSS.StyleSheetChang
 				Selector selector = selectorList.item(j);
 				if (selector instanceof ExtendedSelector) {
 					ExtendedSelector extendedSelector = (ExtendedSelector) selector;
+					if (ancestorFilter != null && !ancestorFilter.mayMatch(selector)) {
+						continue;
+					}
 					if (extendedSelector.match(elt, hierarchy, 0, pseudoElt)) {
 						CSSStyleDeclaration style = styleRule.getStyle();
 						int specificity = extendedSelector.getSpecificity();
@@ -158,6 +158,11 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 
 	private ResourceRegistryKeyFactory keyFactory;
 
+	/**
+	 * Cache of parsed style sheets, <code>null</code> to always parse.
+	 */
+	private StyleSheetCache styleSheetCache;
+
 	public AbstractCSSEngine() {
 		this(new DocumentCSSImpl());
 	}
@@ -189,7 +194,12 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		// Check that CharacterStream or ByteStream is not null
 		checkInputSource(source);
 		CSSParser parser = makeCSSParser();
-		CSSStyleSheet styleSheet = parser.parseStyleSheet(source);
+		CSSStyleSheet styleSheet;
+		if (styleSheetCache != null) {
+			styleSheet = styleSheetCache.parseStyleSheet(parser, source);
+		} else {
+			styleSheet = parser.parseStyleSheet(source);
+		}
 
 		CSSRuleList rules = styleSheet.getCssRules();
 		int length = rules.getLength();
@@ -1047,6 +1057,21 @@ public abstract class AbstractCSSEngine implements CSSEngine {
 		this.resourcesRegistry = resourcesRegistry;
 	}
 
+	public StyleSheetCache getStyleSheetCache() {
+		return styleSheetCache;
+	}
+
+	/**
+	 * Set the cache used to build style sheets that were already parsed,
+	 * including imported ones.
+	 *
+	 * @param styleSheetCache
+	 *            the cache, or <code>null</code> to always parse
+	 */
+	public void setStyleSheetCache(StyleSheetCache styleSheetCache) {
+		this.styleSheetCache = styleSheetCache;
+	}
+
 	public void registerCSSPropertyHandlerProvider(ICSSPropertyHandlerProvider handlerProvider) {
 		propertyHandlerProviders.add(handlerProvider);
 	}
@@ -0,0 +1,195 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.engine;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import org.eclipse.e4.ui.css.core.dom.parsers.CSSParser;
+import org.eclipse.e4.ui.css.core.impl.dom.parsers.AbstractCSSParser;
+import org.eclipse.e4.ui.css.core.impl.sac.DocumentHandlerReplay;
+import org.eclipse.e4.ui.css.core.impl.sac.RecordingDocumentHandler;
+import org.eclipse.e4.ui.css.core.sac.ExtendedDocumentHandler;
+import org.w3c.css.sac.ConditionFactory;
+import org.w3c.css.sac.InputSource;
+import org.w3c.css.sac.Parser;
+import org.w3c.css.sac.SelectorFactory;
+import org.w3c.dom.css.CSSStyleSheet;
+
+/**
+ * Keeps the parsed form of style sheets in a directory, so that a style sheet
+ * that did not change since it was last parsed is built from its recorded
+ * parser events instead of being parsed again. Entries are keyed by the URI of
+ * the style sheet and checked against a hash of its content; any entry that
+ * cannot be used falls back to parsing.
+ *
+ * @see AbstractCSSEngine#setStyleSheetCache(StyleSheetCache)
+ */
+public class StyleSheetCache {
+
+	private static final int VERSION = 1;
+
+	private static final String DIGEST_ALGORITHM = "SHA-256"; //$NON-NLS-1$
+
+	private static final String SUFFIX = ".bin"; //$NON-NLS-1$
+
+	private final File directory;
+
+	/**
+	 * Creates a cache keeping its entries in the given directory.
+	 *
+	 * @param directory
+	 *            the directory, created when the first entry is written
+	 */
+	public StyleSheetCache(File directory) {
+		this.directory = directory;
+	}
+
+	/**
+	 * Parses the given source with the given parser, or builds the style sheet
+	 * from the cache if the source has a URI and its content did not change.
+	 *
+	 * @param parser
+	 *            the parser
+	 * @param source
+	 *            the source of the style sheet
+	 * @return the style sheet
+	 * @throws IOException
+	 *             if the source cannot be read
+	 */
+	public CSSStyleSheet parseStyleSheet(CSSParser parser, InputSource source) throws IOException {
+		String uri = source.getURI();
+		InputStream stream = source.getByteStream();
+		if (uri == null || stream == null || source.getCharacterStream() != null
+				|| !(parser instanceof AbstractCSSParser)) {
+			return parser.parseStyleSheet(source);
+		}
+		AbstractCSSParser cssParser = (AbstractCSSParser) parser;
+		SelectorFactory selectorFactory = cssParser.getSelectorFactory();
+		ConditionFactory conditionFactory = cssParser.getConditionFactory();
+		if (selectorFactory == null || conditionFactory == null) {
+			return parser.parseStyleSheet(source);
+		}
+
+		byte[] content = stream.readAllBytes();
+		byte[] hash = digest(content);
+		InputSource contentSource = new InputSource(uri);
+		contentSource.setEncoding(source.getEncoding());
+		contentSource.setMedia(source.getMedia());
+		contentSource.setTitle(source.getTitle());
+		contentSource.setByteStream(new ByteArrayInputStream(content));
+		if (hash == null) {
+			return parser.parseStyleSheet(contentSource);
+		}
+
+		File file = getFile(uri);
+		CSSStyleSheet styleSheet = load(file, uri, hash, cssParser, contentSource);
+		if (styleSheet != null) {
+			return styleSheet;
+		}
+
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(content.length);
+		DataOutputStream out = new DataOutputStream(bytes);
+		out.writeInt(VERSION);
+		out.writeUTF(uri);
+		out.writeShort(hash.length);
+		out.write(hash);
+		ExtendedDocumentHandler handler = cssParser.getDocumentHandlerFactory().makeDocumentHandler();
+		RecordingDocumentHandler recorder = new RecordingDocumentHandler(handler, out);
+		Parser sacParser = cssParser.getParser();
+		sacParser.setDocumentHandler(recorder);
+		sacParser.parseStyleSheet(contentSource);
+		if (recorder.isComplete()) {
+			store(file, bytes.toByteArray());
+		}
+		return (CSSStyleSheet) handler.getNodeRoot();
+	}
+
+	private CSSStyleSheet load(File file, String uri, byte[] hash, AbstractCSSParser parser, InputSource source) {
+		if (!file.isFile()) {
+			return null;
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(Files.readAllBytes(file.toPath())))) {
+			if (in.readInt() != VERSION || !uri.equals(in.readUTF())) {
+				return null;
+			}
+			byte[] storedHash = new byte[in.readUnsignedShort()];
+			in.readFully(storedHash);
+			if (!Arrays.equals(hash, storedHash)) {
+				return null;
+			}
+			ExtendedDocumentHandler handler = parser.getDocumentHandlerFactory().makeDocumentHandler();
+			DocumentHandlerReplay.replay(in, handler, source, parser.getSelectorFactory(),
+					parser.getConditionFactory());
+			return (CSSStyleSheet) handler.getNodeRoot();
+		} catch (IOException | RuntimeException e) {
+			// a damaged or outdated entry, parse again
+			return null;
+		}
+	}
+
+	private void store(File file, byte[] bytes) {
+		try {
+			Files.createDirectories(directory.toPath());
+			Path temp = Files.createTempFile(directory.toPath(), file.getName(), null);
+			try {
+				Files.write(temp, bytes);
+				try {
+					Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+				} catch (AtomicMoveNotSupportedException e) {
+					Files.move(temp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+				}
+			} finally {
+				Files.deleteIfExists(temp);
+			}
+		} catch (IOException e) {
+			// the cache is optional, the style sheet is parsed again next time
+		}
+	}
+
+	private File getFile(String uri) {
+		byte[] hash = digest(uri.getBytes(StandardCharsets.UTF_8));
+		StringBuilder name = new StringBuilder();
+		if (hash == null) {
+			name.append(Integer.toHexString(uri.hashCode()));
+		} else {
+			for (int i = 0; i < 16; i++) {
+				name.append(Character.forDigit((hash[i] >> 4) & 0xF, 16));
+				name.append(Character.forDigit(hash[i] & 0xF, 16));
+			}
+		}
+		return new File(directory, name.append(SUFFIX).toString());
+	}
+
+	private static byte[] digest(byte[] bytes) {
+		try {
+			return MessageDigest.getInstance(DIGEST_ALGORITHM).digest(bytes);
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+	}
+}
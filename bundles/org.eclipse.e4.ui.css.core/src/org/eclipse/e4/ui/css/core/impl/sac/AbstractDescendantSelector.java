@@ -42,6 +42,11 @@ public abstract class AbstractDescendantSelector
 	 */
 	protected SimpleSelector simpleSelector;
 
+	/**
+	 * The hashes of the tokens the ancestors of a matched element must have.
+	 */
+	private int[] ancestorTokens;
+
 	/**
 	 * Creates a new DescendantSelector object.
 	 */
@@ -90,4 +95,15 @@ public abstract class AbstractDescendantSelector
 	public SimpleSelector getSimpleSelector() {
 		return simpleSelector;
 	}
+
+	/**
+	 * Returns the hashes of the tokens the ancestors of a matched element must
+	 * have, for the {@link AncestorFilter}.
+	 */
+	int[] getAncestorTokens() {
+		if (ancestorTokens == null) {
+			ancestorTokens = AncestorFilter.computeAncestorTokens(this);
+		}
+		return ancestorTokens;
+	}
 }
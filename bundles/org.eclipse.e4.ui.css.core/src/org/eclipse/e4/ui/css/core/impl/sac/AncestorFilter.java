@@ -0,0 +1,183 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.sac;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ElementAdapter;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.Selector;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+/**
+ * A Bloom filter of the element names, ids and class names of the ancestors of
+ * an element. It rejects descendant and child selectors whose ancestor part
+ * requires a name, id or class no ancestor has, without matching the ancestors
+ * one by one. Selectors it does not reject still have to be matched.
+ */
+public final class AncestorFilter {
+
+	private static final int ELEMENT_NAME = 1;
+
+	private static final int ID = 2;
+
+	private static final int CLASS_NAME = 3;
+
+	private static final int[] NO_TOKENS = new int[0];
+
+	private final long[] bits = new long[16];
+
+	/**
+	 * Creates the filter for the given ancestors.
+	 *
+	 * @param ancestors
+	 *            the ancestors, as passed to
+	 *            {@link ExtendedSelector#match(Element, Node[], int, String)}
+	 */
+	public AncestorFilter(Node[] ancestors) {
+		for (Node node : ancestors) {
+			if (node == null || node.getNodeType() != Node.ELEMENT_NODE) {
+				continue;
+			}
+			Element element = (Element) node;
+			add(hash(ELEMENT_NAME, element.getPrefix() == null ? element.getNodeName() : element.getLocalName()));
+			String id;
+			if (element instanceof CSSStylableElement) {
+				id = ((CSSStylableElement) element).getCSSId();
+			} else {
+				id = element.getAttribute("id");
+			}
+			if (id != null) {
+				add(hash(ID, id));
+			}
+			for (String className : getClassNames(element)) {
+				add(hash(CLASS_NAME, className));
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the given selector may match an element with the
+	 * ancestors of this filter.
+	 *
+	 * @param selector
+	 *            the selector
+	 * @return <code>false</code> if the selector cannot match,
+	 *         <code>true</code> if it has to be matched
+	 */
+	public boolean mayMatch(Selector selector) {
+		if (!(selector instanceof AbstractDescendantSelector)) {
+			return true;
+		}
+		for (int hash : ((AbstractDescendantSelector) selector).getAncestorTokens()) {
+			if (!contains(hash)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void add(int hash) {
+		int first = hash & 1023;
+		int second = (hash >>> 16) & 1023;
+		bits[first >>> 6] |= 1L << first;
+		bits[second >>> 6] |= 1L << second;
+	}
+
+	private boolean contains(int hash) {
+		int first = hash & 1023;
+		int second = (hash >>> 16) & 1023;
+		return (bits[first >>> 6] & (1L << first)) != 0 && (bits[second >>> 6] & (1L << second)) != 0;
+	}
+
+	private static int hash(int kind, String token) {
+		return (token.hashCode() * 31 + kind) * 0x9E3779B9;
+	}
+
+	/**
+	 * Returns the class names of the given element.
+	 */
+	static Set<String> getClassNames(Element element) {
+		if (element instanceof ElementAdapter) {
+			return ((ElementAdapter) element).getCSSClassNames();
+		}
+		String classes;
+		if (element instanceof CSSStylableElement) {
+			classes = ((CSSStylableElement) element).getCSSClass();
+		} else {
+			classes = element.getAttribute("class");
+		}
+		return ElementAdapter.splitClassNames(classes);
+	}
+
+	/**
+	 * Returns the hashes of the names, ids and class names some ancestor of an
+	 * element matched by the given selector must have.
+	 */
+	static int[] computeAncestorTokens(AbstractDescendantSelector selector) {
+		Set<Integer> hashes = new HashSet<>();
+		addAncestorTokens(selector, hashes);
+		if (hashes.isEmpty()) {
+			return NO_TOKENS;
+		}
+		int[] tokens = new int[hashes.size()];
+		int i = 0;
+		for (Integer hash : hashes) {
+			tokens[i++] = hash.intValue();
+		}
+		return tokens;
+	}
+
+	private static void addAncestorTokens(Selector selector, Collection<Integer> hashes) {
+		if (selector instanceof CSSDescendantSelectorImpl || selector instanceof CSSChildSelectorImpl) {
+			Selector ancestor = ((AbstractDescendantSelector) selector).getAncestorSelector();
+			addSubjectTokens(ancestor, hashes);
+			addAncestorTokens(ancestor, hashes);
+		}
+	}
+
+	private static void addSubjectTokens(Selector selector, Collection<Integer> hashes) {
+		if (selector instanceof CSSConditionalSelectorImpl) {
+			CSSConditionalSelectorImpl conditional = (CSSConditionalSelectorImpl) selector;
+			addSubjectTokens(conditional.getSimpleSelector(), hashes);
+			addConditionTokens(conditional.getCondition(), hashes);
+		} else if (selector instanceof CSSElementSelectorImpl) {
+			String name = ((CSSElementSelectorImpl) selector).getLocalName();
+			if (name != null) {
+				hashes.add(Integer.valueOf(hash(ELEMENT_NAME, name)));
+			}
+		} else if (selector instanceof CSSDescendantSelectorImpl || selector instanceof CSSChildSelectorImpl) {
+			addSubjectTokens(((AbstractDescendantSelector) selector).getSimpleSelector(), hashes);
+		}
+	}
+
+	private static void addConditionTokens(Condition condition, Collection<Integer> hashes) {
+		if (condition instanceof CSSIdConditionImpl) {
+			hashes.add(Integer.valueOf(hash(ID, ((CSSIdConditionImpl) condition).getValue())));
+		} else if (condition instanceof CSSClassConditionImpl) {
+			String value = ((CSSClassConditionImpl) condition).getValue();
+			if (ElementAdapter.splitClassNames(value).equals(Collections.singleton(value))) {
+				hashes.add(Integer.valueOf(hash(CLASS_NAME, value)));
+			}
+		} else if (condition instanceof CSSAndConditionImpl) {
+			CSSAndConditionImpl and = (CSSAndConditionImpl) condition;
+			addConditionTokens(and.getFirstCondition(), hashes);
+			addConditionTokens(and.getSecondCondition(), hashes);
+		}
+	}
+}
@@ -20,7 +20,9 @@
 
 package org.eclipse.e4.ui.css.core.impl.sac;
 
+import java.util.Collections;
 import org.eclipse.e4.ui.css.core.dom.CSSStylableElement;
+import org.eclipse.e4.ui.css.core.dom.ElementAdapter;
 import org.w3c.dom.Element;
 
 /**
@@ -29,16 +31,26 @@ import org.w3c.dom.Element;
  */
 public class CSSClassConditionImpl extends CSSAttributeConditionImpl {
 
+	/**
+	 * Whether the value is a single class name, which can be looked up in the
+	 * class names of an {@link ElementAdapter}.
+	 */
+	private final boolean isClassName;
+
 	/**
 	 * Creates a new CSSAttributeCondition object.
 	 */
 	public CSSClassConditionImpl(String localName, String namespaceURI,
 			String value) {
 		super(localName, namespaceURI, true, value);
+		isClassName = ElementAdapter.splitClassNames(value).equals(Collections.singleton(value));
 	}
 
 	@Override
 	public boolean match(Element e, String pseudoE) {
+		if (e instanceof ElementAdapter && isClassName) {
+			return ((ElementAdapter) e).getCSSClassNames().contains(getValue());
+		}
 		String attr = null;
 		if ((e instanceof CSSStylableElement))
 			attr = ((CSSStylableElement) e).getCSSClass();
@@ -0,0 +1,369 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.sac;
+
+import java.io.DataInput;
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import org.w3c.css.sac.CSSException;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionFactory;
+import org.w3c.css.sac.DocumentHandler;
+import org.w3c.css.sac.InputSource;
+import org.w3c.css.sac.LexicalUnit;
+import org.w3c.css.sac.SACMediaList;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorFactory;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SimpleSelector;
+
+/**
+ * Passes the events written by a {@link RecordingDocumentHandler} to a
+ * document handler again.
+ */
+public final class DocumentHandlerReplay {
+
+	private final DataInput in;
+
+	private final SelectorFactory selectorFactory;
+
+	private final ConditionFactory conditionFactory;
+
+	private DocumentHandlerReplay(DataInput in, SelectorFactory selectorFactory, ConditionFactory conditionFactory) {
+		this.in = in;
+		this.selectorFactory = selectorFactory;
+		this.conditionFactory = conditionFactory;
+	}
+
+	/**
+	 * Reads recorded events and passes them to the given handler.
+	 *
+	 * @param in
+	 *            the stream the events were written to
+	 * @param handler
+	 *            the handler building the style sheet
+	 * @param source
+	 *            the source passed to the start and end of the document
+	 * @param selectorFactory
+	 *            the factory creating the selectors
+	 * @param conditionFactory
+	 *            the factory creating the conditions
+	 * @throws IOException
+	 *             if the events cannot be read
+	 * @throws CSSException
+	 *             if the events are not valid
+	 */
+	public static void replay(DataInput in, DocumentHandler handler, InputSource source,
+			SelectorFactory selectorFactory, ConditionFactory conditionFactory) throws IOException {
+		new DocumentHandlerReplay(in, selectorFactory, conditionFactory).replay(handler, source);
+	}
+
+	private void replay(DocumentHandler handler, InputSource source) throws IOException {
+		Deque<SelectorList> selectors = new ArrayDeque<>();
+		handler.startDocument(source);
+		while (true) {
+			byte event = in.readByte();
+			switch (event) {
+			case RecordingDocumentHandler.END_DOCUMENT:
+				handler.endDocument(source);
+				return;
+			case RecordingDocumentHandler.IMPORT_STYLE:
+				handler.importStyle(readString(), readMedia(), readString());
+				break;
+			case RecordingDocumentHandler.START_MEDIA:
+				handler.startMedia(readMedia());
+				break;
+			case RecordingDocumentHandler.END_MEDIA:
+				handler.endMedia(readMedia());
+				break;
+			case RecordingDocumentHandler.START_PAGE:
+				handler.startPage(readString(), readString());
+				break;
+			case RecordingDocumentHandler.END_PAGE:
+				handler.endPage(readString(), readString());
+				break;
+			case RecordingDocumentHandler.START_FONT_FACE:
+				handler.startFontFace();
+				break;
+			case RecordingDocumentHandler.END_FONT_FACE:
+				handler.endFontFace();
+				break;
+			case RecordingDocumentHandler.START_SELECTOR:
+				SelectorList list = readSelectors();
+				selectors.push(list);
+				handler.startSelector(list);
+				break;
+			case RecordingDocumentHandler.END_SELECTOR:
+				handler.endSelector(selectors.pop());
+				break;
+			case RecordingDocumentHandler.PROPERTY:
+				handler.property(readString(), readLexicalUnits(), in.readBoolean());
+				break;
+			case RecordingDocumentHandler.IGNORABLE_AT_RULE:
+				handler.ignorableAtRule(readString());
+				break;
+			case RecordingDocumentHandler.NAMESPACE_DECLARATION:
+				handler.namespaceDeclaration(readString(), readString());
+				break;
+			default:
+				throw new CSSException("Unknown event: " + event); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private String readString() throws IOException {
+		return in.readBoolean() ? in.readUTF() : null;
+	}
+
+	private SACMediaList readMedia() throws IOException {
+		int length = in.readInt();
+		List<String> media = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			media.add(in.readUTF());
+		}
+		return new SACMediaList() {
+			@Override
+			public int getLength() {
+				return media.size();
+			}
+
+			@Override
+			public String item(int index) {
+				return index < media.size() ? media.get(index) : null;
+			}
+		};
+	}
+
+	private SelectorList readSelectors() throws IOException {
+		int length = in.readInt();
+		List<Selector> selectors = new ArrayList<>(length);
+		for (int i = 0; i < length; i++) {
+			selectors.add(readSelector());
+		}
+		return new SelectorList() {
+			@Override
+			public int getLength() {
+				return selectors.size();
+			}
+
+			@Override
+			public Selector item(int index) {
+				return index < selectors.size() ? selectors.get(index) : null;
+			}
+		};
+	}
+
+	private Selector readSelector() throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+		case RecordingDocumentHandler.CONDITIONAL_SELECTOR:
+			SimpleSelector simple = (SimpleSelector) readSelector();
+			return selectorFactory.createConditionalSelector(simple, readCondition());
+		case RecordingDocumentHandler.ELEMENT_SELECTOR:
+			return selectorFactory.createElementSelector(readString(), readString());
+		case RecordingDocumentHandler.PSEUDO_ELEMENT_SELECTOR:
+			return selectorFactory.createPseudoElementSelector(readString(), readString());
+		case RecordingDocumentHandler.DESCENDANT_SELECTOR:
+			Selector ancestor = readSelector();
+			return selectorFactory.createDescendantSelector(ancestor, (SimpleSelector) readSelector());
+		case RecordingDocumentHandler.CHILD_SELECTOR:
+			Selector parent = readSelector();
+			return selectorFactory.createChildSelector(parent, (SimpleSelector) readSelector());
+		case RecordingDocumentHandler.DIRECT_ADJACENT_SELECTOR:
+			short nodeType = in.readShort();
+			Selector child = readSelector();
+			return selectorFactory.createDirectAdjacentSelector(nodeType, child, (SimpleSelector) readSelector());
+		default:
+			throw new CSSException("Unknown selector: " + type); //$NON-NLS-1$
+		}
+	}
+
+	private Condition readCondition() throws IOException {
+		byte type = in.readByte();
+		switch (type) {
+		case RecordingDocumentHandler.AND_CONDITION:
+			Condition first = readCondition();
+			return conditionFactory.createAndCondition(first, readCondition());
+		case RecordingDocumentHandler.ID_CONDITION:
+			return conditionFactory.createIdCondition(readString());
+		case RecordingDocumentHandler.CLASS_CONDITION:
+			return conditionFactory.createClassCondition(readString(), readString());
+		case RecordingDocumentHandler.PSEUDO_CLASS_CONDITION:
+			return conditionFactory.createPseudoClassCondition(readString(), readString());
+		case RecordingDocumentHandler.ATTRIBUTE_CONDITION:
+			return conditionFactory.createAttributeCondition(readString(), readString(), in.readBoolean(),
+					readString());
+		case RecordingDocumentHandler.ONE_OF_ATTRIBUTE_CONDITION:
+			return conditionFactory.createOneOfAttributeCondition(readString(), readString(), in.readBoolean(),
+					readString());
+		case RecordingDocumentHandler.BEGIN_HYPHEN_ATTRIBUTE_CONDITION:
+			return conditionFactory.createBeginHyphenAttributeCondition(readString(), readString(),
+					in.readBoolean(), readString());
+		case RecordingDocumentHandler.LANG_CONDITION:
+			return conditionFactory.createLangCondition(readString());
+		default:
+			throw new CSSException("Unknown condition: " + type); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Reads a chain of lexical units, returning its first unit.
+	 */
+	private LexicalUnit readLexicalUnits() throws IOException {
+		LexicalUnitImpl first = null;
+		LexicalUnitImpl last = null;
+		while (in.readBoolean()) {
+			LexicalUnitImpl unit = readLexicalUnit(last);
+			if (first == null) {
+				first = unit;
+			}
+			last = unit;
+		}
+		return first;
+	}
+
+	private LexicalUnitImpl readLexicalUnit(LexicalUnitImpl previous) throws IOException {
+		short type = in.readShort();
+		LexicalUnitImpl unit = new LexicalUnitImpl(type, previous);
+		switch (type) {
+		case LexicalUnit.SAC_INTEGER:
+			unit.integerValue = in.readInt();
+			break;
+		case LexicalUnit.SAC_REAL:
+		case LexicalUnit.SAC_EM:
+		case LexicalUnit.SAC_EX:
+		case LexicalUnit.SAC_PIXEL:
+		case LexicalUnit.SAC_INCH:
+		case LexicalUnit.SAC_CENTIMETER:
+		case LexicalUnit.SAC_MILLIMETER:
+		case LexicalUnit.SAC_POINT:
+		case LexicalUnit.SAC_PICA:
+		case LexicalUnit.SAC_PERCENTAGE:
+		case LexicalUnit.SAC_DEGREE:
+		case LexicalUnit.SAC_GRADIAN:
+		case LexicalUnit.SAC_RADIAN:
+		case LexicalUnit.SAC_MILLISECOND:
+		case LexicalUnit.SAC_SECOND:
+		case LexicalUnit.SAC_HERTZ:
+		case LexicalUnit.SAC_KILOHERTZ:
+		case LexicalUnit.SAC_DIMENSION:
+			unit.floatValue = in.readFloat();
+			unit.stringValue = readString();
+			break;
+		case LexicalUnit.SAC_URI:
+		case LexicalUnit.SAC_IDENT:
+		case LexicalUnit.SAC_STRING_VALUE:
+		case LexicalUnit.SAC_ATTR:
+		case LexicalUnit.SAC_UNICODERANGE:
+			unit.stringValue = readString();
+			break;
+		case LexicalUnit.SAC_COUNTER_FUNCTION:
+		case LexicalUnit.SAC_COUNTERS_FUNCTION:
+		case LexicalUnit.SAC_RGBCOLOR:
+		case LexicalUnit.SAC_RECT_FUNCTION:
+		case LexicalUnit.SAC_FUNCTION:
+			unit.stringValue = readString();
+			unit.parameters = readLexicalUnits();
+			break;
+		case LexicalUnit.SAC_SUB_EXPRESSION:
+			unit.parameters = readLexicalUnits();
+			break;
+		default:
+			break;
+		}
+		return unit;
+	}
+
+	/**
+	 * A lexical unit read from a recording. The string value holds the string,
+	 * the dimension unit text or the function name, depending on the type.
+	 */
+	private static final class LexicalUnitImpl implements LexicalUnit {
+
+		private final short type;
+
+		private final LexicalUnitImpl previous;
+
+		private LexicalUnitImpl next;
+
+		int integerValue;
+
+		float floatValue;
+
+		String stringValue;
+
+		LexicalUnit parameters;
+
+		LexicalUnitImpl(short type, LexicalUnitImpl previous) {
+			this.type = type;
+			this.previous = previous;
+			if (previous != null) {
+				previous.next = this;
+			}
+		}
+
+		@Override
+		public short getLexicalUnitType() {
+			return type;
+		}
+
+		@Override
+		public LexicalUnit getNextLexicalUnit() {
+			return next;
+		}
+
+		@Override
+		public LexicalUnit getPreviousLexicalUnit() {
+			return previous;
+		}
+
+		@Override
+		public int getIntegerValue() {
+			return integerValue;
+		}
+
+		@Override
+		public float getFloatValue() {
+			return floatValue;
+		}
+
+		@Override
+		public String getDimensionUnitText() {
+			return stringValue;
+		}
+
+		@Override
+		public String getFunctionName() {
+			return stringValue;
+		}
+
+		@Override
+		public LexicalUnit getParameters() {
+			return type == SAC_SUB_EXPRESSION ? null : parameters;
+		}
+
+		@Override
+		public String getStringValue() {
+			return stringValue;
+		}
+
+		@Override
+		public LexicalUnit getSubValues() {
+			return type == SAC_SUB_EXPRESSION ? parameters : null;
+		}
+	}
+}
@@ -0,0 +1,412 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.css.core.impl.sac;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Stack;
+import org.eclipse.e4.ui.css.core.sac.ExtendedDocumentHandler;
+import org.w3c.css.sac.AttributeCondition;
+import org.w3c.css.sac.CSSException;
+import org.w3c.css.sac.CombinatorCondition;
+import org.w3c.css.sac.Condition;
+import org.w3c.css.sac.ConditionalSelector;
+import org.w3c.css.sac.DescendantSelector;
+import org.w3c.css.sac.ElementSelector;
+import org.w3c.css.sac.InputSource;
+import org.w3c.css.sac.LangCondition;
+import org.w3c.css.sac.LexicalUnit;
+import org.w3c.css.sac.SACMediaList;
+import org.w3c.css.sac.Selector;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.css.sac.SiblingSelector;
+
+/**
+ * A document handler that passes the parser events on to another handler and
+ * writes them to a stream, so that {@link DocumentHandlerReplay} can build the
+ * same style sheet later without parsing it again. Only the selectors and
+ * conditions of this package can be written; a style sheet using anything else
+ * is still handled, but {@link #isComplete()} returns <code>false</code>.
+ */
+public class RecordingDocumentHandler implements ExtendedDocumentHandler {
+
+	static final byte END_DOCUMENT = 0;
+	static final byte IMPORT_STYLE = 1;
+	static final byte START_MEDIA = 2;
+	static final byte END_MEDIA = 3;
+	static final byte START_PAGE = 4;
+	static final byte END_PAGE = 5;
+	static final byte START_FONT_FACE = 6;
+	static final byte END_FONT_FACE = 7;
+	static final byte START_SELECTOR = 8;
+	static final byte END_SELECTOR = 9;
+	static final byte PROPERTY = 10;
+	static final byte IGNORABLE_AT_RULE = 11;
+	static final byte NAMESPACE_DECLARATION = 12;
+
+	static final byte CONDITIONAL_SELECTOR = 1;
+	static final byte ELEMENT_SELECTOR = 2;
+	static final byte PSEUDO_ELEMENT_SELECTOR = 3;
+	static final byte DESCENDANT_SELECTOR = 4;
+	static final byte CHILD_SELECTOR = 5;
+	static final byte DIRECT_ADJACENT_SELECTOR = 6;
+
+	static final byte AND_CONDITION = 1;
+	static final byte ID_CONDITION = 2;
+	static final byte CLASS_CONDITION = 3;
+	static final byte PSEUDO_CLASS_CONDITION = 4;
+	static final byte ATTRIBUTE_CONDITION = 5;
+	static final byte ONE_OF_ATTRIBUTE_CONDITION = 6;
+	static final byte BEGIN_HYPHEN_ATTRIBUTE_CONDITION = 7;
+	static final byte LANG_CONDITION = 8;
+
+	private final ExtendedDocumentHandler handler;
+
+	private final DataOutput out;
+
+	private boolean complete = true;
+
+	private boolean ended;
+
+	/**
+	 * Creates a handler recording the events passed to the given handler.
+	 *
+	 * @param handler
+	 *            the handler building the style sheet
+	 * @param out
+	 *            the stream the events are written to
+	 */
+	public RecordingDocumentHandler(ExtendedDocumentHandler handler, DataOutput out) {
+		this.handler = handler;
+		this.out = out;
+	}
+
+	/**
+	 * Returns whether all events up to the end of the document could be
+	 * written.
+	 *
+	 * @return <code>true</code> if the recording can be replayed
+	 */
+	public boolean isComplete() {
+		return complete && ended;
+	}
+
+	@Override
+	public void startDocument(InputSource source) throws CSSException {
+		handler.startDocument(source);
+	}
+
+	@Override
+	public void endDocument(InputSource source) throws CSSException {
+		handler.endDocument(source);
+		record(() -> out.writeByte(END_DOCUMENT));
+		ended = true;
+	}
+
+	@Override
+	public void comment(String text) throws CSSException {
+		handler.comment(text);
+	}
+
+	@Override
+	public void ignorableAtRule(String atRule) throws CSSException {
+		handler.ignorableAtRule(atRule);
+		record(() -> {
+			out.writeByte(IGNORABLE_AT_RULE);
+			writeString(atRule);
+		});
+	}
+
+	@Override
+	public void namespaceDeclaration(String prefix, String uri) throws CSSException {
+		handler.namespaceDeclaration(prefix, uri);
+		record(() -> {
+			out.writeByte(NAMESPACE_DECLARATION);
+			writeString(prefix);
+			writeString(uri);
+		});
+	}
+
+	@Override
+	public void importStyle(String uri, SACMediaList media, String defaultNamespaceURI) throws CSSException {
+		handler.importStyle(uri, media, defaultNamespaceURI);
+		record(() -> {
+			out.writeByte(IMPORT_STYLE);
+			writeString(uri);
+			writeMedia(media);
+			writeString(defaultNamespaceURI);
+		});
+	}
+
+	@Override
+	public void startMedia(SACMediaList media) throws CSSException {
+		handler.startMedia(media);
+		record(() -> {
+			out.writeByte(START_MEDIA);
+			writeMedia(media);
+		});
+	}
+
+	@Override
+	public void endMedia(SACMediaList media) throws CSSException {
+		handler.endMedia(media);
+		record(() -> {
+			out.writeByte(END_MEDIA);
+			writeMedia(media);
+		});
+	}
+
+	@Override
+	public void startPage(String name, String pseudoPage) throws CSSException {
+		handler.startPage(name, pseudoPage);
+		record(() -> {
+			out.writeByte(START_PAGE);
+			writeString(name);
+			writeString(pseudoPage);
+		});
+	}
+
+	@Override
+	public void endPage(String name, String pseudoPage) throws CSSException {
+		handler.endPage(name, pseudoPage);
+		record(() -> {
+			out.writeByte(END_PAGE);
+			writeString(name);
+			writeString(pseudoPage);
+		});
+	}
+
+	@Override
+	public void startFontFace() throws CSSException {
+		handler.startFontFace();
+		record(() -> out.writeByte(START_FONT_FACE));
+	}
+
+	@Override
+	public void endFontFace() throws CSSException {
+		handler.endFontFace();
+		record(() -> out.writeByte(END_FONT_FACE));
+	}
+
+	@Override
+	public void startSelector(SelectorList selectors) throws CSSException {
+		handler.startSelector(selectors);
+		record(() -> {
+			out.writeByte(START_SELECTOR);
+			out.writeInt(selectors.getLength());
+			for (int i = 0; i < selectors.getLength(); i++) {
+				writeSelector(selectors.item(i));
+			}
+		});
+	}
+
+	@Override
+	public void endSelector(SelectorList selectors) throws CSSException {
+		handler.endSelector(selectors);
+		record(() -> out.writeByte(END_SELECTOR));
+	}
+
+	@Override
+	public void property(String name, LexicalUnit value, boolean important) throws CSSException {
+		handler.property(name, value, important);
+		record(() -> {
+			out.writeByte(PROPERTY);
+			writeString(name);
+			writeLexicalUnits(value);
+			out.writeBoolean(important);
+		});
+	}
+
+	@Override
+	public Object getNodeRoot() {
+		return handler.getNodeRoot();
+	}
+
+	@Override
+	public void setNodeStack(Stack<Object> nodeStack) {
+		handler.setNodeStack(nodeStack);
+	}
+
+	private void record(Recording recording) {
+		if (!complete) {
+			return;
+		}
+		try {
+			recording.run();
+		} catch (IOException | RuntimeException e) {
+			// the style sheet is still built, it is just not recorded
+			complete = false;
+		}
+	}
+
+	private void writeString(String value) throws IOException {
+		out.writeBoolean(value != null);
+		if (value != null) {
+			out.writeUTF(value);
+		}
+	}
+
+	private void writeMedia(SACMediaList media) throws IOException {
+		out.writeInt(media.getLength());
+		for (int i = 0; i < media.getLength(); i++) {
+			out.writeUTF(media.item(i));
+		}
+	}
+
+	private void writeSelector(Selector selector) throws IOException {
+		Class<?> type = selector.getClass();
+		if (type == CSSConditionalSelectorImpl.class) {
+			ConditionalSelector conditional = (ConditionalSelector) selector;
+			out.writeByte(CONDITIONAL_SELECTOR);
+			writeSelector(conditional.getSimpleSelector());
+			writeCondition(conditional.getCondition());
+		} else if (type == CSSElementSelectorImpl.class || type == CSSPseudoElementSelectorImpl.class) {
+			ElementSelector element = (ElementSelector) selector;
+			out.writeByte(type == CSSElementSelectorImpl.class ? ELEMENT_SELECTOR : PSEUDO_ELEMENT_SELECTOR);
+			writeString(element.getNamespaceURI());
+			writeString(element.getLocalName());
+		} else if (type == CSSDescendantSelectorImpl.class || type == CSSChildSelectorImpl.class) {
+			DescendantSelector descendant = (DescendantSelector) selector;
+			out.writeByte(type == CSSDescendantSelectorImpl.class ? DESCENDANT_SELECTOR : CHILD_SELECTOR);
+			writeSelector(descendant.getAncestorSelector());
+			writeSelector(descendant.getSimpleSelector());
+		} else if (type == CSSDirectAdjacentSelectorImpl.class) {
+			SiblingSelector sibling = (SiblingSelector) selector;
+			out.writeByte(DIRECT_ADJACENT_SELECTOR);
+			out.writeShort(sibling.getNodeType());
+			writeSelector(sibling.getSelector());
+			writeSelector(sibling.getSiblingSelector());
+		} else {
+			throw new UnsupportedOperationException(type.getName());
+		}
+	}
+
+	private void writeCondition(Condition condition) throws IOException {
+		Class<?> type = condition.getClass();
+		if (type == CSSAndConditionImpl.class) {
+			CombinatorCondition and = (CombinatorCondition) condition;
+			out.writeByte(AND_CONDITION);
+			writeCondition(and.getFirstCondition());
+			writeCondition(and.getSecondCondition());
+		} else if (type == CSSIdConditionImpl.class) {
+			out.writeByte(ID_CONDITION);
+			writeString(((AttributeCondition) condition).getValue());
+		} else if (type == CSSClassConditionImpl.class || type == CSSPseudoClassConditionImpl.class) {
+			AttributeCondition attribute = (AttributeCondition) condition;
+			out.writeByte(type == CSSClassConditionImpl.class ? CLASS_CONDITION : PSEUDO_CLASS_CONDITION);
+			writeString(attribute.getNamespaceURI());
+			writeString(attribute.getValue());
+		} else if (type == CSSAttributeConditionImpl.class || type == CSSOneOfAttributeConditionImpl.class
+				|| type == CSSBeginHyphenAttributeConditionImpl.class) {
+			AttributeCondition attribute = (AttributeCondition) condition;
+			if (type == CSSAttributeConditionImpl.class) {
+				out.writeByte(ATTRIBUTE_CONDITION);
+			} else if (type == CSSOneOfAttributeConditionImpl.class) {
+				out.writeByte(ONE_OF_ATTRIBUTE_CONDITION);
+			} else {
+				out.writeByte(BEGIN_HYPHEN_ATTRIBUTE_CONDITION);
+			}
+			writeString(attribute.getLocalName());
+			writeString(attribute.getNamespaceURI());
+			out.writeBoolean(attribute.getSpecified());
+			writeString(attribute.getValue());
+		} else if (type == CSSLangConditionImpl.class) {
+			out.writeByte(LANG_CONDITION);
+			writeString(((LangCondition) condition).getLang());
+		} else {
+			throw new UnsupportedOperationException(type.getName());
+		}
+	}
+
+	/**
+	 * Writes the given lexical unit and the units following it.
+	 */
+	private void writeLexicalUnits(LexicalUnit value) throws IOException {
+		for (LexicalUnit unit = value; unit != null; unit = unit.getNextLexicalUnit()) {
+			out.writeBoolean(true);
+			writeLexicalUnit(unit);
+		}
+		out.writeBoolean(false);
+	}
+
+	private void writeLexicalUnit(LexicalUnit unit) throws IOException {
+		short type = unit.getLexicalUnitType();
+		out.writeShort(type);
+		switch (type) {
+		case LexicalUnit.SAC_INTEGER:
+			out.writeInt(unit.getIntegerValue());
+			break;
+		case LexicalUnit.SAC_REAL:
+		case LexicalUnit.SAC_EM:
+		case LexicalUnit.SAC_EX:
+		case LexicalUnit.SAC_PIXEL:
+		case LexicalUnit.SAC_INCH:
+		case LexicalUnit.SAC_CENTIMETER:
+		case LexicalUnit.SAC_MILLIMETER:
+		case LexicalUnit.SAC_POINT:
+		case LexicalUnit.SAC_PICA:
+		case LexicalUnit.SAC_PERCENTAGE:
+		case LexicalUnit.SAC_DEGREE:
+		case LexicalUnit.SAC_GRADIAN:
+		case LexicalUnit.SAC_RADIAN:
+		case LexicalUnit.SAC_MILLISECOND:
+		case LexicalUnit.SAC_SECOND:
+		case LexicalUnit.SAC_HERTZ:
+		case LexicalUnit.SAC_KILOHERTZ:
+		case LexicalUnit.SAC_DIMENSION:
+			out.writeFloat(unit.getFloatValue());
+			writeString(unit.getDimensionUnitText());
+			break;
+		case LexicalUnit.SAC_URI:
+		case LexicalUnit.SAC_IDENT:
+		case LexicalUnit.SAC_STRING_VALUE:
+		case LexicalUnit.SAC_ATTR:
+		case LexicalUnit.SAC_UNICODERANGE:
+			writeString(unit.getStringValue());
+			break;
+		case LexicalUnit.SAC_COUNTER_FUNCTION:
+		case LexicalUnit.SAC_COUNTERS_FUNCTION:
+		case LexicalUnit.SAC_RGBCOLOR:
+		case LexicalUnit.SAC_RECT_FUNCTION:
+		case LexicalUnit.SAC_FUNCTION:
+			writeString(unit.getFunctionName());
+			writeLexicalUnits(unit.getParameters());
+			break;
+		case LexicalUnit.SAC_SUB_EXPRESSION:
+			writeLexicalUnits(unit.getSubValues());
+			break;
+		case LexicalUnit.SAC_OPERATOR_COMMA:
+		case LexicalUnit.SAC_OPERATOR_PLUS:
+		case LexicalUnit.SAC_OPERATOR_MINUS:
+		case LexicalUnit.SAC_OPERATOR_MULTIPLY:
+		case LexicalUnit.SAC_OPERATOR_SLASH:
+		case LexicalUnit.SAC_OPERATOR_MOD:
+		case LexicalUnit.SAC_OPERATOR_EXP:
+		case LexicalUnit.SAC_OPERATOR_LT:
+		case LexicalUnit.SAC_OPERATOR_GT:
+		case LexicalUnit.SAC_OPERATOR_LE:
+		case LexicalUnit.SAC_OPERATOR_GE:
+		case LexicalUnit.SAC_OPERATOR_TILDE:
+		case LexicalUnit.SAC_INHERIT:
+			break;
+		default:
+			throw new UnsupportedOperationException(String.valueOf(type));
+		}
+	}
+
+	@FunctionalInterface
+	private interface Recording {
+		void run() throws IOException;
+	}
+}
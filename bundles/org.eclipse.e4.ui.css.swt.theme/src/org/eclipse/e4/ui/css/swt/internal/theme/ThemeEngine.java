@@ -45,6 +45,8 @@ import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.InstanceScope;
 import org.eclipse.e4.ui.css.core.engine.CSSElementContext;
 import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.engine.AbstractCSSEngine;
+import org.eclipse.e4.ui.css.core.impl.engine.StyleSheetCache;
 import org.eclipse.e4.ui.css.core.util.impl.resources.FileResourcesLocatorImpl;
 import org.eclipse.e4.ui.css.core.util.impl.resources.OSGiResourceLocator;
 import org.eclipse.e4.ui.css.core.util.resources.IResourceLocator;
@@ -83,6 +85,10 @@ public class ThemeEngine implements IThemeEngine {
 
 	private static final String THEMEID_KEY = "themeid";
 
+	private static final String STYLESHEET_CACHE_DIR = "parsed"; //$NON-NLS-1$
+
+	private StyleSheetCache styleSheetCache;
+
 	public static final String THEME_PLUGIN_ID = "org.eclipse.e4.ui.css.swt.theme";
 
 	public static final String E4_DARK_THEME_ID = "org.eclipse.e4.ui.css.theme.e4_dark";
@@ -109,6 +115,10 @@ public class ThemeEngine implements IThemeEngine {
 			modDir.mkdirs();
 		}
 
+		if (e4CSSPath != null) {
+			styleSheetCache = new StyleSheetCache(new File(modDir, STYLESHEET_CACHE_DIR));
+		}
+
 		File[] modifiedFiles = modDir.listFiles();
 		String currentOS = Platform.getOS();
 		boolean e4_dark_mac_found = false;
@@ -667,6 +677,9 @@ public class ThemeEngine implements IThemeEngine {
 
 	@Override
 	public void addCSSEngine(CSSEngine cssEngine) {
+		if (cssEngine instanceof AbstractCSSEngine && ((AbstractCSSEngine) cssEngine).getStyleSheetCache() == null) {
+			((AbstractCSSEngine) cssEngine).setStyleSheetCache(styleSheetCache);
+		}
 		cssEngines.add(cssEngine);
 		resetCurrentTheme();
 	}
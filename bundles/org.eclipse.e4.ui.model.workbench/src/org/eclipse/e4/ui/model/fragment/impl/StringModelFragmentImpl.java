@@ -20,12 +20,10 @@ import java.util.Collections;
 import java.util.Iterator;
 import java.util.List;
 import java.util.regex.Pattern;
-import org.eclipse.e4.emf.xpath.EcoreXPathContextFactory;
-import org.eclipse.e4.emf.xpath.XPathContext;
-import org.eclipse.e4.emf.xpath.XPathContextFactory;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.MApplicationElement;
 import org.eclipse.e4.ui.model.fragment.MStringModelFragment;
+import org.eclipse.e4.ui.model.internal.MergeSession;
 import org.eclipse.e4.ui.model.internal.ModelUtils;
 import org.eclipse.emf.common.notify.Notification;
 import org.eclipse.emf.ecore.EClass;
@@ -313,23 +311,35 @@ public class StringModelFragmentImpl extends ModelFragmentImpl implements MStrin
 
 	@Override
 	public List<MApplicationElement> merge(MApplication application) {
+		return merge(new MergeSession(application));
+	}
+
+	/**
+	 * Merges the elements of this fragment into the application model of the
+	 * given session, which indexes the model across the fragments merged in an
+	 * assembly pass.
+	 *
+	 * @param session the merge session
+	 * @return the elements merged into the application model
+	 */
+	public List<MApplicationElement> merge(MergeSession session) {
 		List<MApplicationElement> ret = new ArrayList<>();
 
 		String idsOrXPath = getParentElementId();
 		if (idsOrXPath.startsWith("xpath:")) {
 			String xPath = idsOrXPath.substring(6);
-			mergeXPath(application, ret, xPath);
+			mergeXPath(session, ret, xPath);
 		} else {
-			mergeIdList(application, ret, idsOrXPath);
+			mergeIdList(session, ret, idsOrXPath);
 		}
 
 		return ret;
 	}
 
-	private void mergeIdList(MApplication application, List<MApplicationElement> ret, String ids) {
+	private void mergeIdList(MergeSession session, List<MApplicationElement> ret, String ids) {
 		String[] parentIds = patternCSV.split(ids);
 		for (String parentId : parentIds) {
-			MApplicationElement o = ModelUtils.findElementById(application, parentId);
+			MApplicationElement o = session.findElementById(parentId);
 			if (o != null) {
 				EStructuralFeature feature = ((EObject) o).eClass().getEStructuralFeature(getFeaturename());
 				if (feature != null) {
@@ -342,20 +352,21 @@ public class StringModelFragmentImpl extends ModelFragmentImpl implements MStrin
 					} else {
 						elements = getElements();
 					}
-					ret.addAll(ModelUtils.merge(o, feature, elements, getPositionInList()));
+					List<MApplicationElement> merged = ModelUtils.merge(o, feature, elements, getPositionInList());
+					// later parent ids may refer to elements merged just now
+					session.elementsAdded(merged);
+					ret.addAll(merged);
 				}
 			}
 		}
 	}
 
-	private void mergeXPath(MApplication application, List<MApplicationElement> ret, String xPath) {
+	private void mergeXPath(MergeSession session, List<MApplicationElement> ret, String xPath) {
 		List<MApplicationElement> targetElements;
 		if ("/".equals(xPath)) {
-			targetElements = Collections.singletonList(application);
+			targetElements = Collections.singletonList(session.getApplication());
 		} else {
-			XPathContextFactory<EObject> f = EcoreXPathContextFactory.newInstance();
-			XPathContext xpathContext = f.newContext((EObject) application);
-			Iterator<Object> i = xpathContext.iterate(xPath);
+			Iterator<Object> i = session.iterate(xPath);
 
 			targetElements = new ArrayList<>();
 			try {
@@ -380,7 +391,10 @@ public class StringModelFragmentImpl extends ModelFragmentImpl implements MStrin
 					elements.add((MApplicationElement) EcoreUtil.copy((EObject) element));
 				}
 				if (elements.isEmpty() == false) {
-					ret.addAll(ModelUtils.merge(targetElement, feature, elements, getPositionInList()));
+					List<MApplicationElement> merged = ModelUtils.merge(targetElement, feature, elements,
+							getPositionInList());
+					session.elementsAdded(merged);
+					ret.addAll(merged);
 				}
 			}
 		}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.model.internal;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import org.eclipse.e4.emf.xpath.EcoreXPathContextFactory;
+import org.eclipse.e4.emf.xpath.XPathContext;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationElement;
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * State shared by the fragment merges of one model assembly pass, so that
+ * merging many fragments does not search the whole application model for each
+ * of them.
+ * <p>
+ * The session indexes the elements of the application model by id when the
+ * first element is looked up, and adds the elements reported by
+ * {@link #elementsAdded(Collection)} to the index. Index entries for elements
+ * that were removed from the model or changed their id in the meantime are
+ * detected on lookup, and the index is rebuilt. Elements added to the model
+ * without being reported are not found until then.
+ * </p>
+ * <p>
+ * Ids used by more than one element are not resolved by the index, but by
+ * {@link ModelUtils#findElementById(MApplicationElement, String)}, so that like
+ * before the first element in depth-first order is returned.
+ * </p>
+ * <p>
+ * XPath expressions are evaluated in a single context created for the session,
+ * in which <code>//</code> and <code>*</code> only follow containment
+ * references. Each element matching an expression is therefore found once,
+ * instead of once for each path leading to it.
+ * </p>
+ */
+public final class MergeSession {
+
+	private final MApplication application;
+
+	private Map<String, MApplicationElement> index;
+
+	private Set<String> duplicateIds;
+
+	private XPathContext xpathContext;
+
+	/**
+	 * @param application the application model fragments are merged into
+	 */
+	public MergeSession(MApplication application) {
+		this.application = application;
+	}
+
+	/**
+	 * @return the application model fragments are merged into
+	 */
+	public MApplication getApplication() {
+		return application;
+	}
+
+	/**
+	 * Finds an element of the application model by id, like
+	 * {@link ModelUtils#findElementById(MApplicationElement, String)} does for
+	 * the application.
+	 *
+	 * @param id the id of the element
+	 * @return the element, or <code>null</code> if there is none with this id
+	 */
+	public MApplicationElement findElementById(String id) {
+		if (id == null || id.isEmpty()) {
+			return null;
+		}
+		if (index == null) {
+			buildIndex();
+		}
+		MApplicationElement element = index.get(id);
+		if (element != null && !isValid(element, id)) {
+			buildIndex();
+			element = index.get(id);
+		}
+		if (element != null && duplicateIds.contains(id)) {
+			// added elements may precede the indexed one
+			return ModelUtils.findElementById(application, id);
+		}
+		return element;
+	}
+
+	/**
+	 * Adds elements merged into the application model, and all elements they
+	 * contain, to the index.
+	 *
+	 * @param elements the merged elements
+	 */
+	public void elementsAdded(Collection<? extends MApplicationElement> elements) {
+		if (index == null) {
+			return;
+		}
+		for (MApplicationElement element : elements) {
+			if (isContained(element)) {
+				addToIndex(element);
+			}
+		}
+	}
+
+	/**
+	 * Evaluates an XPath expression against the application model.
+	 *
+	 * @param xpath the expression
+	 * @return the results
+	 */
+	public Iterator<Object> iterate(String xpath) {
+		if (xpathContext == null) {
+			xpathContext = EcoreXPathContextFactory.newContainmentInstance().newContext((EObject) application);
+		}
+		return xpathContext.iterate(xpath);
+	}
+
+	private void buildIndex() {
+		index = new HashMap<>();
+		duplicateIds = new HashSet<>();
+		addToIndex(application);
+	}
+
+	private void addToIndex(MApplicationElement element) {
+		String id = element.getElementId();
+		if (id != null && !id.isEmpty()) {
+			MApplicationElement existing = index.put(id, element);
+			if (existing != null && existing != element && isValid(existing, id)) {
+				index.put(id, existing);
+				duplicateIds.add(id);
+			}
+		}
+		for (EObject child : ((EObject) element).eContents()) {
+			if (child instanceof MApplicationElement) {
+				addToIndex((MApplicationElement) child);
+			}
+		}
+	}
+
+	private boolean isValid(MApplicationElement element, String id) {
+		return id.equals(element.getElementId()) && isContained(element);
+	}
+
+	private boolean isContained(MApplicationElement element) {
+		EObject object = (EObject) element;
+		while (object != null) {
+			if (object == application) {
+				return true;
+			}
+			object = object.eContainer();
+		}
+		return false;
+	}
+}
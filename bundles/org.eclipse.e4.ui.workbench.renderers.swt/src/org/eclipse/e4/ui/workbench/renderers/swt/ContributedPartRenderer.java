@@ -21,6 +21,7 @@ import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.core.services.contributions.IContributionFactory;
 import org.eclipse.e4.core.services.log.Logger;
+import org.eclipse.e4.ui.internal.workbench.swt.RenderingTimeline;
 import org.eclipse.e4.ui.model.application.ui.MUIElement;
 import org.eclipse.e4.ui.model.application.ui.basic.MPart;
 import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
@@ -129,7 +130,10 @@ public class ContributedPartRenderer extends SWTPartRenderer {
 		localContext.set(Composite.class, partComposite);
 
 		IContributionFactory contributionFactory = localContext.get(IContributionFactory.class);
-		Object newPart = contributionFactory.create(part.getContributionURI(), localContext);
+		Object newPart;
+		try (RenderingTimeline.Span span = RenderingTimeline.begin(RenderingTimeline.CREATE_CONTRIBUTION, part)) {
+			newPart = contributionFactory.create(part.getContributionURI(), localContext);
+		}
 		part.setObject(newPart);
 
 		return partComposite;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2020 IBM Corporation and others.
+ * Copyright (c) 2009, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -49,6 +49,8 @@ import org.eclipse.e4.ui.internal.workbench.ContributionsAnalyzer;
 import org.eclipse.e4.ui.internal.workbench.OpaqueElementUtil;
 import org.eclipse.e4.ui.internal.workbench.RenderedElementUtil;
 import org.eclipse.e4.ui.internal.workbench.swt.Policy;
+import org.eclipse.e4.ui.internal.workbench.swt.RenderingTimeline;
+import org.eclipse.e4.ui.internal.workbench.swt.WorkbenchSWTActivator;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.ui.MElementContainer;
 import org.eclipse.e4.ui.model.application.ui.MUIElement;
@@ -493,13 +495,27 @@ public class MenuManagerRenderer extends SWTPartRenderer {
 		if (elementId == null) {
 			return;
 		}
+		try (RenderingTimeline.Span span = RenderingTimeline.begin(RenderingTimeline.PROCESS_CONTRIBUTIONS,
+				menuModel)) {
+			if (!Policy.DEBUG_MENUS) {
+				processMenuContributions(menuModel, elementId, isMenuBar, isPopup);
+				return;
+			}
+			long start = System.nanoTime();
+			processMenuContributions(menuModel, elementId, isMenuBar, isPopup);
+			WorkbenchSWTActivator.trace(Policy.DEBUG_MENUS_FLAG, "processContributions: " + elementId + ": " //$NON-NLS-1$ //$NON-NLS-2$
+					+ (System.nanoTime() - start) / 1000000 + " ms", null); //$NON-NLS-1$
+		}
+	}
+
+	private void processMenuContributions(MMenu menuModel, String elementId, boolean isMenuBar, boolean isPopup) {
 		final ArrayList<MMenuContribution> toContribute = new ArrayList<>();
 		ContributionsAnalyzer.XXXgatherMenuContributions(menuModel, application.getMenuContributions(), elementId,
 				toContribute, null, isPopup);
 		generateContributions(menuModel, toContribute, isMenuBar);
 		for (MMenuElement element : menuModel.getChildren()) {
-			if (element instanceof MMenu) {
-				processContributions((MMenu) element, element.getElementId(), false, isPopup);
+			if (element instanceof MMenu && element.getElementId() != null) {
+				processMenuContributions((MMenu) element, element.getElementId(), false, isPopup);
 			}
 		}
 	}
@@ -541,7 +541,9 @@ public class PartRenderingEngine implements IPresentationEngine {
 
 			@Override
 			public void run() throws Exception {
-				gui[0] = safeCreateGui(element, parentWidget, parentContext);
+				try (RenderingTimeline.Span span = RenderingTimeline.begin(RenderingTimeline.CREATE_GUI, element)) {
+					gui[0] = safeCreateGui(element, parentWidget, parentContext);
+				}
 			}
 		});
 		return gui[0];
@@ -627,24 +629,27 @@ public class PartRenderingEngine implements IPresentationEngine {
 			// Assert.isTrue(ctxt.getContext() == null,
 			// "Before rendering Context should be null");
 			if (ctxt.getContext() == null) {
-				IEclipseContext lclContext = parentContext
-						.createChild(getContextName(element));
-				populateModelInterfaces(ctxt, lclContext, element.getClass()
-						.getInterfaces());
-				ctxt.setContext(lclContext);
-
-				// System.out.println("New Context: " + lclContext.toString()
-				// + " parent: " + parentContext.toString());
-
-				// make sure the context knows about these variables that have
-				// been defined in the model
-				for (String variable : ctxt.getVariables()) {
-					lclContext.declareModifiable(variable);
-				}
+				try (RenderingTimeline.Span span = RenderingTimeline.begin(RenderingTimeline.CREATE_CONTEXT,
+						element)) {
+					IEclipseContext lclContext = parentContext
+							.createChild(getContextName(element));
+					populateModelInterfaces(ctxt, lclContext, element.getClass()
+							.getInterfaces());
+					ctxt.setContext(lclContext);
+
+					// System.out.println("New Context: " + lclContext.toString()
+					// + " parent: " + parentContext.toString());
+
+					// make sure the context knows about these variables that have
+					// been defined in the model
+					for (String variable : ctxt.getVariables()) {
+						lclContext.declareModifiable(variable);
+					}
 
-				Map<String, String> props = ctxt.getProperties();
-				for (Entry<String, String> entry : props.entrySet()) {
-					lclContext.set(entry.getKey(), entry.getValue());
+					Map<String, String> props = ctxt.getProperties();
+					for (Entry<String, String> entry : props.entrySet()) {
+						lclContext.set(entry.getKey(), entry.getValue());
+					}
 				}
 			}
 		}
@@ -670,11 +675,16 @@ public class PartRenderingEngine implements IPresentationEngine {
 			if (element instanceof MElementContainer) {
 				@SuppressWarnings("unchecked")
 				MElementContainer<MUIElement> container = (MElementContainer<MUIElement>) element;
-				renderer.processContents(container);
+				try (RenderingTimeline.Span span = RenderingTimeline.begin(RenderingTimeline.PROCESS_CONTENTS,
+						element)) {
+					renderer.processContents(container);
+				}
 			}
 
 			// Allow a final chance to set up
-			renderer.postProcess(element);
+			try (RenderingTimeline.Span span = RenderingTimeline.begin(RenderingTimeline.POST_PROCESS, element)) {
+				renderer.postProcess(element);
+			}
 
 			// Now that we have a widget let the parent (if any) know
 			MElementContainer<MUIElement> parentElement = element.getParent();
@@ -725,7 +735,9 @@ public class PartRenderingEngine implements IPresentationEngine {
 
 			@Override
 			public void run() throws Exception {
-				gui[0] = safeCreateGui(element);
+				try (RenderingTimeline.Span span = RenderingTimeline.begin(RenderingTimeline.CREATE_GUI, element)) {
+					gui[0] = safeCreateGui(element);
+				}
 			}
 		});
 		return gui[0];
@@ -858,7 +870,9 @@ public class PartRenderingEngine implements IPresentationEngine {
 
 			@Override
 			public void run() throws Exception {
-				safeRemoveGui(element);
+				try (RenderingTimeline.Span span = RenderingTimeline.begin(RenderingTimeline.REMOVE_GUI, element)) {
+					safeRemoveGui(element);
+				}
 			}
 		});
 	}
@@ -935,7 +949,9 @@ public class PartRenderingEngine implements IPresentationEngine {
 				}
 			}
 
-			renderer.disposeWidget(element);
+			try (RenderingTimeline.Span span = RenderingTimeline.begin(RenderingTimeline.DISPOSE_WIDGET, element)) {
+				renderer.disposeWidget(element);
+			}
 
 			// unset the client object
 			if (element instanceof MContribution) {
@@ -992,7 +1008,10 @@ public class PartRenderingEngine implements IPresentationEngine {
 		if (renderer != null) {
 			// Remember which renderer is responsible for this widget
 			element.setRenderer(renderer);
-			Object newWidget = renderer.createWidget(element, parent);
+			Object newWidget;
+			try (RenderingTimeline.Span span = RenderingTimeline.begin(RenderingTimeline.CREATE_WIDGET, element)) {
+				newWidget = renderer.createWidget(element, parent);
+			}
 			if (newWidget != null) {
 				renderer.bindWidget(element, newWidget);
 				return newWidget;
@@ -1217,6 +1236,7 @@ public class PartRenderingEngine implements IPresentationEngine {
 	public void stop() {
 		// FIXME Without this call the test-suite fails
 		cleanUp();
+		RenderingTimeline.write();
 		if (theApp != null) {
 			for (MWindow window : theApp.getChildren()) {
 				if (window.getWidget() != null) {
@@ -1290,7 +1310,7 @@ public class PartRenderingEngine implements IPresentationEngine {
 				themeEngine.registerResourceLocator(new OSGiResourceLocator(cssResourcesURI));
 			}
 
-			appContext.set(IStylingEngine.class, new IStylingEngine() {
+			appContext.set(IStylingEngine.class, RenderingTimeline.trace(new IStylingEngine() {
 				@Override
 				public void setClassname(Object widget, String classname) {
 					WidgetElement.setCSSClass((Widget) widget, classname);
@@ -1319,7 +1339,7 @@ public class PartRenderingEngine implements IPresentationEngine {
 					WidgetElement.setID((Widget) widget, id);
 					themeEngine.applyStyles(widget, true);
 				}
-			});
+			}));
 
 			setCSSTheme(display, themeEngine, cssTheme);
 
@@ -1333,7 +1353,7 @@ public class PartRenderingEngine implements IPresentationEngine {
 			}
 			// FIXME: is this needed?
 			display.setData("org.eclipse.e4.ui.css.context", appContext); //$NON-NLS-1$
-			appContext.set(IStylingEngine.class, new IStylingEngine() {
+			appContext.set(IStylingEngine.class, RenderingTimeline.trace(new IStylingEngine() {
 				@Override
 				public void setClassname(Object widget, String classname) {
 					WidgetElement.setCSSClass((Widget) widget, classname);
@@ -1366,7 +1386,7 @@ public class PartRenderingEngine implements IPresentationEngine {
 					WidgetElement.setID((Widget) widget, id);
 					cssEngine.applyStyles(widget, true);
 				}
-			});
+			}));
 
 			URL url;
 			try {
@@ -22,6 +22,8 @@ public class Policy {
 	public static final String DEBUG_MENUS_FLAG = "/trace/menus"; //$NON-NLS-1$
 	public static final String DEBUG_RENDERER_FLAG = "/trace/renderer"; //$NON-NLS-1$
 	public static final String DEBUG_WORKBENCH_FLAG = "/trace/workbench"; //$NON-NLS-1$
+	public static final String DEBUG_RENDERER_TIMELINE_FLAG = "/trace/renderer.timeline"; //$NON-NLS-1$
+	public static final String DEBUG_RENDERER_TIMELINE_FILE = "/trace/renderer.timeline.file"; //$NON-NLS-1$
 
 	/***/
 	public static boolean DEBUG;
@@ -39,4 +41,6 @@ public class Policy {
 	public static boolean DEBUG_RENDERER;
 	/***/
 	public static boolean DEBUG_WORKBENCH;
+	/***/
+	public static boolean DEBUG_RENDERER_TIMELINE;
 }
@@ -0,0 +1,380 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.internal.workbench.swt;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.services.IStylingEngine;
+import org.w3c.dom.css.CSSStyleDeclaration;
+
+/**
+ * Records how long the rendering engine spends on each model element and
+ * writes the records as a timeline in the Chrome trace event format (see
+ * <code>chrome://tracing</code> or <a href="https://ui.perfetto.dev">Perfetto</a>).
+ * <p>
+ * Recording is enabled by the
+ * <code>org.eclipse.e4.ui.workbench.swt/trace/renderer.timeline</code> debug
+ * option. The timeline is written to the file given by the
+ * <code>org.eclipse.e4.ui.workbench.swt/trace/renderer.timeline.file</code>
+ * option, or to <code>rendering-timeline.json</code> in the state location of
+ * this bundle, when the engine stops and at most every few seconds after a
+ * top level element has been rendered. The file is replaced by the first write
+ * of a session, later writes append the spans recorded since the previous
+ * write. The closing bracket of the trace event array is left out, which the
+ * trace viewers accept. Spans not written yet are kept in a buffer of at most
+ * {@link #MAX_PENDING_EVENTS} spans, the oldest are dropped if it overflows.
+ * </p>
+ * <p>
+ * Spans are opened with one of the <code>begin</code> methods and closed with
+ * {@link Span#close()}, preferably in a try-with-resources statement. Spans
+ * opened while another span is open on the same thread show up nested below
+ * it. When recording is disabled the <code>begin</code> methods return a
+ * shared no-op span.
+ * </p>
+ */
+public final class RenderingTimeline {
+
+	/** Creating the widgets and contents of an element. */
+	public static final String CREATE_GUI = "createGui"; //$NON-NLS-1$
+
+	/** Removing the widgets of an element. */
+	public static final String REMOVE_GUI = "removeGui"; //$NON-NLS-1$
+
+	/** Creating the context of an element. */
+	public static final String CREATE_CONTEXT = "createContext"; //$NON-NLS-1$
+
+	/** A renderer's <code>createWidget</code>. */
+	public static final String CREATE_WIDGET = "createWidget"; //$NON-NLS-1$
+
+	/** A renderer's <code>processContents</code>. */
+	public static final String PROCESS_CONTENTS = "processContents"; //$NON-NLS-1$
+
+	/** A renderer's <code>postProcess</code>. */
+	public static final String POST_PROCESS = "postProcess"; //$NON-NLS-1$
+
+	/** A renderer's <code>disposeWidget</code>. */
+	public static final String DISPOSE_WIDGET = "disposeWidget"; //$NON-NLS-1$
+
+	/** Creating the contribution object of an element. */
+	public static final String CREATE_CONTRIBUTION = "createContribution"; //$NON-NLS-1$
+
+	/** Adding the menu contributions to a menu before it is shown. */
+	public static final String PROCESS_CONTRIBUTIONS = "processContributions"; //$NON-NLS-1$
+
+	/** Applying CSS styles to a widget. */
+	public static final String STYLE = "css"; //$NON-NLS-1$
+
+	private static final String DEFAULT_FILE_NAME = "rendering-timeline.json"; //$NON-NLS-1$
+
+	private static final long WRITE_INTERVAL = 5000;
+
+	/**
+	 * The maximum number of spans kept until they are written.
+	 */
+	static final int MAX_PENDING_EVENTS = 50000;
+
+	/**
+	 * An open span of the timeline.
+	 */
+	public interface Span extends AutoCloseable {
+		/**
+		 * Closes the span and records it.
+		 */
+		@Override
+		void close();
+	}
+
+	private static final Span NO_OP = () -> {
+		// not recording
+	};
+
+	private static final long origin = System.nanoTime();
+
+	private static final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+	/**
+	 * The spans recorded since the last write, oldest first.
+	 */
+	private static final Deque<String> events = new ArrayDeque<>();
+
+	private static int droppedEvents;
+
+	/**
+	 * The file written to in this session, guarded by {@link #writeLock}.
+	 */
+	private static File writtenFile;
+
+	private static final Object writeLock = new Object();
+
+	private static volatile File file;
+
+	private static volatile long lastWrite = System.currentTimeMillis();
+
+	private RenderingTimeline() {
+		// static helper only
+	}
+
+	/**
+	 * @return whether spans are recorded
+	 */
+	public static boolean isEnabled() {
+		return Policy.DEBUG_RENDERER_TIMELINE;
+	}
+
+	/**
+	 * Sets the file the timeline is written to.
+	 *
+	 * @param timelineFile the file, or <code>null</code> for the default
+	 */
+	public static void setFile(File timelineFile) {
+		file = timelineFile;
+	}
+
+	/**
+	 * Opens a span for work done on the given element.
+	 *
+	 * @param name    the kind of work, e.g. {@link #CREATE_WIDGET}
+	 * @param element the element
+	 * @return the span to close when the work is done
+	 */
+	public static Span begin(String name, MUIElement element) {
+		if (!Policy.DEBUG_RENDERER_TIMELINE) {
+			return NO_OP;
+		}
+		StringBuilder args = new StringBuilder();
+		appendArg(args, "element", elementType(element)); //$NON-NLS-1$
+		appendArg(args, "id", element.getElementId()); //$NON-NLS-1$
+		Object renderer = element.getRenderer();
+		if (renderer != null) {
+			appendArg(args, "renderer", renderer.getClass().getName()); //$NON-NLS-1$
+		}
+		return open(name, name + ' ' + elementType(element), args);
+	}
+
+	/**
+	 * Opens a span for work done on the given widget.
+	 *
+	 * @param name   the kind of work, e.g. {@link #STYLE}
+	 * @param widget the widget
+	 * @return the span to close when the work is done
+	 */
+	public static Span begin(String name, Object widget) {
+		if (!Policy.DEBUG_RENDERER_TIMELINE) {
+			return NO_OP;
+		}
+		StringBuilder args = new StringBuilder();
+		appendArg(args, "widget", widget == null ? null : widget.getClass().getName()); //$NON-NLS-1$
+		return open(name, name, args);
+	}
+
+	/**
+	 * Returns a styling engine recording a {@link #STYLE} span for each call of
+	 * the given engine that applies styles. The engine is only wrapped if
+	 * recording is enabled at the time of the call.
+	 *
+	 * @param engine the engine to trace
+	 * @return the tracing engine, or the given engine if recording is disabled
+	 */
+	public static IStylingEngine trace(IStylingEngine engine) {
+		if (!Policy.DEBUG_RENDERER_TIMELINE) {
+			return engine;
+		}
+		return new IStylingEngine() {
+			@Override
+			public void setClassname(Object widget, String classname) {
+				try (Span span = begin(STYLE, widget)) {
+					engine.setClassname(widget, classname);
+				}
+			}
+
+			@Override
+			public void setId(Object widget, String id) {
+				try (Span span = begin(STYLE, widget)) {
+					engine.setId(widget, id);
+				}
+			}
+
+			@Override
+			public void style(Object widget) {
+				try (Span span = begin(STYLE, widget)) {
+					engine.style(widget);
+				}
+			}
+
+			@Override
+			public CSSStyleDeclaration getStyle(Object widget) {
+				return engine.getStyle(widget);
+			}
+
+			@Override
+			public void setClassnameAndId(Object widget, String classname, String id) {
+				try (Span span = begin(STYLE, widget)) {
+					engine.setClassnameAndId(widget, classname, id);
+				}
+			}
+		};
+	}
+
+	private static Span open(String category, String name, StringBuilder args) {
+		final long start = System.nanoTime();
+		final int[] threadDepth = depth.get();
+		threadDepth[0]++;
+		final Thread thread = Thread.currentThread();
+		return new Span() {
+			private boolean closed;
+
+			@Override
+			public void close() {
+				if (closed) {
+					return;
+				}
+				closed = true;
+				long end = System.nanoTime();
+				StringBuilder event = new StringBuilder(128 + args.length());
+				event.append("{\"name\":"); //$NON-NLS-1$
+				appendString(event, name);
+				event.append(",\"cat\":"); //$NON-NLS-1$
+				appendString(event, category);
+				event.append(",\"ph\":\"X\",\"ts\":").append((start - origin) / 1000); //$NON-NLS-1$
+				event.append(",\"dur\":").append((end - start) / 1000); //$NON-NLS-1$
+				event.append(",\"pid\":1,\"tid\":").append(thread.getId()); //$NON-NLS-1$
+				event.append(",\"args\":{").append(args).append("}}"); //$NON-NLS-1$ //$NON-NLS-2$
+				boolean topLevel = --threadDepth[0] == 0;
+				synchronized (events) {
+					if (events.size() == MAX_PENDING_EVENTS) {
+						events.removeFirst();
+						droppedEvents++;
+					}
+					events.addLast(event.toString());
+				}
+				if (topLevel && System.currentTimeMillis() - lastWrite > WRITE_INTERVAL) {
+					write();
+				}
+			}
+		};
+	}
+
+	/**
+	 * Appends the spans recorded since the last write to the timeline file.
+	 * Does nothing if no span has been recorded since.
+	 */
+	public static void write() {
+		synchronized (writeLock) {
+			String[] snapshot;
+			int dropped;
+			synchronized (events) {
+				if (events.isEmpty()) {
+					return;
+				}
+				snapshot = events.toArray(new String[events.size()]);
+				events.clear();
+				dropped = droppedEvents;
+				droppedEvents = 0;
+			}
+			lastWrite = System.currentTimeMillis();
+			File target = getFile();
+			if (target == null) {
+				return;
+			}
+			if (dropped > 0) {
+				WorkbenchSWTActivator.trace(Policy.DEBUG_RENDERER_TIMELINE_FLAG,
+						"Dropped " + dropped + " rendering timeline spans", null); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			boolean append = target.equals(writtenFile);
+			try {
+				if (!append) {
+					File parent = target.getAbsoluteFile().getParentFile();
+					if (parent != null) {
+						parent.mkdirs();
+					}
+				}
+				try (Writer writer = Files.newBufferedWriter(target.toPath(), StandardCharsets.UTF_8,
+						StandardOpenOption.CREATE, append ? StandardOpenOption.APPEND
+								: StandardOpenOption.TRUNCATE_EXISTING,
+						StandardOpenOption.WRITE)) {
+					if (!append) {
+						writer.write("[\n"); //$NON-NLS-1$
+					}
+					for (int i = 0; i < snapshot.length; i++) {
+						if (append || i > 0) {
+							writer.write(",\n"); //$NON-NLS-1$
+						}
+						writer.write(snapshot[i]);
+					}
+				}
+				writtenFile = target;
+			} catch (IOException e) {
+				WorkbenchSWTActivator.trace(Policy.DEBUG_RENDERER_TIMELINE_FLAG,
+						"Cannot write rendering timeline to " + target, e); //$NON-NLS-1$
+			}
+		}
+	}
+
+	private static File getFile() {
+		File result = file;
+		if (result == null) {
+			WorkbenchSWTActivator activator = WorkbenchSWTActivator.getDefault();
+			if (activator != null && activator.getStateLocationOrNull() != null) {
+				result = activator.getStateLocationOrNull().append(DEFAULT_FILE_NAME).toFile();
+			}
+		}
+		return result;
+	}
+
+	private static String elementType(MUIElement element) {
+		String name = element.getClass().getSimpleName();
+		return name.endsWith("Impl") ? name.substring(0, name.length() - 4) : name; //$NON-NLS-1$
+	}
+
+	private static void appendArg(StringBuilder args, String key, String value) {
+		if (value == null) {
+			return;
+		}
+		if (args.length() > 0) {
+			args.append(',');
+		}
+		appendString(args, key);
+		args.append(':');
+		appendString(args, value);
+	}
+
+	private static void appendString(StringBuilder builder, String value) {
+		builder.append('"');
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			switch (c) {
+			case '"':
+				builder.append("\\\""); //$NON-NLS-1$
+				break;
+			case '\\':
+				builder.append("\\\\"); //$NON-NLS-1$
+				break;
+			default:
+				if (c < 0x20) {
+					builder.append(String.format("\\u%04x", Integer.valueOf(c))); //$NON-NLS-1$
+				} else {
+					builder.append(c);
+				}
+			}
+		}
+		builder.append('"');
+	}
+}
@@ -25,6 +25,9 @@ import static org.eclipse.e4.ui.internal.workbench.swt.Policy.DEBUG_MENUS;
 import static org.eclipse.e4.ui.internal.workbench.swt.Policy.DEBUG_MENUS_FLAG;
 import static org.eclipse.e4.ui.internal.workbench.swt.Policy.DEBUG_RENDERER;
 import static org.eclipse.e4.ui.internal.workbench.swt.Policy.DEBUG_RENDERER_FLAG;
+import static org.eclipse.e4.ui.internal.workbench.swt.Policy.DEBUG_RENDERER_TIMELINE;
+import static org.eclipse.e4.ui.internal.workbench.swt.Policy.DEBUG_RENDERER_TIMELINE_FILE;
+import static org.eclipse.e4.ui.internal.workbench.swt.Policy.DEBUG_RENDERER_TIMELINE_FLAG;
 import static org.eclipse.e4.ui.internal.workbench.swt.Policy.DEBUG_WORKBENCH;
 import static org.eclipse.e4.ui.internal.workbench.swt.Policy.DEBUG_WORKBENCH_FLAG;
 import static org.eclipse.e4.ui.internal.workbench.swt.Policy.TRACE;
@@ -94,6 +97,7 @@ public class WorkbenchSWTActivator implements BundleActivator, DebugOptionsListe
 
 	@Override
 	public void stop(BundleContext context) throws Exception {
+		RenderingTimeline.write();
 		saveDialogSettings();
 	}
 
@@ -137,6 +141,9 @@ public class WorkbenchSWTActivator implements BundleActivator, DebugOptionsListe
 		DEBUG_MENUS = options.getBooleanOption(PI_RENDERERS + DEBUG_MENUS_FLAG, false);
 		DEBUG_RENDERER = options.getBooleanOption(PI_RENDERERS + DEBUG_RENDERER_FLAG, false);
 		DEBUG_WORKBENCH = options.getBooleanOption(PI_RENDERERS + DEBUG_WORKBENCH_FLAG, false);
+		DEBUG_RENDERER_TIMELINE = options.getBooleanOption(PI_RENDERERS + DEBUG_RENDERER_TIMELINE_FLAG, false);
+		String timelineFile = options.getOption(PI_RENDERERS + DEBUG_RENDERER_TIMELINE_FILE);
+		RenderingTimeline.setFile(timelineFile == null || timelineFile.isEmpty() ? null : new File(timelineFile));
 	}
 
 	public DebugTrace getTrace() {
@@ -272,7 +279,7 @@ public class WorkbenchSWTActivator implements BundleActivator, DebugOptionsListe
 	 *         location is available.
 	 * @since 3.1
 	 */
-	private IPath getStateLocationOrNull() {
+	IPath getStateLocationOrNull() {
 		// TBD the state location is only accessible from Plugin class
 		// However, using it causes problems in the activation order
 		// So, for now, we get it directly.
@@ -28,6 +28,8 @@ import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_MENUS;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_MENUS_FLAG;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_RENDERER;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_RENDERER_FLAG;
+import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_SELECTION;
+import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_SELECTION_FLAG;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_WORKBENCH;
 import static org.eclipse.e4.ui.internal.workbench.Policy.DEBUG_WORKBENCH_FLAG;
 import static org.eclipse.e4.ui.internal.workbench.Policy.TRACE;
@@ -143,6 +145,7 @@ public class Activator implements BundleActivator, DebugOptionsListener {
 		DEBUG_CONTEXTS_VERBOSE = options.getBooleanOption(PI_WORKBENCH + DEBUG_CONTEXTS_VERBOSE_FLAG, false);
 		DEBUG_MENUS = options.getBooleanOption(PI_WORKBENCH + DEBUG_MENUS_FLAG, false);
 		DEBUG_RENDERER = options.getBooleanOption(PI_WORKBENCH + DEBUG_RENDERER_FLAG, false);
+		DEBUG_SELECTION = options.getBooleanOption(PI_WORKBENCH + DEBUG_SELECTION_FLAG, false);
 		DEBUG_WORKBENCH = options.getBooleanOption(PI_WORKBENCH + DEBUG_WORKBENCH_FLAG, false);
 	}
 
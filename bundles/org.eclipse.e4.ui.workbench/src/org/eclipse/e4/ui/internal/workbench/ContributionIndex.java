@@ -0,0 +1,244 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.ui.menu.impl.MenuPackageImpl;
+import org.eclipse.emf.common.notify.Adapter;
+import org.eclipse.emf.common.notify.Notification;
+import org.eclipse.emf.common.notify.Notifier;
+import org.eclipse.emf.ecore.EAttribute;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.EReference;
+import org.eclipse.emf.ecore.EStructuralFeature;
+
+/**
+ * Indexes the menu, tool bar and trim contributions of an application by the
+ * id of their parent, so that rendering a menu only looks at the contributions
+ * to that menu instead of all contributions of the application.
+ * <p>
+ * The index is attached to the application as an adapter and follows the
+ * notifications of the contribution lists and of the parent ids of the
+ * contributions. Contributions appended to a list are added to the index,
+ * any other change makes the index rebuild itself on its next use.
+ * </p>
+ */
+final class ContributionIndex implements Adapter {
+
+	/**
+	 * The contributions of one of the contribution lists of the application.
+	 */
+	private static final class Contributions {
+		final EReference listFeature;
+
+		final EAttribute parentIdFeature;
+
+		/**
+		 * The contributions by the id of their parent, or <code>null</code> if
+		 * the index needs to be rebuilt.
+		 */
+		Map<String, List<EObject>> byParentId;
+
+		/**
+		 * The position of each indexed contribution in the list of the
+		 * application.
+		 */
+		Map<EObject, Integer> positions;
+
+		Contributions(EReference listFeature, EAttribute parentIdFeature) {
+			this.listFeature = listFeature;
+			this.parentIdFeature = parentIdFeature;
+		}
+	}
+
+	private final EObject application;
+
+	private final Contributions[] contributions = {
+			new Contributions(MenuPackageImpl.Literals.MENU_CONTRIBUTIONS__MENU_CONTRIBUTIONS,
+					MenuPackageImpl.Literals.MENU_CONTRIBUTION__PARENT_ID),
+			new Contributions(MenuPackageImpl.Literals.TOOL_BAR_CONTRIBUTIONS__TOOL_BAR_CONTRIBUTIONS,
+					MenuPackageImpl.Literals.TOOL_BAR_CONTRIBUTION__PARENT_ID),
+			new Contributions(MenuPackageImpl.Literals.TRIM_CONTRIBUTIONS__TRIM_CONTRIBUTIONS,
+					MenuPackageImpl.Literals.TRIM_CONTRIBUTION__PARENT_ID) };
+
+	private ContributionIndex(EObject application) {
+		this.application = application;
+	}
+
+	/**
+	 * Returns the contributions of the given list whose parent id is one of
+	 * the given ids, in the order of the list. If the list is not one of the
+	 * contribution lists of an application, it is returned as is.
+	 *
+	 * @param list      the contributions to select from
+	 * @param parentIds the parent ids to select
+	 * @return the selected contributions, or the given list
+	 */
+	static <T> List<T> select(List<T> list, Collection<String> parentIds) {
+		if (!(list instanceof EStructuralFeature.Setting)) {
+			return list;
+		}
+		EStructuralFeature.Setting setting = (EStructuralFeature.Setting) list;
+		EObject owner = setting.getEObject();
+		if (!(owner instanceof MApplication)) {
+			return list;
+		}
+		ContributionIndex index = getIndex(owner);
+		for (Contributions c : index.contributions) {
+			if (c.listFeature == setting.getEStructuralFeature()) {
+				return index.select(c, parentIds);
+			}
+		}
+		return list;
+	}
+
+	private static ContributionIndex getIndex(EObject application) {
+		for (Adapter adapter : application.eAdapters()) {
+			if (adapter instanceof ContributionIndex) {
+				return (ContributionIndex) adapter;
+			}
+		}
+		ContributionIndex index = new ContributionIndex(application);
+		application.eAdapters().add(index);
+		return index;
+	}
+
+	@SuppressWarnings("unchecked")
+	private <T> List<T> select(Contributions c, Collection<String> parentIds) {
+		if (c.byParentId == null) {
+			rebuild(c);
+		}
+		List<EObject> result = null;
+		boolean merged = false;
+		for (String parentId : parentIds) {
+			List<EObject> bucket = c.byParentId.get(parentId);
+			if (bucket == null) {
+				continue;
+			}
+			if (result == null) {
+				result = bucket;
+			} else {
+				if (!merged) {
+					result = new ArrayList<>(result);
+					merged = true;
+				}
+				result.addAll(bucket);
+			}
+		}
+		if (result == null) {
+			return Collections.emptyList();
+		}
+		if (merged) {
+			Map<EObject, Integer> positions = c.positions;
+			result.sort((c1, c2) -> positions.get(c1).compareTo(positions.get(c2)));
+		}
+		return (List<T>) Collections.unmodifiableList(result);
+	}
+
+	private void rebuild(Contributions c) {
+		c.byParentId = new HashMap<>();
+		c.positions = new IdentityHashMap<>();
+		List<?> list = (List<?>) application.eGet(c.listFeature);
+		for (int i = 0; i < list.size(); i++) {
+			add(c, (EObject) list.get(i), i);
+		}
+	}
+
+	private void add(Contributions c, EObject contribution, int position) {
+		if (!contribution.eAdapters().contains(this)) {
+			contribution.eAdapters().add(this);
+		}
+		c.positions.put(contribution, Integer.valueOf(position));
+		String parentId = (String) contribution.eGet(c.parentIdFeature);
+		if (parentId != null) {
+			c.byParentId.computeIfAbsent(parentId, id -> new ArrayList<>()).add(contribution);
+		}
+	}
+
+	@Override
+	public void notifyChanged(Notification notification) {
+		if (notification.isTouch()) {
+			return;
+		}
+		Object feature = notification.getFeature();
+		for (Contributions c : contributions) {
+			if (feature == c.parentIdFeature) {
+				c.byParentId = null;
+			} else if (feature == c.listFeature && notification.getNotifier() == application) {
+				listChanged(c, notification);
+			}
+		}
+	}
+
+	private void listChanged(Contributions c, Notification notification) {
+		switch (notification.getEventType()) {
+		case Notification.REMOVE:
+		case Notification.SET:
+			removeAdapter(notification.getOldValue());
+			break;
+		case Notification.REMOVE_MANY:
+			for (Object removed : (Collection<?>) notification.getOldValue()) {
+				removeAdapter(removed);
+			}
+			break;
+		default:
+			break;
+		}
+		if (c.byParentId == null) {
+			return;
+		}
+		int size = ((List<?>) application.eGet(c.listFeature)).size();
+		int position = notification.getPosition();
+		if (notification.getEventType() == Notification.ADD && position == size - 1) {
+			add(c, (EObject) notification.getNewValue(), position);
+		} else if (notification.getEventType() == Notification.ADD_MANY
+				&& position == size - ((Collection<?>) notification.getNewValue()).size()) {
+			for (Object added : (Collection<?>) notification.getNewValue()) {
+				add(c, (EObject) added, position++);
+			}
+		} else {
+			c.byParentId = null;
+			c.positions = null;
+		}
+	}
+
+	private void removeAdapter(Object contribution) {
+		if (contribution instanceof Notifier) {
+			((Notifier) contribution).eAdapters().remove(this);
+		}
+	}
+
+	@Override
+	public Notifier getTarget() {
+		return application;
+	}
+
+	@Override
+	public void setTarget(Notifier newTarget) {
+		// the index is also attached to the contributions, its target is
+		// always the application
+	}
+
+	@Override
+	public boolean isAdapterForType(Object type) {
+		return type == ContributionIndex.class;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2010, 2019 IBM Corporation and others.
+ * Copyright (c) 2010, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,8 @@ package org.eclipse.e4.ui.internal.workbench;
 
 import java.lang.annotation.Annotation;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -85,7 +87,8 @@ public final class ContributionsAnalyzer {
 		if (elementId == null || elementId.isEmpty()) {
 			return;
 		}
-		for (MTrimContribution contribution : trimContributions) {
+		for (MTrimContribution contribution : ContributionIndex.select(trimContributions,
+				Collections.singleton(elementId))) {
 			String parentId = contribution.getParentId();
 			if (!elementId.equals(parentId) || !contribution.isToBeRendered()) {
 				continue;
@@ -101,7 +104,8 @@ public final class ContributionsAnalyzer {
 		if (id == null || id.isEmpty()) {
 			return;
 		}
-		for (MToolBarContribution toolBarContribution : toolbarContributionList) {
+		for (MToolBarContribution toolBarContribution : ContributionIndex.select(toolbarContributionList,
+				Collections.singleton(id))) {
 			String parentID = toolBarContribution.getParentId();
 			if (!id.equals(parentID) || !toolBarContribution.isToBeRendered()) {
 				continue;
@@ -116,7 +120,8 @@ public final class ContributionsAnalyzer {
 		if (id == null || id.isEmpty()) {
 			return;
 		}
-		for (MToolBarContribution toolBarContribution : toolbarContributionList) {
+		for (MToolBarContribution toolBarContribution : ContributionIndex.select(toolbarContributionList,
+				Collections.singleton(id))) {
 			String parentID = toolBarContribution.getParentId();
 			if (!id.equals(parentID) || !toolBarContribution.isToBeRendered()) {
 				continue;
@@ -144,8 +149,15 @@ public final class ContributionsAnalyzer {
 				}
 			}
 		}
+		ArrayList<String> parentIds = new ArrayList<>(popupIds);
+		if (!includePopups) {
+			parentIds.add(id);
+		}
+		if (includePopups && menuModel instanceof MPopupMenu && !parentIds.contains(POPUP_PARENT_ID)) {
+			parentIds.add(POPUP_PARENT_ID);
+		}
 		ArrayList<MMenuContribution> includedPopups = new ArrayList<>();
-		for (MMenuContribution menuContribution : menuContributionList) {
+		for (MMenuContribution menuContribution : ContributionIndex.select(menuContributionList, parentIds)) {
 			String parentID = menuContribution.getParentId();
 			if (parentID == null) {
 				// it doesn't make sense for this to be null, temporary workaround for bug 320790
@@ -177,7 +189,10 @@ public final class ContributionsAnalyzer {
 			return;
 		}
 		boolean menuBar = (((MUIElement) ((EObject) menuModel).eContainer()) instanceof MWindow);
-		for (MMenuContribution menuContribution : menuContributionList) {
+		List<String> parentIds = includePopups && menuModel instanceof MPopupMenu && !POPUP_PARENT_ID.equals(id)
+				? Arrays.asList(id, POPUP_PARENT_ID)
+				: Collections.singletonList(id);
+		for (MMenuContribution menuContribution : ContributionIndex.select(menuContributionList, parentIds)) {
 			String parentID = menuContribution.getParentId();
 			if (parentID == null) {
 				// it doesn't make sense for this to be null, temporary workaround for bug 320790
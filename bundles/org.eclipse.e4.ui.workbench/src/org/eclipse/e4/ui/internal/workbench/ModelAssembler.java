@@ -19,9 +19,11 @@
 
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.io.File;
 import java.text.MessageFormat;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.LinkedHashMap;
@@ -54,6 +56,8 @@ import org.eclipse.e4.ui.model.fragment.MModelFragment;
 import org.eclipse.e4.ui.model.fragment.MModelFragments;
 import org.eclipse.e4.ui.model.fragment.MStringModelFragment;
 import org.eclipse.e4.ui.model.fragment.impl.FragmentPackageImpl;
+import org.eclipse.e4.ui.model.fragment.impl.StringModelFragmentImpl;
+import org.eclipse.e4.ui.model.internal.MergeSession;
 import org.eclipse.e4.ui.model.internal.ModelUtils;
 import org.eclipse.e4.ui.workbench.modeling.IModelProcessorContribution;
 import org.eclipse.e4.ui.workbench.modeling.IModelProcessorContribution.ModelElement;
@@ -65,6 +69,7 @@ import org.eclipse.emf.ecore.EObject;
 import org.eclipse.emf.ecore.EStructuralFeature;
 import org.eclipse.emf.ecore.resource.Resource;
 import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
 import org.eclipse.emf.ecore.util.Diagnostician;
 import org.eclipse.emf.ecore.util.EContentsEList;
 import org.eclipse.emf.ecore.util.EcoreUtil;
@@ -158,10 +163,9 @@ public class ModelAssembler {
 
 					// unload resource
 					String bundleName = bundle.getSymbolicName();
-					String fragmentHeader = bundle.getHeaders("").get(MODEL_FRAGMENT_HEADER); //$NON-NLS-1$
-					String[] fr = fragmentHeader.split(";"); //$NON-NLS-1$
-					if (fr.length > 0) {
-						String attrURI = fr[0];
+					FragmentHeader header = FragmentHeader.parse(bundle);
+					if (header != null) {
+						String attrURI = header.uri;
 						E4XMIResource applicationResource = (E4XMIResource) ((EObject) application).eResource();
 						ResourceSet resourceSet = applicationResource.getResourceSet();
 						if (attrURI == null) {
@@ -210,6 +214,43 @@ public class ModelAssembler {
 	private static final String INITIAL = "initial"; //$NON-NLS-1$
 	private static final String NOTEXISTS = "notexists"; //$NON-NLS-1$
 
+	/**
+	 * The value of the Model-Fragment header of a bundle, the location of the
+	 * fragment file optionally followed by <code>;apply=&lt;value&gt;</code>.
+	 */
+	private static final class FragmentHeader {
+		final String uri;
+		final String apply;
+
+		private FragmentHeader(String uri, String apply) {
+			this.uri = uri;
+			this.apply = apply;
+		}
+
+		/**
+		 * @return the parsed header of the given bundle, or <code>null</code> if it
+		 *         has none. The apply value is not validated.
+		 */
+		static FragmentHeader parse(Bundle bundle) {
+			String fragmentHeader = bundle.getHeaders("").get(MODEL_FRAGMENT_HEADER); //$NON-NLS-1$
+			if (fragmentHeader == null) {
+				return null;
+			}
+			String[] fr = fragmentHeader.split(";"); //$NON-NLS-1$
+			if (fr.length == 0) {
+				return null;
+			}
+			String apply = ALWAYS;
+			if (fr.length > 1) {
+				int index = fr[1].indexOf('=');
+				apply = index >= 0 ? fr[1].substring(index + 1) : fr[1];
+			}
+			return new FragmentHeader(fr[0], apply);
+		}
+	}
+
+	private static final String FRAGMENT_CACHE_FILE = "modelFragments.cache"; //$NON-NLS-1$
+
 	LoggerFactory factory;
 	Logger logger;
 
@@ -341,6 +382,8 @@ public class ModelAssembler {
 	 *
 	 */
 	private void processFragments(IExtension[] extensions, boolean initial) {
+		preloadFragments(extensions, initial);
+
 		List<ModelFragmentWrapper> wrappers = new ArrayList<>();
 		for (IExtension extension : extensions) {
 			IConfigurationElement[] ces = extension.getConfigurationElements();
@@ -379,13 +422,97 @@ public class ModelAssembler {
 		processFragmentWrappers(wrappers);
 	}
 
+	/**
+	 * Loads the resources of the fragments merged on startup on several threads,
+	 * or restores them from the fragment cache if none of the contributing
+	 * bundles changed since the cache was written. The fragments are still merged
+	 * one after the other, in the same order as before.
+	 *
+	 * @param extensions the list of {@link IExtension} extension elements
+	 * @param initial    <code>true</code> if running from a non-persisted state
+	 */
+	private void preloadFragments(IExtension[] extensions, boolean initial) {
+		List<URI> uris = new ArrayList<>();
+		for (IExtension extension : extensions) {
+			for (IConfigurationElement ce : extension.getConfigurationElements()) {
+				if ("fragment".equals(ce.getName()) && (initial || !INITIAL.equals(ce.getAttribute("apply")))) { //$NON-NLS-1$ //$NON-NLS-2$
+					addFragmentURI(uris, ce.getAttribute("uri"), ce.getContributor().getName()); //$NON-NLS-1$
+				}
+			}
+		}
+
+		Map<String, Bundle> bundles = new HashMap<>();
+		File cacheFile = null;
+		String salt = null;
+		if (bundleContext != null) {
+			for (Bundle bundle : bundleContext.getBundles()) {
+				String name = bundle.getSymbolicName();
+				if (name == null) {
+					continue;
+				}
+				bundles.merge(name, bundle, (b1, b2) -> b1.getVersion().compareTo(b2.getVersion()) >= 0 ? b1 : b2);
+
+				// bundles the tracker picks up when opened
+				if ((bundle.getState() & (Bundle.STARTING | Bundle.ACTIVE | Bundle.STOPPING)) == 0) {
+					continue;
+				}
+				FragmentHeader header = FragmentHeader.parse(bundle);
+				if (header != null && (initial || !INITIAL.equals(header.apply))) {
+					addFragmentURI(uris, header.uri, name);
+				}
+			}
+			cacheFile = bundleContext.getDataFile(FRAGMENT_CACHE_FILE);
+			salt = bundleContext.getBundle().getVersion() + ":" //$NON-NLS-1$
+					+ FrameworkUtil.getBundle(MApplication.class).getVersion() + ":" //$NON-NLS-1$
+					+ FrameworkUtil.getBundle(EObject.class).getVersion();
+		}
+
+		ResourceSet resourceSet = ((EObject) application).eResource().getResourceSet();
+		new ModelFragmentLoader(this, resourceSet, cacheFile, uri -> getFragmentStamp(resourceSet, uri, bundles), salt,
+				Runtime.getRuntime().availableProcessors()).load(uris);
+	}
+
+	private void addFragmentURI(List<URI> uris, String attrURI, String bundleName) {
+		if (attrURI == null) {
+			return;
+		}
+		try {
+			uris.add(createFragmentURI(attrURI, bundleName));
+		} catch (RuntimeException e) {
+			// reported when the fragment is processed
+		}
+	}
+
+	/**
+	 * Computes a string that changes whenever the given fragment resource may
+	 * have changed. This is the version and the modification time of the bundle
+	 * and the modification time of the fragment file, which in contrast to the
+	 * former changes when editing the file of a bundle in development mode.
+	 */
+	private static String getFragmentStamp(ResourceSet resourceSet, URI uri, Map<String, Bundle> bundles) {
+		if (!uri.isPlatformPlugin() || uri.segmentCount() < 3) {
+			return null;
+		}
+		Bundle bundle = bundles.get(URI.decode(uri.segment(1)));
+		if (bundle == null) {
+			return null;
+		}
+		Map<String, ?> attributes = resourceSet.getURIConverter().getAttributes(uri,
+				Collections.singletonMap(URIConverter.OPTION_REQUESTED_ATTRIBUTES,
+						Collections.singleton(URIConverter.ATTRIBUTE_TIME_STAMP)));
+		Object entryModified = attributes.get(URIConverter.ATTRIBUTE_TIME_STAMP);
+		if (entryModified == null) {
+			entryModified = Long.valueOf(0);
+		}
+		return bundle.getVersion() + ":" + bundle.getLastModified() + ":" + entryModified; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+
 	private List<ModelFragmentWrapper> getModelFragmentWrapperFromBundle(Bundle bundle, boolean initial) {
 		List<ModelFragmentWrapper> wrappers = new ArrayList<>();
-		String fragmentHeader = bundle.getHeaders("").get(MODEL_FRAGMENT_HEADER); //$NON-NLS-1$
-		String[] fr = fragmentHeader.split(";"); //$NON-NLS-1$
-		if (fr.length > 0) {
-			String uri = fr[0];
-			String apply = fr.length > 1 ? fr[1].split("=")[1] : "always"; //$NON-NLS-1$ //$NON-NLS-2$
+		FragmentHeader header = FragmentHeader.parse(bundle);
+		if (header != null) {
+			String uri = header.uri;
+			String apply = header.apply;
 
 			// check if the value for apply is valid
 			if (!ALWAYS.equals(apply) && !INITIAL.equals(apply) && !NOTEXISTS.equals(apply)) {
@@ -406,7 +533,7 @@ public class ModelAssembler {
 			}
 		} else {
 			log(LogLevel.ERROR, "Model-Fragment header value {} in bundle {} is invalid", //$NON-NLS-1$
-					fragmentHeader, bundle.getSymbolicName());
+					bundle.getHeaders("").get(MODEL_FRAGMENT_HEADER), bundle.getSymbolicName()); //$NON-NLS-1$
 		}
 
 		return wrappers;
@@ -478,10 +605,12 @@ public class ModelAssembler {
 	}
 
 	public void processFragments(Collection<ModelFragmentWrapper> fragmentList) {
+		// one session for all fragments, so the application model is indexed once
+		MergeSession session = new MergeSession(application);
 		for (ModelFragmentWrapper fragmentWrapper : fragmentList) {
 			processFragment(fragmentWrapper.getFragmentContainer(), fragmentWrapper.getModelFragment(),
 					fragmentWrapper.getContributorName(), fragmentWrapper.getContributorURI(),
-					fragmentWrapper.isCheckExists());
+					fragmentWrapper.isCheckExists(), session);
 		}
 	}
 
@@ -501,6 +630,12 @@ public class ModelAssembler {
 	 */
 	public void processFragment(MModelFragments fragmentsContainer, MModelFragment fragment, String contributorName,
 			String contributorURI, boolean checkExist) {
+		processFragment(fragmentsContainer, fragment, contributorName, contributorURI, checkExist,
+				new MergeSession(application));
+	}
+
+	private void processFragment(MModelFragments fragmentsContainer, MModelFragment fragment, String contributorName,
+			String contributorURI, boolean checkExist, MergeSession session) {
 		/**
 		 * The application elements that were added by the given
 		 * IConfigurationElement to the application model
@@ -519,7 +654,7 @@ public class ModelAssembler {
 							+ fragment, contributorURI, contributorName);
 		}
 
-		List<MApplicationElement> merged = processModelFragment(fragment, contributorURI, checkExist);
+		List<MApplicationElement> merged = processModelFragment(fragment, contributorURI, checkExist, session);
 		if (!merged.isEmpty()) {
 			evalImports = true;
 			addedElements.addAll(merged);
@@ -528,7 +663,7 @@ public class ModelAssembler {
 					contributorName);
 		}
 		if (evalImports && fragmentsContainer.getImports().size() > 0) {
-			resolveImports(fragmentsContainer.getImports(), addedElements);
+			resolveImports(fragmentsContainer.getImports(), addedElements, session);
 		}
 	}
 
@@ -542,13 +677,7 @@ public class ModelAssembler {
 
 		URI uri;
 		try {
-			// check if the attrURI is already a platform URI
-			if (URIHelper.isPlatformURI(attrURI)) {
-				uri = URI.createURI(attrURI);
-			} else {
-				String path = bundleName + '/' + attrURI;
-				uri = URI.createPlatformPluginURI(path, false);
-			}
+			uri = createFragmentURI(attrURI, bundleName);
 		} catch (RuntimeException e) {
 			log(LogLevel.WARN, "Invalid location {} of model extension {}", attrURI, bundleName, e); //$NON-NLS-1$
 			return null;
@@ -576,6 +705,15 @@ public class ModelAssembler {
 		return (MModelFragments) extensionRoot;
 	}
 
+	private static URI createFragmentURI(String attrURI, String bundleName) {
+		// check if the attrURI is already a platform URI
+		if (URIHelper.isPlatformURI(attrURI)) {
+			return URI.createURI(attrURI);
+		}
+		String path = bundleName + '/' + attrURI;
+		return URI.createPlatformPluginURI(path, false);
+	}
+
 	/**
 	 * Contributes the given {@link MModelFragment} to the application model.
 	 *
@@ -589,6 +727,11 @@ public class ModelAssembler {
 	 */
 	public List<MApplicationElement> processModelFragment(MModelFragment fragment, String contributorURI,
 			boolean checkExist) {
+		return processModelFragment(fragment, contributorURI, checkExist, new MergeSession(application));
+	}
+
+	private List<MApplicationElement> processModelFragment(MModelFragment fragment, String contributorURI,
+			boolean checkExist, MergeSession session) {
 
 		E4XMIResource applicationResource = (E4XMIResource) ((EObject) application).eResource();
 
@@ -624,6 +767,9 @@ public class ModelAssembler {
 			}
 		}
 
+		if (fragment instanceof StringModelFragmentImpl) {
+			return ((StringModelFragmentImpl) fragment).merge(session);
+		}
 		return fragment.merge(application);
 	}
 
@@ -771,13 +917,18 @@ public class ModelAssembler {
 	 *                      application model
 	 */
 	public void resolveImports(List<MApplicationElement> imports, List<MApplicationElement> addedElements) {
+		resolveImports(imports, addedElements, new MergeSession(application));
+	}
+
+	private void resolveImports(List<MApplicationElement> imports, List<MApplicationElement> addedElements,
+			MergeSession session) {
 		if (imports.isEmpty()) {
 			return;
 		}
 		// now that we have all components loaded, resolve imports
 		Map<MApplicationElement, MApplicationElement> importMaps = new HashMap<>();
 		for (MApplicationElement importedElement : imports) {
-			MApplicationElement realElement = ModelUtils.findElementById(application, importedElement.getElementId());
+			MApplicationElement realElement = session.findElementById(importedElement.getElementId());
 			importMaps.put(importedElement, realElement);
 		}
 
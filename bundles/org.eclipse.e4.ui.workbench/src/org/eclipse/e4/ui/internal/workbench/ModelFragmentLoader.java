@@ -0,0 +1,408 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.e4.ui.internal.workbench;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.impl.EPackageRegistryImpl;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.URIConverter;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl.EObjectInputStream;
+import org.eclipse.emf.ecore.resource.impl.BinaryResourceImpl.EObjectOutputStream;
+import org.eclipse.emf.ecore.resource.impl.ExtensibleURIConverterImpl;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.xmi.XMLResource;
+import org.osgi.service.log.LogLevel;
+
+/**
+ * Loads the resources holding {@link org.eclipse.e4.ui.model.fragment.MModelFragments
+ * model fragments} on several threads and adds them to the resource set of the
+ * application model in the order they were requested.
+ * <p>
+ * Each resource is parsed into a resource set of its own, so the resource set of
+ * the application model is only modified by the calling thread. Resources that
+ * cannot be loaded are left out; loading them again through the resource set of
+ * the application model reports the problem.
+ * </p>
+ * <p>
+ * If a cache file is given, the parsed resources are also saved to it in EMF's
+ * binary format, together with their XMI IDs. As long as the same resources are
+ * requested and their stamps are unchanged, later calls restore the resources
+ * from the cache instead of parsing them again.
+ * </p>
+ */
+public final class ModelFragmentLoader {
+
+	private static final int CACHE_FORMAT = 1;
+
+	private static final String NO_ID = ""; //$NON-NLS-1$
+
+	private final ModelAssembler assembler;
+
+	private final ResourceSet resourceSet;
+
+	private final File cacheFile;
+
+	private final Function<URI, String> stamps;
+
+	private final String salt;
+
+	private final int parallelism;
+
+	/**
+	 * @param assembler   the assembler used to log problems
+	 * @param resourceSet the resource set of the application model
+	 * @param cacheFile   the file caching the parsed resources, or
+	 *                    <code>null</code> to always parse them
+	 * @param stamps      computes a string that changes whenever the resource with
+	 *                    the given URI changes, or returns <code>null</code> if the
+	 *                    resource cannot be cached
+	 * @param salt        a string that changes whenever the cached resources must
+	 *                    be discarded, for instance because the model changed
+	 * @param parallelism the maximum number of threads to use
+	 */
+	public ModelFragmentLoader(ModelAssembler assembler, ResourceSet resourceSet, File cacheFile,
+			Function<URI, String> stamps, String salt, int parallelism) {
+		this.assembler = assembler;
+		this.resourceSet = resourceSet;
+		this.cacheFile = cacheFile;
+		this.stamps = stamps;
+		this.salt = salt;
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	/**
+	 * Loads the resources with the given URIs which are not yet part of the
+	 * resource set of the application model.
+	 *
+	 * @param uris the URIs of the resources to load
+	 */
+	public void load(Collection<URI> uris) {
+		Set<URI> requested = new LinkedHashSet<>();
+		for (URI uri : uris) {
+			if (resourceSet.getResource(uri, false) == null) {
+				requested.add(uri);
+			}
+		}
+		if (requested.isEmpty()) {
+			return;
+		}
+		List<URI> toLoad = new ArrayList<>(requested);
+
+		byte[] key = cacheFile != null ? computeKey(toLoad) : null;
+		List<Resource> resources = key != null ? restore(toLoad, key) : null;
+		if (resources == null) {
+			resources = parse(toLoad, key);
+		}
+
+		for (Resource resource : resources) {
+			if (resource != null) {
+				resourceSet.getResources().add(resource);
+			}
+		}
+	}
+
+	private List<Resource> parse(List<URI> uris, byte[] key) {
+		boolean save = key != null;
+		List<Callable<ParsedResource>> tasks = new ArrayList<>(uris.size());
+		for (URI uri : uris) {
+			tasks.add(() -> {
+				Resource resource;
+				try {
+					resource = createResourceSet().getResource(uri, true);
+				} catch (RuntimeException e) {
+					return null;
+				}
+				return new ParsedResource(resource, save ? serialize(resource) : null);
+			});
+		}
+		List<ParsedResource> parsed = runAll(tasks);
+
+		List<Resource> resources = new ArrayList<>(parsed.size());
+		boolean complete = true;
+		for (ParsedResource p : parsed) {
+			resources.add(p != null ? p.resource : null);
+			complete &= p != null && p.data != null;
+		}
+		// only cache complete results, so resources failing to load are tried
+		// again on the next start
+		if (save && complete) {
+			writeCache(key, uris, parsed);
+		}
+		return resources;
+	}
+
+	private List<Resource> restore(List<URI> uris, byte[] key) {
+		if (!cacheFile.isFile()) {
+			return null;
+		}
+		List<byte[]> entries = new ArrayList<>(uris.size());
+		long size = cacheFile.length();
+		try (DataInputStream in = new DataInputStream(
+				new BufferedInputStream(Files.newInputStream(cacheFile.toPath())))) {
+			if (in.readInt() != CACHE_FORMAT) {
+				return null;
+			}
+			byte[] storedKey = readBytes(in, size);
+			if (storedKey == null) {
+				return null;
+			}
+			if (!Arrays.equals(key, storedKey) || in.readInt() != uris.size()) {
+				return null;
+			}
+			for (URI uri : uris) {
+				if (!uri.toString().equals(in.readUTF())) {
+					return null;
+				}
+				byte[] data = readBytes(in, size);
+				if (data == null) {
+					return null;
+				}
+				entries.add(data);
+			}
+		} catch (IOException e) {
+			assembler.log(LogLevel.DEBUG, "Unable to read model fragment cache {}: {}", cacheFile, e); //$NON-NLS-1$
+			return null;
+		}
+
+		List<Callable<Resource>> tasks = new ArrayList<>(uris.size());
+		for (int i = 0; i < uris.size(); i++) {
+			URI uri = uris.get(i);
+			byte[] data = entries.get(i);
+			tasks.add(() -> deserialize(uri, data));
+		}
+		List<Resource> resources = runAll(tasks);
+		if (resources.contains(null)) {
+			return null;
+		}
+		return resources;
+	}
+
+	private static byte[] readBytes(DataInputStream in, long limit) throws IOException {
+		int length = in.readInt();
+		if (length < 0 || length > limit) {
+			// not a cache written by us
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return bytes;
+	}
+
+	/**
+	 * Creates a resource set to load a fragment on a worker thread, which resolves
+	 * the URIs like the resource set of the application. The URI converter is
+	 * copied since its URI map is not thread safe.
+	 */
+	private ResourceSet createResourceSet() {
+		ResourceSetImpl set = new ResourceSetImpl();
+		set.setResourceFactoryRegistry(resourceSet.getResourceFactoryRegistry());
+		set.setPackageRegistry(new EPackageRegistryImpl(resourceSet.getPackageRegistry()));
+		set.getLoadOptions().putAll(resourceSet.getLoadOptions());
+		URIConverter converter = resourceSet.getURIConverter();
+		ExtensibleURIConverterImpl copy = new ExtensibleURIConverterImpl(converter.getURIHandlers(),
+				converter.getContentHandlers());
+		copy.getURIMap().putAll(converter.getURIMap());
+		set.setURIConverter(copy);
+		return set;
+	}
+
+	private static byte[] serialize(Resource resource) {
+		if (!(resource instanceof XMLResource)) {
+			return null;
+		}
+		try {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			// the IDs go first, the binary resource reads ahead of its end
+			DataOutputStream data = new DataOutputStream(bytes);
+			List<String> ids = new ArrayList<>();
+			for (TreeIterator<EObject> it = resource.getAllContents(); it.hasNext();) {
+				String id = getID((XMLResource) resource, it.next());
+				ids.add(id != null ? id : NO_ID);
+			}
+			data.writeInt(ids.size());
+			for (String id : ids) {
+				data.writeUTF(id);
+			}
+			data.flush();
+			EObjectOutputStream out = new EObjectOutputStream(bytes, null);
+			out.saveResource(resource);
+			out.flush();
+			return bytes.toByteArray();
+		} catch (IOException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	private static String getID(XMLResource resource, EObject object) {
+		// E4XMIResource#getID() assigns new IDs to objects without one
+		if (resource instanceof E4XMIResource) {
+			return ((E4XMIResource) resource).getInternalId(object);
+		}
+		return resource.getID(object);
+	}
+
+	private Resource deserialize(URI uri, byte[] bytes) {
+		try {
+			ByteArrayInputStream in = new ByteArrayInputStream(bytes);
+			Resource resource = createResourceSet().createResource(uri);
+			if (!(resource instanceof XMLResource)) {
+				return null;
+			}
+			DataInputStream data = new DataInputStream(in);
+			String[] ids = new String[data.readInt()];
+			for (int i = 0; i < ids.length; i++) {
+				ids[i] = data.readUTF();
+			}
+			new EObjectInputStream(in, null).loadResource(resource);
+			TreeIterator<EObject> it = resource.getAllContents();
+			for (String id : ids) {
+				EObject object = it.next();
+				if (!NO_ID.equals(id)) {
+					((XMLResource) resource).setID(object, id);
+				}
+			}
+			if (it.hasNext()) {
+				return null;
+			}
+			resource.setModified(false);
+			return resource;
+		} catch (IOException | RuntimeException e) {
+			assembler.log(LogLevel.DEBUG, "Unable to restore {} from the model fragment cache: {}", uri, e); //$NON-NLS-1$
+			return null;
+		}
+	}
+
+	private void writeCache(byte[] key, List<URI> uris, List<ParsedResource> parsed) {
+		File temp = new File(cacheFile.getPath() + ".tmp"); //$NON-NLS-1$
+		try {
+			try (DataOutputStream out = new DataOutputStream(
+					new BufferedOutputStream(Files.newOutputStream(temp.toPath())))) {
+				out.writeInt(CACHE_FORMAT);
+				out.writeInt(key.length);
+				out.write(key);
+				out.writeInt(uris.size());
+				for (int i = 0; i < uris.size(); i++) {
+					byte[] data = parsed.get(i).data;
+					out.writeUTF(uris.get(i).toString());
+					out.writeInt(data.length);
+					out.write(data);
+				}
+			}
+			Files.move(temp.toPath(), cacheFile.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		} catch (IOException e) {
+			temp.delete();
+			assembler.log(LogLevel.DEBUG, "Unable to write model fragment cache {}: {}", cacheFile, e); //$NON-NLS-1$
+		}
+	}
+
+	private byte[] computeKey(List<URI> uris) {
+		MessageDigest digest;
+		try {
+			digest = MessageDigest.getInstance("SHA-256"); //$NON-NLS-1$
+		} catch (NoSuchAlgorithmException e) {
+			return null;
+		}
+		update(digest, salt);
+		for (URI uri : uris) {
+			String stamp = stamps.apply(uri);
+			if (stamp == null) {
+				return null;
+			}
+			update(digest, uri.toString());
+			update(digest, stamp);
+		}
+		return digest.digest();
+	}
+
+	private static void update(MessageDigest digest, String value) {
+		digest.update(String.valueOf(value).getBytes(StandardCharsets.UTF_8));
+		digest.update((byte) 0);
+	}
+
+	private <T> List<T> runAll(List<Callable<T>> tasks) {
+		int threads = Math.min(parallelism, tasks.size());
+		List<T> results = new ArrayList<>(tasks.size());
+		if (threads <= 1) {
+			for (Callable<T> task : tasks) {
+				try {
+					results.add(task.call());
+				} catch (Exception e) {
+					results.add(null);
+				}
+			}
+			return results;
+		}
+		ExecutorService executor = Executors.newFixedThreadPool(threads, runnable -> {
+			Thread thread = new Thread(runnable, "Model Fragment Loader"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		try {
+			for (Future<T> future : executor.invokeAll(tasks)) {
+				try {
+					results.add(future.get());
+				} catch (ExecutionException e) {
+					results.add(null);
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			while (results.size() < tasks.size()) {
+				results.add(null);
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		return results;
+	}
+
+	private static final class ParsedResource {
+		final Resource resource;
+		final byte[] data;
+
+		ParsedResource(Resource resource, byte[] data) {
+			this.resource = resource;
+			this.data = data;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,8 +15,12 @@
  ******************************************************************************/
 package org.eclipse.e4.ui.internal.workbench;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import javax.annotation.PostConstruct;
@@ -39,16 +43,57 @@ import org.eclipse.e4.ui.workbench.modeling.EPartService;
 import org.eclipse.e4.ui.workbench.modeling.ISelectionListener;
 import org.osgi.service.event.EventHandler;
 
+/**
+ * Tracks the selections of the parts of a window and notifies the selection
+ * listeners.
+ * <p>
+ * Listeners added through the selection service of a part belong to that part.
+ * While that part is not visible, for instance because it is not the selected
+ * element of its stack or its stack is minimized, selection changes of other
+ * parts are not delivered to its listeners. Only the latest of these changes
+ * is delivered once the part becomes visible. Parts tagged with
+ * {@link #NOTIFY_WHEN_HIDDEN_TAG} receive every change.
+ * </p>
+ */
 public class SelectionAggregator {
 
 	static final String OUT_SELECTION = "org.eclipse.ui.output.selection"; //$NON-NLS-1$
 	static final String OUT_POST_SELECTION = "org.eclipse.ui.output.postSelection"; //$NON-NLS-1$
 
+	/**
+	 * Tag of parts whose selection listeners are notified of every selection
+	 * change, even while the part is not visible.
+	 */
+	public static final String NOTIFY_WHEN_HIDDEN_TAG = "NotifySelectionWhenHidden"; //$NON-NLS-1$
+
+	/**
+	 * A selection change that is delivered once the part owning the listener
+	 * becomes visible.
+	 */
+	private static class DeferredSelection {
+		final ISelectionListener listener;
+		final MPart owner;
+		final MPart part;
+		final Object selection;
+
+		DeferredSelection(ISelectionListener listener, MPart owner, MPart part, Object selection) {
+			this.listener = listener;
+			this.owner = owner;
+			this.part = part;
+			this.selection = selection;
+		}
+	}
+
 	private ListenerList<ISelectionListener> genericListeners = new ListenerList<>();
 	private ListenerList<ISelectionListener> genericPostListeners = new ListenerList<>();
 	private Map<String, ListenerList<ISelectionListener>> targetedListeners = new HashMap<>();
 	private Map<String, ListenerList<ISelectionListener>> targetedPostListeners = new HashMap<>();
 	private Set<IEclipseContext> tracked = new HashSet<>();
+	private Map<ISelectionListener, MPart> owners = new HashMap<>();
+	private Map<ISelectionListener, DeferredSelection> deferredSelections = new LinkedHashMap<>();
+	private Map<ISelectionListener, DeferredSelection> deferredPostSelections = new LinkedHashMap<>();
+	private int deferredCount;
+	private int droppedCount;
 
 	private EventHandler eventHandler = event -> {
 		Object element = event.getProperty(UIEvents.EventTags.ELEMENT);
@@ -61,6 +106,11 @@ public class SelectionAggregator {
 		}
 	};
 
+	private EventHandler visibilityHandler = event -> {
+		deliverDeferred(deferredSelections);
+		deliverDeferred(deferredPostSelections);
+	};
+
 	private MPart activePart;
 
 	private IEclipseContext context;
@@ -87,13 +137,23 @@ public class SelectionAggregator {
 		genericPostListeners.clear();
 		targetedListeners.clear();
 		targetedPostListeners.clear();
+		owners.clear();
+		deferredSelections.clear();
+		deferredPostSelections.clear();
 
 		eventBroker.unsubscribe(eventHandler);
+		eventBroker.unsubscribe(visibilityHandler);
 	}
 
 	@PostConstruct
 	void postConstruct() {
 		eventBroker.subscribe(UIEvents.Context.TOPIC_CONTEXT, eventHandler);
+		// the events that can make a part visible
+		eventBroker.subscribe(UIEvents.ElementContainer.TOPIC_SELECTEDELEMENT, visibilityHandler);
+		eventBroker.subscribe(UIEvents.UIElement.TOPIC_VISIBLE, visibilityHandler);
+		eventBroker.subscribe(UIEvents.ApplicationElement.TOPIC_TAGS, visibilityHandler);
+		eventBroker.subscribe(UIEvents.UILifeCycle.ACTIVATE, visibilityHandler);
+		eventBroker.subscribe(UIEvents.UILifeCycle.BRINGTOTOP, visibilityHandler);
 	}
 
 	@Inject
@@ -117,17 +177,7 @@ public class SelectionAggregator {
 
 	private void notifyListeners(final MPart part, final Object selection) {
 		for (final ISelectionListener myListener : genericListeners) {
-			SafeRunner.run(new ISafeRunnable() {
-				@Override
-				public void run() throws Exception {
-					myListener.selectionChanged(part, selection);
-				}
-
-				@Override
-				public void handleException(Throwable exception) {
-					logger.error(exception);
-				}
-			});
+			notifyListener(myListener, part, selection, deferredSelections);
 		}
 		notifyTargetedListeners(part, selection);
 	}
@@ -138,18 +188,7 @@ public class SelectionAggregator {
 			ListenerList<ISelectionListener> listenerList = targetedListeners.get(id);
 			if (listenerList != null) {
 				for (final ISelectionListener listener : listenerList) {
-					final ISelectionListener myListener = listener;
-					SafeRunner.run(new ISafeRunnable() {
-						@Override
-						public void run() throws Exception {
-							myListener.selectionChanged(part, selection);
-						}
-
-						@Override
-						public void handleException(Throwable exception) {
-							logger.error(exception);
-						}
-					});
+					notifyListener(listener, part, selection, deferredSelections);
 				}
 			}
 		}
@@ -157,17 +196,7 @@ public class SelectionAggregator {
 
 	private void notifyPostListeners(final MPart part, final Object selection) {
 		for (final ISelectionListener myListener : genericPostListeners) {
-			SafeRunner.run(new ISafeRunnable() {
-				@Override
-				public void run() throws Exception {
-					myListener.selectionChanged(part, selection);
-				}
-
-				@Override
-				public void handleException(Throwable exception) {
-					logger.error(exception);
-				}
-			});
+			notifyListener(myListener, part, selection, deferredPostSelections);
 		}
 		notifyTargetedPostListeners(part, selection);
 	}
@@ -178,22 +207,89 @@ public class SelectionAggregator {
 			ListenerList<ISelectionListener> listenerList = targetedPostListeners.get(id);
 			if (listenerList != null) {
 				for (final ISelectionListener myListener : listenerList) {
-					SafeRunner.run(new ISafeRunnable() {
-						@Override
-						public void run() throws Exception {
-							myListener.selectionChanged(part, selection);
-						}
-
-						@Override
-						public void handleException(Throwable exception) {
-							logger.error(exception);
-						}
-					});
+					notifyListener(myListener, part, selection, deferredPostSelections);
 				}
 			}
 		}
 	}
 
+	/**
+	 * Notifies the listener of the selection change, or defers the notification
+	 * if the part owning the listener is not visible. A deferred notification
+	 * replaces the one deferred before.
+	 */
+	private void notifyListener(ISelectionListener listener, MPart part, Object selection,
+			Map<ISelectionListener, DeferredSelection> deferred) {
+		MPart owner = owners.get(listener);
+		if (owner != null && owner != part && !isVisible(owner)
+				&& !owner.getTags().contains(NOTIFY_WHEN_HIDDEN_TAG)) {
+			deferredCount++;
+			if (deferred.put(listener, new DeferredSelection(listener, owner, part, selection)) != null) {
+				droppedCount++;
+			}
+			if (Policy.DEBUG_SELECTION) {
+				Activator.trace(Policy.DEBUG_SELECTION_FLAG, "Deferred selection of " + part + " for hidden " //$NON-NLS-1$ //$NON-NLS-2$
+						+ owner + ", deferred: " + deferredCount + ", dropped: " + droppedCount, null); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			return;
+		}
+		if (!deferred.isEmpty() && deferred.remove(listener) != null) {
+			droppedCount++;
+		}
+		SafeRunner.run(new ISafeRunnable() {
+			@Override
+			public void run() throws Exception {
+				listener.selectionChanged(part, selection);
+			}
+
+			@Override
+			public void handleException(Throwable exception) {
+				logger.error(exception);
+			}
+		});
+	}
+
+	private boolean isVisible(MPart part) {
+		return part == activePart || partService.isPartVisible(part);
+	}
+
+	private void deliverDeferred(Map<ISelectionListener, DeferredSelection> deferred) {
+		if (deferred.isEmpty()) {
+			return;
+		}
+		List<DeferredSelection> visible = new ArrayList<>();
+		for (Iterator<DeferredSelection> iterator = deferred.values().iterator(); iterator.hasNext();) {
+			DeferredSelection selection = iterator.next();
+			if (isVisible(selection.owner)) {
+				iterator.remove();
+				visible.add(selection);
+			}
+		}
+		for (DeferredSelection selection : visible) {
+			if (Policy.DEBUG_SELECTION) {
+				Activator.trace(Policy.DEBUG_SELECTION_FLAG, "Delivering deferred selection of " + selection.part //$NON-NLS-1$
+						+ " to " + selection.owner, null); //$NON-NLS-1$
+			}
+			notifyListener(selection.listener, selection.part, selection.selection, deferred);
+		}
+	}
+
+	/**
+	 * @return the number of selection changes that were not delivered because
+	 *         the part owning the listener was not visible
+	 */
+	public int getDeferredCount() {
+		return deferredCount;
+	}
+
+	/**
+	 * @return the number of deferred selection changes that were never
+	 *         delivered, as a later change replaced them
+	 */
+	public int getDroppedCount() {
+		return droppedCount;
+	}
+
 	private void track(final MPart part) {
 		final IEclipseContext myContext = this.context;
 		IEclipseContext context = part.getContext();
@@ -271,17 +367,36 @@ public class SelectionAggregator {
 	}
 
 	public void addSelectionListener(ISelectionListener listener) {
+		addSelectionListener(listener, null);
+	}
+
+	/**
+	 * @param listener the listener
+	 * @param owner    the part the listener belongs to, or <code>null</code>
+	 */
+	public void addSelectionListener(ISelectionListener listener, MPart owner) {
 		genericListeners.add(listener);
+		setOwner(listener, owner);
 	}
 
 	public void addPostSelectionListener(ISelectionListener listener) {
+		addPostSelectionListener(listener, null);
+	}
+
+	/**
+	 * @param listener the listener
+	 * @param owner    the part the listener belongs to, or <code>null</code>
+	 */
+	public void addPostSelectionListener(ISelectionListener listener, MPart owner) {
 		genericPostListeners.add(listener);
+		setOwner(listener, owner);
 	}
 
 	public void removeSelectionListener(ISelectionListener listener) {
 		// we may have been destroyed already, see bug 310113
 		if (context != null) {
 			genericListeners.remove(listener);
+			forget(listener);
 		}
 	}
 
@@ -289,10 +404,21 @@ public class SelectionAggregator {
 		// we may have been destroyed already, see bug 310113
 		if (context != null) {
 			genericPostListeners.remove(listener);
+			forget(listener);
 		}
 	}
 
 	public void addSelectionListener(String partId, ISelectionListener listener) {
+		addSelectionListener(partId, listener, null);
+	}
+
+	/**
+	 * @param partId   the id of the part whose selection is listened to
+	 * @param listener the listener
+	 * @param owner    the part the listener belongs to, or <code>null</code>
+	 */
+	public void addSelectionListener(String partId, ISelectionListener listener, MPart owner) {
+		setOwner(listener, owner);
 		ListenerList<ISelectionListener> listeners = targetedListeners.get(partId);
 		if (listeners == null) {
 			listeners = new ListenerList<>();
@@ -306,6 +432,16 @@ public class SelectionAggregator {
 	}
 
 	public void addPostSelectionListener(String partId, ISelectionListener listener) {
+		addPostSelectionListener(partId, listener, null);
+	}
+
+	/**
+	 * @param partId   the id of the part whose selection is listened to
+	 * @param listener the listener
+	 * @param owner    the part the listener belongs to, or <code>null</code>
+	 */
+	public void addPostSelectionListener(String partId, ISelectionListener listener, MPart owner) {
+		setOwner(listener, owner);
 		ListenerList<ISelectionListener> listeners = targetedPostListeners.get(partId);
 		if (listeners == null) {
 			listeners = new ListenerList<>();
@@ -325,6 +461,7 @@ public class SelectionAggregator {
 			if (listeners != null) {
 				listeners.remove(listener);
 			}
+			forget(listener);
 		}
 	}
 
@@ -335,7 +472,43 @@ public class SelectionAggregator {
 			if (listeners != null) {
 				listeners.remove(listener);
 			}
+			forget(listener);
+		}
+	}
+
+	private void setOwner(ISelectionListener listener, MPart owner) {
+		if (owner != null) {
+			owners.put(listener, owner);
+		}
+	}
+
+	/**
+	 * Forgets the owner and the deferred selections of a listener that was
+	 * removed from all listener lists.
+	 */
+	private void forget(ISelectionListener listener) {
+		boolean selectionListener = contains(genericListeners, listener)
+				|| targetedListeners.values().stream().anyMatch(listeners -> contains(listeners, listener));
+		boolean postSelectionListener = contains(genericPostListeners, listener)
+				|| targetedPostListeners.values().stream().anyMatch(listeners -> contains(listeners, listener));
+		if (!selectionListener) {
+			deferredSelections.remove(listener);
+		}
+		if (!postSelectionListener) {
+			deferredPostSelections.remove(listener);
+		}
+		if (!selectionListener && !postSelectionListener) {
+			owners.remove(listener);
+		}
+	}
+
+	private static boolean contains(ListenerList<ISelectionListener> listeners, ISelectionListener listener) {
+		for (ISelectionListener element : listeners) {
+			if (element.equals(listener)) {
+				return true;
+			}
 		}
+		return false;
 	}
 
 	public Object getSelection(String partId) {
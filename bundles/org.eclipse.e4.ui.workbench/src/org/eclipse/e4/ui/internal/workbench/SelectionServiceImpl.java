@@ -16,6 +16,7 @@ package org.eclipse.e4.ui.internal.workbench;
 import javax.inject.Inject;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
 import org.eclipse.e4.ui.model.application.ui.basic.MWindow;
 import org.eclipse.e4.ui.workbench.modeling.ESelectionService;
 import org.eclipse.e4.ui.workbench.modeling.ISelectionListener;
@@ -61,7 +62,7 @@ public class SelectionServiceImpl implements ESelectionService {
 	public void addSelectionListener(ISelectionListener listener) {
 		SelectionAggregator aggregator = getServiceAggregator();
 		if (aggregator != null) {
-			aggregator.addSelectionListener(listener);
+			aggregator.addSelectionListener(listener, getOwner());
 		}
 	}
 
@@ -77,7 +78,7 @@ public class SelectionServiceImpl implements ESelectionService {
 	public void addSelectionListener(String partId, ISelectionListener listener) {
 		SelectionAggregator aggregator = getServiceAggregator();
 		if (aggregator != null) {
-			aggregator.addSelectionListener(partId, listener);
+			aggregator.addSelectionListener(partId, listener, getOwner());
 		}
 	}
 
@@ -93,7 +94,7 @@ public class SelectionServiceImpl implements ESelectionService {
 	public void addPostSelectionListener(ISelectionListener listener) {
 		SelectionAggregator aggregator = getServiceAggregator();
 		if (aggregator != null) {
-			aggregator.addPostSelectionListener(listener);
+			aggregator.addPostSelectionListener(listener, getOwner());
 		}
 	}
 
@@ -109,7 +110,7 @@ public class SelectionServiceImpl implements ESelectionService {
 	public void addPostSelectionListener(String partId, ISelectionListener listener) {
 		SelectionAggregator aggregator = getServiceAggregator();
 		if (aggregator != null) {
-			aggregator.addPostSelectionListener(partId, listener);
+			aggregator.addPostSelectionListener(partId, listener, getOwner());
 		}
 	}
 
@@ -121,6 +122,14 @@ public class SelectionServiceImpl implements ESelectionService {
 		}
 	}
 
+	/**
+	 * @return the part whose context this service belongs to, or
+	 *         <code>null</code> if it does not belong to a part
+	 */
+	private MPart getOwner() {
+		return context.get(MPart.class);
+	}
+
 	private SelectionAggregator getServiceAggregator() {
 		SelectionAggregator aggregator = context.get(SelectionAggregator.class);
 		if (aggregator != null)
@@ -29,6 +29,11 @@ import org.eclipse.jface.viewers.ViewerCell;
  * that this label provider uses for display. The default behavior is to display
  * the first attribute's value. Clients may customize by subclassing and
  * overriding {@link #update(ViewerCell)}.
+ * <p>
+ * For a large table with the <code>SWT.VIRTUAL</code> style, the maps may
+ * observe the {@link ObservableListContentProvider#getVisibleElements() visible
+ * elements} of the content provider rather than its known elements.
+ * </p>
  *
  * @since 1.3
  *
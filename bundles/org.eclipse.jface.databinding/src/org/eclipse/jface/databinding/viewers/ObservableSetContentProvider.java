@@ -158,4 +158,26 @@ public class ObservableSetContentProvider<E> implements IStructuredContentProvid
 	public IObservableSet<E> getRealizedElements() {
 		return impl.getRealizedElements();
 	}
+
+	/**
+	 * Returns the set of known elements which are currently materialized in
+	 * the viewer. For a viewer on a table with the <code>SWT.VIRTUAL</code>
+	 * style, these are the elements whose items were requested by the table and
+	 * are within a page of the visible area. Elements leave the set when they
+	 * are scrolled further out of view and enter it again, with their labels
+	 * updated, when they are scrolled back. For other viewers, this is the set
+	 * of known elements.
+	 * <p>
+	 * Label providers for large virtual tables may track this set instead of
+	 * the set of known elements, so that they only observe the elements that
+	 * are shown. This method must be called after this content provider was
+	 * set on the viewer.
+	 * </p>
+	 *
+	 * @return unmodifiable observable set of the elements visible in the viewer
+	 * @since 1.13
+	 */
+	public IObservableSet<E> getVisibleElements() {
+		return impl.getVisibleElements();
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 Matthew Hall and others.
+ * Copyright (c) 2009, 2022 Matthew Hall and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -81,6 +81,39 @@ public class ViewerSupport {
 			viewer.setInput(input);
 	}
 
+	/**
+	 * Binds the viewer to the specified input, using the specified label
+	 * properties to generate labels. Unlike
+	 * {@link #bind(StructuredViewer, IObservableList, IValueProperty...)}, the
+	 * label properties are only observed on the
+	 * {@link ObservableListContentProvider#getVisibleElements() visible
+	 * elements} when the table has the <code>SWT.VIRTUAL</code> style. The
+	 * labels of rows that come into view are updated shortly after the table
+	 * requested them.
+	 *
+	 * @param viewer
+	 *            the table viewer to set up
+	 * @param input
+	 *            the input to set on the viewer
+	 * @param labelProperties
+	 *            the respective properties to use for labels in each of the
+	 *            viewer's columns
+	 * @since 1.13
+	 */
+	@SafeVarargs
+	public static <E> void bindVisibleElements(AbstractTableViewer viewer, IObservableList<E> input,
+			IValueProperty<? super E, ?>... labelProperties) {
+		ObservableListContentProvider<E> contentProvider = new ObservableListContentProvider<>();
+		if (viewer.getInput() != null)
+			viewer.setInput(null);
+		viewer.setContentProvider(contentProvider);
+
+		viewer.setLabelProvider(new ObservableMapLabelProvider(
+				Properties.observeEach(contentProvider.getVisibleElements(), labelProperties)));
+		if (input != null)
+			viewer.setInput(input);
+	}
+
 	/**
 	 * Binds the viewer to the specified input, using the specified label
 	 * property to generate labels.
@@ -125,6 +158,39 @@ public class ViewerSupport {
 			viewer.setInput(input);
 	}
 
+	/**
+	 * Binds the viewer to the specified input, using the specified label
+	 * properties to generate labels. Unlike
+	 * {@link #bind(StructuredViewer, IObservableSet, IValueProperty...)}, the
+	 * label properties are only observed on the
+	 * {@link ObservableSetContentProvider#getVisibleElements() visible
+	 * elements} when the table has the <code>SWT.VIRTUAL</code> style. The
+	 * labels of rows that come into view are updated shortly after the table
+	 * requested them.
+	 *
+	 * @param viewer
+	 *            the table viewer to set up
+	 * @param input
+	 *            the input to set on the viewer
+	 * @param labelProperties
+	 *            the respective properties to use for labels in each of the
+	 *            viewer's columns
+	 * @since 1.13
+	 */
+	@SafeVarargs
+	public static <E> void bindVisibleElements(AbstractTableViewer viewer, IObservableSet<E> input,
+			IValueProperty<? super E, ?>... labelProperties) {
+		ObservableSetContentProvider<E> contentProvider = new ObservableSetContentProvider<>();
+		if (viewer.getInput() != null)
+			viewer.setInput(null);
+		viewer.setContentProvider(contentProvider);
+
+		viewer.setLabelProvider(new ObservableMapLabelProvider(
+				Properties.observeEach(contentProvider.getVisibleElements(), labelProperties)));
+		if (input != null)
+			viewer.setInput(input);
+	}
+
 	/**
 	 * Binds the viewer to the specified input, using the specified children
 	 * property to generate child nodes, and the specified label property to
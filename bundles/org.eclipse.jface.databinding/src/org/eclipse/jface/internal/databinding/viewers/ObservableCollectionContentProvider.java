@@ -81,6 +81,15 @@ public abstract class ObservableCollectionContentProvider<E> implements IStructu
 	protected IObservableSet<E> realizedElements;
 	private IObservableSet<E> unmodifiableRealizedElements;
 
+	/**
+	 * Observable set of realized elements close to the visible area of a
+	 * virtual table, or <code>null</code> if it was not requested or the viewer
+	 * is not a virtual table.
+	 */
+	private IObservableSet<E> visibleElements;
+	private IObservableSet<E> unmodifiableVisibleElements;
+	private VisibleElementsTracker<E> visibleElementsTracker;
+
 	private IObservableCollection<E> observableCollection;
 
 	/**
@@ -145,6 +154,13 @@ public abstract class ObservableCollectionContentProvider<E> implements IStructu
 		unmodifiableKnownElements = null;
 		realizedElements = null;
 		unmodifiableRealizedElements = null;
+		if (visibleElementsTracker != null) {
+			visibleElementsTracker.dispose();
+			visibleElementsTracker = null;
+			visibleElements.dispose();
+			visibleElements = null;
+			unmodifiableVisibleElements = null;
+		}
 		display = null;
 	}
 
@@ -267,4 +283,26 @@ public abstract class ObservableCollectionContentProvider<E> implements IStructu
 		}
 		return unmodifiableRealizedElements;
 	}
+
+	/**
+	 * Returns the set of known elements which are materialized close to the
+	 * visible area of a virtual table, tracked by a
+	 * {@link VisibleElementsTracker}. For other viewers, returns the set of
+	 * known elements.
+	 *
+	 * @return unmodifiable observable set of the elements visible in the viewer
+	 * @since 1.13
+	 */
+	public IObservableSet<E> getVisibleElements() {
+		if (unmodifiableVisibleElements == null) {
+			Viewer viewer = viewerObservable.getValue();
+			if (!VisibleElementsTracker.canTrack(viewer))
+				return unmodifiableKnownElements;
+			visibleElements = ObservableViewerElementSet.withComparer(DisplayRealm.getRealm(display), null, comparer);
+			unmodifiableVisibleElements = Observables.unmodifiableObservableSet(visibleElements);
+			visibleElementsTracker = new VisibleElementsTracker<>((AbstractTableViewer) viewer, knownElements,
+					visibleElements, comparer);
+		}
+		return unmodifiableVisibleElements;
+	}
 }
\ No newline at end of file
@@ -0,0 +1,159 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.internal.databinding.viewers;
+
+import java.util.Set;
+
+import org.eclipse.core.databinding.observable.set.IObservableSet;
+import org.eclipse.core.databinding.observable.set.ISetChangeListener;
+import org.eclipse.jface.viewers.AbstractTableViewer;
+import org.eclipse.jface.viewers.IElementComparer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Listener;
+import org.eclipse.swt.widgets.Table;
+
+/**
+ * NON-API - Keeps a set of known elements in sync with the items of a virtual
+ * table that were materialized and are within a page of the visible area. The
+ * set is updated in a single batch after the table requested the data of its
+ * items or was painted: elements enter the set when they come into view and
+ * leave it when they are scrolled further out of view. The viewer renders the
+ * label of an item before its element enters the set, and changes to elements
+ * outside the set are not observed, so the labels of the elements entering the
+ * set are updated together at the end of the batch.
+ *
+ * @param <E> type of the elements
+ *
+ * @since 1.13
+ */
+class VisibleElementsTracker<E> implements Listener {
+
+	private final AbstractTableViewer viewer;
+
+	private final Table table;
+
+	private final IObservableSet<E> knownElements;
+
+	private final IObservableSet<E> visibleElements;
+
+	private final IElementComparer comparer;
+
+	private final ISetChangeListener<E> knownElementsListener;
+
+	private boolean updatePending;
+
+	/**
+	 * @param viewer
+	 *            the viewer, must be accepted by {@link #canTrack(Viewer)}
+	 * @param knownElements
+	 *            the elements known to the content provider
+	 * @param visibleElements
+	 *            the set to keep in sync
+	 * @param comparer
+	 *            the element comparer of the viewer, may be <code>null</code>
+	 */
+	VisibleElementsTracker(AbstractTableViewer viewer, IObservableSet<E> knownElements,
+			IObservableSet<E> visibleElements, IElementComparer comparer) {
+		this.viewer = viewer;
+		this.table = (Table) viewer.getControl();
+		this.knownElements = knownElements;
+		this.visibleElements = visibleElements;
+		this.comparer = comparer;
+		knownElementsListener = event -> visibleElements.removeAll(event.diff.getRemovals());
+		knownElements.addSetChangeListener(knownElementsListener);
+		table.addListener(SWT.SetData, this);
+		table.addListener(SWT.Paint, this);
+		table.addListener(SWT.Dispose, this);
+	}
+
+	/**
+	 * @param viewer
+	 *            the viewer
+	 * @return whether the viewer shows a virtual table whose visible elements
+	 *         can be tracked
+	 */
+	static boolean canTrack(Viewer viewer) {
+		return viewer instanceof AbstractTableViewer && viewer.getControl() instanceof Table
+				&& (viewer.getControl().getStyle() & SWT.VIRTUAL) != 0 && !viewer.getControl().isDisposed();
+	}
+
+	@Override
+	public void handleEvent(Event event) {
+		switch (event.type) {
+		case SWT.SetData:
+		case SWT.Paint:
+			scheduleUpdate();
+			break;
+		case SWT.Dispose:
+			dispose();
+			break;
+		default:
+			break;
+		}
+	}
+
+	private void scheduleUpdate() {
+		if (!updatePending) {
+			updatePending = true;
+			table.getDisplay().asyncExec(this::update);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private void update() {
+		updatePending = false;
+		if (table.isDisposed() || visibleElements.isDisposed()) {
+			return;
+		}
+		int itemCount = table.getItemCount();
+		int page = table.getClientArea().height / Math.max(1, table.getItemHeight()) + 1;
+		int top = table.getTopIndex();
+		int end = Math.min(itemCount, top + 2 * page);
+		Set<E> window = ViewerElementSet.withComparer(comparer);
+		for (int i = Math.max(0, top - page); i < end; i++) {
+			Object element = table.getItem(i).getData();
+			if (element != null && knownElements.contains(element)) {
+				window.add((E) element);
+			}
+		}
+
+		Set<E> removals = ViewerElementSet.withComparer(comparer);
+		removals.addAll(visibleElements);
+		removals.removeAll(window);
+		window.removeAll(visibleElements);
+		visibleElements.removeAll(removals);
+		if (!window.isEmpty()) {
+			visibleElements.addAll(window);
+			viewer.update(window.toArray(), null);
+		}
+	}
+
+	/**
+	 * Stops tracking the table. The set of visible elements keeps its current
+	 * content.
+	 */
+	void dispose() {
+		if (!knownElements.isDisposed()) {
+			knownElements.removeSetChangeListener(knownElementsListener);
+		}
+		if (!table.isDisposed()) {
+			table.removeListener(SWT.SetData, this);
+			table.removeListener(SWT.Paint, this);
+			table.removeListener(SWT.Dispose, this);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2019 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,13 +15,27 @@
 package org.eclipse.jface.fieldassist;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.bindings.keys.KeyStroke;
 import org.eclipse.jface.dialogs.PopupDialog;
+import org.eclipse.jface.internal.provisional.fieldassist.IAsyncContentProposalProvider;
 import org.eclipse.jface.preference.JFacePreferences;
 import org.eclipse.jface.resource.JFaceResources;
+import org.eclipse.jface.util.Policy;
 import org.eclipse.jface.viewers.ILabelProvider;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.FocusAdapter;
@@ -36,6 +50,7 @@ import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Listener;
 import org.eclipse.swt.widgets.ScrollBar;
@@ -864,6 +879,7 @@ public class ContentProposalAdapter {
 		 */
 		@Override
 		public boolean close() {
+			cancelProposalRequest();
 			popupCloser.removeListeners();
 			if (infoPopup != null) {
 				infoPopup.close();
@@ -886,45 +902,35 @@ public class ContentProposalAdapter {
 		 */
 		private void showProposalDescription() {
 			// If we do not already have a pending update, then
-			// create a thread now that will show the proposal description
+			// start a timer now that will show the proposal description
 			if (!pendingDescriptionUpdate) {
-				// Create a thread that will sleep for the specified delay
-				// before creating the popup. We do not use Jobs since this
-				// code must be able to run independently of the Eclipse
-				// runtime.
-				Runnable runnable = () -> {
-					pendingDescriptionUpdate = true;
-					try {
-						Thread.sleep(POPUP_DELAY);
-					} catch (InterruptedException e) {
-					}
+				// The timer runs on the UI thread after the specified delay.
+				// We do not use Jobs since this code must be able to run
+				// independently of the Eclipse runtime.
+				pendingDescriptionUpdate = true;
+				getShell().getDisplay().timerExec(POPUP_DELAY, () -> {
+					pendingDescriptionUpdate = false;
 					if (!isValid()) {
 						return;
 					}
-					getShell().getDisplay().syncExec(() -> {
-						// Query the current selection since we have
-						// been delayed
-						IContentProposal p = getSelectedProposal();
-						if (p != null) {
-							String description = p.getDescription();
-							if (description != null) {
-								if (infoPopup == null) {
-									infoPopup = new InfoPopupDialog(getShell());
-									infoPopup.open();
-									infoPopup.getShell()
-											.addDisposeListener(event -> infoPopup = null);
-								}
-								infoPopup.setContents(p.getDescription());
-							} else if (infoPopup != null) {
-								infoPopup.close();
+					// Query the current selection since we have
+					// been delayed
+					IContentProposal p = getSelectedProposal();
+					if (p != null) {
+						String description = p.getDescription();
+						if (description != null) {
+							if (infoPopup == null) {
+								infoPopup = new InfoPopupDialog(getShell());
+								infoPopup.open();
+								infoPopup.getShell()
+										.addDisposeListener(event -> infoPopup = null);
 							}
-							pendingDescriptionUpdate = false;
-
+							infoPopup.setContents(p.getDescription());
+						} else if (infoPopup != null) {
+							infoPopup.close();
 						}
-					});
-				};
-				Thread t = new Thread(runnable);
-				t.start();
+					}
+				});
 			}
 		}
 
@@ -946,6 +952,11 @@ public class ContentProposalAdapter {
 		 * caches. Repopulate the popup if it is open.
 		 */
 		private void recomputeProposals(String filterText) {
+			if (proposalProvider instanceof IAsyncContentProposalProvider) {
+				// the proposals are shown once they are computed
+				computeProposals(false, true);
+				return;
+			}
 			IContentProposal[] allProposals = getProposals();
 			if (allProposals == null)
 				 allProposals = getEmptyProposalArray();
@@ -961,6 +972,38 @@ public class ContentProposalAdapter {
 			}
 		}
 
+		/*
+		 * Show proposals computed by an asynchronous proposal provider. The
+		 * first part of the proposals replaces the proposals shown so far, later
+		 * parts are appended. If the computation found no proposals at all, the
+		 * popup is closed.
+		 */
+		private void proposalsComputed(IContentProposal[] newProposals, boolean first, boolean none) {
+			if (none) {
+				// See https://bugs.eclipse.org/bugs/show_bug.cgi?id=147377
+				proposals = getEmptyProposalArray();
+				close();
+				return;
+			}
+			IContentProposal[] filtered = filterProposals(newProposals, filterText);
+			if (first) {
+				setProposals(filtered);
+			} else if (filtered.length > 0) {
+				int oldSize = proposals.length;
+				IContentProposal[] all = Arrays.copyOf(proposals, oldSize + filtered.length);
+				System.arraycopy(filtered, 0, all, oldSize, filtered.length);
+				proposals = all;
+				if (isValid()) {
+					// The new items are populated in the SWT.SetData event
+					// handler, the selection is kept.
+					proposalTable.setItemCount(all.length);
+					if (oldSize == 0) {
+						selectProposal(0);
+					}
+				}
+			}
+		}
+
 		/*
 		 * In an async block, request the proposals. This is used when clients
 		 * are in the middle of processing an event that affects the widget
@@ -1066,6 +1109,12 @@ public class ContentProposalAdapter {
 	 */
 	private static final int POPUP_DELAY = 750;
 
+	/*
+	 * The executor computing the proposals of asynchronous proposal
+	 * providers, shared by all adapters. Created when first needed.
+	 */
+	private static ExecutorService proposalExecutor;
+
 	/*
 	 * The character height hint for the popup. May be overridden by using
 	 * setInitialPopupSize.
@@ -1177,6 +1226,22 @@ public class ContentProposalAdapter {
 	 */
 	private boolean receivedKeyDown;
 
+	/*
+	 * The timer that opens the popup once the autoactivation delay has
+	 * passed. Scheduling it again restarts the delay.
+	 */
+	private final Runnable autoActivationTimer = () -> {
+		if (isValid() && !receivedKeyDown) {
+			openProposalPopup(true);
+		}
+	};
+
+	/*
+	 * The computation of proposals by an asynchronous proposal provider whose
+	 * result is still awaited, or null.
+	 */
+	private ProposalRequest proposalRequest;
+
 	/*
 	 * The desired size in pixels of the proposal popup.
 	 */
@@ -1350,6 +1415,7 @@ public class ContentProposalAdapter {
 	 */
 	public void setContentProposalProvider(
 			IContentProposalProvider proposalProvider) {
+		cancelProposalRequest();
 		this.proposalProvider = proposalProvider;
 	}
 
@@ -1698,6 +1764,10 @@ public class ContentProposalAdapter {
 						return;
 					}
 
+					// The popup is not open. Proposals still being computed
+					// for opening it are outdated by this keystroke.
+					cancelProposalRequest();
+
 					// We were only listening to traverse events for the popup
 					if (e.type == SWT.Traverse) {
 						// See https://bugs.eclipse.org/bugs/show_bug.cgi?id=520372
@@ -1877,19 +1947,16 @@ public class ContentProposalAdapter {
 			if (popup == null) {
 				// Check whether there are any proposals to be shown.
 				recordCursorPosition(); // must be done before getting proposals
+				if (proposalProvider instanceof IAsyncContentProposalProvider) {
+					// the popup is opened once proposals have been computed
+					computeProposals(true, autoActivated);
+					return;
+				}
 				IContentProposal[] proposals = getProposals();
 				if (proposals == null)
 					return;
 				if (proposals.length > 0) {
-					if (DEBUG) {
-						System.out.println("POPUP OPENED BY PRECEDING EVENT"); //$NON-NLS-1$
-					}
-					recordCursorPosition();
-					popup = new ContentProposalPopup(null, proposals);
-					popup.open();
-					popup.getShell().addDisposeListener(event -> popup = null);
-					internalPopupOpened();
-					notifyPopupOpened();
+					openPopup(proposals);
 				} else if (!autoActivated) {
 					getControl().getDisplay().beep();
 				}
@@ -1897,6 +1964,21 @@ public class ContentProposalAdapter {
 		}
 	}
 
+	/*
+	 * Open the popup showing the given proposals.
+	 */
+	private void openPopup(IContentProposal[] proposals) {
+		if (DEBUG) {
+			System.out.println("POPUP OPENED BY PRECEDING EVENT"); //$NON-NLS-1$
+		}
+		recordCursorPosition();
+		popup = new ContentProposalPopup(null, proposals);
+		popup.open();
+		popup.getShell().addDisposeListener(event -> popup = null);
+		internalPopupOpened();
+		notifyPopupOpened();
+	}
+
 	/**
 	 * Open the proposal popup and display the proposals provided by the proposal
 	 * provider. This method returns immediately. That is, it does not wait for a
@@ -2023,15 +2105,205 @@ public class ContentProposalAdapter {
 		if (DEBUG) {
 			System.out.println(">>> obtaining proposals from provider"); //$NON-NLS-1$
 		}
+		String contents = getControlContentAdapter().getControlContents(
+				getControl());
+		return proposalProvider.getProposals(contents,
+				getProposalPosition());
+	}
+
+	/*
+	 * Get the cursor position to compute proposals for.
+	 */
+	private int getProposalPosition() {
 		int position = insertionPos;
 		if (position == -1) {
 			position = getControlContentAdapter().getCursorPosition(
 					getControl());
 		}
+		return position;
+	}
+
+	/*
+	 * Start computing the proposals with the asynchronous proposal provider,
+	 * canceling any computation whose result is still awaited. The proposals
+	 * either open the popup, or are shown in the open popup.
+	 */
+	private void computeProposals(boolean opening, boolean autoActivated) {
+		cancelProposalRequest();
+		if (!isValid()) {
+			return;
+		}
+		if (DEBUG) {
+			System.out.println(">>> computing proposals in the background"); //$NON-NLS-1$
+		}
 		String contents = getControlContentAdapter().getControlContents(
 				getControl());
-		return proposalProvider.getProposals(contents,
-				position);
+		proposalRequest = new ProposalRequest((IAsyncContentProposalProvider) proposalProvider, contents,
+				getProposalPosition(), opening, autoActivated);
+		getProposalExecutor().execute(proposalRequest);
+	}
+
+	/*
+	 * Cancel the computation of proposals whose result is still awaited.
+	 */
+	private void cancelProposalRequest() {
+		if (proposalRequest != null) {
+			proposalRequest.monitor.setCanceled(true);
+			proposalRequest = null;
+		}
+	}
+
+	/*
+	 * Proposals have been computed for the current request. Empty parts are
+	 * only passed when the computation is done.
+	 */
+	private void proposalsComputed(ProposalRequest request, IContentProposal[] proposals, boolean done) {
+		boolean first = request.shown == 0;
+		request.shown += proposals.length;
+		if (request.opening) {
+			if (first && popup == null) {
+				if (proposals.length > 0) {
+					openPopup(proposals);
+				} else if (!request.autoActivated) {
+					getControl().getDisplay().beep();
+				}
+			} else if (!first && popup != null) {
+				popup.proposalsComputed(proposals, false, false);
+			}
+		} else if (popup != null) {
+			if (proposals.length > 0 || first) {
+				popup.proposalsComputed(proposals, first, request.shown == 0);
+			}
+		}
+	}
+
+	private static synchronized ExecutorService getProposalExecutor() {
+		if (proposalExecutor == null) {
+			int threads = Math.min(4, Runtime.getRuntime().availableProcessors());
+			AtomicInteger threadCount = new AtomicInteger();
+			ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 5, TimeUnit.SECONDS,
+					new LinkedBlockingQueue<>(), runnable -> {
+						Thread thread = new Thread(runnable,
+								"JFace Content Proposals " + threadCount.incrementAndGet()); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					});
+			pool.allowCoreThreadTimeOut(true);
+			proposalExecutor = pool;
+		}
+		return proposalExecutor;
+	}
+
+	/*
+	 * A computation of proposals by an asynchronous proposal provider. The
+	 * proposals reported by the provider are collected and handed to the UI
+	 * thread in batches, so that a provider reporting many small parts does
+	 * not flood the event queue.
+	 */
+	private final class ProposalRequest implements Runnable {
+
+		final IProgressMonitor monitor = new NullProgressMonitor();
+
+		/*
+		 * Whether the proposals open the popup, rather than being shown in
+		 * the open popup.
+		 */
+		final boolean opening;
+
+		final boolean autoActivated;
+
+		/*
+		 * The number of proposals shown so far. Only accessed in the UI
+		 * thread.
+		 */
+		int shown;
+
+		private final IAsyncContentProposalProvider provider;
+
+		private final String contents;
+
+		private final int position;
+
+		private final Display display;
+
+		/*
+		 * The proposals not yet handed to the UI thread, guarded by this.
+		 */
+		private final List<IContentProposal> collected = new ArrayList<>();
+
+		private boolean done;
+
+		private boolean updateScheduled;
+
+		ProposalRequest(IAsyncContentProposalProvider provider, String contents, int position, boolean opening,
+				boolean autoActivated) {
+			this.provider = provider;
+			this.contents = contents;
+			this.position = position;
+			this.opening = opening;
+			this.autoActivated = autoActivated;
+			this.display = getControl().getDisplay();
+		}
+
+		@Override
+		public void run() {
+			if (monitor.isCanceled()) {
+				return;
+			}
+			try {
+				provider.computeProposals(contents, position, this::collect, monitor);
+			} catch (OperationCanceledException e) {
+				// the result is no longer needed
+			} catch (RuntimeException e) {
+				Policy.getLog().log(new Status(IStatus.ERROR, Policy.JFACE,
+						"Exception while computing content proposals", e)); //$NON-NLS-1$
+			} finally {
+				synchronized (this) {
+					done = true;
+				}
+				scheduleUpdate();
+			}
+		}
+
+		private void collect(IContentProposal[] proposals) {
+			if (proposals == null || proposals.length == 0 || monitor.isCanceled()) {
+				return;
+			}
+			synchronized (this) {
+				collected.addAll(Arrays.asList(proposals));
+			}
+			scheduleUpdate();
+		}
+
+		private void scheduleUpdate() {
+			synchronized (this) {
+				if (updateScheduled || monitor.isCanceled()) {
+					return;
+				}
+				updateScheduled = true;
+			}
+			if (!display.isDisposed()) {
+				display.asyncExec(this::update);
+			}
+		}
+
+		private void update() {
+			IContentProposal[] proposals;
+			boolean finished;
+			synchronized (this) {
+				proposals = collected.toArray(new IContentProposal[collected.size()]);
+				collected.clear();
+				finished = done;
+				updateScheduled = false;
+			}
+			if (proposalRequest != this || !isValid() || (proposals.length == 0 && !finished)) {
+				return;
+			}
+			if (finished) {
+				proposalRequest = null;
+			}
+			proposalsComputed(this, proposals, finished);
+		}
 	}
 
 	/**
@@ -2040,19 +2312,10 @@ public class ContentProposalAdapter {
 	 */
 	private void autoActivate() {
 		if (autoActivationDelay > 0) {
-			Runnable runnable = () -> {
-				receivedKeyDown = false;
-				try {
-					Thread.sleep(autoActivationDelay);
-				} catch (InterruptedException e) {
-				}
-				if (!isValid() || receivedKeyDown) {
-					return;
-				}
-				getControl().getDisplay().syncExec(() -> openProposalPopup(true));
-			};
-			Thread t = new Thread(runnable);
-			t.start();
+			// Scheduling the timer again replaces a pending one, so the delay
+			// starts over with each autoactivating keystroke.
+			receivedKeyDown = false;
+			getControl().getDisplay().timerExec(autoActivationDelay, autoActivationTimer);
 		} else {
 			// Since we do not sleep, we must open the popup
 			// in an async exec. This is necessary because
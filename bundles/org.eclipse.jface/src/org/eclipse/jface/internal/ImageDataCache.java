@@ -0,0 +1,545 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.internal;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.FileLocator;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.URIUtil;
+import org.eclipse.jface.util.Policy;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * (NON-API) A persistent cache of decoded {@link ImageData}.
+ * <p>
+ * Entries are keyed by the image URL and zoom level and are only valid as long
+ * as the local file the URL resolves to (the bundle jar or the image file
+ * itself) keeps its path, size and modification time. Since bundle jars and
+ * directories carry the bundle version in their name, updating a bundle
+ * invalidates its entries. Images that do not exist (for instance missing
+ * "@2x" variants) are cached as well, so the lookup of a missing high-dpi
+ * image does not have to hit the bundle again.
+ * </p>
+ * <p>
+ * Entries are written by a background thread, so a cache miss only costs the
+ * caller the decoding of the image. Writes are dropped if too many of them are
+ * pending.
+ * </p>
+ * <p>
+ * The entries take at most {@link #MAX_SIZE} bytes on disk. When the cache
+ * grows beyond that, the oldest entries are removed in the background, when the
+ * location is set and after every {@link #PRUNE_INTERVAL} writes.
+ * </p>
+ * <p>
+ * The cache is disabled until a location has been set with
+ * {@link #setLocation(File)}.
+ * </p>
+ */
+public final class ImageDataCache {
+
+	private static final int MAGIC = 0x4A464943; // "JFIC"
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String FILE_PROTOCOL = "file"; //$NON-NLS-1$
+
+	private static final String JAR_PROTOCOL = "jar"; //$NON-NLS-1$
+
+	private static final String JAR_SEPARATOR = "!/"; //$NON-NLS-1$
+
+	private static final String SUFFIX = ".imgdata"; //$NON-NLS-1$
+
+	private static final int MAX_PENDING_WRITES = 256;
+
+	/**
+	 * The maximum size of all entries on disk in bytes.
+	 */
+	static final long MAX_SIZE = 32L * 1024 * 1024;
+
+	/**
+	 * The number of writes after which the size of the cache is checked again.
+	 */
+	static final int PRUNE_INTERVAL = 256;
+
+	private static final AtomicInteger writes = new AtomicInteger();
+
+	private static volatile File location;
+
+	private static final ThreadPoolExecutor writer = createWriter();
+
+	private ImageDataCache() {
+		// prevents instantiation
+	}
+
+	private static ThreadPoolExecutor createWriter() {
+		ThreadPoolExecutor executor = new ThreadPoolExecutor(1, 1, 5, TimeUnit.SECONDS,
+				new LinkedBlockingQueue<>(MAX_PENDING_WRITES), runnable -> {
+					Thread thread = new Thread(runnable, "JFace Image Data Cache Writer"); //$NON-NLS-1$
+					thread.setDaemon(true);
+					thread.setPriority(Thread.MIN_PRIORITY);
+					return thread;
+				}, new ThreadPoolExecutor.DiscardPolicy());
+		executor.allowCoreThreadTimeOut(true);
+		return executor;
+	}
+
+	/**
+	 * Sets the directory used to persist decoded image data. Passing
+	 * <code>null</code> disables the cache.
+	 *
+	 * @param directory the cache directory, or <code>null</code>
+	 */
+	public static void setLocation(File directory) {
+		if (directory != null && !directory.isDirectory() && !directory.mkdirs()) {
+			Policy.getLog().log(new Status(IStatus.WARNING, Policy.JFACE,
+					"Cannot create image data cache directory " + directory)); //$NON-NLS-1$
+			directory = null;
+		}
+		location = directory;
+		if (directory != null) {
+			prune(MAX_SIZE);
+		}
+	}
+
+	/**
+	 * @return the cache directory or <code>null</code> if the cache is disabled
+	 */
+	public static File getLocation() {
+		return location;
+	}
+
+	/**
+	 * @return whether decoded image data is persisted
+	 */
+	public static boolean isEnabled() {
+		return location != null;
+	}
+
+	/**
+	 * Removes all entries from the cache.
+	 */
+	public static void clear() {
+		File directory = location;
+		if (directory == null) {
+			return;
+		}
+		File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+	}
+
+	/**
+	 * Returns the image data for the given URL and zoom level from the cache, or
+	 * computes it with the given loader and stores it in the cache in the
+	 * background.
+	 *
+	 * @param url    the image URL
+	 * @param zoom   the zoom level
+	 * @param loader computes the image data on a cache miss, may return
+	 *               <code>null</code> if the image does not exist
+	 * @return the image data or <code>null</code> if the image does not exist
+	 */
+	public static ImageData computeIfAbsent(URL url, int zoom, Supplier<ImageData> loader) {
+		File directory = location;
+		if (directory == null || url == null) {
+			return loader.get();
+		}
+		String stamp = getStamp(url);
+		if (stamp == null) {
+			return loader.get();
+		}
+		String key = getKey(url, zoom);
+		File file = getFile(directory, key);
+		if (file.isFile()) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				if (readHeader(in, key, stamp)) {
+					return in.readBoolean() ? readImageData(in) : null;
+				}
+			} catch (IOException | RuntimeException e) {
+				// stale or corrupt entry, recompute it below
+			}
+		}
+		ImageData data = loader.get();
+		// the caller owns the returned data, store a copy of it
+		ImageData copy = data != null ? (ImageData) data.clone() : null;
+		writer.execute(() -> store(file, key, stamp, copy));
+		return data;
+	}
+
+	/**
+	 * Returns the image data for the given URL and zoom level from the cache.
+	 *
+	 * @param url  the image URL
+	 * @param zoom the zoom level
+	 * @return the image data, or <code>null</code> if the cache holds no valid
+	 *         entry for the image or the image does not exist
+	 */
+	public static ImageData read(URL url, int zoom) {
+		File directory = location;
+		if (directory == null || url == null) {
+			return null;
+		}
+		String stamp = getStamp(url);
+		if (stamp == null) {
+			return null;
+		}
+		String key = getKey(url, zoom);
+		File file = getFile(directory, key);
+		if (file.isFile()) {
+			try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+				if (readHeader(in, key, stamp) && in.readBoolean()) {
+					return readImageData(in);
+				}
+			} catch (IOException | RuntimeException e) {
+				// stale or corrupt entry
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Answers whether the cache holds a valid entry for the given URL and zoom
+	 * level.
+	 *
+	 * @param url  the image URL
+	 * @param zoom the zoom level
+	 * @return whether {@link #computeIfAbsent(URL, int, Supplier)} would not
+	 *         have to call its loader
+	 */
+	public static boolean contains(URL url, int zoom) {
+		File directory = location;
+		if (directory == null || url == null) {
+			return false;
+		}
+		String stamp = getStamp(url);
+		String key = getKey(url, zoom);
+		return stamp != null && contains(getFile(directory, key), key, stamp);
+	}
+
+	private static boolean contains(File file, String key, String stamp) {
+		if (!file.isFile()) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			return readHeader(in, key, stamp);
+		} catch (IOException | RuntimeException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Computes the image data for the given URL and zoom levels in the
+	 * background and stores them in the cache, unless they are cached already.
+	 *
+	 * @param url    the image URL
+	 * @param zooms  the zoom levels
+	 * @param loader computes the image data for a zoom level, may return
+	 *               <code>null</code> if the image does not exist
+	 */
+	public static void fill(URL url, int[] zooms, IntFunction<ImageData> loader) {
+		if (location == null || url == null) {
+			return;
+		}
+		writer.execute(() -> {
+			File directory = location;
+			String stamp = directory != null ? getStamp(url) : null;
+			if (stamp == null) {
+				return;
+			}
+			for (int zoom : zooms) {
+				String key = getKey(url, zoom);
+				File file = getFile(directory, key);
+				if (!contains(file, key, stamp)) {
+					store(file, key, stamp, loader.apply(zoom));
+				}
+			}
+		});
+	}
+
+	/**
+	 * Removes the oldest entries in the background until all entries take less
+	 * than three quarters of the given size, if they take more than the given
+	 * size.
+	 *
+	 * @param maxSize the maximum size of all entries in bytes
+	 */
+	public static void prune(long maxSize) {
+		File directory = location;
+		if (directory == null) {
+			return;
+		}
+		writer.execute(() -> {
+			File[] files = directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+			if (files == null) {
+				return;
+			}
+			long size = 0;
+			for (File file : files) {
+				size += file.length();
+			}
+			if (size <= maxSize) {
+				return;
+			}
+			Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+			for (int i = 0; i < files.length && size > maxSize * 3 / 4; i++) {
+				long length = files[i].length();
+				if (files[i].delete()) {
+					size -= length;
+				}
+			}
+		});
+	}
+
+	/**
+	 * Waits until the entries computed so far have been written.
+	 *
+	 * @param timeout the maximum time to wait in milliseconds
+	 * @return <code>false</code> if the writes did not complete in time or have
+	 *         been dropped
+	 * @throws InterruptedException if interrupted while waiting
+	 */
+	public static boolean awaitWrites(long timeout) throws InterruptedException {
+		CountDownLatch done = new CountDownLatch(1);
+		writer.execute(done::countDown);
+		return done.await(timeout, TimeUnit.MILLISECONDS);
+	}
+
+	private static String getKey(URL url, int zoom) {
+		return url.toExternalForm() + '@' + zoom;
+	}
+
+	private static File getFile(File directory, String key) {
+		return new File(directory, hash(key) + SUFFIX);
+	}
+
+	private static boolean readHeader(DataInputStream in, String key, String stamp) throws IOException {
+		return in.readInt() == MAGIC && in.readInt() == FORMAT_VERSION && key.equals(in.readUTF())
+				&& stamp.equals(in.readUTF());
+	}
+
+	private static void store(File file, String key, String stamp, ImageData data) {
+		File temp = null;
+		try {
+			temp = File.createTempFile("img", ".tmp", file.getParentFile()); //$NON-NLS-1$ //$NON-NLS-2$
+			try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temp)))) {
+				out.writeInt(MAGIC);
+				out.writeInt(FORMAT_VERSION);
+				out.writeUTF(key);
+				out.writeUTF(stamp);
+				out.writeBoolean(data != null);
+				if (data != null) {
+					writeImageData(out, data);
+				}
+			}
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+					StandardCopyOption.ATOMIC_MOVE);
+			temp = null;
+			if (writes.incrementAndGet() % PRUNE_INTERVAL == 0) {
+				prune(MAX_SIZE);
+			}
+		} catch (IOException | RuntimeException e) {
+			// the cache is an optimization only, a failed write must not fail image loading
+			if (InternalPolicy.DEBUG_TRACE_URL_IMAGE_DESCRIPTOR) {
+				Policy.getLog().log(new Status(IStatus.WARNING, Policy.JFACE,
+						"Cannot write image data cache entry for " + key, e)); //$NON-NLS-1$
+			}
+		} finally {
+			if (temp != null) {
+				temp.delete();
+			}
+		}
+	}
+
+	/**
+	 * Computes a freshness stamp for the local file the given URL resolves to.
+	 *
+	 * @return the stamp or <code>null</code> if the URL does not resolve to a
+	 *         local file
+	 */
+	private static String getStamp(URL url) {
+		try {
+			if (InternalPolicy.OSGI_AVAILABLE) {
+				URL platformURL = FileLocator.find(url);
+				if (platformURL != null) {
+					url = platformURL;
+				}
+				url = FileLocator.resolve(url);
+			}
+			if (JAR_PROTOCOL.equalsIgnoreCase(url.getProtocol())) {
+				String path = url.getPath();
+				int separator = path.indexOf(JAR_SEPARATOR);
+				if (separator != -1) {
+					url = new URL(path.substring(0, separator));
+				}
+			}
+			if (!FILE_PROTOCOL.equalsIgnoreCase(url.getProtocol())) {
+				return null;
+			}
+			File file = toFile(url);
+			if (file == null || !file.exists()) {
+				return null;
+			}
+			return file.getAbsolutePath() + '|' + file.length() + '|' + file.lastModified();
+		} catch (IOException | URISyntaxException | RuntimeException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Converts a file URL to a file. The URL may be properly encoded, or not
+	 * encoded at all like the file URLs of bundles and locations.
+	 *
+	 * @param url the file URL
+	 * @return the file or <code>null</code> if the URL is not a file URL
+	 * @throws URISyntaxException if the URL cannot be converted
+	 */
+	public static File toFile(URL url) throws URISyntaxException {
+		try {
+			return new File(url.toURI());
+		} catch (URISyntaxException | IllegalArgumentException e) {
+			return URIUtil.toFile(URIUtil.toURI(url));
+		}
+	}
+
+	private static String hash(String key) {
+		try {
+			byte[] digest = MessageDigest.getInstance("SHA-1").digest(key.getBytes(StandardCharsets.UTF_8)); //$NON-NLS-1$
+			StringBuilder result = new StringBuilder(digest.length * 2);
+			for (byte b : digest) {
+				result.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+			}
+			return result.toString();
+		} catch (NoSuchAlgorithmException e) {
+			return Integer.toHexString(key.hashCode());
+		}
+	}
+
+	/**
+	 * Writes the given image data in the format of the cache entries.
+	 *
+	 * @param out  the stream to write to
+	 * @param data the image data
+	 * @throws IOException if writing fails
+	 */
+	public static void writeImageData(DataOutputStream out, ImageData data) throws IOException {
+		out.writeInt(data.width);
+		out.writeInt(data.height);
+		out.writeInt(data.depth);
+		out.writeInt(data.scanlinePad);
+		PaletteData palette = data.palette;
+		out.writeBoolean(palette.isDirect);
+		if (palette.isDirect) {
+			out.writeInt(palette.redMask);
+			out.writeInt(palette.greenMask);
+			out.writeInt(palette.blueMask);
+		} else {
+			RGB[] colors = palette.colors != null ? palette.colors : new RGB[0];
+			out.writeInt(colors.length);
+			for (RGB color : colors) {
+				out.writeByte(color.red);
+				out.writeByte(color.green);
+				out.writeByte(color.blue);
+			}
+		}
+		writeBytes(out, data.data);
+		out.writeInt(data.maskPad);
+		writeBytes(out, data.maskData);
+		writeBytes(out, data.alphaData);
+		out.writeInt(data.alpha);
+		out.writeInt(data.transparentPixel);
+		out.writeInt(data.type);
+	}
+
+	/**
+	 * Reads image data written by {@link #writeImageData(DataOutputStream, ImageData)}.
+	 *
+	 * @param in the stream to read from
+	 * @return the image data
+	 * @throws IOException if reading fails
+	 */
+	public static ImageData readImageData(DataInputStream in) throws IOException {
+		int width = in.readInt();
+		int height = in.readInt();
+		int depth = in.readInt();
+		int scanlinePad = in.readInt();
+		PaletteData palette;
+		if (in.readBoolean()) {
+			palette = new PaletteData(in.readInt(), in.readInt(), in.readInt());
+		} else {
+			RGB[] colors = new RGB[in.readInt()];
+			for (int i = 0; i < colors.length; i++) {
+				colors[i] = new RGB(in.readUnsignedByte(), in.readUnsignedByte(), in.readUnsignedByte());
+			}
+			palette = new PaletteData(colors);
+		}
+		byte[] bytes = readBytes(in);
+		ImageData data = new ImageData(width, height, depth, palette, scanlinePad, bytes);
+		data.maskPad = in.readInt();
+		data.maskData = readBytes(in);
+		data.alphaData = readBytes(in);
+		data.alpha = in.readInt();
+		data.transparentPixel = in.readInt();
+		data.type = in.readInt();
+		return data;
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		if (bytes == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static byte[] readBytes(DataInputStream in) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return bytes;
+	}
+}
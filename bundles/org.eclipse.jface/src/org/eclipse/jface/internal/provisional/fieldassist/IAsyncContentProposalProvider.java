@@ -0,0 +1,79 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.internal.provisional.fieldassist;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.jface.fieldassist.ContentProposalAdapter;
+import org.eclipse.jface.fieldassist.IContentProposal;
+import org.eclipse.jface.fieldassist.IContentProposalProvider;
+
+/**
+ * An IAsyncContentProposalProvider computes its proposals in a background
+ * thread. A {@link ContentProposalAdapter} using such a provider does not block
+ * the UI thread while the proposals are computed. It shows the proposals as
+ * they are reported, and cancels a computation as soon as its result is no
+ * longer needed, for instance because the user typed another character.
+ * <p>
+ * <strong>EXPERIMENTAL</strong>. This class or interface has been added as
+ * part of a work in progress. There is a guarantee neither that this API will
+ * work nor that it will remain the same. Please do not use this API without
+ * consulting with the Platform/UI team.
+ * </p>
+ */
+public interface IAsyncContentProposalProvider extends IContentProposalProvider {
+
+	/**
+	 * Computes the content proposals for a field. This method is called in a
+	 * background thread. The proposals may be reported in several parts, which
+	 * are shown in the order in which they are reported. All proposals must be
+	 * reported before this method returns.
+	 *
+	 * @param contents
+	 *            the contents of the text field when the proposals were
+	 *            requested
+	 * @param position
+	 *            the position of the cursor in the contents
+	 * @param proposals
+	 *            receives the proposals, may be called from any thread
+	 * @param monitor
+	 *            the monitor that is canceled once the proposals are no longer
+	 *            needed
+	 */
+	void computeProposals(String contents, int position, Consumer<IContentProposal[]> proposals,
+			IProgressMonitor monitor);
+
+	/**
+	 * Returns the proposals computed by
+	 * {@link #computeProposals(String, int, Consumer, IProgressMonitor)} in the
+	 * calling thread.
+	 */
+	@Override
+	default IContentProposal[] getProposals(String contents, int position) {
+		List<IContentProposal> all = new ArrayList<>();
+		computeProposals(contents, position, proposals -> {
+			synchronized (all) {
+				all.addAll(Arrays.asList(proposals));
+			}
+		}, new NullProgressMonitor());
+		synchronized (all) {
+			return all.toArray(new IContentProposal[all.size()]);
+		}
+	}
+}
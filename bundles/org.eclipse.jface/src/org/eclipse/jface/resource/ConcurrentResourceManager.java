@@ -0,0 +1,358 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.resource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.core.runtime.Assert;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * A thread-safe resource manager for a particular device.
+ * <p>
+ * Unlike {@link DeviceResourceManager} and {@link LocalResourceManager}, which
+ * must only be used from the UI thread, this manager may be used from any
+ * thread. This allows, for instance, decorators and label providers that
+ * compute image descriptors in background jobs to create the corresponding
+ * images ahead of time and share them with the UI thread. Reference counts are
+ * maintained per descriptor without a global lock, so concurrent requests for
+ * different resources do not contend with each other.
+ * </p>
+ * <p>
+ * Resources are allocated on the calling thread, outside of any lock. Threads
+ * requesting a resource that is being allocated by another thread wait for
+ * that allocation instead of allocating it again. If the last reference to a
+ * resource is released on a thread other than the UI thread of the display,
+ * the resource is disposed asynchronously on the UI thread.
+ * </p>
+ * <p>
+ * The manager records usage statistics, see {@link #getStatistics()}.
+ * </p>
+ *
+ * @since 3.26
+ */
+public final class ConcurrentResourceManager extends ResourceManager {
+
+	/**
+	 * A snapshot of the usage statistics of a {@link ConcurrentResourceManager}.
+	 *
+	 * @since 3.26
+	 */
+	public static final class Statistics {
+		private final int liveResources;
+		private final int peakLiveResources;
+		private final int references;
+		private final long allocations;
+		private final long deallocations;
+		private final int leakedResources;
+
+		Statistics(int liveResources, int peakLiveResources, int references, long allocations, long deallocations,
+				int leakedResources) {
+			this.liveResources = liveResources;
+			this.peakLiveResources = peakLiveResources;
+			this.references = references;
+			this.allocations = allocations;
+			this.deallocations = deallocations;
+			this.leakedResources = leakedResources;
+		}
+
+		/**
+		 * @return the number of resources currently allocated
+		 */
+		public int getLiveResources() {
+			return liveResources;
+		}
+
+		/**
+		 * @return the highest number of resources that were allocated at the same
+		 *         time
+		 */
+		public int getPeakLiveResources() {
+			return peakLiveResources;
+		}
+
+		/**
+		 * @return the number of outstanding references to the allocated resources
+		 */
+		public int getReferences() {
+			return references;
+		}
+
+		/**
+		 * @return the total number of resource allocations
+		 */
+		public long getAllocations() {
+			return allocations;
+		}
+
+		/**
+		 * @return the total number of resource deallocations
+		 */
+		public long getDeallocations() {
+			return deallocations;
+		}
+
+		/**
+		 * @return the number of resources that were still referenced when the
+		 *         manager was disposed, that is resources whose clients forgot to
+		 *         release them
+		 */
+		public int getLeakedResources() {
+			return leakedResources;
+		}
+
+		@Override
+		public String toString() {
+			return "live=" + liveResources + ", peak=" + peakLiveResources + ", references=" + references //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ ", allocations=" + allocations + ", deallocations=" + deallocations + ", leaked=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+					+ leakedResources;
+		}
+	}
+
+	/**
+	 * Holds a reference count for a resource that is allocated or being
+	 * allocated. The count is only modified while the map entry is locked, the
+	 * resource is published through the future once it has been allocated.
+	 */
+	private static final class RefCount {
+		final CompletableFuture<Object> resource = new CompletableFuture<>();
+		int count = 1;
+	}
+
+	private final Device device;
+
+	private final Map<DeviceResourceDescriptor, RefCount> map = new ConcurrentHashMap<>();
+
+	private final AtomicInteger liveResources = new AtomicInteger();
+
+	private final AtomicInteger peakLiveResources = new AtomicInteger();
+
+	private final AtomicInteger references = new AtomicInteger();
+
+	private final AtomicLong allocations = new AtomicLong();
+
+	private final AtomicLong deallocations = new AtomicLong();
+
+	private volatile int leakedResources;
+
+	private volatile Image missingImage;
+
+	private final List<Runnable> disposeExecs = new ArrayList<>();
+
+	/**
+	 * Creates a new resource manager for the given device.
+	 *
+	 * @param device device to manage, not <code>null</code>
+	 */
+	public ConcurrentResourceManager(Device device) {
+		Assert.isNotNull(device);
+		this.device = device;
+	}
+
+	@Override
+	public Device getDevice() {
+		return device;
+	}
+
+	@Override
+	public Object create(DeviceResourceDescriptor descriptor) {
+		boolean[] allocating = new boolean[1];
+		// only the reference count is updated while the entry is locked, the
+		// resource itself is allocated afterwards
+		RefCount refCount = map.compute(descriptor, (key, existing) -> {
+			if (existing != null) {
+				existing.count++;
+				return existing;
+			}
+			allocating[0] = true;
+			return new RefCount();
+		});
+		if (allocating[0]) {
+			Object resource;
+			try {
+				resource = descriptor.createResource(device);
+			} catch (RuntimeException | Error e) {
+				// a failed allocation leaves the map unchanged, waiting threads fail
+				// as well
+				map.remove(descriptor, refCount);
+				refCount.resource.completeExceptionally(e);
+				throw e;
+			}
+			allocations.incrementAndGet();
+			peakLiveResources.accumulateAndGet(liveResources.incrementAndGet(), Math::max);
+			refCount.resource.complete(resource);
+		}
+		Object resource = getResource(refCount);
+		references.incrementAndGet();
+		return resource;
+	}
+
+	private static Object getResource(RefCount refCount) {
+		try {
+			return refCount.resource.join();
+		} catch (CompletionException e) {
+			Throwable cause = e.getCause();
+			if (cause instanceof RuntimeException) {
+				throw (RuntimeException) cause;
+			}
+			if (cause instanceof Error) {
+				throw (Error) cause;
+			}
+			throw e;
+		}
+	}
+
+	@Override
+	public void destroy(DeviceResourceDescriptor descriptor) {
+		RefCount[] released = new RefCount[1];
+		boolean[] found = new boolean[1];
+		map.computeIfPresent(descriptor, (key, existing) -> {
+			found[0] = true;
+			if (--existing.count == 0) {
+				released[0] = existing;
+				return null;
+			}
+			return existing;
+		});
+		if (found[0]) {
+			references.decrementAndGet();
+		}
+		if (released[0] != null) {
+			deallocate(released[0], descriptor);
+		}
+	}
+
+	@Override
+	public Object find(DeviceResourceDescriptor descriptor) {
+		RefCount refCount = map.get(descriptor);
+		if (refCount == null || !refCount.resource.isDone() || refCount.resource.isCompletedExceptionally()) {
+			return null;
+		}
+		return refCount.resource.join();
+	}
+
+	/**
+	 * Returns a snapshot of the usage statistics of this manager.
+	 *
+	 * @return the current statistics
+	 */
+	public Statistics getStatistics() {
+		return new Statistics(liveResources.get(), peakLiveResources.get(), references.get(), allocations.get(),
+				deallocations.get(), leakedResources);
+	}
+
+	@Override
+	protected Image getDefaultImage() {
+		Image image = missingImage;
+		if (image == null) {
+			synchronized (this) {
+				image = missingImage;
+				if (image == null) {
+					image = ImageDescriptor.getMissingImageDescriptor().createImage(device);
+					missingImage = image;
+				}
+			}
+		}
+		return image;
+	}
+
+	@Override
+	public void disposeExec(Runnable r) {
+		Assert.isNotNull(r);
+		synchronized (disposeExecs) {
+			disposeExecs.add(r);
+		}
+	}
+
+	@Override
+	public void cancelDisposeExec(Runnable r) {
+		Assert.isNotNull(r);
+		synchronized (disposeExecs) {
+			disposeExecs.remove(r);
+		}
+	}
+
+	/**
+	 * Disposes all remaining resources allocated by this manager. The resources
+	 * still referenced at this point are counted as leaked.
+	 */
+	@Override
+	public void dispose() {
+		Runnable[] execs;
+		synchronized (disposeExecs) {
+			execs = disposeExecs.toArray(new Runnable[disposeExecs.size()]);
+			disposeExecs.clear();
+		}
+		RuntimeException foundException = null;
+		for (Runnable exec : execs) {
+			try {
+				exec.run();
+			} catch (RuntimeException e) {
+				foundException = e;
+			}
+		}
+
+		int leaked = 0;
+		for (DeviceResourceDescriptor descriptor : map.keySet()) {
+			RefCount refCount = map.remove(descriptor);
+			if (refCount != null) {
+				leaked++;
+				references.addAndGet(-refCount.count);
+				deallocate(refCount, descriptor);
+			}
+		}
+		leakedResources += leaked;
+
+		Image image = missingImage;
+		if (image != null) {
+			missingImage = null;
+			runInUIThread(image::dispose);
+		}
+
+		if (foundException != null) {
+			throw foundException;
+		}
+	}
+
+	private void deallocate(RefCount refCount, DeviceResourceDescriptor descriptor) {
+		// a resource still being allocated is destroyed once it is available
+		refCount.resource.thenAccept(resource -> {
+			deallocations.incrementAndGet();
+			liveResources.decrementAndGet();
+			runInUIThread(() -> descriptor.destroyResource(resource));
+		});
+	}
+
+	private void runInUIThread(Runnable runnable) {
+		if (device instanceof Display) {
+			Display display = (Display) device;
+			if (display.getThread() != Thread.currentThread()) {
+				if (!display.isDisposed()) {
+					display.asyncExec(runnable);
+				}
+				return;
+			}
+		}
+		runnable.run();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,7 @@ import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.internal.ImageDataCache;
 import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.util.Policy;
 import org.eclipse.swt.SWT;
@@ -34,6 +35,7 @@ import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.ImageDataProvider;
 import org.eclipse.swt.graphics.ImageFileNameProvider;
+import org.eclipse.swt.widgets.Display;
 
 /**
  * An ImageDescriptor that gets its information from a URL. This class is not
@@ -65,12 +67,32 @@ class URLImageDescriptor extends ImageDescriptor {
 	private static class URLImageDataProvider implements ImageDataProvider {
 		private String url;
 
+		/**
+		 * The image data for zoom level 100 read from the {@link ImageDataCache},
+		 * or <code>null</code>.
+		 */
+		private ImageData cachedData;
+
 		public URLImageDataProvider(String url) {
 			this.url = url;
 		}
 
+		URLImageDataProvider(String url, ImageData cachedData) {
+			this.url = url;
+			this.cachedData = cachedData;
+		}
+
 		@Override
 		public ImageData getImageData(int zoom) {
+			if (zoom == 100 && cachedData != null) {
+				ImageData data = cachedData;
+				cachedData = null;
+				return data;
+			}
+			return ImageDataCache.computeIfAbsent(getURL(url), zoom, () -> loadImageData(zoom));
+		}
+
+		private ImageData loadImageData(int zoom) {
 			URL tempURL = getURL(url);
 			if (tempURL != null) {
 				URL xUrl = getxURL(tempURL, zoom);
@@ -182,6 +204,40 @@ class URLImageDescriptor extends ImageDescriptor {
 		}
 	}
 
+	/**
+	 * Decodes the image in the background and stores it in the
+	 * {@link ImageDataCache}, so the next start does not have to load the image
+	 * file.
+	 */
+	private void fillImageDataCache(Device device) {
+		if (ImageDataCache.isEnabled()) {
+			int zoom = getVariantZoom(device);
+			int[] zooms = zoom == 100 ? new int[] { 100 } : new int[] { 100, zoom };
+			ImageDataCache.fill(getURL(url), zooms, new URLImageDataProvider(url)::loadImageData);
+		}
+	}
+
+	/**
+	 * Returns the zoom level of the image variant ("@1.5x" or "@2x") matching
+	 * the zoom of the primary monitor of the given device, or 100.
+	 *
+	 * @param device the device, must be the display of the calling thread
+	 *               to be considered
+	 * @return 100, 150 or 200
+	 */
+	private static int getVariantZoom(Device device) {
+		if (device instanceof Display && ((Display) device).getThread() == Thread.currentThread()) {
+			int zoom = ((Display) device).getPrimaryMonitor().getZoom();
+			if (zoom >= 175) {
+				return 200;
+			}
+			if (zoom >= 125) {
+				return 150;
+			}
+		}
+		return 100;
+	}
+
 	@Override
 	public int hashCode() {
 		return url.hashCode();
@@ -270,17 +326,26 @@ class URLImageDescriptor extends ImageDescriptor {
 		try {
 
 			if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
+				URLImageDataProvider dataProvider = new URLImageDataProvider(url);
 				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY) {
-					try {
-						return new Image(device, new URLImageFileNameProvider(url));
-					} catch (SWTException | IllegalArgumentException exception) {
-						// If we fail fall back to the slower input stream method.
+					// Cached image data is cheaper than letting SWT load the file
+					ImageData cachedData = ImageDataCache.read(getURL(url), 100);
+					if (cachedData != null) {
+						dataProvider = new URLImageDataProvider(url, cachedData);
+					} else {
+						try {
+							Image image = new Image(device, new URLImageFileNameProvider(url));
+							fillImageDataCache(device);
+							return image;
+						} catch (SWTException | IllegalArgumentException exception) {
+							// If we fail fall back to the slower input stream method.
+						}
 					}
 				}
 
 				Image image = null;
 				try {
-					image = new Image(device, new URLImageDataProvider(url));
+					image = new Image(device, dataProvider);
 				} catch (SWTException e) {
 					if (e.code != SWT.ERROR_INVALID_IMAGE) {
 						throw e;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,49 +15,84 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.forms.widgets;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-import java.nio.charset.StandardCharsets;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 import java.util.Vector;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.ui.forms.HyperlinkSettings;
-import org.w3c.dom.Document;
-import org.w3c.dom.NamedNodeMap;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.ErrorHandler;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.SAXParseException;
 
 public class FormTextModel {
 
 	/*
-	 * This class prevents parse errors from being written to standard output
+	 * An element, text or other node of the parsed markup, with the name,
+	 * attributes and children of elements and the value of text nodes.
+	 * Comments are dropped and the text around them is merged, the way a DOM
+	 * document parsed while ignoring comments has them.
 	 */
-	public static class ParseErrorHandler implements ErrorHandler {
+	private static final class MarkupNode {
+		static final int ELEMENT = 1;
 
-		@Override
-		public void error(SAXParseException arg0) throws SAXException {
+		static final int TEXT = 2;
+
+		/* CDATA sections and processing instructions, which are ignored */
+		static final int OTHER = 3;
+
+		final int type;
+
+		final String name;
+
+		final String value;
+
+		/* names and values of the attributes */
+		String[] attributes;
+
+		private List<MarkupNode> children;
+
+		MarkupNode(int type, String name, String value) {
+			this.type = type;
+			this.name = name;
+			this.value = value;
 		}
 
-		@Override
-		public void fatalError(SAXParseException arg0) throws SAXException {
+		String getAttribute(String attributeName) {
+			if (attributes != null) {
+				for (int i = 0; i < attributes.length; i += 2) {
+					if (attributes[i].equals(attributeName)) {
+						return attributes[i + 1];
+					}
+				}
+			}
+			return null;
+		}
+
+		List<MarkupNode> getChildren() {
+			if (children == null) {
+				return Collections.emptyList();
+			}
+			return children;
 		}
 
-		@Override
-		public void warning(SAXParseException arg0) throws SAXException {
+		void addChild(MarkupNode child) {
+			if (children == null) {
+				children = new ArrayList<>(4);
+			}
+			children.add(child);
 		}
 	}
 
-	private static final DocumentBuilderFactory documentBuilderFactory = DocumentBuilderFactory
-			.newInstance();
+	private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event"; //$NON-NLS-1$
+
+	private static final XMLInputFactory inputFactory = createInputFactory();
 
 	private boolean whitespaceNormalized = true;
 
@@ -103,7 +138,6 @@ public class FormTextModel {
 		}
 		return sbuf.toString();
 	}
-
 	/*
 	 * @see ITextModel#parse(String)
 	 */
@@ -113,63 +147,178 @@ public class FormTextModel {
 			return;
 		}
 		taggedText = processAmpersandEscapes(taggedText);
-		InputStream stream = new ByteArrayInputStream(taggedText.getBytes(StandardCharsets.UTF_8));
-		parseInputStream(stream, expandURLs);
+		reset();
+		try {
+			parse(inputFactory.createXMLStreamReader(new StringReader(taggedText)), expandURLs);
+		} catch (XMLStreamException e) {
+			handleParseError(e);
+		}
 	}
 
+	/**
+	 * Replaces the predefined entities by character references, and escapes
+	 * the ampersands that do not start an entity or character reference.
+	 */
 	private String processAmpersandEscapes(String pTaggedText) {
-		try {
-			String taggedText = pTaggedText.replaceAll("&quot;", "&#034;"); //$NON-NLS-1$//$NON-NLS-2$
-			taggedText = taggedText.replaceAll("&apos;", "&#039;"); //$NON-NLS-1$//$NON-NLS-2$
-			taggedText = taggedText.replaceAll("&lt;", "&#060;"); //$NON-NLS-1$//$NON-NLS-2$
-			taggedText = taggedText.replaceAll("&gt;", "&#062;"); //$NON-NLS-1$//$NON-NLS-2$
-			taggedText = taggedText.replaceAll("&amp;", "&#038;"); //$NON-NLS-1$//$NON-NLS-2$
-			return taggedText.replaceAll("&([^#])", "&#038;$1"); //$NON-NLS-1$//$NON-NLS-2$
-		} catch (Exception e) {
+		int index = pTaggedText.indexOf('&');
+		if (index == -1) {
 			return pTaggedText;
 		}
+		StringBuilder buf = new StringBuilder(pTaggedText.length() + 16);
+		int start = 0;
+		for (; index != -1; index = pTaggedText.indexOf('&', index + 1)) {
+			buf.append(pTaggedText, start, index);
+			start = index;
+			String reference = null;
+			if (pTaggedText.startsWith("&quot;", index)) { //$NON-NLS-1$
+				reference = "&#034;"; //$NON-NLS-1$
+				start += 6;
+			} else if (pTaggedText.startsWith("&apos;", index)) { //$NON-NLS-1$
+				reference = "&#039;"; //$NON-NLS-1$
+				start += 6;
+			} else if (pTaggedText.startsWith("&lt;", index)) { //$NON-NLS-1$
+				reference = "&#060;"; //$NON-NLS-1$
+				start += 4;
+			} else if (pTaggedText.startsWith("&gt;", index)) { //$NON-NLS-1$
+				reference = "&#062;"; //$NON-NLS-1$
+				start += 4;
+			} else if (pTaggedText.startsWith("&amp;", index)) { //$NON-NLS-1$
+				reference = "&#038;"; //$NON-NLS-1$
+				start += 5;
+			} else if (index + 1 < pTaggedText.length() && pTaggedText.charAt(index + 1) != '#') {
+				reference = "&#038;"; //$NON-NLS-1$
+				start += 1;
+			}
+			if (reference != null) {
+				buf.append(reference);
+			}
+		}
+		buf.append(pTaggedText, start, pTaggedText.length());
+		return buf.toString();
 	}
 
 	public void parseInputStream(InputStream is, boolean expandURLs) {
-
-		documentBuilderFactory.setNamespaceAware(true);
-		documentBuilderFactory.setIgnoringComments(true);
-
 		reset();
 		try {
-			DocumentBuilder parser = documentBuilderFactory
-					.newDocumentBuilder();
-			parser.setErrorHandler(new ParseErrorHandler());
-			InputSource source = new InputSource(is);
-			Document doc = parser.parse(source);
-			processDocument(doc, expandURLs);
-		} catch (ParserConfigurationException | SAXException e) {
+			parse(inputFactory.createXMLStreamReader(is), expandURLs);
+		} catch (XMLStreamException e) {
+			handleParseError(e);
+		}
+	}
+
+	private void parse(XMLStreamReader reader, boolean expandURLs) throws XMLStreamException {
+		MarkupNode root;
+		try {
+			root = readDocument(reader);
+		} finally {
+			reader.close();
+		}
+		processSubnodes(paragraphs, root.getChildren(), expandURLs);
+	}
+
+	private void handleParseError(XMLStreamException e) {
+		if (e.getNestedException() instanceof IOException) {
+			SWT.error(SWT.ERROR_IO, e.getNestedException());
+		} else {
 			SWT.error(SWT.ERROR_INVALID_ARGUMENT, e, " " + e.getMessage()); //$NON-NLS-1$
-		} catch (IOException e) {
-			SWT.error(SWT.ERROR_IO, e);
 		}
 	}
 
-	private void processDocument(Document doc, boolean expandURLs) {
-		Node root = doc.getDocumentElement();
-		NodeList children = root.getChildNodes();
-		processSubnodes(paragraphs, children, expandURLs);
+	private static XMLInputFactory createInputFactory() {
+		XMLInputFactory factory = XMLInputFactory.newFactory();
+		try {
+			// CDATA sections are not text of the model
+			factory.setProperty(REPORT_CDATA, Boolean.TRUE);
+		} catch (IllegalArgumentException e) {
+			// the parser reports CDATA sections as text
+		}
+		return factory;
+	}
+
+	private static MarkupNode readDocument(XMLStreamReader reader) throws XMLStreamException {
+		while (reader.hasNext()) {
+			if (reader.next() == XMLStreamConstants.START_ELEMENT) {
+				return readElement(reader);
+			}
+		}
+		throw new XMLStreamException("Premature end of file.", reader.getLocation()); //$NON-NLS-1$
 	}
 
-	private void processSubnodes(Vector<Paragraph> plist, NodeList children, boolean expandURLs) {
-		for (int i = 0; i < children.getLength(); i++) {
-			Node child = children.item(i);
-			if (child.getNodeType() == Node.TEXT_NODE) {
+	/**
+	 * Reads the element the reader is positioned at, up to its end tag.
+	 */
+	private static MarkupNode readElement(XMLStreamReader reader) throws XMLStreamException {
+		MarkupNode element = new MarkupNode(MarkupNode.ELEMENT,
+				getQualifiedName(reader.getPrefix(), reader.getLocalName()), null);
+		int count = reader.getAttributeCount();
+		if (count > 0) {
+			String[] attributes = new String[count * 2];
+			for (int i = 0; i < count; i++) {
+				attributes[2 * i] = getQualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i));
+				attributes[2 * i + 1] = reader.getAttributeValue(i);
+			}
+			element.attributes = attributes;
+		}
+		StringBuilder text = null;
+		while (true) {
+			int event = reader.next();
+			switch (event) {
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.SPACE:
+				if (text == null) {
+					text = new StringBuilder();
+				}
+				text.append(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+				break;
+			case XMLStreamConstants.START_ELEMENT:
+				addText(element, text);
+				text = null;
+				element.addChild(readElement(reader));
+				break;
+			case XMLStreamConstants.CDATA:
+			case XMLStreamConstants.PROCESSING_INSTRUCTION:
+			case XMLStreamConstants.ENTITY_REFERENCE:
+				addText(element, text);
+				text = null;
+				element.addChild(new MarkupNode(MarkupNode.OTHER, null, null));
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				addText(element, text);
+				return element;
+			default:
+				// comments are ignored, the text around them is merged
+				break;
+			}
+		}
+	}
+
+	private static void addText(MarkupNode element, StringBuilder text) {
+		if (text != null) {
+			element.addChild(new MarkupNode(MarkupNode.TEXT, null, text.toString()));
+		}
+	}
+
+	private static String getQualifiedName(String prefix, String localName) {
+		if (prefix == null || prefix.isEmpty()) {
+			return localName;
+		}
+		return prefix + ':' + localName;
+	}
+
+	private void processSubnodes(Vector<Paragraph> plist, List<MarkupNode> children, boolean expandURLs) {
+		for (int i = 0; i < children.size(); i++) {
+			MarkupNode child = children.get(i);
+			if (child.type == MarkupNode.TEXT) {
 				// Make an implicit paragraph
-				String text = getSingleNodeText(child);
+				String text = getSingleNodeText(children, i);
 				if (text != null && !isIgnorableWhiteSpace(text, true)) {
 					Paragraph p = new Paragraph(true);
 					p.parseRegularText(text, expandURLs, true,
 							getHyperlinkSettings(), null);
 					plist.add(p);
 				}
-			} else if (child.getNodeType() == Node.ELEMENT_NODE) {
-				String tag = child.getNodeName().toLowerCase();
+			} else if (child.type == MarkupNode.ELEMENT) {
+				String tag = child.name.toLowerCase();
 				if (tag.equals("p")) { //$NON-NLS-1$
 					Paragraph p = processParagraph(child, expandURLs);
 					if (p != null)
@@ -183,33 +332,28 @@ public class FormTextModel {
 		}
 	}
 
-	private Paragraph processParagraph(Node paragraph, boolean expandURLs) {
-		NodeList children = paragraph.getChildNodes();
-		NamedNodeMap atts = paragraph.getAttributes();
-		Node addSpaceAtt = atts.getNamedItem("addVerticalSpace"); //$NON-NLS-1$
+	private Paragraph processParagraph(MarkupNode paragraph, boolean expandURLs) {
+		String addSpaceAtt = paragraph.getAttribute("addVerticalSpace"); //$NON-NLS-1$
 		boolean addSpace = true;
 
 		if (addSpaceAtt == null)
-			addSpaceAtt = atts.getNamedItem("vspace"); //$NON-NLS-1$
+			addSpaceAtt = paragraph.getAttribute("vspace"); //$NON-NLS-1$
 
 		if (addSpaceAtt != null) {
-			String value = addSpaceAtt.getNodeValue();
-			addSpace = value.equalsIgnoreCase("true"); //$NON-NLS-1$
+			addSpace = addSpaceAtt.equalsIgnoreCase("true"); //$NON-NLS-1$
 		}
 		Paragraph p = new Paragraph(addSpace);
 
-		processSegments(p, children, expandURLs);
+		processSegments(p, paragraph.getChildren(), expandURLs);
 		return p;
 	}
 
-	private Paragraph processListItem(Node listItem, boolean expandURLs) {
-		NodeList children = listItem.getChildNodes();
-		NamedNodeMap atts = listItem.getAttributes();
-		Node addSpaceAtt = atts.getNamedItem("addVerticalSpace");//$NON-NLS-1$
-		Node styleAtt = atts.getNamedItem("style");//$NON-NLS-1$
-		Node valueAtt = atts.getNamedItem("value");//$NON-NLS-1$
-		Node indentAtt = atts.getNamedItem("indent");//$NON-NLS-1$
-		Node bindentAtt = atts.getNamedItem("bindent");//$NON-NLS-1$
+	private Paragraph processListItem(MarkupNode listItem, boolean expandURLs) {
+		String addSpaceAtt = listItem.getAttribute("addVerticalSpace");//$NON-NLS-1$
+		String styleAtt = listItem.getAttribute("style");//$NON-NLS-1$
+		String valueAtt = listItem.getAttribute("value");//$NON-NLS-1$
+		String indentAtt = listItem.getAttribute("indent");//$NON-NLS-1$
+		String bindentAtt = listItem.getAttribute("bindent");//$NON-NLS-1$
 		int style = BulletParagraph.CIRCLE;
 		int indent = -1;
 		int bindent = -1;
@@ -217,35 +361,31 @@ public class FormTextModel {
 		boolean addSpace = true;
 
 		if (addSpaceAtt != null) {
-			String value = addSpaceAtt.getNodeValue();
-			addSpace = value.equalsIgnoreCase("true"); //$NON-NLS-1$
+			addSpace = addSpaceAtt.equalsIgnoreCase("true"); //$NON-NLS-1$
 		}
 		if (styleAtt != null) {
-			String value = styleAtt.getNodeValue();
-			if (value.equalsIgnoreCase("text")) { //$NON-NLS-1$
+			if (styleAtt.equalsIgnoreCase("text")) { //$NON-NLS-1$
 				style = BulletParagraph.TEXT;
-			} else if (value.equalsIgnoreCase("image")) { //$NON-NLS-1$
+			} else if (styleAtt.equalsIgnoreCase("image")) { //$NON-NLS-1$
 				style = BulletParagraph.IMAGE;
-			} else if (value.equalsIgnoreCase("bullet")) { //$NON-NLS-1$
+			} else if (styleAtt.equalsIgnoreCase("bullet")) { //$NON-NLS-1$
 				style = BulletParagraph.CIRCLE;
 			}
 		}
 		if (valueAtt != null) {
-			text = valueAtt.getNodeValue();
+			text = valueAtt;
 			if (style == BulletParagraph.IMAGE)
 				text = "i." + text; //$NON-NLS-1$
 		}
 		if (indentAtt != null) {
-			String value = indentAtt.getNodeValue();
 			try {
-				indent = Integer.parseInt(value);
+				indent = Integer.parseInt(indentAtt);
 			} catch (NumberFormatException e) {
 			}
 		}
 		if (bindentAtt != null) {
-			String value = bindentAtt.getNodeValue();
 			try {
-				bindent = Integer.parseInt(value);
+				bindent = Integer.parseInt(bindentAtt);
 			} catch (NumberFormatException e) {
 			}
 		}
@@ -256,25 +396,25 @@ public class FormTextModel {
 		p.setBulletStyle(style);
 		p.setBulletText(text);
 
-		processSegments(p, children, expandURLs);
+		processSegments(p, listItem.getChildren(), expandURLs);
 		return p;
 	}
 
-	private void processSegments(Paragraph p, NodeList children,
+	private void processSegments(Paragraph p, List<MarkupNode> children,
 			boolean expandURLs) {
-		for (int i = 0; i < children.getLength(); i++) {
-			Node child = children.item(i);
+		for (int i = 0; i < children.size(); i++) {
+			MarkupNode child = children.get(i);
 			ParagraphSegment segment = null;
 
-			if (child.getNodeType() == Node.TEXT_NODE) {
-				String value = getSingleNodeText(child);
+			if (child.type == MarkupNode.TEXT) {
+				String value = getSingleNodeText(children, i);
 
 				if (value != null && !isIgnorableWhiteSpace(value, false)) {
 					p.parseRegularText(value, expandURLs, true,
 							getHyperlinkSettings(), null);
 				}
-			} else if (child.getNodeType() == Node.ELEMENT_NODE) {
-				String name = child.getNodeName();
+			} else if (child.type == MarkupNode.ELEMENT) {
+				String name = child.name;
 				if (name.equalsIgnoreCase("img")) { //$NON-NLS-1$
 					segment = processImageSegment(child);
 				} else if (name.equalsIgnoreCase("a")) { //$NON-NLS-1$
@@ -311,32 +451,29 @@ public class FormTextModel {
 		return true;
 	}
 
-	private ImageSegment processImageSegment(Node image) {
+	private ImageSegment processImageSegment(MarkupNode image) {
 		ImageSegment segment = new ImageSegment();
 		processObjectSegment(segment, image, "i."); //$NON-NLS-1$
 		return segment;
 	}
 
-	private ControlSegment processControlSegment(Node control) {
+	private ControlSegment processControlSegment(MarkupNode control) {
 		ControlSegment segment = new ControlSegment();
 		processObjectSegment(segment, control, "o."); //$NON-NLS-1$
-		Node fill = control.getAttributes().getNamedItem("fill"); //$NON-NLS-1$
+		String fill = control.getAttribute("fill"); //$NON-NLS-1$
 		if (fill!=null) {
-			String value = fill.getNodeValue();
-			boolean doFill = value.equalsIgnoreCase("true"); //$NON-NLS-1$
+			boolean doFill = fill.equalsIgnoreCase("true"); //$NON-NLS-1$
 			segment.setFill(doFill);
 		}
 		try {
-			Node width = control.getAttributes().getNamedItem("width"); //$NON-NLS-1$
+			String width = control.getAttribute("width"); //$NON-NLS-1$
 			if (width!=null) {
-				String value = width.getNodeValue();
-				int doWidth = Integer.parseInt(value);
+				int doWidth = Integer.parseInt(width);
 				segment.setWidth(doWidth);
 			}
-			Node height = control.getAttributes().getNamedItem("height"); //$NON-NLS-1$
+			String height = control.getAttribute("height"); //$NON-NLS-1$
 			if (height!=null) {
-				String value = height.getNodeValue();
-				int doHeight = Integer.parseInt(value);
+				int doHeight = Integer.parseInt(height);
 				segment.setHeight(doHeight);
 			}
 		}
@@ -346,16 +483,14 @@ public class FormTextModel {
 		return segment;
 	}
 
-	private void processObjectSegment(ObjectSegment segment, Node object, String prefix) {
-		NamedNodeMap atts = object.getAttributes();
-		Node id = atts.getNamedItem("href"); //$NON-NLS-1$
-		Node align = atts.getNamedItem("align"); //$NON-NLS-1$
+	private void processObjectSegment(ObjectSegment segment, MarkupNode object, String prefix) {
+		String id = object.getAttribute("href"); //$NON-NLS-1$
+		String align = object.getAttribute("align"); //$NON-NLS-1$
 		if (id != null) {
-			String value = id.getNodeValue();
-			segment.setObjectId(prefix + value);
+			segment.setObjectId(prefix + id);
 		}
 		if (align != null) {
-			String value = align.getNodeValue().toLowerCase();
+			String value = align.toLowerCase();
 			switch (value) {
 			case "top": //$NON-NLS-1$
 				segment.setVerticalAlignment(ObjectSegment.TOP);
@@ -414,28 +549,29 @@ public class FormTextModel {
 		return buf.toString();
 	}
 
-	private String getSingleNodeText(Node node) {
-		String text = getNormalizedText(node.getNodeValue());
+	/**
+	 * Returns the normalized text of the text node at the given index of the
+	 * given siblings.
+	 */
+	private String getSingleNodeText(List<MarkupNode> siblings, int index) {
+		String text = getNormalizedText(siblings.get(index).value);
 		if (!whitespaceNormalized)
 			return text;
-		if (text.length() > 0 && node.getPreviousSibling() == null && isIgnorableWhiteSpace(text.substring(0, 1), true))
+		if (text.length() > 0 && index == 0 && isIgnorableWhiteSpace(text.substring(0, 1), true))
 			return text.substring(1);
-		if (text.length() > 1 && node.getNextSibling() == null
+		if (text.length() > 1 && index == siblings.size() - 1
 				&& isIgnorableWhiteSpace(text.substring(text.length() - 1), true))
 			return text.substring(0, text.length() - 1);
 		return text;
 	}
 
-	private String getNodeText(Node node) {
-		NodeList children = node.getChildNodes();
+	private String getNodeText(MarkupNode node) {
 		StringBuilder buf = new StringBuilder();
 		int[] spaceCounter = new int[1];
 
-		for (int i = 0; i < children.getLength(); i++) {
-			Node child = children.item(i);
-			if (child.getNodeType() == Node.TEXT_NODE) {
-				String value = child.getNodeValue();
-				appendText(value, buf, spaceCounter);
+		for (MarkupNode child : node.getChildren()) {
+			if (child.type == MarkupNode.TEXT) {
+				appendText(child.value, buf, spaceCounter);
 			}
 		}
 		if (whitespaceNormalized) {
@@ -444,39 +580,30 @@ public class FormTextModel {
 		return buf.toString();
 	}
 
-	private ParagraphSegment processHyperlinkSegment(Node link,
+	private ParagraphSegment processHyperlinkSegment(MarkupNode link,
 			HyperlinkSettings settings) {
-		NamedNodeMap atts = link.getAttributes();
-		String href = null;
+		String href = link.getAttribute("href"); //$NON-NLS-1$
 		boolean wrapAllowed = true;
 		String boldFontId = null;
 
-		Node hrefAtt = atts.getNamedItem("href"); //$NON-NLS-1$
-		if (hrefAtt != null) {
-			href = hrefAtt.getNodeValue();
-		}
-		Node boldAtt = atts.getNamedItem("bold"); //$NON-NLS-1$
-		if (boldAtt != null) {
+		if (link.getAttribute("bold") != null) { //$NON-NLS-1$
 			boldFontId = BOLD_FONT_ID;
 		}
-		Node nowrap = atts.getNamedItem("nowrap"); //$NON-NLS-1$
-		if (nowrap != null) {
-			String value = nowrap.getNodeValue();
-			if (value != null && value.equalsIgnoreCase("true")) //$NON-NLS-1$
-				wrapAllowed = false;
-		}
+		String nowrap = link.getAttribute("nowrap"); //$NON-NLS-1$
+		if (nowrap != null && nowrap.equalsIgnoreCase("true")) //$NON-NLS-1$
+			wrapAllowed = false;
 		Object status = checkChildren(link);
-		if (status instanceof Node) {
-			Node child = (Node)status;
+		if (status instanceof MarkupNode) {
+			MarkupNode child = (MarkupNode)status;
 			ImageHyperlinkSegment segment = new ImageHyperlinkSegment();
 			segment.setHref(href);
 			segment.setWordWrapAllowed(wrapAllowed);
-			Node alt = child.getAttributes().getNamedItem("alt"); //$NON-NLS-1$
+			String alt = child.getAttribute("alt"); //$NON-NLS-1$
 			if (alt!=null)
-				segment.setTooltipText(alt.getNodeValue());
-			Node text = child.getAttributes().getNamedItem("text"); //$NON-NLS-1$
+				segment.setTooltipText(alt);
+			String text = child.getAttribute("text"); //$NON-NLS-1$
 			if (text!=null)
-				segment.setText(text.getNodeValue());
+				segment.setText(text);
 			processObjectSegment(segment, child, "i."); //$NON-NLS-1$
 			return segment;
 		}  else if (status instanceof String) {
@@ -485,34 +612,30 @@ public class FormTextModel {
 					settings, null);
 			segment.setHref(href);
 			segment.setFontId(boldFontId);
-			Node alt = atts.getNamedItem("alt"); //$NON-NLS-1$
+			String alt = link.getAttribute("alt"); //$NON-NLS-1$
 			if (alt!=null)
-				segment.setTooltipText(alt.getNodeValue());
+				segment.setTooltipText(alt);
 			segment.setWordWrapAllowed(wrapAllowed);
 			return segment;
 		} else {
 			AggregateHyperlinkSegment parent = new AggregateHyperlinkSegment();
 			parent.setHref(href);
-			NodeList children = link.getChildNodes();
-			for (int i = 0; i < children.getLength(); i++) {
-				Node child = children.item(i);
-				if (child.getNodeType() == Node.TEXT_NODE) {
-					String value = child.getNodeValue();
+			for (MarkupNode child : link.getChildren()) {
+				if (child.type == MarkupNode.TEXT) {
 					TextHyperlinkSegment ts = new TextHyperlinkSegment(
-							getNormalizedText(value), settings, null);
-					Node alt = atts.getNamedItem("alt"); //$NON-NLS-1$
+							getNormalizedText(child.value), settings, null);
+					String alt = link.getAttribute("alt"); //$NON-NLS-1$
 					if (alt!=null)
-						ts.setTooltipText(alt.getNodeValue());
+						ts.setTooltipText(alt);
 					ts.setWordWrapAllowed(wrapAllowed);
 					parent.add(ts);
-				} else if (child.getNodeType() == Node.ELEMENT_NODE) {
-					String name = child.getNodeName();
-					if (name.equalsIgnoreCase("img")) { //$NON-NLS-1$
+				} else if (child.type == MarkupNode.ELEMENT) {
+					if (child.name.equalsIgnoreCase("img")) { //$NON-NLS-1$
 						ImageHyperlinkSegment is = new ImageHyperlinkSegment();
 						processObjectSegment(is, child, "i."); //$NON-NLS-1$
-						Node alt = child.getAttributes().getNamedItem("alt"); //$NON-NLS-1$
+						String alt = child.getAttribute("alt"); //$NON-NLS-1$
 						if (alt!=null)
-							is.setTooltipText(alt.getNodeValue());
+							is.setTooltipText(alt);
 						parent.add(is);
 						is.setWordWrapAllowed(wrapAllowed);
 					}
@@ -522,18 +645,16 @@ public class FormTextModel {
 		}
 	}
 
-	private Object checkChildren(Node node) {
+	private Object checkChildren(MarkupNode node) {
 		boolean text = false;
-		Node imgNode = null;
+		MarkupNode imgNode = null;
 		//int status = 0;
 
-		NodeList children = node.getChildNodes();
-		for (int i = 0; i < children.getLength(); i++) {
-			Node child = children.item(i);
-			if (child.getNodeType() == Node.TEXT_NODE)
+		for (MarkupNode child : node.getChildren()) {
+			if (child.type == MarkupNode.TEXT)
 				text = true;
-			else if (child.getNodeType() == Node.ELEMENT_NODE
-					&& child.getNodeName().equalsIgnoreCase("img")) { //$NON-NLS-1$
+			else if (child.type == MarkupNode.ELEMENT
+					&& child.name.equalsIgnoreCase("img")) { //$NON-NLS-1$
 				imgNode = child;
 			}
 		}
@@ -545,26 +666,22 @@ public class FormTextModel {
 	}
 
 	private void processTextSegment(Paragraph p, boolean expandURLs,
-			Node textNode) {
+			MarkupNode textNode) {
 		String text = getNodeText(textNode);
 
-		NamedNodeMap atts = textNode.getAttributes();
-		Node font = atts.getNamedItem("font"); //$NON-NLS-1$
-		Node color = atts.getNamedItem("color"); //$NON-NLS-1$
+		String font = textNode.getAttribute("font"); //$NON-NLS-1$
+		String color = textNode.getAttribute("color"); //$NON-NLS-1$
 		boolean wrapAllowed=true;
-		Node nowrap = atts.getNamedItem("nowrap"); //$NON-NLS-1$
-		if (nowrap != null) {
-			String value = nowrap.getNodeValue();
-			if (value != null && value.equalsIgnoreCase("true")) //$NON-NLS-1$
-				wrapAllowed = false;
-		}
+		String nowrap = textNode.getAttribute("nowrap"); //$NON-NLS-1$
+		if (nowrap != null && nowrap.equalsIgnoreCase("true")) //$NON-NLS-1$
+			wrapAllowed = false;
 		String fontId = null;
 		String colorId = null;
 		if (font != null) {
-			fontId = "f." + font.getNodeValue(); //$NON-NLS-1$
+			fontId = "f." + font; //$NON-NLS-1$
 		}
 		if (color != null) {
-			colorId = "c." + color.getNodeValue(); //$NON-NLS-1$
+			colorId = "c." + color; //$NON-NLS-1$
 		}
 		p.parseRegularText(text, expandURLs, wrapAllowed, getHyperlinkSettings(), fontId,
 				colorId);
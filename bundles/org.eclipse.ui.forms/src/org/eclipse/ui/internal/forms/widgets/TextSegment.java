@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -46,11 +46,21 @@ public class TextSegment extends ParagraphSegment {
 
 	private TextFragment[] textFragments;
 
+	/**
+	 * The extent of the whole text, measured with {@link #measuredFont}
+	 * like the text fragments.
+	 */
+	private Point textExtent;
+
+	private Font measuredFont;
+
 	class AreaRectangle {
 		Rectangle rect;
 
 		int from, to;
 
+		private int textWidth = -1;
+
 		public AreaRectangle(Rectangle rect, int from, int to) {
 			this.rect = rect;
 			this.from = from;
@@ -72,6 +82,16 @@ public class TextSegment extends ParagraphSegment {
 				return TextSegment.this.getText().substring(from);
 			return TextSegment.this.getText().substring(from, to);
 		}
+
+		/**
+		 * Returns the width of the text of this rectangle, measured the first
+		 * time it is painted. The rectangles are recreated on each layout.
+		 */
+		public int getTextWidth(GC gc) {
+			if (textWidth == -1)
+				textWidth = gc.textExtent(getText()).x;
+			return textWidth;
+		}
 	}
 
 	static class SelectionRange {
@@ -151,6 +171,7 @@ public class TextSegment extends ParagraphSegment {
 	void setText(String text) {
 		this.text = cleanup(text);
 		textFragments = null;
+		textExtent = null;
 	}
 
 	void setColorId(String colorId) {
@@ -160,6 +181,7 @@ public class TextSegment extends ParagraphSegment {
 	void setFontId(String fontId) {
 		this.fontId = fontId;
 		textFragments = null;
+		textExtent = null;
 	}
 
 	@Override
@@ -237,7 +259,7 @@ public class TextSegment extends ParagraphSegment {
 		boolean newLine = false;
 
 		if (wHint == SWT.DEFAULT || !wrapAllowed) {
-			Point extent = gc.textExtent(text);
+			Point extent = getTextExtent(gc);
 			int totalExtent = locator.x+extent.x;
 			if (isSelectable())
 				totalExtent+=1;
@@ -311,7 +333,7 @@ public class TextSegment extends ParagraphSegment {
 
 	private void layoutWithoutWrapping(GC gc, int width, Locator locator,
 			boolean selected, FontMetrics fm, int lineHeight, int descent) {
-		Point extent = gc.textExtent(text);
+		Point extent = getTextExtent(gc);
 		int ewidth = extent.x;
 		if (isSelectable())
 			ewidth += 1;
@@ -403,10 +425,10 @@ public class TextSegment extends ParagraphSegment {
 		for (AreaRectangle areaRectangle : areaRectangles) {
 			Rectangle rect = areaRectangle.rect;
 			String text = areaRectangle.getText();
-			Point extent = gc.textExtent(text);
+			int textWidth = areaRectangle.getTextWidth(gc);
 			int textX = rect.x + (isSelectable()?1:0);
 			int lineY = rect.y + lineHeight - descent + 1;
-			paintString(gc, text, extent.x, textX, rect.y, lineY, selData,
+			paintString(gc, text, textWidth, textX, rect.y, lineY, selData,
 					rect, hover, rollover, repaintRegion);
 			if (selected) {
 				int fx = rect.x;
@@ -450,8 +472,7 @@ public class TextSegment extends ParagraphSegment {
 		for (AreaRectangle areaRectangle : areaRectangles) {
 			Rectangle rect = areaRectangle.rect;
 			String text = areaRectangle.getText();
-			Point extent = gc.textExtent(text);
-			computeSelection(gc, text, extent.x, selData,
+			computeSelection(gc, text, areaRectangle.getTextWidth(gc), selData,
 					rect);
 		}
 		// restore GC resources
@@ -481,7 +502,7 @@ public class TextSegment extends ParagraphSegment {
 
 			if ((firstRow && x + swidth < leftOffset)
 					|| (lastRow && x > rightOffset)) {
-				paintStringSegment(gc, s, gc.textExtent(s).x, x, y, lineY,
+				paintStringSegment(gc, s, swidth, x, y, lineY,
 						hover, rolloverMode, repaintRegion);
 				return;
 			}
@@ -516,7 +537,7 @@ public class TextSegment extends ParagraphSegment {
 				gc.setForeground(savedFg);
 				gc.setBackground(savedBg);
 			} else {
-				paintStringSegment(gc, s, gc.textExtent(s).x, x, y, lineY,
+				paintStringSegment(gc, s, swidth, x, y, lineY,
 						hover, rolloverMode, repaintRegion);
 			}
 			if (lastRow && sstop != -1) {
@@ -525,7 +546,7 @@ public class TextSegment extends ParagraphSegment {
 						lineY, hover, rolloverMode, repaintRegion);
 			}
 		} else {
-			paintStringSegment(gc, s, gc.textExtent(s).x, x, y, lineY, hover,
+			paintStringSegment(gc, s, swidth, x, y, lineY, hover,
 					rolloverMode, repaintRegion);
 		}
 	}
@@ -678,7 +699,28 @@ public class TextSegment extends ParagraphSegment {
 		}
 	}
 
+	/**
+	 * Drops the measurements of the text if they were taken with another font
+	 * than the current font of the GC.
+	 */
+	private void checkMeasuredFont(GC gc) {
+		Font font = gc.getFont();
+		if (!font.equals(measuredFont)) {
+			measuredFont = font;
+			textFragments = null;
+			textExtent = null;
+		}
+	}
+
+	private Point getTextExtent(GC gc) {
+		checkMeasuredFont(gc);
+		if (textExtent == null)
+			textExtent = gc.textExtent(text);
+		return textExtent;
+	}
+
 	private void computeTextFragments(GC gc) {
+		checkMeasuredFont(gc);
 		if (textFragments != null)
 			return;
 		ArrayList<TextFragment> list = new ArrayList<>();
@@ -699,9 +741,11 @@ public class TextSegment extends ParagraphSegment {
 
 	@Override
 	public void clearCache(String fontId) {
-		if (fontId==null && (this.fontId==null||this.fontId.equals(FormTextModel.BOLD_FONT_ID)))
-			textFragments = null;
-		else if (fontId!=null && this.fontId!=null && fontId.equals(this.fontId))
+		if ((fontId==null && (this.fontId==null||this.fontId.equals(FormTextModel.BOLD_FONT_ID)))
+				|| (fontId!=null && this.fontId!=null && fontId.equals(this.fontId))) {
 			textFragments = null;
+			textExtent = null;
+			measuredFont = null;
+		}
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,10 +15,9 @@ package org.eclipse.ui;
 
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.runtime.Adapters;
-import org.eclipse.core.runtime.IAdaptable;
-import org.eclipse.core.runtime.IPath;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.jface.viewers.ViewerFilter;
+import org.eclipse.ui.internal.ide.WorkingSetContainmentIndex;
 
 /**
  * A resource working set filter filters resources from a view that
@@ -29,7 +28,7 @@ import org.eclipse.jface.viewers.ViewerFilter;
 public class ResourceWorkingSetFilter extends ViewerFilter {
 	private IWorkingSet workingSet = null;
 
-	private IAdaptable[] cachedWorkingSet = null;
+	private WorkingSetContainmentIndex cachedIndex = null;
 
 	/**
 	 * Returns the active working set the filter is working with.
@@ -80,69 +79,14 @@ public class ResourceWorkingSetFilter extends ViewerFilter {
 	 * 	false otherwise.
 	 */
 	private boolean isEnclosed(IResource element) {
-		IPath elementPath = element.getFullPath();
-		IAdaptable[] workingSetElements = cachedWorkingSet;
+		WorkingSetContainmentIndex index = cachedIndex;
 
 		// working set elements won't be cached if select is called
 		// directly, outside filter. fixes bug 14500.
-		if (workingSetElements == null) {
-			workingSetElements = workingSet.getElements();
+		if (index == null) {
+			index = WorkingSetContainmentIndex.get(workingSet.getElements());
 		}
-
-		for (IAdaptable workingSetElement : workingSetElements) {
-			IContainmentAdapter containmentAdapter = workingSetElement.getAdapter(IContainmentAdapter.class);
-
-			// if there is no IContainmentAdapter defined for the working
-			// set element type fall back to using resource based
-			// containment check
-			if (containmentAdapter != null) {
-				if (containmentAdapter.contains(workingSetElement, element,
-						IContainmentAdapter.CHECK_CONTEXT
-								| IContainmentAdapter.CHECK_IF_CHILD
-								| IContainmentAdapter.CHECK_IF_ANCESTOR
-								| IContainmentAdapter.CHECK_IF_DESCENDANT)) {
-					return true;
-				}
-			} else if (isEnclosedResource(element, elementPath,
-					workingSetElement)) {
-				return true;
-			}
-		}
-		return false;
-	}
-
-	/**
-	 * Returns if the given resource is enclosed by a working set element.
-	 * A resource is enclosed if it is either a parent of a working set
-	 * element, a child of a working set element or a working set element
-	 * itself.
-	 * Simple path comparison is used. This is only guaranteed to return
-	 * correct results for resource working set elements.
-	 *
-	 * @param element resource to test for enclosure by a working set
-	 * 	element
-	 * @param elementPath full, absolute path of the element to test
-	 * @return true if element is enclosed by a working set element and
-	 * 	false otherwise.
-	 */
-	private boolean isEnclosedResource(IResource element, IPath elementPath,
-			IAdaptable workingSetElement) {
-		IResource workingSetResource = null;
-
-		if (workingSetElement.equals(element)) {
-			return true;
-		}
-		workingSetResource = Adapters.adapt(workingSetElement, IResource.class);
-		if (workingSetResource != null) {
-			IPath resourcePath = workingSetResource.getFullPath();
-			if (resourcePath.isPrefixOf(elementPath)) {
-				return true;
-			}
-			if (elementPath.isPrefixOf(resourcePath)) {
-				return true;
-			}
-		}
-		return false;
+		return index.isEnclosed(element);
 	}
 
 	/**
@@ -155,12 +99,12 @@ public class ResourceWorkingSetFilter extends ViewerFilter {
 	public Object[] filter(Viewer viewer, Object parent, Object[] elements) {
 		Object[] result = null;
 		if (workingSet != null) {
-			cachedWorkingSet = workingSet.getElements();
+			cachedIndex = WorkingSetContainmentIndex.get(workingSet.getElements());
 		}
 		try {
 			result = super.filter(viewer, parent, elements);
 		} finally {
-			cachedWorkingSet = null;
+			cachedIndex = null;
 		}
 		return result;
 	}
@@ -0,0 +1,188 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.ide;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.Adapters;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.ui.IContainmentAdapter;
+
+/**
+ * Answers whether a resource is enclosed by the elements of a working set,
+ * that is whether it is a working set element, an ancestor or a descendant of
+ * one. The full paths of the elements that adapt to resources are kept in a
+ * trie, so that a query takes time proportional to the depth of the resource.
+ * Elements with an {@link IContainmentAdapter} are asked separately, and
+ * elements that adapt to neither are compared with <code>equals</code>.
+ * <p>
+ * Indexes are shared: {@link #get(IAdaptable[])} returns the same index for
+ * the same working set elements, so viewers filtering with the same working
+ * set build it only once per change of the working set.
+ * </p>
+ */
+public final class WorkingSetContainmentIndex {
+
+	private static final int SHARED_INDEXES = 4;
+
+	/**
+	 * The most recently used indexes, most recent first.
+	 */
+	private static final LinkedList<WorkingSetContainmentIndex> sharedIndexes = new LinkedList<>();
+
+	private static final class Node {
+		Map<String, Node> children;
+
+		boolean element;
+
+		Node child(String segment) {
+			if (children == null) {
+				children = new HashMap<>(4);
+			}
+			return children.computeIfAbsent(segment, s -> new Node());
+		}
+	}
+
+	private final IAdaptable[] elements;
+
+	private final int hashCode;
+
+	private final Node root;
+
+	private final IAdaptable[] containmentElements;
+
+	private final IContainmentAdapter[] containmentAdapters;
+
+	private final IAdaptable[] otherElements;
+
+	private WorkingSetContainmentIndex(IAdaptable[] elements, int hashCode) {
+		this.elements = elements;
+		this.hashCode = hashCode;
+		Node resourceRoot = null;
+		List<IAdaptable> containment = new ArrayList<>();
+		List<IContainmentAdapter> adapters = new ArrayList<>();
+		List<IAdaptable> others = new ArrayList<>();
+		for (IAdaptable element : elements) {
+			IContainmentAdapter adapter = element.getAdapter(IContainmentAdapter.class);
+			if (adapter != null) {
+				containment.add(element);
+				adapters.add(adapter);
+				continue;
+			}
+			IResource resource = Adapters.adapt(element, IResource.class);
+			if (resource == null) {
+				others.add(element);
+				continue;
+			}
+			if (resourceRoot == null) {
+				resourceRoot = new Node();
+			}
+			Node node = resourceRoot;
+			IPath path = resource.getFullPath();
+			for (int i = 0; i < path.segmentCount(); i++) {
+				node = node.child(path.segment(i));
+			}
+			node.element = true;
+		}
+		root = resourceRoot;
+		containmentElements = containment.toArray(new IAdaptable[containment.size()]);
+		containmentAdapters = adapters.toArray(new IContainmentAdapter[adapters.size()]);
+		otherElements = others.toArray(new IAdaptable[others.size()]);
+	}
+
+	/**
+	 * Returns the index of the given working set elements, reusing a recently
+	 * built index of the same elements.
+	 *
+	 * @param elements the working set elements
+	 * @return the index
+	 */
+	public static WorkingSetContainmentIndex get(IAdaptable[] elements) {
+		int hashCode = Arrays.hashCode(elements);
+		synchronized (sharedIndexes) {
+			for (Iterator<WorkingSetContainmentIndex> iterator = sharedIndexes.iterator(); iterator.hasNext();) {
+				WorkingSetContainmentIndex index = iterator.next();
+				if (index.hashCode == hashCode && Arrays.equals(index.elements, elements)) {
+					if (index != sharedIndexes.getFirst()) {
+						iterator.remove();
+						sharedIndexes.addFirst(index);
+					}
+					return index;
+				}
+			}
+		}
+		WorkingSetContainmentIndex index = new WorkingSetContainmentIndex(elements.clone(), hashCode);
+		synchronized (sharedIndexes) {
+			sharedIndexes.addFirst(index);
+			if (sharedIndexes.size() > SHARED_INDEXES) {
+				sharedIndexes.removeLast();
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Returns whether the given resource is enclosed by a working set element.
+	 * The IContainmentAdapter of a working set element is used for the
+	 * containment test if there is one. Otherwise the resource is enclosed if it
+	 * is a working set element itself, or if its path is a prefix of the path of
+	 * a working set element or the other way around.
+	 *
+	 * @param resource the resource to test
+	 * @return <code>true</code> if the resource is enclosed by a working set
+	 *         element and <code>false</code> otherwise
+	 */
+	public boolean isEnclosed(IResource resource) {
+		if (root != null && isEnclosedPath(resource.getFullPath())) {
+			return true;
+		}
+		for (IAdaptable element : otherElements) {
+			if (element.equals(resource)) {
+				return true;
+			}
+		}
+		for (int i = 0; i < containmentElements.length; i++) {
+			if (containmentAdapters[i].contains(containmentElements[i], resource,
+					IContainmentAdapter.CHECK_CONTEXT | IContainmentAdapter.CHECK_IF_CHILD
+							| IContainmentAdapter.CHECK_IF_ANCESTOR | IContainmentAdapter.CHECK_IF_DESCENDANT)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private boolean isEnclosedPath(IPath path) {
+		Node node = root;
+		for (int i = 0; i < path.segmentCount(); i++) {
+			if (node.element) {
+				// an element is an ancestor of the resource
+				return true;
+			}
+			node = node.children == null ? null : node.children.get(path.segment(i));
+			if (node == null) {
+				return false;
+			}
+		}
+		// the resource is an element or an ancestor of one
+		return true;
+	}
+}
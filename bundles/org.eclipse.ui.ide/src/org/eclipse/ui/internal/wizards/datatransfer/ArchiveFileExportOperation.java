@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -18,6 +18,7 @@ import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
+import java.util.zip.Deflater;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -60,6 +61,12 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 
 	private boolean createLeadupStructure = true;
 
+	private int compressionLevel = Deflater.DEFAULT_COMPRESSION;
+
+	private int threadCount = 1;
+
+	private long startTime;
+
 	/**
 	 *	Create an instance of this class.  Use this constructor if you wish to
 	 *	export specific resources without a common parent resource
@@ -195,7 +202,7 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 
 		if (exportResource.getType() == IResource.FILE) {
 			String destinationName = createDestinationName(leadupDepth, exportResource);
-			monitor.subTask(destinationName);
+			monitor.subTask(getProgressMessage(destinationName));
 
 			try {
 				exporter.write((IFile) exportResource, destinationName);
@@ -231,6 +238,23 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 		}
 	}
 
+	/**
+	 * Returns the progress message for the given entry, including the
+	 * throughput if the exporter reports it.
+	 */
+	private String getProgressMessage(String destinationName) {
+		if (!(exporter instanceof ParallelZipFileExporter)) {
+			return destinationName;
+		}
+		long elapsed = System.currentTimeMillis() - startTime;
+		if (elapsed < 1000) {
+			return destinationName;
+		}
+		long bytesPerSecond = ((ParallelZipFileExporter) exporter).getBytesWritten() * 1000 / elapsed;
+		return NLS.bind(DataTransferMessages.ArchiveExport_exportingWithThroughput, destinationName,
+				Long.valueOf(bytesPerSecond / (1024 * 1024)));
+	}
+
 	/**
 	 *	Export the resources contained in the previously-defined
 	 *	resourcesToExport collection
@@ -270,9 +294,13 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 	 */
 	protected void initialize() throws IOException {
 		if(useTarFormat) {
-			exporter = new TarFileExporter(destinationFilename, useCompression, resolveLinks);
+			exporter = new TarFileExporter(destinationFilename, useCompression, compressionLevel, resolveLinks);
+		} else if (threadCount > 1) {
+			exporter = new ParallelZipFileExporter(destinationFilename, useCompression, compressionLevel,
+					resolveLinks, threadCount, (file, e) -> addError(NLS.bind(DataTransferMessages.DataTransfer_errorExporting,
+							file.getFullPath().makeRelative(), e.getMessage()), e));
 		} else {
-			exporter = new ZipFileExporter(destinationFilename, useCompression, resolveLinks);
+			exporter = new ZipFileExporter(destinationFilename, useCompression, compressionLevel, resolveLinks);
 		}
 	}
 
@@ -312,6 +340,8 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 			throw new InvocationTargetException(e, NLS.bind(DataTransferMessages.ZipExport_cannotOpen, e.getMessage()));
 		}
 
+		boolean finished = false;
+		startTime = System.currentTimeMillis();
 		try {
 			// ie.- a single resource for recursive export was specified
 			int totalWork = IProgressMonitor.UNKNOWN;
@@ -333,6 +363,7 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 			}
 
 			try {
+				finished = true;
 				exporter.finished();
 			} catch (IOException e) {
 				throw new InvocationTargetException(
@@ -340,6 +371,10 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 						NLS.bind(DataTransferMessages.ZipExport_cannotClose, e.getMessage()));
 			}
 		} finally {
+			if (!finished && exporter instanceof ParallelZipFileExporter) {
+				// cancelled, stop the workers
+				((ParallelZipFileExporter) exporter).dispose();
+			}
 			monitor.done();
 		}
 	}
@@ -364,6 +399,32 @@ public class ArchiveFileExportOperation implements IRunnableWithProgress {
 		useCompression = value;
 	}
 
+	/**
+	 * Set the level used to compress the exported resources, see
+	 * {@link Deflater}. Only used if compression is enabled.
+	 *
+	 * @param level
+	 *            the compression level, or
+	 *            {@link Deflater#DEFAULT_COMPRESSION}
+	 */
+	public void setCompressionLevel(int level) {
+		compressionLevel = level;
+	}
+
+	/**
+	 * Set the number of threads used to read and compress the exported
+	 * resources. Values greater than one make the .zip format read and
+	 * compress several files at once; the .tar format is always written by a
+	 * single thread. Defaults to one, which writes the archive sequentially on
+	 * the calling thread.
+	 *
+	 * @param count
+	 *            the number of threads
+	 */
+	public void setThreadCount(int count) {
+		threadCount = count;
+	}
+
 	/**
 	 * Set this boolean indicating whether the file should be output
 	 * in tar.gz format rather than .zip format.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -153,6 +153,12 @@ public class DataTransferMessages extends NLS {
 	public static String ArchiveExport_destinationEmpty;
 	public static String ArchiveExport_saveInZipFormat;
 	public static String ArchiveExport_saveInTarFormat;
+	public static String ArchiveExport_compressionLevel;
+	public static String ArchiveExport_compressionFastest;
+	public static String ArchiveExport_compressionDefault;
+	public static String ArchiveExport_compressionBest;
+	public static String ArchiveExport_threadCount;
+	public static String ArchiveExport_exportingWithThroughput;
 
 	public static String TarImport_invalid_tar_format;
 
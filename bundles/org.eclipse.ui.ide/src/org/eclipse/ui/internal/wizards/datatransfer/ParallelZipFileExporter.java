@@ -0,0 +1,596 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+import org.eclipse.core.resources.IContainer;
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.runtime.CoreException;
+
+/**
+ * Exports resources to a .zip file, reading and compressing the files on a
+ * pool of worker threads.
+ * <p>
+ * Each file is deflated into a buffer of its own (spilling to a temporary
+ * file for large files) by a worker thread. The thread calling the
+ * <code>write</code> methods appends the prepared entries to the archive in
+ * the order they were written, so the resulting archive does not depend on
+ * the number of threads. At most a few entries per thread are prepared ahead
+ * of the writer, and the data buffered in memory by all of them together is
+ * limited to {@link #MAX_BUFFERED_BYTES}; entries prepared beyond that limit
+ * are buffered in temporary files.
+ * </p>
+ * <p>
+ * Since the prepared entries are written later, problems reading a file are
+ * not thrown by {@link #write(IFile, String)} but passed to the error handler
+ * on the writing thread.
+ * </p>
+ */
+public class ParallelZipFileExporter implements IFileExporter {
+
+	/**
+	 * Entries larger than this are buffered in a temporary file instead of in
+	 * memory.
+	 */
+	private static final int SPILL_THRESHOLD = 8 * 1024 * 1024;
+
+	/**
+	 * The maximum number of bytes held in memory by all prepared entries
+	 * together.
+	 */
+	static final long MAX_BUFFERED_BYTES = 4L * SPILL_THRESHOLD;
+
+	private static final int ENTRIES_AHEAD_PER_THREAD = 4;
+
+	private static final int LOCAL_HEADER_SIGNATURE = 0x04034b50;
+
+	private static final int CENTRAL_HEADER_SIGNATURE = 0x02014b50;
+
+	private static final int ZIP64_END_SIGNATURE = 0x06064b50;
+
+	private static final int ZIP64_LOCATOR_SIGNATURE = 0x07064b50;
+
+	private static final int END_SIGNATURE = 0x06054b50;
+
+	private static final int VERSION = 20;
+
+	private static final int VERSION_ZIP64 = 45;
+
+	private static final int FLAG_UTF8 = 0x800;
+
+	private static final int ZIP64_EXTRA_ID = 0x0001;
+
+	private static final long ZIP64_MAGIC = 0xFFFFFFFFL;
+
+	private static final int ZIP64_MAGIC_COUNT = 0xFFFF;
+
+	private static final int DIRECTORY_ATTRIBUTE = 0x10;
+
+	private final ZipOutput outputStream;
+
+	private final boolean useCompression;
+
+	private final int compressionLevel;
+
+	private final boolean resolveLinks;
+
+	private final BiConsumer<IFile, Exception> errorHandler;
+
+	private final ExecutorService executor;
+
+	private final int maxPending;
+
+	private final Deque<Future<PreparedEntry>> pending = new ArrayDeque<>();
+
+	private final List<PreparedEntry> centralDirectory = new ArrayList<>();
+
+	/**
+	 * The number of bytes currently buffered in memory by the prepared
+	 * entries.
+	 */
+	private final AtomicLong bufferedBytes = new AtomicLong();
+
+	private long bytesWritten;
+
+	/**
+	 * Create an instance of this class.
+	 *
+	 * @param filename
+	 *            the archive to create
+	 * @param compress
+	 *            whether to deflate the files
+	 * @param compressionLevel
+	 *            the deflate level, see {@link Deflater}
+	 * @param resolveLinks
+	 *            whether to export linked resources
+	 * @param threads
+	 *            the number of worker threads
+	 * @param errorHandler
+	 *            receives the files that could not be read
+	 * @exception java.io.IOException
+	 */
+	public ParallelZipFileExporter(String filename, boolean compress, int compressionLevel, boolean resolveLinks,
+			int threads, BiConsumer<IFile, Exception> errorHandler) throws IOException {
+		this.useCompression = compress;
+		this.compressionLevel = compressionLevel;
+		this.resolveLinks = resolveLinks;
+		this.errorHandler = errorHandler;
+		this.maxPending = threads * ENTRIES_AHEAD_PER_THREAD;
+		outputStream = new ZipOutput(new BufferedOutputStream(new FileOutputStream(filename), 64 * 1024));
+		AtomicInteger threadCount = new AtomicInteger();
+		executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.SECONDS, new LinkedBlockingQueue<>(),
+				runnable -> {
+					Thread thread = new Thread(runnable, "Archive Export Worker " + threadCount.incrementAndGet()); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+	}
+
+	/**
+	 * @return the number of uncompressed bytes of the files written to the
+	 *         archive so far
+	 */
+	public long getBytesWritten() {
+		return bytesWritten;
+	}
+
+	/**
+	 * Writes the remaining entries and the central directory and closes the
+	 * archive.
+	 *
+	 * @exception java.io.IOException
+	 */
+	@Override
+	public void finished() throws IOException {
+		try {
+			while (!pending.isEmpty()) {
+				writeNext();
+			}
+			writeCentralDirectory();
+			outputStream.close();
+		} finally {
+			dispose();
+		}
+	}
+
+	/**
+	 * Stops the workers and closes the archive without completing it. Does
+	 * nothing if the archive is already closed.
+	 */
+	public void dispose() {
+		// queued entries are dropped, the ones being prepared must finish
+		// before their buffers can be released
+		executor.shutdownNow();
+		try {
+			executor.awaitTermination(10, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+		for (Future<PreparedEntry> future : pending) {
+			if (future.isDone()) {
+				try {
+					future.get().dispose();
+				} catch (InterruptedException | ExecutionException e) {
+					// nothing to release
+				}
+			}
+		}
+		pending.clear();
+		try {
+			outputStream.close();
+		} catch (IOException e) {
+			// the archive is incomplete anyway
+		}
+	}
+
+	@Override
+	public void write(IContainer container, String destinationPath) throws IOException {
+		if (!resolveLinks && container.isLinked(IResource.DEPTH_INFINITE)) {
+			return;
+		}
+		PreparedEntry entry = new PreparedEntry(destinationPath, null);
+		entry.time = System.currentTimeMillis();
+		entry.directory = true;
+		entry.data = new EntryBuffer(bufferedBytes);
+		if (useCompression) {
+			// an empty deflate stream, like ZipOutputStream writes for folders
+			Deflater deflater = new Deflater(compressionLevel, true);
+			try (OutputStream target = new DeflaterOutputStream(entry.data, deflater)) {
+				// nothing to compress
+			} finally {
+				deflater.end();
+			}
+		}
+		enqueue(CompletableFuture.completedFuture(entry));
+	}
+
+	/**
+	 * Schedules the passed resource to be read and compressed. The entry is
+	 * appended to the archive by a later call to one of the
+	 * <code>write</code> methods or to {@link #finished()}.
+	 *
+	 * @param resource
+	 *            the file to write
+	 * @param destinationPath
+	 *            the path of the entry in the archive
+	 * @exception java.io.IOException
+	 *                if writing earlier entries failed
+	 */
+	@Override
+	public void write(IFile resource, String destinationPath) throws IOException, CoreException {
+		if (!resolveLinks && resource.isLinked(IResource.DEPTH_INFINITE)) {
+			return;
+		}
+		enqueue(executor.submit(() -> prepare(resource, destinationPath)));
+	}
+
+	private void enqueue(Future<PreparedEntry> future) throws IOException {
+		pending.add(future);
+		// write whatever is ready without waiting, then wait only if the
+		// workers got too far ahead
+		while (!pending.isEmpty() && pending.peekFirst().isDone()) {
+			writeNext();
+		}
+		while (pending.size() > maxPending) {
+			writeNext();
+		}
+	}
+
+	private PreparedEntry prepare(IFile file, String destinationPath) {
+		PreparedEntry entry = new PreparedEntry(destinationPath, file);
+		entry.data = new EntryBuffer(bufferedBytes);
+		CRC32 checksumCalculator = new CRC32();
+		Deflater deflater = useCompression ? new Deflater(compressionLevel, true) : null;
+		try (InputStream contentStream = file.getContents(false)) {
+			OutputStream target = deflater != null ? new DeflaterOutputStream(entry.data, deflater, 8192)
+					: entry.data;
+			byte[] readBuffer = new byte[8192];
+			long length = 0;
+			int n;
+			while ((n = contentStream.read(readBuffer)) > 0) {
+				checksumCalculator.update(readBuffer, 0, n);
+				target.write(readBuffer, 0, n);
+				length += n;
+			}
+			target.close();
+			entry.size = length;
+			entry.crc = checksumCalculator.getValue();
+			long localTimeStamp = file.getLocalTimeStamp();
+			entry.time = localTimeStamp != IResource.NULL_STAMP ? localTimeStamp : System.currentTimeMillis();
+		} catch (IOException | CoreException e) {
+			entry.dispose();
+			entry.error = e;
+		} finally {
+			if (deflater != null) {
+				deflater.end();
+			}
+		}
+		return entry;
+	}
+
+	private void writeNext() throws IOException {
+		PreparedEntry entry;
+		try {
+			entry = pending.removeFirst().get();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new InterruptedIOException();
+		} catch (ExecutionException e) {
+			throw new IOException(e.getCause());
+		}
+		if (entry.error != null) {
+			errorHandler.accept(entry.file, entry.error);
+			return;
+		}
+		try {
+			writeLocalEntry(entry);
+		} finally {
+			entry.dispose();
+		}
+	}
+
+	private void writeLocalEntry(PreparedEntry entry) throws IOException {
+		entry.offset = outputStream.count;
+		entry.method = useCompression ? ZipOutput.DEFLATED : ZipOutput.STORED;
+		entry.compressedSize = entry.data.length;
+		boolean zip64 = entry.size >= ZIP64_MAGIC || entry.compressedSize >= ZIP64_MAGIC;
+
+		outputStream.writeInt(LOCAL_HEADER_SIGNATURE);
+		outputStream.writeShort(zip64 ? VERSION_ZIP64 : VERSION);
+		outputStream.writeShort(FLAG_UTF8);
+		outputStream.writeShort(entry.method);
+		outputStream.writeInt(toDosTime(entry.time));
+		outputStream.writeInt(entry.crc);
+		outputStream.writeInt(zip64 ? ZIP64_MAGIC : entry.compressedSize);
+		outputStream.writeInt(zip64 ? ZIP64_MAGIC : entry.size);
+		outputStream.writeShort(entry.name.length);
+		outputStream.writeShort(zip64 ? 20 : 0);
+		outputStream.write(entry.name);
+		if (zip64) {
+			outputStream.writeShort(ZIP64_EXTRA_ID);
+			outputStream.writeShort(16);
+			outputStream.writeLong(entry.size);
+			outputStream.writeLong(entry.compressedSize);
+		}
+		entry.data.writeTo(outputStream);
+		bytesWritten += entry.size;
+		centralDirectory.add(entry);
+	}
+
+	private void writeCentralDirectory() throws IOException {
+		long start = outputStream.count;
+		for (PreparedEntry entry : centralDirectory) {
+			boolean sizeOverflow = entry.size >= ZIP64_MAGIC;
+			boolean compressedSizeOverflow = entry.compressedSize >= ZIP64_MAGIC;
+			boolean offsetOverflow = entry.offset >= ZIP64_MAGIC;
+			int extraLength = (sizeOverflow ? 8 : 0) + (compressedSizeOverflow ? 8 : 0) + (offsetOverflow ? 8 : 0);
+			boolean zip64 = extraLength > 0;
+			int version = zip64 ? VERSION_ZIP64 : VERSION;
+
+			outputStream.writeInt(CENTRAL_HEADER_SIGNATURE);
+			outputStream.writeShort(version);
+			outputStream.writeShort(version);
+			outputStream.writeShort(FLAG_UTF8);
+			outputStream.writeShort(entry.method);
+			outputStream.writeInt(toDosTime(entry.time));
+			outputStream.writeInt(entry.crc);
+			outputStream.writeInt(compressedSizeOverflow ? ZIP64_MAGIC : entry.compressedSize);
+			outputStream.writeInt(sizeOverflow ? ZIP64_MAGIC : entry.size);
+			outputStream.writeShort(entry.name.length);
+			outputStream.writeShort(zip64 ? extraLength + 4 : 0);
+			outputStream.writeShort(0); // comment length
+			outputStream.writeShort(0); // disk number
+			outputStream.writeShort(0); // internal attributes
+			outputStream.writeInt(entry.directory ? DIRECTORY_ATTRIBUTE : 0);
+			outputStream.writeInt(offsetOverflow ? ZIP64_MAGIC : entry.offset);
+			outputStream.write(entry.name);
+			if (zip64) {
+				outputStream.writeShort(ZIP64_EXTRA_ID);
+				outputStream.writeShort(extraLength);
+				if (sizeOverflow) {
+					outputStream.writeLong(entry.size);
+				}
+				if (compressedSizeOverflow) {
+					outputStream.writeLong(entry.compressedSize);
+				}
+				if (offsetOverflow) {
+					outputStream.writeLong(entry.offset);
+				}
+			}
+		}
+		long end = outputStream.count;
+		long size = end - start;
+		int count = centralDirectory.size();
+
+		if (count >= ZIP64_MAGIC_COUNT || start >= ZIP64_MAGIC || size >= ZIP64_MAGIC) {
+			outputStream.writeInt(ZIP64_END_SIGNATURE);
+			outputStream.writeLong(44); // size of the remaining record
+			outputStream.writeShort(VERSION_ZIP64);
+			outputStream.writeShort(VERSION_ZIP64);
+			outputStream.writeInt(0); // disk number
+			outputStream.writeInt(0); // disk with the central directory
+			outputStream.writeLong(count);
+			outputStream.writeLong(count);
+			outputStream.writeLong(size);
+			outputStream.writeLong(start);
+
+			outputStream.writeInt(ZIP64_LOCATOR_SIGNATURE);
+			outputStream.writeInt(0); // disk with the zip64 end record
+			outputStream.writeLong(end);
+			outputStream.writeInt(1); // number of disks
+		}
+
+		outputStream.writeInt(END_SIGNATURE);
+		outputStream.writeShort(0); // disk number
+		outputStream.writeShort(0); // disk with the central directory
+		outputStream.writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+		outputStream.writeShort(Math.min(count, ZIP64_MAGIC_COUNT));
+		outputStream.writeInt(Math.min(size, ZIP64_MAGIC));
+		outputStream.writeInt(Math.min(start, ZIP64_MAGIC));
+		outputStream.writeShort(0); // comment length
+		outputStream.flush();
+	}
+
+	private static long toDosTime(long time) {
+		LocalDateTime date = LocalDateTime.ofInstant(Instant.ofEpochMilli(time), ZoneId.systemDefault());
+		if (date.getYear() < 1980) {
+			return (1 << 21) | (1 << 16); // 1980-01-01
+		}
+		return ((long) (date.getYear() - 1980) << 25) | (date.getMonthValue() << 21) | (date.getDayOfMonth() << 16)
+				| (date.getHour() << 11) | (date.getMinute() << 5) | (date.getSecond() >> 1);
+	}
+
+	/**
+	 * An archive entry whose data has been prepared by a worker.
+	 */
+	private static final class PreparedEntry {
+		final byte[] name;
+		final IFile file;
+		boolean directory;
+		long time;
+		long crc;
+		long size;
+		long compressedSize;
+		long offset;
+		int method;
+		EntryBuffer data;
+		Exception error;
+
+		PreparedEntry(String name, IFile file) {
+			this.name = name.getBytes(StandardCharsets.UTF_8);
+			this.file = file;
+		}
+
+		void dispose() {
+			if (data != null) {
+				data.dispose();
+				data = null;
+			}
+		}
+	}
+
+	/**
+	 * Holds the (compressed) data of an entry in memory, or in a temporary
+	 * file once it exceeds {@link ParallelZipFileExporter#SPILL_THRESHOLD} or
+	 * the memory shared by all entries is used up.
+	 */
+	private static final class EntryBuffer extends OutputStream {
+		private final AtomicLong bufferedBytes;
+		private ByteArrayOutputStream memory = new ByteArrayOutputStream();
+		private File file;
+		private OutputStream fileStream;
+		long length;
+
+		EntryBuffer(AtomicLong bufferedBytes) {
+			this.bufferedBytes = bufferedBytes;
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			write(new byte[] { (byte) b }, 0, 1);
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			if (fileStream == null && (memory.size() + len > SPILL_THRESHOLD || !reserve(len))) {
+				file = File.createTempFile("export", ".zip.tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+				fileStream = new BufferedOutputStream(new FileOutputStream(file), 64 * 1024);
+				memory.writeTo(fileStream);
+				releaseMemory();
+			}
+			if (fileStream != null) {
+				fileStream.write(b, off, len);
+			} else {
+				memory.write(b, off, len);
+			}
+			length += len;
+		}
+
+		@Override
+		public void close() throws IOException {
+			if (fileStream != null) {
+				fileStream.close();
+			}
+		}
+
+		void writeTo(OutputStream out) throws IOException {
+			if (file != null) {
+				Files.copy(file.toPath(), out);
+			} else {
+				memory.writeTo(out);
+			}
+		}
+
+		private boolean reserve(int len) {
+			if (bufferedBytes.addAndGet(len) > MAX_BUFFERED_BYTES) {
+				bufferedBytes.addAndGet(-len);
+				return false;
+			}
+			return true;
+		}
+
+		private void releaseMemory() {
+			if (memory != null) {
+				bufferedBytes.addAndGet(-memory.size());
+				memory = null;
+			}
+		}
+
+		void dispose() {
+			releaseMemory();
+			if (file != null) {
+				try {
+					fileStream.close();
+				} catch (IOException e) {
+					// deleted below
+				}
+				file.delete();
+				file = null;
+			}
+		}
+	}
+
+	/**
+	 * Writes little endian values and counts the bytes written.
+	 */
+	private static final class ZipOutput extends FilterOutputStream {
+		static final int STORED = 0;
+		static final int DEFLATED = 8;
+
+		long count;
+
+		ZipOutput(OutputStream out) {
+			super(out);
+		}
+
+		@Override
+		public void write(int b) throws IOException {
+			out.write(b);
+			count++;
+		}
+
+		@Override
+		public void write(byte[] b, int off, int len) throws IOException {
+			out.write(b, off, len);
+			count += len;
+		}
+
+		void writeShort(int value) throws IOException {
+			write(value & 0xFF);
+			write((value >>> 8) & 0xFF);
+		}
+
+		void writeInt(long value) throws IOException {
+			writeShort((int) (value & 0xFFFF));
+			writeShort((int) ((value >>> 16) & 0xFFFF));
+		}
+
+		void writeLong(long value) throws IOException {
+			writeInt(value & ZIP64_MAGIC);
+			writeInt(value >>> 32);
+		}
+	}
+}
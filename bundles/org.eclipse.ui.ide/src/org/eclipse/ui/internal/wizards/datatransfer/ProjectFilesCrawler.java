@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.wizards.datatransfer;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import org.eclipse.core.resources.IProjectDescription;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.ui.internal.ide.StatusUtil;
+import org.eclipse.ui.statushandlers.StatusManager;
+
+/**
+ * Searches a directory tree for project description files using a pool of
+ * worker threads, so the latency of listing directories on slow (e.g.
+ * network) file systems is spread over several requests in flight.
+ * <p>
+ * Directories matching the prune filter are not entered. Directories reached
+ * more than once, for instance through symbolic links forming a loop, are only
+ * searched once. Each description file is handed to the consumer as soon as it
+ * is found, from whichever worker thread found it.
+ * </p>
+ */
+public class ProjectFilesCrawler {
+
+	private static final long SUBTASK_INTERVAL = 100;
+
+	private final boolean nestedProjects;
+
+	private final Predicate<Path> pruneFilter;
+
+	private final int parallelism;
+
+	/**
+	 * Creates a crawler skipping {@link WizardProjectsImportPage#METADATA_FOLDER
+	 * workspace metadata} directories.
+	 *
+	 * @param nestedProjects
+	 *            whether to look for projects below a directory containing a
+	 *            project
+	 */
+	public ProjectFilesCrawler(boolean nestedProjects) {
+		this(nestedProjects, dir -> WizardProjectsImportPage.METADATA_FOLDER.equals(String.valueOf(dir.getFileName())),
+				Math.max(2, Runtime.getRuntime().availableProcessors()));
+	}
+
+	/**
+	 * @param nestedProjects
+	 *            whether to look for projects below a directory containing a
+	 *            project
+	 * @param pruneFilter
+	 *            matches the directories that should not be searched
+	 * @param parallelism
+	 *            the number of worker threads
+	 */
+	public ProjectFilesCrawler(boolean nestedProjects, Predicate<Path> pruneFilter, int parallelism) {
+		this.nestedProjects = nestedProjects;
+		this.pruneFilter = pruneFilter;
+		this.parallelism = parallelism;
+	}
+
+	/**
+	 * Searches the given directory for project description files.
+	 *
+	 * @param directory
+	 *            the directory to search
+	 * @param directoriesVisited
+	 *            canonical paths of the directories that must not be searched
+	 *            (again), updated with the searched directories; may be
+	 *            <code>null</code>
+	 * @param consumer
+	 *            receives the description files as they are found; must be
+	 *            thread-safe
+	 * @param monitor
+	 *            the monitor to report to and to check for cancellation
+	 * @return <code>true</code> if the search was completed,
+	 *         <code>false</code> if it was cancelled or the directory could
+	 *         not be read
+	 */
+	public boolean crawl(File directory, Set<String> directoriesVisited, Consumer<File> consumer,
+			IProgressMonitor monitor) {
+		if (monitor.isCanceled()) {
+			return false;
+		}
+		Path root = directory.toPath();
+		if (!Files.isDirectory(root)) {
+			return false;
+		}
+		Set<String> visited = ConcurrentHashMap.newKeySet();
+		if (directoriesVisited != null) {
+			visited.addAll(directoriesVisited);
+		} else {
+			try {
+				visited.add(root.toRealPath().toString());
+			} catch (IOException exception) {
+				StatusManager.getManager().handle(StatusUtil.newError(exception));
+			}
+		}
+		ForkJoinPool pool = new ForkJoinPool(parallelism);
+		try {
+			pool.invoke(new CrawlTask(root, new Context(visited, consumer, monitor)));
+		} finally {
+			pool.shutdownNow();
+		}
+		if (directoriesVisited != null) {
+			directoriesVisited.addAll(visited);
+		}
+		return !monitor.isCanceled();
+	}
+
+	/**
+	 * Searches the given directory for project description files.
+	 *
+	 * @param directory
+	 *            the directory to search
+	 * @param monitor
+	 *            the monitor to report to and to check for cancellation
+	 * @return the description files found, sorted by path, or
+	 *         <code>null</code> if the search was cancelled or the directory
+	 *         could not be read
+	 */
+	public List<File> collect(File directory, IProgressMonitor monitor) {
+		List<File> files = Collections.synchronizedList(new ArrayList<>());
+		if (!crawl(directory, null, files::add, monitor)) {
+			return null;
+		}
+		List<File> result = new ArrayList<>(files);
+		result.sort(Comparator.comparing(File::getPath));
+		return result;
+	}
+
+	private static final class Context {
+		final Set<String> visited;
+		final Consumer<File> consumer;
+		final IProgressMonitor monitor;
+		final AtomicLong lastSubTask = new AtomicLong();
+
+		Context(Set<String> visited, Consumer<File> consumer, IProgressMonitor monitor) {
+			this.visited = visited;
+			this.consumer = consumer;
+			this.monitor = monitor;
+		}
+
+		void reportProgress(Path directory) {
+			long now = System.currentTimeMillis();
+			long last = lastSubTask.get();
+			// progress monitors are not required to be thread-safe, and a
+			// label changing thousands of times per second is unreadable anyway
+			if (now - last >= SUBTASK_INTERVAL && lastSubTask.compareAndSet(last, now)) {
+				synchronized (monitor) {
+					monitor.subTask(NLS.bind(DataTransferMessages.WizardProjectsImportPage_CheckingMessage,
+							directory.toString()));
+				}
+			}
+		}
+	}
+
+	private final class CrawlTask extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		private final transient Path directory;
+
+		private final transient Context context;
+
+		CrawlTask(Path directory, Context context) {
+			this.directory = directory;
+			this.context = context;
+		}
+
+		@Override
+		protected void compute() {
+			if (context.monitor.isCanceled()) {
+				return;
+			}
+			context.reportProgress(directory);
+
+			Path projectFile = null;
+			List<Path> directories = new ArrayList<>();
+			try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+				for (Path child : stream) {
+					BasicFileAttributes attributes;
+					try {
+						attributes = Files.readAttributes(child, BasicFileAttributes.class);
+					} catch (IOException e) {
+						// dangling link or no access
+						continue;
+					}
+					if (attributes.isDirectory()) {
+						directories.add(child);
+					} else if (attributes.isRegularFile()
+							&& IProjectDescription.DESCRIPTION_FILE_NAME.equals(child.getFileName().toString())) {
+						projectFile = child;
+					}
+				}
+			} catch (IOException | SecurityException e) {
+				// unreadable directory, treated like an empty one
+				return;
+			}
+
+			if (projectFile != null) {
+				context.consumer.accept(projectFile.toFile());
+				if (!nestedProjects) {
+					// don't search sub-directories since we can't have nested projects
+					return;
+				}
+			}
+
+			List<CrawlTask> subTasks = new ArrayList<>(directories.size());
+			for (Path child : directories) {
+				if (pruneFilter.test(child) || !markVisited(child)) {
+					continue;
+				}
+				subTasks.add(new CrawlTask(child, context));
+			}
+			if (!subTasks.isEmpty()) {
+				invokeAll(subTasks);
+			}
+		}
+
+		private boolean markVisited(Path child) {
+			try {
+				return context.visited.add(child.toRealPath().toString());
+			} catch (IOException e) {
+				return false;
+			}
+		}
+	}
+}
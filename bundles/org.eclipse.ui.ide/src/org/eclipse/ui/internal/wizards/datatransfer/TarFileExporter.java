@@ -19,6 +19,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPOutputStream;
 
 import org.eclipse.core.filesystem.EFS;
@@ -51,9 +52,31 @@ public class TarFileExporter implements IFileExporter {
 	 * @exception java.io.IOException
 	 */
 	public TarFileExporter(String filename, boolean compress, boolean resolveLinks) throws IOException {
+		this(filename, compress, Deflater.DEFAULT_COMPRESSION, resolveLinks);
+	}
+
+	/**
+	 * Create an instance of this class.
+	 *
+	 * @param filename
+	 *            java.lang.String
+	 * @param compress
+	 *            boolean
+	 * @param compressionLevel
+	 *            the deflate level, see {@link Deflater}
+	 * @param resolveLinks
+	 *            boolean
+	 * @exception java.io.IOException
+	 */
+	public TarFileExporter(String filename, boolean compress, int compressionLevel, boolean resolveLinks)
+			throws IOException {
 		this.resolveLinks = resolveLinks;
 		if (compress) {
-			gzipOutputStream = new GZIPOutputStream(new FileOutputStream(filename));
+			gzipOutputStream = new GZIPOutputStream(new FileOutputStream(filename)) {
+				{
+					def.setLevel(compressionLevel);
+				}
+			};
 			outputStream = new TarOutputStream(new BufferedOutputStream(gzipOutputStream));
 		} else {
 			outputStream = new TarOutputStream(new BufferedOutputStream(new FileOutputStream(filename)));
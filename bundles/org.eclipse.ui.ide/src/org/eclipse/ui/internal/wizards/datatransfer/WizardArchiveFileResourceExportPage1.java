@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,19 +16,24 @@ package org.eclipse.ui.internal.wizards.datatransfer;
 import java.io.File;
 import java.lang.reflect.InvocationTargetException;
 import java.util.List;
+import java.util.zip.Deflater;
 
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.jface.dialogs.ErrorDialog;
 import org.eclipse.jface.dialogs.IDialogSettings;
 import org.eclipse.jface.viewers.IStructuredSelection;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.layout.GridData;
 import org.eclipse.swt.layout.GridLayout;
 import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Group;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Spinner;
 import org.eclipse.ui.PlatformUI;
 
 /**
@@ -44,6 +49,13 @@ public class WizardArchiveFileResourceExportPage1 extends
 
 	private Button zipFormatButton;
 	private Button targzFormatButton;
+	private Combo compressionLevelCombo;
+	private Spinner threadCountSpinner;
+
+	private static final int[] COMPRESSION_LEVELS = { Deflater.BEST_SPEED, Deflater.DEFAULT_COMPRESSION,
+			Deflater.BEST_COMPRESSION };
+
+	private static final int DEFAULT_COMPRESSION_LEVEL_INDEX = 1;
 
 	// dialog store id constants
 	private static final String STORE_DESTINATION_NAMES_ID = "WizardZipFileResourceExportPage1.STORE_DESTINATION_NAMES_ID"; //$NON-NLS-1$
@@ -52,6 +64,10 @@ public class WizardArchiveFileResourceExportPage1 extends
 
 	private static final String STORE_COMPRESS_CONTENTS_ID = "WizardZipFileResourceExportPage1.STORE_COMPRESS_CONTENTS_ID"; //$NON-NLS-1$
 
+	private static final String STORE_COMPRESSION_LEVEL_ID = "WizardZipFileResourceExportPage1.STORE_COMPRESSION_LEVEL_ID"; //$NON-NLS-1$
+
+	private static final String STORE_THREAD_COUNT_ID = "WizardZipFileResourceExportPage1.STORE_THREAD_COUNT_ID"; //$NON-NLS-1$
+
 	/**
 	 *	Create an instance of this class.
 	 *
@@ -99,6 +115,12 @@ public class WizardArchiveFileResourceExportPage1 extends
 				| SWT.LEFT);
 		compressContentsCheckbox.setText(DataTransferMessages.ZipExport_compressContents);
 		compressContentsCheckbox.setFont(font);
+		compressContentsCheckbox.addSelectionListener(SelectionListener
+				.widgetSelectedAdapter(e -> compressionLevelCombo.setEnabled(compressContentsCheckbox.getSelection())));
+
+		createCompressionLevelOptions(left, font);
+
+		createThreadCountOptions(left, font);
 
 		createResolveLinkedResources(left, font);
 
@@ -114,6 +136,59 @@ public class WizardArchiveFileResourceExportPage1 extends
 		compressContentsCheckbox.setSelection(true);
 	}
 
+	/**
+	 * Create the combo selecting how strongly the contents are compressed.
+	 *
+	 * @param optionsGroup
+	 * @param font
+	 */
+	protected void createCompressionLevelOptions(Composite optionsGroup, Font font) {
+		Composite composite = new Composite(optionsGroup, SWT.NONE);
+		GridLayout layout = new GridLayout(2, false);
+		layout.marginWidth = 0;
+		layout.marginHeight = 0;
+		composite.setLayout(layout);
+		composite.setFont(font);
+
+		Label label = new Label(composite, SWT.NONE);
+		label.setText(DataTransferMessages.ArchiveExport_compressionLevel);
+		label.setFont(font);
+
+		compressionLevelCombo = new Combo(composite, SWT.DROP_DOWN | SWT.READ_ONLY);
+		compressionLevelCombo.setItems(DataTransferMessages.ArchiveExport_compressionFastest,
+				DataTransferMessages.ArchiveExport_compressionDefault,
+				DataTransferMessages.ArchiveExport_compressionBest);
+		compressionLevelCombo.select(DEFAULT_COMPRESSION_LEVEL_INDEX);
+		compressionLevelCombo.setFont(font);
+	}
+
+	/**
+	 * Create the spinner selecting how many threads read and compress the
+	 * contents of a .zip file. A single thread writes the archive sequentially.
+	 * The contents are read and compressed by a single thread as well unless
+	 * the user chooses more threads, the choice is kept in the dialog settings.
+	 *
+	 * @param optionsGroup
+	 * @param font
+	 */
+	protected void createThreadCountOptions(Composite optionsGroup, Font font) {
+		Composite composite = new Composite(optionsGroup, SWT.NONE);
+		GridLayout layout = new GridLayout(2, false);
+		layout.marginWidth = 0;
+		layout.marginHeight = 0;
+		composite.setLayout(layout);
+		composite.setFont(font);
+
+		Label label = new Label(composite, SWT.NONE);
+		label.setText(DataTransferMessages.ArchiveExport_threadCount);
+		label.setFont(font);
+
+		int processors = Runtime.getRuntime().availableProcessors();
+		threadCountSpinner = new Spinner(composite, SWT.BORDER);
+		threadCountSpinner.setValues(1, 1, Math.max(processors, 16), 0, 1, 4);
+		threadCountSpinner.setFont(font);
+	}
+
 	/**
 	 * Create the buttons for the group that determine if the entire or
 	 * selected directory structure should be created.
@@ -126,6 +201,9 @@ public class WizardArchiveFileResourceExportPage1 extends
 		zipFormatButton.setText(DataTransferMessages.ArchiveExport_saveInZipFormat);
 		zipFormatButton.setSelection(true);
 		zipFormatButton.setFont(font);
+		// a .tar file is always written by a single thread
+		zipFormatButton.addSelectionListener(SelectionListener
+				.widgetSelectedAdapter(e -> threadCountSpinner.setEnabled(zipFormatButton.getSelection())));
 
 		// create directory structure radios
 		targzFormatButton = new Button(optionsGroup, SWT.RADIO | SWT.LEFT);
@@ -201,6 +279,8 @@ public class WizardArchiveFileResourceExportPage1 extends
 		op.setCreateLeadupStructure(createDirectoryStructureButton
 				.getSelection());
 		op.setUseCompression(compressContentsCheckbox.getSelection());
+		op.setCompressionLevel(COMPRESSION_LEVELS[Math.max(0, compressionLevelCombo.getSelectionIndex())]);
+		op.setThreadCount(threadCountSpinner.getSelection());
 		op.setIncludeLinkedResources(resolveLinkedResourcesCheckbox.getSelection());
 		op.setUseTarFormat(targzFormatButton.getSelection());
 
@@ -349,6 +429,10 @@ public class WizardArchiveFileResourceExportPage1 extends
 
 			settings.put(STORE_COMPRESS_CONTENTS_ID, compressContentsCheckbox
 					.getSelection());
+
+			settings.put(STORE_COMPRESSION_LEVEL_ID, compressionLevelCombo.getSelectionIndex());
+
+			settings.put(STORE_THREAD_COUNT_ID, threadCountSpinner.getSelection());
 		}
 	}
 
@@ -380,6 +464,26 @@ public class WizardArchiveFileResourceExportPage1 extends
 
 			compressContentsCheckbox.setSelection(settings
 					.getBoolean(STORE_COMPRESS_CONTENTS_ID));
+			compressionLevelCombo.setEnabled(compressContentsCheckbox.getSelection());
+
+			if (settings.get(STORE_COMPRESSION_LEVEL_ID) != null) {
+				try {
+					int index = settings.getInt(STORE_COMPRESSION_LEVEL_ID);
+					if (index >= 0 && index < COMPRESSION_LEVELS.length) {
+						compressionLevelCombo.select(index);
+					}
+				} catch (NumberFormatException e) {
+					// keep the default level
+				}
+			}
+
+			if (settings.get(STORE_THREAD_COUNT_ID) != null) {
+				try {
+					threadCountSpinner.setSelection(settings.getInt(STORE_THREAD_COUNT_ID));
+				} catch (NumberFormatException e) {
+					// keep the default thread count
+				}
+			}
 		}
 	}
 
@@ -408,6 +512,8 @@ public class WizardArchiveFileResourceExportPage1 extends
 			zipFormatButton.setSelection(true);
 			targzFormatButton.setSelection(false);
 		}
+		compressionLevelCombo.setEnabled(compressContentsCheckbox.getSelection());
+		threadCountSpinner.setEnabled(zipFormatButton.getSelection());
 
 		return super.validateDestinationGroup();
 	}
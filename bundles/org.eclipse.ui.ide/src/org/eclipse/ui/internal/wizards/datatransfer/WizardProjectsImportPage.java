@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2019 IBM Corporation and others.
+ * Copyright (c) 2004, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -36,10 +36,16 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipException;
 import java.util.zip.ZipFile;
@@ -84,6 +90,7 @@ import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.DirectoryDialog;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Group;
@@ -96,10 +103,8 @@ import org.eclipse.ui.dialogs.WizardDataTransferPage;
 import org.eclipse.ui.dialogs.WorkingSetGroup;
 import org.eclipse.ui.internal.WorkbenchPlugin;
 import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
-import org.eclipse.ui.internal.ide.StatusUtil;
 import org.eclipse.ui.internal.registry.WorkingSetDescriptor;
 import org.eclipse.ui.internal.registry.WorkingSetRegistry;
-import org.eclipse.ui.statushandlers.StatusManager;
 import org.eclipse.ui.wizards.datatransfer.FileSystemStructureProvider;
 import org.eclipse.ui.wizards.datatransfer.ImportOperation;
 
@@ -898,6 +903,10 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 		// We can't access the radio button from the inner class so get the
 		// status beforehand
 		final boolean dirSelected = this.projectFromDirectoryRadio.getSelection();
+		final Display display = projectsList.getControl().getDisplay();
+		// the search result, published to selectedProjects in the UI thread
+		final AtomicReference<ProjectRecord[]> foundProjects = new AtomicReference<>(new ProjectRecord[0]);
+		selectedProjects = new ProjectRecord[0];
 		try {
 			getContainer().run(true, true, monitor -> {
 
@@ -905,7 +914,6 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 						.beginTask(
 								DataTransferMessages.WizardProjectsImportPage_SearchingMessage,
 								100);
-				selectedProjects = new ProjectRecord[0];
 				monitor.worked(10);
 				if (!dirSelected
 						&& ArchiveFileManipulations.isTarFile(path)) {
@@ -924,15 +932,16 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 						return;
 					}
 					Iterator<ProjectRecord> filesIterator1 = files.iterator();
-					selectedProjects = new ProjectRecord[files.size()];
+					ProjectRecord[] projects = new ProjectRecord[files.size()];
 					int index1 = 0;
 					monitor.worked(50);
 					monitor
 							.subTask(DataTransferMessages.WizardProjectsImportPage_ProcessingMessage);
 					while (filesIterator1.hasNext()) {
-						selectedProjects[index1++] = filesIterator1
+						projects[index1++] = filesIterator1
 								.next();
 					}
+					foundProjects.set(projects);
 				} else if (!dirSelected
 						&& ArchiveFileManipulations.isZipFile(path)) {
 					ZipFile sourceFile = getSpecifiedZipSourceFile(path);
@@ -950,35 +959,58 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 					}
 
 					Iterator<ProjectRecord> filesIterator2 = files.iterator();
-					selectedProjects = new ProjectRecord[files.size()];
+					ProjectRecord[] projects = new ProjectRecord[files.size()];
 					int index2 = 0;
 					monitor.worked(50);
 					monitor
 							.subTask(DataTransferMessages.WizardProjectsImportPage_ProcessingMessage);
 					while (filesIterator2.hasNext()) {
-						selectedProjects[index2++] = filesIterator2
+						projects[index2++] = filesIterator2
 								.next();
 					}
+					foundProjects.set(projects);
 				}
 
 				else if (dirSelected && directory.isDirectory()) {
 
+					// the records are created by the crawler threads and shown
+					// while the search is still running
+					Map<File, ProjectRecord> records = new ConcurrentHashMap<>();
+					AtomicBoolean refreshPending = new AtomicBoolean();
+					AtomicBoolean finished = new AtomicBoolean();
 					Collection<File> files = new ArrayList<>();
-					if (!collectProjectFilesFromDirectory(files, directory,
-							null, nestedProjects, monitor)) {
-						return;
+					try {
+						if (!collectProjectFilesFromDirectory(files, directory, null, nestedProjects, file -> {
+							records.put(file, new ProjectRecord(file));
+							if (refreshPending.compareAndSet(false, true)) {
+								display.asyncExec(() -> {
+									refreshPending.set(false);
+									// a refresh still queued after the search must
+									// not replace the final, ordered result
+									if (!finished.get() && !projectsList.getControl().isDisposed()) {
+										selectedProjects = records.values().toArray(new ProjectRecord[0]);
+										projectsList.refresh(true);
+									}
+								});
+							}
+						}, monitor)) {
+							return;
+						}
+					} finally {
+						finished.set(true);
 					}
 					Iterator<File> filesIterator3 = files.iterator();
-					selectedProjects = new ProjectRecord[files.size()];
+					ProjectRecord[] projects = new ProjectRecord[files.size()];
 					int index3 = 0;
 					monitor.worked(50);
 					monitor
 							.subTask(DataTransferMessages.WizardProjectsImportPage_ProcessingMessage);
 					while (filesIterator3.hasNext()) {
 						File file = filesIterator3.next();
-						selectedProjects[index3] = new ProjectRecord(file);
+						projects[index3] = records.get(file);
 						index3++;
 					}
+					foundProjects.set(projects);
 				} else {
 					monitor.worked(60);
 				}
@@ -990,6 +1022,7 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 			// Nothing to do if the user interrupts.
 		}
 
+		selectedProjects = foundProjects.get();
 		lastPath = path;
 		updateProjectsStatus();
 	}
@@ -1072,6 +1105,7 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 
 	/**
 	 * Collect the list of .project files that are under directory into files.
+	 * The files are added sorted by path.
 	 *
 	 * @param files
 	 * @param directory
@@ -1082,65 +1116,45 @@ public class WizardProjectsImportPage extends WizardDataTransferPage {
 	 * @param monitor
 	 *            The monitor to report to
 	 * @return boolean <code>true</code> if the operation was completed.
+	 * @see ProjectFilesCrawler
 	 */
 	static boolean collectProjectFilesFromDirectory(Collection<File> files, File directory,
 			Set<String> directoriesVisited, boolean nestedProjects, IProgressMonitor monitor) {
+		return collectProjectFilesFromDirectory(files, directory, directoriesVisited, nestedProjects, null, monitor);
+	}
 
-		if (monitor.isCanceled()) {
-			return false;
-		}
-		monitor.subTask(NLS.bind(
-				DataTransferMessages.WizardProjectsImportPage_CheckingMessage,
-				directory.getPath()));
-		File[] contents = directory.listFiles();
-		if (contents == null) {
-			return false;
-		}
-
-		// Initialize recursion guard for recursive symbolic links
-		if (directoriesVisited == null) {
-			directoriesVisited = new HashSet<>();
-			try {
-				directoriesVisited.add(directory.getCanonicalPath());
-			} catch (IOException exception) {
-				StatusManager.getManager().handle(StatusUtil.newError(exception));
-			}
-		}
-
-		// first look for project description files
-		final String dotProject = IProjectDescription.DESCRIPTION_FILE_NAME;
-		List<File> directories = new ArrayList<>();
-		for (File file : contents) {
-			if(file.isDirectory()){
-				directories.add(file);
-			} else if (file.getName().equals(dotProject) && file.isFile()) {
-				files.add(file);
-				if (!nestedProjects) {
-					// don't search sub-directories since we can't have nested
-					// projects
-					return true;
-				}
-			}
-		}
-		// no project description found or search for nested projects enabled,
-		// so recurse into sub-directories
-		for (File dir : directories) {
-			if (!dir.getName().equals(METADATA_FOLDER)) {
-				try {
-					String canonicalPath = dir.getCanonicalPath();
-					if (!directoriesVisited.add(canonicalPath)) {
-						// already been here --> do not recurse
-						continue;
-					}
-				} catch (IOException exception) {
-					StatusManager.getManager().handle(StatusUtil.newError(exception));
-
-				}
-				collectProjectFilesFromDirectory(files, dir,
-						directoriesVisited, nestedProjects, monitor);
+	/**
+	 * Collect the list of .project files that are under directory into files,
+	 * additionally passing each file to the given consumer as soon as it is
+	 * found.
+	 *
+	 * @param files
+	 * @param directory
+	 * @param directoriesVisited
+	 *            Set of canonical paths of directories, used as recursion guard
+	 * @param nestedProjects
+	 *            whether to look for nested projects
+	 * @param consumer
+	 *            thread-safe consumer of the files found, may be
+	 *            <code>null</code>
+	 * @param monitor
+	 *            The monitor to report to
+	 * @return boolean <code>true</code> if the operation was completed.
+	 */
+	static boolean collectProjectFilesFromDirectory(Collection<File> files, File directory,
+			Set<String> directoriesVisited, boolean nestedProjects, Consumer<File> consumer,
+			IProgressMonitor monitor) {
+		List<File> found = Collections.synchronizedList(new ArrayList<>());
+		boolean completed = new ProjectFilesCrawler(nestedProjects).crawl(directory, directoriesVisited, file -> {
+			found.add(file);
+			if (consumer != null) {
+				consumer.accept(file);
 			}
-		}
-		return true;
+		}, monitor);
+		List<File> sorted = new ArrayList<>(found);
+		sorted.sort(Comparator.comparing(File::getPath));
+		files.addAll(sorted);
+		return completed;
 	}
 
 	/**
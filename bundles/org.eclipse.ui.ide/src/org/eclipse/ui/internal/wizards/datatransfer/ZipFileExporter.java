@@ -17,6 +17,7 @@ import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.zip.CRC32;
+import java.util.zip.Deflater;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipOutputStream;
 
@@ -48,8 +49,27 @@ public class ZipFileExporter implements IFileExporter {
 	 * @exception java.io.IOException
 	 */
 	public ZipFileExporter(String filename, boolean compress, boolean resolveLinks) throws IOException {
+		this(filename, compress, Deflater.DEFAULT_COMPRESSION, resolveLinks);
+	}
+
+	/**
+	 * Create an instance of this class.
+	 *
+	 * @param filename
+	 *            java.lang.String
+	 * @param compress
+	 *            boolean
+	 * @param compressionLevel
+	 *            the deflate level, see {@link Deflater}
+	 * @param resolveLinks
+	 *            boolean
+	 * @exception java.io.IOException
+	 */
+	public ZipFileExporter(String filename, boolean compress, int compressionLevel, boolean resolveLinks)
+			throws IOException {
 		this.resolveLinks = resolveLinks;
 		outputStream = new ZipOutputStream(new FileOutputStream(filename));
+		outputStream.setLevel(compressionLevel);
 		useCompression = compress;
 	}
 
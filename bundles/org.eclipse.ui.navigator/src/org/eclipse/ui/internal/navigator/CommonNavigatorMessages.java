@@ -37,6 +37,9 @@ public class CommonNavigatorMessages extends NLS {
 	/** */
 	public static String Exception_Invoking_Extension;
 
+	/** */
+	public static String NavigatorDeferredContentManager_Fetching_children_of_0_;
+
 	/** */
 	public static String NavigatorViewerDescriptor_Popup_Menu_Overridden;
 
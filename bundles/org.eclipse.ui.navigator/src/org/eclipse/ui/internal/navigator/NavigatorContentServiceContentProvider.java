@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,13 +24,17 @@ import java.util.LinkedHashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Set;
+import java.util.function.Consumer;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.SafeRunner;
+import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.ITreeContentProvider;
 import org.eclipse.jface.viewers.ITreePathContentProvider;
 import org.eclipse.jface.viewers.TreePath;
 import org.eclipse.jface.viewers.Viewer;
 import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentDescriptor;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorContentExtension;
 import org.eclipse.ui.internal.navigator.extensions.NavigatorViewerDescriptor;
@@ -73,8 +77,12 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 
 	private final boolean enforceHasChildren;
 
+	private final boolean deferredChildren;
+
 	private Viewer viewer;
 
+	private NavigatorDeferredContentManager deferredContentManager;
+
 	/**
 	 * <p>
 	 * Creates a cached {@link NavigatorContentService}&nbsp;from the given
@@ -105,14 +113,53 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		contentService = aContentService;
 		INavigatorViewerDescriptor vDesc = contentService.getViewerDescriptor();
 		enforceHasChildren = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_ENFORCE_HAS_CHILDREN);
+		deferredChildren = vDesc.getBooleanConfigProperty(NavigatorViewerDescriptor.PROP_DEFERRED_CHILDREN);
 	}
 
 	@Override
 	public void inputChanged(Viewer aViewer, Object anOldInput, Object aNewInput) {
 		viewer = aViewer;
+		updateDeferredContentManager(aViewer);
 		contentService.updateService(aViewer, anOldInput, aNewInput);
 	}
 
+	private void updateDeferredContentManager(Viewer aViewer) {
+		if (deferredContentManager != null) {
+			if (deferredContentManager.getViewer() == aViewer) {
+				deferredContentManager.cancelAll();
+				return;
+			}
+			deferredContentManager.dispose();
+			deferredContentManager = null;
+		}
+		if (deferredChildren && aViewer instanceof AbstractTreeViewer) {
+			deferredContentManager = new NavigatorDeferredContentManager(this, (AbstractTreeViewer) aViewer);
+		}
+	}
+
+	/**
+	 * Answers whether children should be computed in the background for calls
+	 * made on the current thread.
+	 */
+	private boolean isDeferring() {
+		return deferredContentManager != null && Display.getCurrent() != null
+				&& viewer.getControl() != null && viewer.getControl().getDisplay() == Display.getCurrent();
+	}
+
+	/**
+	 * Called by the viewer before the given element is refreshed so that
+	 * results computed in the background for the element and its descendants
+	 * are computed again.
+	 *
+	 * @param anElement
+	 *            The refreshed element
+	 */
+	public void elementRefreshed(Object anElement) {
+		if (deferredContentManager != null) {
+			deferredContentManager.invalidate(anElement);
+		}
+	}
+
 	@Override
 	public Object[] getElements(Object anInputElement) {
 		Set rootContentExtensions = contentService.findRootContentExtensions(anInputElement);
@@ -121,6 +168,9 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 
 	@Override
 	public Object[] getChildren(Object aParentElement) {
+		if (isDeferring()) {
+			return deferredContentManager.getChildren(aParentElement, aParentElement);
+		}
 		Set enabledExtensions = contentService.findContentExtensionsByTriggerPoint(aParentElement);
 		return internalGetChildren(aParentElement, aParentElement, enabledExtensions, !ELEMENTS);
 	}
@@ -128,6 +178,9 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 	@Override
 	public Object[] getChildren(TreePath parentPath) {
 		Object aParentElement = internalAsElement(parentPath);
+		if (isDeferring()) {
+			return deferredContentManager.getChildren(aParentElement, parentPath);
+		}
 		Set enabledExtensions = contentService.findContentExtensionsByTriggerPoint(aParentElement);
 		return internalGetChildren(aParentElement, parentPath, enabledExtensions, !ELEMENTS);
 	}
@@ -139,10 +192,44 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 		if (enabledExtensions.isEmpty()) {
 			return NO_CHILDREN;
 		}
+		return internalCollectChildren(aParentElement, aParentElementOrPath, enabledExtensions, elements, null, null)
+				.toArray();
+	}
+
+	/**
+	 * Computes the children of the given parent, reporting the new children
+	 * contributed by each first class extension (after pipelining) to the
+	 * given consumer. Called from the background jobs of the
+	 * {@link NavigatorDeferredContentManager}.
+	 *
+	 * @param aParentElement
+	 *            The parent element
+	 * @param aParentElementOrPath
+	 *            The parent element or its tree path
+	 * @param contributionSink
+	 *            Receives the children as they are contributed
+	 * @param monitor
+	 *            Used to check for cancellation between extensions
+	 */
+	void collectChildren(Object aParentElement, Object aParentElementOrPath, Consumer<Object[]> contributionSink,
+			IProgressMonitor monitor) {
+		Set enabledExtensions = contentService.findContentExtensionsByTriggerPoint(aParentElement);
+		if (!enabledExtensions.isEmpty()) {
+			internalCollectChildren(aParentElement, aParentElementOrPath, enabledExtensions, !ELEMENTS,
+					contributionSink, monitor);
+		}
+	}
+
+	private Set internalCollectChildren(final Object aParentElement, final Object aParentElementOrPath,
+			final Set enabledExtensions, final boolean elements, final Consumer<Object[]> contributionSink,
+			final IProgressMonitor monitor) {
 		final Set finalSet = new LinkedHashSet();
 		final ContributorTrackingSet localSet = new ContributorTrackingSet(contentService);
 
 		for (final Iterator itr = enabledExtensions.iterator(); itr.hasNext();) {
+			if (monitor != null && monitor.isCanceled()) {
+				break;
+			}
 			SafeRunner.run(new NavigatorSafeRunnable() {
 				NavigatorContentExtension foundExtension = (NavigatorContentExtension) itr.next();
 				Object[] contributedChildren = null;
@@ -169,7 +256,19 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 							pipelineChildren(aParentElement, overridingExtensions, foundDescriptor,
 									localSet, elements);
 						}
-						finalSet.addAll(localSet);
+						if (contributionSink == null) {
+							finalSet.addAll(localSet);
+						} else {
+							List newChildren = new ArrayList(localSet.size());
+							for (Object child : localSet) {
+								if (finalSet.add(child)) {
+									newChildren.add(child);
+								}
+							}
+							if (!newChildren.isEmpty()) {
+								contributionSink.accept(newChildren.toArray());
+							}
+						}
 					}
 				}
 
@@ -182,7 +281,7 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 			});
 		}
 
-		return finalSet.toArray();
+		return finalSet;
 	}
 
 	/**
@@ -385,6 +484,21 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 	 */
 	@Override
 	public boolean hasChildren(final Object anElementOrPath) {
+		if (isDeferring()) {
+			return deferredContentManager.hasChildren(internalAsElement(anElementOrPath), anElementOrPath);
+		}
+		return computeHasChildren(anElementOrPath);
+	}
+
+	/**
+	 * Invokes the content extensions to calculate hasChildren for the given
+	 * element or path on the calling thread.
+	 *
+	 * @param anElementOrPath
+	 *            The element or tree path in question
+	 * @return True if the element has children
+	 */
+	boolean computeHasChildren(final Object anElementOrPath) {
 		final Object anElement = internalAsElement(anElementOrPath);
 		final Set enabledExtensions = contentService.findContentExtensionsByTriggerPoint(anElement);
 		final boolean suggestedHasChildren[] = new boolean[1];
@@ -482,6 +596,10 @@ public class NavigatorContentServiceContentProvider implements ITreeContentProvi
 	 */
 	@Override
 	public void dispose() {
+		if (deferredContentManager != null) {
+			deferredContentManager.dispose();
+			deferredContentManager = null;
+		}
 		if (disposeContentService) {
 			contentService.dispose();
 		}
@@ -0,0 +1,490 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.navigator;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.IJobChangeEvent;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.core.runtime.jobs.JobChangeAdapter;
+import org.eclipse.jface.viewers.AbstractTreeViewer;
+import org.eclipse.jface.viewers.ITreeViewerListener;
+import org.eclipse.jface.viewers.TreeExpansionEvent;
+import org.eclipse.jface.viewers.TreePath;
+import org.eclipse.osgi.util.NLS;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.ui.progress.PendingUpdateAdapter;
+
+/**
+ * Computes the children of navigator elements in background jobs on behalf of
+ * a {@link NavigatorContentServiceContentProvider} running in deferred mode.
+ * <p>
+ * While the content extensions are invoked on a worker thread the viewer shows
+ * a "pending" placeholder below the expanded node. The contributions of each
+ * first class extension (after passing through the pipeline of its overriding
+ * extensions) are merged back into the viewer in batches of at most
+ * {@link #BATCH_SIZE} elements. Outstanding fetches are cancelled when the
+ * node is collapsed, the input changes or the viewer is disposed.
+ * </p>
+ * <p>
+ * Whether an element has children is computed once per element, both outcomes
+ * are kept until the element or one of its ancestors is refreshed. At most
+ * {@link #MAX_HAS_CHILDREN_RESULTS} results are kept, the least recently used
+ * ones are computed again when needed.
+ * </p>
+ * <p>
+ * The nodes that were expanded below a node whose children are fetched again,
+ * for example because the node was refreshed, are expanded again once the
+ * children arrived.
+ * </p>
+ *
+ * @see NavigatorViewerDescriptor#PROP_DEFERRED_CHILDREN
+ */
+public class NavigatorDeferredContentManager {
+
+	/**
+	 * The maximum number of elements added to the viewer at once.
+	 */
+	static final int BATCH_SIZE = 256;
+
+	/**
+	 * The maximum number of hasChildren results kept.
+	 */
+	static final int MAX_HAS_CHILDREN_RESULTS = 10000;
+
+	/**
+	 * Keeps the most recently used hasChildren results.
+	 */
+	private static class LruMap extends LinkedHashMap<Object, Boolean> {
+		private static final long serialVersionUID = 1L;
+
+		LruMap() {
+			super(16, 0.75f, true); // last access-order
+		}
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Object, Boolean> eldest) {
+			return size() > MAX_HAS_CHILDREN_RESULTS;
+		}
+	}
+
+	private final NavigatorContentServiceContentProvider contentProvider;
+
+	private final AbstractTreeViewer viewer;
+
+	/**
+	 * The computed hasChildren results by element or tree path. Guarded by
+	 * itself, like {@link #pendingHasChildren}.
+	 */
+	private final Map<Object, Boolean> hasChildrenResults = new LruMap();
+
+	/**
+	 * The scheduled hasChildren computations by element or tree path.
+	 */
+	private final Map<Object, Job> pendingHasChildren = new HashMap<>();
+
+	/**
+	 * Whether the viewer is being refreshed to show a computed result, so the
+	 * refresh must not drop that result. Only accessed in the UI thread.
+	 */
+	private boolean showingResult;
+
+	/**
+	 * The expanded tree paths to restore by the element whose children are
+	 * being fetched. Only accessed in the UI thread.
+	 */
+	private final Map<Object, List<TreePath>> expansionsToRestore = new HashMap<>();
+
+	private final ITreeViewerListener collapseListener = new ITreeViewerListener() {
+		@Override
+		public void treeCollapsed(TreeExpansionEvent event) {
+			final Object element = event.getElement();
+			if (Job.getJobManager().find(new FetchFamily(NavigatorDeferredContentManager.this, element)).length > 0) {
+				cancel(element);
+				expansionsToRestore.remove(element);
+				// drop the partial result so the node is fetched again when expanded
+				asyncExec(null, () -> viewer.refresh(element));
+			}
+		}
+
+		@Override
+		public void treeExpanded(TreeExpansionEvent event) {
+			// fetches are started by the content provider
+		}
+	};
+
+	/**
+	 * Identifies the jobs scheduled by one manager for one parent element.
+	 */
+	private static final class FetchFamily {
+		final NavigatorDeferredContentManager manager;
+		final Object element;
+
+		FetchFamily(NavigatorDeferredContentManager manager, Object element) {
+			this.manager = manager;
+			this.element = element instanceof TreePath ? ((TreePath) element).getLastSegment() : element;
+		}
+	}
+
+	/**
+	 * The placeholder shown while the children of a node are computed.
+	 */
+	static final class PendingChildren extends PendingUpdateAdapter {
+
+		boolean isGone() {
+			return isRemoved();
+		}
+
+		void markGone() {
+			setRemoved(true);
+		}
+	}
+
+	/**
+	 * @param aContentProvider
+	 *            The content provider used to compute the children
+	 * @param aViewer
+	 *            The viewer the children are added to
+	 */
+	public NavigatorDeferredContentManager(NavigatorContentServiceContentProvider aContentProvider,
+			AbstractTreeViewer aViewer) {
+		contentProvider = aContentProvider;
+		viewer = aViewer;
+		viewer.addTreeListener(collapseListener);
+	}
+
+	/**
+	 * @return The viewer served by this manager
+	 */
+	public AbstractTreeViewer getViewer() {
+		return viewer;
+	}
+
+	/**
+	 * Schedules the computation of the children of the given parent and returns
+	 * the placeholder to show until the children are available.
+	 *
+	 * @param aParentElement
+	 *            The parent element
+	 * @param aParentElementOrPath
+	 *            The parent element or its tree path
+	 * @return A single element array containing the placeholder
+	 */
+	public Object[] getChildren(final Object aParentElement, final Object aParentElementOrPath) {
+		final PendingChildren placeholder = new PendingChildren();
+		rememberExpansion(aParentElement, aParentElementOrPath);
+		cancel(aParentElement);
+
+		Job job = new Job(NLS.bind(CommonNavigatorMessages.NavigatorDeferredContentManager_Fetching_children_of_0_,
+				aParentElement)) {
+			@Override
+			protected IStatus run(IProgressMonitor monitor) {
+				contentProvider.collectChildren(aParentElement, aParentElementOrPath,
+						children -> addChildren(aParentElementOrPath, children, monitor), monitor);
+				asyncExec(monitor, () -> restoreExpansion(aParentElement));
+				return monitor.isCanceled() ? Status.CANCEL_STATUS : Status.OK_STATUS;
+			}
+
+			@Override
+			public boolean belongsTo(Object family) {
+				if (family == NavigatorDeferredContentManager.this) {
+					return true;
+				}
+				if (family instanceof FetchFamily) {
+					FetchFamily fetchFamily = (FetchFamily) family;
+					return fetchFamily.manager == NavigatorDeferredContentManager.this
+							&& isSameOrDescendant(fetchFamily.element, aParentElementOrPath);
+				}
+				return false;
+			}
+		};
+		job.addJobChangeListener(new JobChangeAdapter() {
+			@Override
+			public void done(IJobChangeEvent event) {
+				removePlaceholder(placeholder);
+			}
+		});
+		job.setSystem(true);
+		job.schedule();
+		return new Object[] { placeholder };
+	}
+
+	/**
+	 * Answers whether the given element may have children without invoking the
+	 * content extensions on the calling thread. Until the background computation
+	 * finished the element is assumed to have children. At most one computation
+	 * is scheduled per element, its result is kept until the element is
+	 * refreshed.
+	 *
+	 * @param anElement
+	 *            The element in question
+	 * @param anElementOrPath
+	 *            The element or its tree path
+	 * @return The computed result if available, otherwise <code>true</code>
+	 */
+	public boolean hasChildren(final Object anElement, final Object anElementOrPath) {
+		final Job job;
+		synchronized (hasChildrenResults) {
+			Boolean result = hasChildrenResults.get(anElementOrPath);
+			if (result != null) {
+				return result.booleanValue();
+			}
+			if (pendingHasChildren.containsKey(anElementOrPath)) {
+				return true;
+			}
+			job = new Job(NLS.bind(CommonNavigatorMessages.NavigatorDeferredContentManager_Fetching_children_of_0_,
+					anElement)) {
+				@Override
+				protected IStatus run(IProgressMonitor monitor) {
+					boolean hasChildren = contentProvider.computeHasChildren(anElementOrPath);
+					synchronized (hasChildrenResults) {
+						// the element has been refreshed in the meantime
+						if (monitor.isCanceled() || !pendingHasChildren.remove(anElementOrPath, this)) {
+							return Status.CANCEL_STATUS;
+						}
+						hasChildrenResults.put(anElementOrPath, Boolean.valueOf(hasChildren));
+					}
+					if (!hasChildren) {
+						asyncExec(monitor, () -> showResult(anElementOrPath));
+					}
+					return Status.OK_STATUS;
+				}
+
+				@Override
+				public boolean belongsTo(Object family) {
+					return family == NavigatorDeferredContentManager.this;
+				}
+			};
+			pendingHasChildren.put(anElementOrPath, job);
+		}
+		job.addJobChangeListener(new JobChangeAdapter() {
+			@Override
+			public void done(IJobChangeEvent event) {
+				synchronized (hasChildrenResults) {
+					pendingHasChildren.remove(anElementOrPath, job);
+				}
+			}
+		});
+		job.setSystem(true);
+		job.schedule();
+		return true;
+	}
+
+	/**
+	 * Forgets the hasChildren results of the given element and its descendants
+	 * and cancels their computations, as the element is being refreshed.
+	 *
+	 * @param anElement
+	 *            The refreshed element, <code>null</code> or the input of the
+	 *            viewer for all elements
+	 */
+	public void invalidate(Object anElement) {
+		if (showingResult) {
+			return;
+		}
+		synchronized (hasChildrenResults) {
+			if (anElement == null || anElement == viewer.getInput()) {
+				hasChildrenResults.clear();
+				for (Job job : pendingHasChildren.values()) {
+					job.cancel();
+				}
+				pendingHasChildren.clear();
+				return;
+			}
+			hasChildrenResults.keySet().removeIf(key -> isSameOrDescendant(anElement, key));
+			for (Iterator<Map.Entry<Object, Job>> it = pendingHasChildren.entrySet().iterator(); it.hasNext();) {
+				Map.Entry<Object, Job> entry = it.next();
+				if (isSameOrDescendant(anElement, entry.getKey())) {
+					entry.getValue().cancel();
+					it.remove();
+				}
+			}
+		}
+	}
+
+	private void showResult(Object anElementOrPath) {
+		showingResult = true;
+		try {
+			if (anElementOrPath instanceof TreePath) {
+				viewer.refresh(((TreePath) anElementOrPath).getLastSegment(), false);
+			} else {
+				viewer.refresh(anElementOrPath, false);
+			}
+		} finally {
+			showingResult = false;
+		}
+	}
+
+	/**
+	 * Cancels all fetches for the given element and its descendants.
+	 *
+	 * @param anElement
+	 *            The element whose fetches should be cancelled
+	 */
+	public void cancel(Object anElement) {
+		if (anElement != null) {
+			Job.getJobManager().cancel(new FetchFamily(this, anElement));
+		}
+	}
+
+	/**
+	 * Cancels all outstanding fetches of this manager and forgets any computed
+	 * results.
+	 */
+	public void cancelAll() {
+		Job.getJobManager().cancel(this);
+		expansionsToRestore.clear();
+		synchronized (hasChildrenResults) {
+			hasChildrenResults.clear();
+			pendingHasChildren.clear();
+		}
+	}
+
+	/**
+	 * Cancels all outstanding fetches and detaches from the viewer.
+	 */
+	public void dispose() {
+		cancelAll();
+		Control control = viewer.getControl();
+		if (control != null && !control.isDisposed()) {
+			viewer.removeTreeListener(collapseListener);
+		}
+	}
+
+	/**
+	 * Remembers the expanded nodes below the given parent, as they are replaced
+	 * by the placeholder until the children are fetched again. Takes over the
+	 * nodes still to be expanded by fetches of the parent or of its
+	 * descendants that are going to be cancelled.
+	 */
+	private void rememberExpansion(Object aParentElement, Object aParentElementOrPath) {
+		List<TreePath> expanded = new ArrayList<>();
+		for (Iterator<List<TreePath>> it = expansionsToRestore.values().iterator(); it.hasNext();) {
+			List<TreePath> paths = it.next();
+			if (indexOf(paths.get(0), aParentElement) >= 0) {
+				expanded.addAll(paths);
+				it.remove();
+			}
+		}
+		if (viewer.getExpandedState(aParentElementOrPath)) {
+			for (TreePath path : viewer.getExpandedTreePaths()) {
+				int index = indexOf(path, aParentElement);
+				if (index >= 0 && index < path.getSegmentCount() - 1 && !expanded.contains(path)) {
+					expanded.add(path);
+				}
+			}
+		}
+		if (!expanded.isEmpty()) {
+			expansionsToRestore.put(aParentElement, expanded);
+		}
+	}
+
+	/**
+	 * Expands the children of the given parent that were expanded before its
+	 * children were fetched. The nodes expanded below these children are
+	 * handed over to the fetches of the children.
+	 */
+	private void restoreExpansion(Object aParentElement) {
+		List<TreePath> expanded = expansionsToRestore.remove(aParentElement);
+		if (expanded == null) {
+			return;
+		}
+		for (TreePath path : expanded) {
+			int index = indexOf(path, aParentElement);
+			if (index != path.getSegmentCount() - 2) {
+				continue;
+			}
+			Object child = path.getLastSegment();
+			List<TreePath> below = new ArrayList<>();
+			for (TreePath candidate : expanded) {
+				if (candidate.getSegmentCount() > path.getSegmentCount() && indexOf(candidate, child) == index + 1) {
+					below.add(candidate);
+				}
+			}
+			if (!below.isEmpty()) {
+				expansionsToRestore.put(child, below);
+			}
+			viewer.setExpandedState(path, true);
+			if (!below.isEmpty() && expansionsToRestore.get(child) == below) {
+				// the children of the child were not fetched, it is gone or its
+				// children are already known
+				expansionsToRestore.remove(child);
+			}
+		}
+	}
+
+	private static int indexOf(TreePath path, Object anElement) {
+		for (int i = 0; i < path.getSegmentCount(); i++) {
+			if (anElement.equals(path.getSegment(i))) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	private void addChildren(final Object aParentElementOrPath, final Object[] children,
+			final IProgressMonitor monitor) {
+		for (int start = 0; start < children.length && !monitor.isCanceled(); start += BATCH_SIZE) {
+			final Object[] batch = Arrays.copyOfRange(children, start,
+					Math.min(start + BATCH_SIZE, children.length));
+			asyncExec(monitor, () -> viewer.add(aParentElementOrPath, batch));
+		}
+	}
+
+	private void removePlaceholder(final PendingChildren placeholder) {
+		asyncExec(null, () -> {
+			if (!placeholder.isGone()) {
+				viewer.remove(placeholder);
+				placeholder.markGone();
+			}
+		});
+	}
+
+	private void asyncExec(final IProgressMonitor monitor, final Runnable runnable) {
+		Control control = viewer.getControl();
+		if (control == null || control.isDisposed()) {
+			return;
+		}
+		Display display = control.getDisplay();
+		display.asyncExec(() -> {
+			if (control.isDisposed() || (monitor != null && monitor.isCanceled())) {
+				return;
+			}
+			runnable.run();
+		});
+	}
+
+	private static boolean isSameOrDescendant(Object anElement, Object aCandidateElementOrPath) {
+		if (aCandidateElementOrPath instanceof TreePath) {
+			TreePath path = (TreePath) aCandidateElementOrPath;
+			for (int i = 0; i < path.getSegmentCount(); i++) {
+				if (anElement.equals(path.getSegment(i))) {
+					return true;
+				}
+			}
+			return false;
+		}
+		return anElement.equals(aCandidateElementOrPath);
+	}
+}
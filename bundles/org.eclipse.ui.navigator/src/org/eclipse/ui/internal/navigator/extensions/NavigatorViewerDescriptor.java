@@ -43,6 +43,14 @@ public final class NavigatorViewerDescriptor implements
 	 */
 	public static final String PROP_ENFORCE_HAS_CHILDREN = "org.eclipse.ui.navigator.enforceHasChildren"; //$NON-NLS-1$
 
+	/**
+	 * {@value} (boolean): True indicates that the children of expanded elements
+	 * should be computed by the content extensions in background jobs while a
+	 * pending placeholder is shown (<b>false</b>). Content extensions of viewers
+	 * using this option must be prepared to be called from non-UI threads.
+	 */
+	public static final String PROP_DEFERRED_CHILDREN = "org.eclipse.ui.navigator.deferredChildren"; //$NON-NLS-1$
+
 	static final String TAG_INCLUDES = "includes"; //$NON-NLS-1$
 
 	static final String TAG_EXCLUDES = "excludes"; //$NON-NLS-1$
@@ -26,6 +26,7 @@ import org.eclipse.ui.internal.navigator.NavigatorContentService;
 import org.eclipse.ui.internal.navigator.NavigatorContentServiceContentProvider;
 import org.eclipse.ui.internal.navigator.NavigatorPlugin;
 import org.eclipse.ui.internal.navigator.Policy;
+import org.eclipse.ui.progress.PendingUpdateAdapter;
 
 /**
  *
@@ -81,6 +82,10 @@ public final class CommonViewerSorter extends TreePathViewerSorter {
 	public int compare(Viewer viewer, TreePath parentPath, Object e1, Object e2) {
 		if (contentService == null)
 			return -1;
+		// the placeholder of a deferred fetch has no source, keep it last
+		if (e1 instanceof PendingUpdateAdapter || e2 instanceof PendingUpdateAdapter) {
+			return e1 instanceof PendingUpdateAdapter ? (e2 instanceof PendingUpdateAdapter ? 0 : 1) : -1;
+		}
 		INavigatorContentDescriptor sourceOfLvalue = getSource(e1);
 		INavigatorContentDescriptor sourceOfRvalue = getSource(e2);
 
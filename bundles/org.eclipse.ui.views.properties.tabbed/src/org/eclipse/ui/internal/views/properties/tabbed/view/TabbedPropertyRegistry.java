@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2018 IBM Corporation and others.
+ * Copyright (c) 2001, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -108,6 +108,23 @@ public class TabbedPropertyRegistry {
 
 	protected boolean overridableTabListContentProvider = false;
 
+	/**
+	 * The part and selection of the last call to
+	 * {@link #getTabDescriptors(IWorkbenchPart, ISelection)} and its result,
+	 * remembered between {@link #rememberTabDescriptors()} and
+	 * {@link #forgetTabDescriptors()}. The page asks for the tab descriptors
+	 * of a new input several times, the section filters are only evaluated
+	 * once for that input. Filters may depend on the state of the selected
+	 * objects, so the result is not remembered beyond that.
+	 */
+	private boolean rememberTabDescriptors;
+
+	private IWorkbenchPart lastPart;
+
+	private ISelection lastSelection;
+
+	private ITabDescriptor[] lastTabDescriptors;
+
 	/**
 	 * There is one details registry for each contributor type.
 	 */
@@ -271,16 +288,42 @@ public class TabbedPropertyRegistry {
 			return EMPTY_DESCRIPTOR_ARRAY;
 		}
 
-		ITabDescriptor[] allDescriptors = null;
-		if (tabDescriptorProvider == null) {
-			allDescriptors = getAllTabDescriptors();
-		} else {
-			allDescriptors = tabDescriptorProvider.getTabDescriptors(part,
-					selection);
+		if (tabDescriptorProvider != null) {
+			// dynamic tabs are not remembered, they may change at any time
+			return filterTabDescriptors(tabDescriptorProvider.getTabDescriptors(part, selection), part, selection);
+		}
+		if (!rememberTabDescriptors) {
+			return filterTabDescriptors(getAllTabDescriptors(), part, selection);
 		}
+		if (part != lastPart || selection != lastSelection) {
+			lastTabDescriptors = filterTabDescriptors(getAllTabDescriptors(), part, selection);
+			lastPart = part;
+			lastSelection = selection;
+		}
+		return lastTabDescriptors;
+	}
+
+	/**
+	 * Starts remembering the result of
+	 * {@link #getTabDescriptors(IWorkbenchPart, ISelection)}, so that later
+	 * calls for the same part and selection return it without evaluating the
+	 * section filters again, until {@link #forgetTabDescriptors()} is called.
+	 */
+	public void rememberTabDescriptors() {
+		forgetTabDescriptors();
+		rememberTabDescriptors = true;
+	}
 
-		return filterTabDescriptors(allDescriptors, part,
-				selection);
+	/**
+	 * Forgets the part and selection of the last call to
+	 * {@link #getTabDescriptors(IWorkbenchPart, ISelection)} and stops
+	 * remembering the result of later calls.
+	 */
+	public void forgetTabDescriptors() {
+		rememberTabDescriptors = false;
+		lastPart = null;
+		lastSelection = null;
+		lastTabDescriptors = null;
 	}
 
 	/**
@@ -525,5 +568,6 @@ public class TabbedPropertyRegistry {
 					((TabDescriptor)tabDescriptor).dispose();
 			}
 		}
+		forgetTabDescriptors();
 	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2015 IBM Corporation and others.
+ * Copyright (c) 2001, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 package org.eclipse.ui.internal.views.properties.tabbed.view;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -35,6 +36,17 @@ import org.eclipse.ui.views.properties.tabbed.ITypeMapper;
  */
 public class TabbedPropertyRegistryClassSectionFilter {
 
+	/**
+	 * The names of the classes and interfaces of a type, shared by all
+	 * filters as they do not depend on the type mapper.
+	 */
+	private static final ClassValue<Set<String>> CLASS_TYPES = new ClassValue<>() {
+		@Override
+		protected Set<String> computeValue(Class<?> type) {
+			return new HashSet<>(computeClassTypes(type));
+		}
+	};
+
 	private ITypeMapper typeMapper = null;
 
 	/**
@@ -124,7 +136,13 @@ public class TabbedPropertyRegistryClassSectionFilter {
 	private boolean appliesToEffectiveType(ISectionDescriptor descriptor,
 			Class<?> inputClass) {
 
-		ArrayList<String> classTypes = getClassTypes(inputClass);
+		Collection<String> classTypes;
+		if (getClass() == TabbedPropertyRegistryClassSectionFilter.class) {
+			classTypes = CLASS_TYPES.get(inputClass);
+		} else {
+			// subclasses may compute the class types differently
+			classTypes = getClassTypes(inputClass);
+		}
 
 		List sectionInputTypes = descriptor.getInputTypes();
 		for (Iterator j = sectionInputTypes.iterator(); j.hasNext();) {
@@ -143,6 +161,10 @@ public class TabbedPropertyRegistryClassSectionFilter {
 	 * extends/implements.
 	 */
 	protected ArrayList<String> getClassTypes(Class<?> target) {
+		return computeClassTypes(target);
+	}
+
+	private static ArrayList<String> computeClassTypes(Class<?> target) {
 		ArrayList<String> result = new ArrayList<>();
 		// add classes
 		List<Class<?>> classes = computeClassOrder(target);
@@ -154,7 +176,7 @@ public class TabbedPropertyRegistryClassSectionFilter {
 		return result;
 	}
 
-	private List<Class<?>> computeClassOrder(Class<?> target) {
+	private static List<Class<?>> computeClassOrder(Class<?> target) {
 		List<Class<?>> result = new ArrayList<>(4);
 		Class<?> clazz = target;
 		while (clazz != null) {
@@ -164,7 +186,7 @@ public class TabbedPropertyRegistryClassSectionFilter {
 		return result;
 	}
 
-	private List<String> computeInterfaceOrder(List<Class<?>> classes) {
+	private static List<String> computeInterfaceOrder(List<Class<?>> classes) {
 		List<String> result = new ArrayList<>(4);
 		Map<Class<?>, Class<?>> seen = new HashMap<>(4);
 		for (Class<?> curclass : classes) {
@@ -174,7 +196,7 @@ public class TabbedPropertyRegistryClassSectionFilter {
 		return result;
 	}
 
-	private void internalComputeInterfaceOrder(Class<?>[] interfaces, List<String> result,
+	private static void internalComputeInterfaceOrder(Class<?>[] interfaces, List<String> result,
 			Map<Class<?>, Class<?>> seen) {
 		List<Class<?>> newInterfaces = new ArrayList<>(seen.size());
 		for (Class<?> interfac : interfaces) {
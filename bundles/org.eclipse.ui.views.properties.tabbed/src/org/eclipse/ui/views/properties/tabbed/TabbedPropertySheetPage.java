@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2001, 2018 IBM Corporation and others.
+ * Copyright (c) 2001, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,6 +17,7 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -101,6 +102,18 @@ public class TabbedPropertySheetPage
 
 	private Map<TabContents, Composite> tabToComposite;
 
+	/**
+	 * The maximum number of tabs kept for reuse in {@link #hiddenTabs}.
+	 */
+	private static final int MAX_HIDDEN_TABS = 10;
+
+	/**
+	 * Tabs with created controls that do not apply to the current input, least
+	 * recently used first. They are reused when a later input has the same tabs
+	 * instead of creating their sections again.
+	 */
+	private Map<ITabDescriptor, TabContents> hiddenTabs;
+
 	private List<String> selectionQueue;
 
 	private boolean selectionQueueLocked;
@@ -408,6 +421,7 @@ public class TabbedPropertySheetPage
 	 */
 	private void initContributor(String contributorId) {
 		descriptorToTab = new HashMap<>();
+		hiddenTabs = new LinkedHashMap<>();
 		if (contributor.getContributorId().equals(contributorId)) {
 			/**
 			 * default contributor from the workbench part.
@@ -467,6 +481,8 @@ public class TabbedPropertySheetPage
 
 		disposeTabs(descriptorToTab.values());
 		descriptorToTab = new HashMap<>();
+		disposeTabs(hiddenTabs.values());
+		hiddenTabs = new LinkedHashMap<>();
 
 		/**
 		 * Remove the label provider change listener.
@@ -647,8 +663,9 @@ public class TabbedPropertySheetPage
 	/**
 	 * Update the current tabs to represent the given input object. When tabs
 	 * apply for both the old and new input they are reused otherwise they are
-	 * disposed. If the current visible tab will not be reused (i.e. will be
-	 * disposed) we have to send it an aboutToBeHidden() message.
+	 * hidden, and kept for reuse by a later input until too many tabs are
+	 * hidden. If the current visible tab will not be reused we have to send it
+	 * an aboutToBeHidden() message.
 	 * @since 3.4
 	 */
 	protected void updateTabs(ITabDescriptor[] descriptors) {
@@ -656,6 +673,9 @@ public class TabbedPropertySheetPage
 		boolean disposingCurrentTab = (currentTab != null);
 		for (ITabDescriptor descriptor : descriptors) {
 			TabContents tab = descriptorToTab.remove(descriptor);
+			if (tab == null) {
+				tab = hiddenTabs.remove(descriptor);
+			}
 
 			if (tab != null && tab.controlsHaveBeenCreated()) {
 				if (tab == currentTab) {
@@ -673,12 +693,40 @@ public class TabbedPropertySheetPage
 			 * aboutToBeHidden
 			 */
 			currentTab.aboutToBeHidden();
+			Composite composite = tabToComposite.get(currentTab);
+			if (composite != null) {
+				composite.setVisible(false);
+			}
 			currentTab = null;
 		}
-		disposeTabs(descriptorToTab.values());
+		hideTabs(descriptorToTab);
 		descriptorToTab = newTabs;
 	}
 
+	/**
+	 * Keeps the given tabs for reuse, and disposes the tabs without controls
+	 * and the least recently used tabs if too many tabs are hidden.
+	 */
+	private void hideTabs(Map<ITabDescriptor, TabContents> tabs) {
+		List<TabContents> disposedTabs = new ArrayList<>();
+		for (Map.Entry<ITabDescriptor, TabContents> entry : tabs.entrySet()) {
+			TabContents tab = entry.getValue();
+			if (tab.controlsHaveBeenCreated()) {
+				TabContents replaced = hiddenTabs.put(entry.getKey(), tab);
+				if (replaced != null && replaced != tab) {
+					disposedTabs.add(replaced);
+				}
+			} else {
+				disposedTabs.add(tab);
+			}
+		}
+		for (Iterator<TabContents> iter = hiddenTabs.values().iterator(); hiddenTabs.size() > MAX_HIDDEN_TABS;) {
+			disposedTabs.add(iter.next());
+			iter.remove();
+		}
+		disposeTabs(disposedTabs);
+	}
+
 	/**
 	 * Create the tab contents for the provided tab descriptor.
 	 *
@@ -723,17 +771,24 @@ public class TabbedPropertySheetPage
 
 		// see if the selection provides a new contributor
 		validateRegistry(selection);
-		ITabDescriptor[] descriptors = registry.getTabDescriptors(part,
-				currentSelection);
-		// If there are no descriptors for the given input we do not need to
-		// touch the tab objects. We might reuse them for the next valid
-		// input.
-		if (descriptors.length > 0) {
-			updateTabs(descriptors);
+		// evaluate the section filters only once for this input
+		registry.rememberTabDescriptors();
+		int lastTabSelectionIndex;
+		try {
+			ITabDescriptor[] descriptors = registry.getTabDescriptors(part,
+					currentSelection);
+			// If there are no descriptors for the given input we do not need to
+			// touch the tab objects. We might reuse them for the next valid
+			// input.
+			if (descriptors.length > 0) {
+				updateTabs(descriptors);
+			}
+			// update tabs list
+			tabbedPropertyViewer.setInput(part, currentSelection);
+			lastTabSelectionIndex = getLastTabSelection(part, currentSelection);
+		} finally {
+			registry.forgetTabDescriptors();
 		}
-		// update tabs list
-		tabbedPropertyViewer.setInput(part, currentSelection);
-		int lastTabSelectionIndex = getLastTabSelection(part, currentSelection);
 		Object selectedTab = tabbedPropertyViewer
 			.getElementAt(lastTabSelectionIndex);
 		selectionQueueLocked = true;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2021 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,9 +20,12 @@ import java.io.StringWriter;
 import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Arrays;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
+import java.util.HashMap;
+import java.util.Map;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
 import org.eclipse.ui.internal.WorkbenchMessages;
 import org.eclipse.ui.internal.WorkbenchPlugin;
 import org.w3c.dom.Attr;
@@ -33,15 +36,18 @@ import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 import org.w3c.dom.Text;
-import org.xml.sax.ErrorHandler;
-import org.xml.sax.InputSource;
-import org.xml.sax.SAXException;
-import org.xml.sax.SAXParseException;
 
 /**
  * This class represents the default implementation of the <code>IMemento</code>
  * interface.
  * <p>
+ * Mementos created by <code>createReadRoot</code> and
+ * <code>createWriteRoot</code> keep their elements in a compact tree that is
+ * read from a stream and written to a stream without building a DOM
+ * <code>Document</code>. Mementos created on an existing <code>Document</code>
+ * read and write that document.
+ * </p>
+ * <p>
  * This class is not intended to be extended by clients.
  * </p>
  *
@@ -52,8 +58,16 @@ public final class XMLMemento implements IMemento {
 
 	private Element element;
 
+	/**
+	 * The element of a memento that is not backed by a DOM document, or
+	 * <code>null</code>.
+	 */
+	private final ElementNode node;
+
 	private static String FILE_STRING = "file"; //$NON-NLS-1$
 
+	private static final String REPORT_CDATA = "http://java.sun.com/xml/stream/properties/report-cdata-event"; //$NON-NLS-1$
+
 	/**
 	 * Creates a <code>Document</code> from the <code>Reader</code> and returns a
 	 * memento on the first <code>Element</code> for reading the document.
@@ -107,65 +121,45 @@ public final class XMLMemento implements IMemento {
 	public static XMLMemento createReadRoot(Reader reader, String baseDir) throws WorkbenchException {
 		String errorMessage = null;
 		Exception exception = null;
-		DocumentBuilderFactory factory = null;
-		Object attributeDTDOldValue = null;
-		Object attributeSchemaOldValue = null;
+		XMLStreamReader parser = null;
 		try {
-			factory = DocumentBuilderFactory.newInstance();
+			XMLInputFactory factory = XMLInputFactory.newFactory();
+			factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, Boolean.FALSE);
 			try {
-				attributeDTDOldValue = factory.getAttribute(javax.xml.XMLConstants.ACCESS_EXTERNAL_DTD);
-				attributeSchemaOldValue = factory.getAttribute(javax.xml.XMLConstants.ACCESS_EXTERNAL_SCHEMA);
-			} catch (NullPointerException | IllegalArgumentException e) {
-				// Attributes not defined
-			}
-			factory.setAttribute(javax.xml.XMLConstants.ACCESS_EXTERNAL_DTD,
-					getAttributeNewValue(attributeDTDOldValue));
-			factory.setAttribute(javax.xml.XMLConstants.ACCESS_EXTERNAL_SCHEMA,
-					getAttributeNewValue(attributeSchemaOldValue));
-			DocumentBuilder parser = factory.newDocumentBuilder();
-			InputSource source = new InputSource(reader);
-			if (baseDir != null) {
-				source.setSystemId(baseDir);
-			}
-
-			parser.setErrorHandler(new ErrorHandler() {
-				@Override
-				public void warning(SAXParseException exception) {
-					// ignore
-				}
-
-				@Override
-				public void error(SAXParseException exception) {
-					// ignore
-				}
-
-				@Override
-				public void fatalError(SAXParseException exception) throws SAXException {
-					throw exception;
-				}
-			});
-
-			Document document = parser.parse(source);
-			NodeList list = document.getChildNodes();
-			for (int i = 0; i < list.getLength(); i++) {
-				Node node = list.item(i);
-				if (node instanceof Element) {
-					return new XMLMemento(document, (Element) node);
-				}
+				factory.setProperty(javax.xml.XMLConstants.ACCESS_EXTERNAL_DTD,
+						getAttributeNewValue(factory.getProperty(javax.xml.XMLConstants.ACCESS_EXTERNAL_DTD)));
+			} catch (IllegalArgumentException e) {
+				// Property not defined
+			}
+			try {
+				// CDATA sections are separate text nodes in a DOM document
+				factory.setProperty(REPORT_CDATA, Boolean.TRUE);
+			} catch (IllegalArgumentException e) {
+				// Property not defined
+			}
+			parser = factory.createXMLStreamReader(baseDir, reader);
+			ElementNode root = readElement(parser);
+			if (root != null) {
+				return new XMLMemento(root);
 			}
-		} catch (ParserConfigurationException e) {
+		} catch (IllegalArgumentException e) {
 			exception = e;
 			errorMessage = WorkbenchMessages.XMLMemento_parserConfigError;
-		} catch (IOException e) {
-			exception = e;
-			errorMessage = WorkbenchMessages.XMLMemento_ioError;
-		} catch (SAXException e) {
-			exception = e;
-			errorMessage = WorkbenchMessages.XMLMemento_formatError;
+		} catch (XMLStreamException e) {
+			if (e.getNestedException() instanceof IOException) {
+				exception = (IOException) e.getNestedException();
+				errorMessage = WorkbenchMessages.XMLMemento_ioError;
+			} else {
+				exception = e;
+				errorMessage = WorkbenchMessages.XMLMemento_formatError;
+			}
 		} finally {
-			if (factory != null) {
-				factory.setAttribute(javax.xml.XMLConstants.ACCESS_EXTERNAL_DTD, attributeDTDOldValue);
-				factory.setAttribute(javax.xml.XMLConstants.ACCESS_EXTERNAL_SCHEMA, attributeSchemaOldValue);
+			if (parser != null) {
+				try {
+					parser.close();
+				} catch (XMLStreamException e) {
+					// ignore
+				}
 			}
 		}
 
@@ -188,16 +182,117 @@ public final class XMLMemento implements IMemento {
 	 *                      type
 	 */
 	public static XMLMemento createWriteRoot(String type) throws DOMException {
-		Document document;
-		try {
-			document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
-			Element element = document.createElement(type);
-			document.appendChild(element);
-			return new XMLMemento(document, element);
-		} catch (ParserConfigurationException e) {
-//            throw new Error(e);
-			throw new Error(e.getMessage());
+		return new XMLMemento(new ElementNode(checkName(type)));
+	}
+
+	/**
+	 * Reads the first element of a document and its descendants. As in a DOM
+	 * document, the text data of an element is the first run of character data
+	 * in it.
+	 *
+	 * @param parser the parser positioned at the start of the document
+	 * @return the first element, or <code>null</code> if the document has no
+	 *         element
+	 * @throws XMLStreamException if the document cannot be read
+	 */
+	private static ElementNode readElement(XMLStreamReader parser) throws XMLStreamException {
+		// element and attribute names repeat a lot, share them
+		Map<String, String> names = new HashMap<>();
+		ArrayList<ElementNode> parents = new ArrayList<>();
+		ElementNode root = null;
+		ElementNode current = null;
+		boolean inText = false;
+		while (parser.hasNext()) {
+			switch (parser.next()) {
+			case XMLStreamConstants.START_ELEMENT:
+				if (root != null && current == null) {
+					// not well-formed, the parser reports it
+					continue;
+				}
+				ElementNode child = new ElementNode(
+						names.computeIfAbsent(getName(parser.getPrefix(), parser.getLocalName()), n -> n));
+				for (int i = 0; i < parser.getAttributeCount(); i++) {
+					String key = getName(parser.getAttributePrefix(i), parser.getAttributeLocalName(i));
+					child.setAttribute(names.computeIfAbsent(key, n -> n), parser.getAttributeValue(i));
+				}
+				if (current == null) {
+					root = child;
+				} else {
+					current.appendChild(child);
+					parents.add(current);
+				}
+				current = child;
+				inText = false;
+				break;
+			case XMLStreamConstants.END_ELEMENT:
+				current = parents.isEmpty() ? null : parents.remove(parents.size() - 1);
+				inText = false;
+				break;
+			case XMLStreamConstants.CHARACTERS:
+			case XMLStreamConstants.SPACE:
+				if (current != null) {
+					if (inText) {
+						current.text += parser.getText();
+					} else if (current.text == null) {
+						String text = parser.getText();
+						current.text = text.isBlank() ? names.computeIfAbsent(text, n -> n) : text;
+						inText = true;
+					}
+				}
+				break;
+			case XMLStreamConstants.CDATA:
+				if (current != null && current.text == null) {
+					current.text = parser.getText();
+				}
+				inText = false;
+				break;
+			default:
+				inText = false;
+				break;
+			}
+		}
+		return root;
+	}
+
+	private static String getName(String prefix, String localName) {
+		if (prefix == null || prefix.isEmpty()) {
+			return localName;
 		}
+		return prefix + ':' + localName;
+	}
+
+	/**
+	 * Checks that the given name is a valid XML name, as a DOM document does for
+	 * the names of its elements and attributes.
+	 *
+	 * @param name the name of an element or attribute
+	 * @return the name
+	 * @throws DOMException if the name is not valid
+	 */
+	private static String checkName(String name) throws DOMException {
+		boolean valid = !name.isEmpty();
+		for (int i = 0; valid && i < name.length();) {
+			int c = name.codePointAt(i);
+			valid = isNameStartChar(c) || (i > 0 && isNameChar(c));
+			i += Character.charCount(c);
+		}
+		if (!valid) {
+			throw new DOMException(DOMException.INVALID_CHARACTER_ERR, "Invalid XML name: " + name); //$NON-NLS-1$
+		}
+		return name;
+	}
+
+	private static boolean isNameStartChar(int c) {
+		return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_' || c == ':'
+				|| (c >= 0xC0 && c <= 0xD6) || (c >= 0xD8 && c <= 0xF6) || (c >= 0xF8 && c <= 0x2FF)
+				|| (c >= 0x370 && c <= 0x37D) || (c >= 0x37F && c <= 0x1FFF) || (c >= 0x200C && c <= 0x200D)
+				|| (c >= 0x2070 && c <= 0x218F) || (c >= 0x2C00 && c <= 0x2FEF) || (c >= 0x3001 && c <= 0xD7FF)
+				|| (c >= 0xF900 && c <= 0xFDCF) || (c >= 0xFDF0 && c <= 0xFFFD) || (c >= 0x10000 && c <= 0xEFFFF);
+	}
+
+	private static boolean isNameChar(int c) {
+		return (c >= '0' && c <= '9') || c == '-' || c == '.' || c == 0xB7 || (c >= 0x300 && c <= 0x36F)
+				|| (c >= 0x203F && c <= 0x2040);
 	}
 
 	/**
@@ -214,6 +309,11 @@ public final class XMLMemento implements IMemento {
 		super();
 		this.factory = document;
 		this.element = element;
+		this.node = null;
+	}
+
+	private XMLMemento(ElementNode node) {
+		this.node = node;
 	}
 
 	/**
@@ -231,6 +331,11 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public IMemento createChild(String type) throws DOMException {
+		if (node != null) {
+			ElementNode child = new ElementNode(checkName(type));
+			node.appendChild(child);
+			return new XMLMemento(child);
+		}
 		Element child = factory.createElement(type);
 		element.appendChild(child);
 		return new XMLMemento(factory, child);
@@ -253,6 +358,12 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public IMemento createChild(String type, String id) throws DOMException {
+		if (node != null) {
+			ElementNode child = new ElementNode(checkName(type));
+			child.setAttribute(TAG_ID, id == null ? "" : id); //$NON-NLS-1$
+			node.appendChild(child);
+			return new XMLMemento(child);
+		}
 		Element child = factory.createElement(type);
 		child.setAttribute(TAG_ID, id == null ? "" : id); //$NON-NLS-1$
 		element.appendChild(child);
@@ -267,7 +378,18 @@ public final class XMLMemento implements IMemento {
 	 * @throws DOMException if the child cannot be created
 	 */
 	public IMemento copyChild(IMemento child) throws DOMException {
-		Element childElement = ((XMLMemento) child).element;
+		XMLMemento memento = (XMLMemento) child;
+		if (node != null && memento.node != null) {
+			ElementNode copy = memento.node.copy();
+			node.appendChild(copy);
+			return new XMLMemento(copy);
+		}
+		if (node != null || memento.node != null) {
+			XMLMemento copy = (XMLMemento) createChild(memento.getType());
+			copy.putContents(memento, true);
+			return copy;
+		}
+		Element childElement = memento.element;
 		Element newElement = (Element) factory.importNode(childElement, true);
 		element.appendChild(newElement);
 		return new XMLMemento(factory, newElement);
@@ -275,6 +397,14 @@ public final class XMLMemento implements IMemento {
 
 	@Override
 	public IMemento getChild(String type) {
+		if (node != null) {
+			for (int i = 0; i < node.childCount; i++) {
+				if (node.children[i].type.equals(type)) {
+					return new XMLMemento(node.children[i]);
+				}
+			}
+			return null;
+		}
 
 		// Get the nodes.
 		NodeList nodes = element.getChildNodes();
@@ -300,6 +430,13 @@ public final class XMLMemento implements IMemento {
 
 	@Override
 	public IMemento[] getChildren() {
+		if (node != null) {
+			IMemento[] results = new IMemento[node.childCount];
+			for (int i = 0; i < results.length; i++) {
+				results[i] = new XMLMemento(node.children[i]);
+			}
+			return results;
+		}
 
 		// Get the nodes.
 		final NodeList nodes = element.getChildNodes();
@@ -327,6 +464,15 @@ public final class XMLMemento implements IMemento {
 
 	@Override
 	public IMemento[] getChildren(String type) {
+		if (node != null) {
+			ArrayList<IMemento> results = new ArrayList<>();
+			for (int i = 0; i < node.childCount; i++) {
+				if (node.children[i].type.equals(type)) {
+					results.add(new XMLMemento(node.children[i]));
+				}
+			}
+			return results.toArray(new IMemento[results.size()]);
+		}
 
 		// Get the nodes.
 		NodeList nodes = element.getChildNodes();
@@ -358,11 +504,10 @@ public final class XMLMemento implements IMemento {
 
 	@Override
 	public Float getFloat(String key) {
-		Attr attr = element.getAttributeNode(key);
-		if (attr == null) {
+		String strValue = getAttribute(key);
+		if (strValue == null) {
 			return null;
 		}
-		String strValue = attr.getValue();
 		try {
 			return Float.valueOf(strValue);
 		} catch (NumberFormatException e) {
@@ -377,21 +522,27 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public String getType() {
+		if (node != null) {
+			return node.type;
+		}
 		return element.getNodeName();
 	}
 
 	@Override
 	public String getID() {
+		if (node != null) {
+			String id = node.getAttribute(TAG_ID);
+			return id == null ? "" : id; //$NON-NLS-1$
+		}
 		return element.getAttribute(TAG_ID);
 	}
 
 	@Override
 	public Integer getInteger(String key) {
-		Attr attr = element.getAttributeNode(key);
-		if (attr == null) {
+		String strValue = getAttribute(key);
+		if (strValue == null) {
 			return null;
 		}
-		String strValue = attr.getValue();
 		try {
 			return Integer.valueOf(strValue);
 		} catch (NumberFormatException e) {
@@ -403,11 +554,7 @@ public final class XMLMemento implements IMemento {
 
 	@Override
 	public String getString(String key) {
-		Attr attr = element.getAttributeNode(key);
-		if (attr == null) {
-			return null;
-		}
-		return attr.getValue();
+		return getAttribute(key);
 	}
 
 	/**
@@ -415,11 +562,46 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public Boolean getBoolean(String key) {
+		String value = getAttribute(key);
+		if (value == null) {
+			return null;
+		}
+		return Boolean.valueOf(value);
+	}
+
+	/**
+	 * Returns the value of the given attribute.
+	 *
+	 * @param key the key
+	 * @return the value, or <code>null</code> if the attribute is not set
+	 */
+	private String getAttribute(String key) {
+		if (node != null) {
+			return node.getAttribute(key);
+		}
 		Attr attr = element.getAttributeNode(key);
 		if (attr == null) {
 			return null;
 		}
-		return Boolean.valueOf(attr.getValue());
+		return attr.getValue();
+	}
+
+	/**
+	 * Sets the value of the given attribute.
+	 *
+	 * @param key   the key
+	 * @param value the value
+	 * @throws DOMException if the attribute cannot be set
+	 */
+	private void setAttribute(String key, String value) throws DOMException {
+		if (node != null) {
+			if (node.getAttribute(key) == null) {
+				checkName(key);
+			}
+			node.setAttribute(key, value);
+		} else {
+			element.setAttribute(key, value);
+		}
 	}
 
 	/**
@@ -433,6 +615,9 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public String getTextData() throws DOMException {
+		if (node != null) {
+			return node.text;
+		}
 		Text textNode = getTextNode();
 		if (textNode != null) {
 			return textNode.getData();
@@ -445,6 +630,13 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public String[] getAttributeKeys() {
+		if (node != null) {
+			String[] keys = new String[node.attributeCount];
+			for (int i = 0; i < keys.length; i++) {
+				keys[i] = node.attributes[2 * i];
+			}
+			return keys;
+		}
 		NamedNodeMap map = element.getAttributes();
 		int size = map.getLength();
 		String[] attributes = new String[size];
@@ -479,6 +671,34 @@ public final class XMLMemento implements IMemento {
 		return null;
 	}
 
+	/**
+	 * Places the attributes and children of the given memento into this memento.
+	 *
+	 * @param memento  the memento to copy
+	 * @param copyText true if the text data should be copied
+	 * @throws DOMException if the attributes or children cannot be copied to this
+	 *                      node.
+	 */
+	private void putContents(XMLMemento memento, boolean copyText) throws DOMException {
+		if (memento.node == null) {
+			putElement(memento.element, copyText);
+		} else if (node != null) {
+			node.putContents(memento.node, copyText);
+		} else {
+			ElementNode source = memento.node;
+			for (int i = 0; i < source.attributeCount; i++) {
+				putString(source.attributes[2 * i], source.attributes[2 * i + 1]);
+			}
+			if (copyText && source.text != null) {
+				putTextData(source.text);
+			}
+			for (int i = 0; i < source.childCount; i++) {
+				XMLMemento child = (XMLMemento) createChild(source.children[i].type);
+				child.putContents(new XMLMemento(source.children[i]), true);
+			}
+		}
+	}
+
 	/**
 	 * Places the element's attributes into the document.
 	 *
@@ -520,7 +740,7 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public void putFloat(String key, float f) throws DOMException {
-		element.setAttribute(key, String.valueOf(f));
+		setAttribute(key, String.valueOf(f));
 	}
 
 	/**
@@ -532,7 +752,7 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public void putInteger(String key, int n) throws DOMException {
-		element.setAttribute(key, String.valueOf(n));
+		setAttribute(key, String.valueOf(n));
 	}
 
 	/**
@@ -547,7 +767,7 @@ public final class XMLMemento implements IMemento {
 		// Do not copy the element's top level text node (this would overwrite the
 		// existing text).
 		// Text nodes of children are copied.
-		putElement(((XMLMemento) memento).element, false);
+		putContents((XMLMemento) memento, false);
 	}
 
 	/**
@@ -562,7 +782,7 @@ public final class XMLMemento implements IMemento {
 		if (value == null) {
 			return;
 		}
-		element.setAttribute(key, value);
+		setAttribute(key, value);
 	}
 
 	/**
@@ -575,7 +795,7 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public void putBoolean(String key, boolean value) throws DOMException {
-		element.setAttribute(key, value ? "true" : "false"); //$NON-NLS-1$ //$NON-NLS-2$
+		setAttribute(key, value ? "true" : "false"); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
 	/**
@@ -589,6 +809,10 @@ public final class XMLMemento implements IMemento {
 	 */
 	@Override
 	public void putTextData(String data) throws DOMException {
+		if (node != null) {
+			node.text = data;
+			return;
+		}
 		Text textNode = getTextNode();
 		if (textNode == null) {
 			textNode = factory.createTextNode(data);
@@ -608,7 +832,11 @@ public final class XMLMemento implements IMemento {
 	 */
 	public void save(Writer writer) throws IOException {
 		try (DOMWriter out = new DOMWriter(writer)) {
-			out.print(element);
+			if (node != null) {
+				out.print(node);
+			} else {
+				out.print(element);
+			}
 		}
 	}
 
@@ -623,6 +851,106 @@ public final class XMLMemento implements IMemento {
 		}
 	}
 
+	/**
+	 * An element of a memento that is not backed by a DOM document. As in a DOM
+	 * element, the attributes are kept sorted by key.
+	 */
+	private static final class ElementNode {
+
+		private static final String[] NO_ATTRIBUTES = new String[0];
+
+		private static final ElementNode[] NO_CHILDREN = new ElementNode[0];
+
+		final String type;
+
+		/**
+		 * The keys and values of the attributes in turn.
+		 */
+		String[] attributes = NO_ATTRIBUTES;
+
+		int attributeCount;
+
+		ElementNode[] children = NO_CHILDREN;
+
+		int childCount;
+
+		String text;
+
+		ElementNode(String type) {
+			this.type = type;
+		}
+
+		/**
+		 * @return the index of the attribute, or <code>-(insertion index) - 1</code>
+		 *         if there is no such attribute
+		 */
+		private int indexOf(String key) {
+			int low = 0;
+			int high = attributeCount - 1;
+			while (low <= high) {
+				int mid = (low + high) >>> 1;
+				int result = attributes[2 * mid].compareTo(key);
+				if (result < 0) {
+					low = mid + 1;
+				} else if (result > 0) {
+					high = mid - 1;
+				} else {
+					return mid;
+				}
+			}
+			return -(low + 1);
+		}
+
+		String getAttribute(String key) {
+			int index = indexOf(key);
+			return index < 0 ? null : attributes[2 * index + 1];
+		}
+
+		void setAttribute(String key, String value) {
+			int index = indexOf(key);
+			if (index >= 0) {
+				attributes[2 * index + 1] = value;
+				return;
+			}
+			index = -index - 1;
+			if (2 * attributeCount == attributes.length) {
+				attributes = Arrays.copyOf(attributes, Math.max(8, 2 * attributes.length));
+			}
+			System.arraycopy(attributes, 2 * index, attributes, 2 * index + 2, 2 * (attributeCount - index));
+			attributes[2 * index] = key;
+			attributes[2 * index + 1] = value;
+			attributeCount++;
+		}
+
+		void appendChild(ElementNode child) {
+			if (childCount == children.length) {
+				children = Arrays.copyOf(children, Math.max(4, 2 * children.length));
+			}
+			children[childCount++] = child;
+		}
+
+		/**
+		 * Copies the attributes and children of the given element.
+		 */
+		void putContents(ElementNode source, boolean copyText) {
+			for (int i = 0; i < source.attributeCount; i++) {
+				setAttribute(source.attributes[2 * i], source.attributes[2 * i + 1]);
+			}
+			if (copyText && source.text != null) {
+				text = source.text;
+			}
+			for (int i = 0, count = source.childCount; i < count; i++) {
+				appendChild(source.children[i].copy());
+			}
+		}
+
+		ElementNode copy() {
+			ElementNode copy = new ElementNode(type);
+			copy.putContents(this, true);
+			return copy;
+		}
+	}
+
 	/**
 	 * A simple XML writer. Using this instead of the javax.xml.transform classes
 	 * allows compilation against JCL Foundation (bug 80053).
@@ -632,6 +960,10 @@ public final class XMLMemento implements IMemento {
 		/* constants */
 		private static final String XML_VERSION = "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"; //$NON-NLS-1$
 
+		private static final String LINE_SEPARATOR = System.lineSeparator();
+
+		private static final int BUFFER_SIZE = 8192;
+
 		/**
 		 * Creates a new DOM writer on the given output writer.
 		 *
@@ -676,6 +1008,64 @@ public final class XMLMemento implements IMemento {
 			}
 		}
 
+		/**
+		 * Prints the given element in the same form as the DOM element with the
+		 * same content.
+		 *
+		 * @param node the element to print
+		 */
+		public void print(ElementNode node) {
+			StringBuilder buffer = new StringBuilder(BUFFER_SIZE);
+			append(buffer, node);
+			write(buffer.toString());
+		}
+
+		private void append(StringBuilder buffer, ElementNode node) {
+			boolean hasChildren = node.text != null || node.childCount > 0;
+			buffer.append('<').append(node.type);
+			for (int i = 0; i < node.attributeCount; i++) {
+				buffer.append(' ').append(node.attributes[2 * i]).append("=\""); //$NON-NLS-1$
+				appendEscaped(buffer, node.attributes[2 * i + 1]);
+				buffer.append('"');
+			}
+			buffer.append(hasChildren ? ">" : "/>"); //$NON-NLS-1$ //$NON-NLS-2$
+			if (hasChildren) {
+				boolean prevWasText = false;
+				if (node.text != null) {
+					appendEscaped(buffer, node.text);
+					prevWasText = true;
+				}
+				for (int i = 0; i < node.childCount; i++) {
+					if (!prevWasText) {
+						buffer.append(LINE_SEPARATOR);
+					}
+					append(buffer, node.children[i]);
+					prevWasText = false;
+				}
+				if (!prevWasText) {
+					buffer.append(LINE_SEPARATOR);
+				}
+				buffer.append("</").append(node.type).append('>'); //$NON-NLS-1$
+			}
+			if (buffer.length() >= BUFFER_SIZE) {
+				write(buffer.toString());
+				buffer.setLength(0);
+			}
+		}
+
+		private static void appendEscaped(StringBuilder buffer, String s) {
+			int start = 0;
+			for (int i = 0; i < s.length(); i++) {
+				char c = s.charAt(i);
+				if (c < 32 || c == '<' || c == '>' || c == '"' || c == '\'' || c == '&') {
+					buffer.append(s, start, i);
+					appendEscapedChar(buffer, c);
+					start = i + 1;
+				}
+			}
+			buffer.append(s, start, s.length());
+		}
+
 		private void startTag(Element element, boolean hasChildren) {
 			StringBuilder sb = new StringBuilder();
 			sb.append("<"); //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -421,7 +421,10 @@ public class EditorSelectionDialog extends Dialog {
 				externalEditors = filterEditors(externalEditors);
 			};
 			try {
-				// See bug 47556 - Program.getPrograms() requires a Display.getCurrent() != null
+				// See bug 47556 - on some platforms, like Cocoa, Program.getPrograms()
+				// requires a Display.getCurrent() != null. On GTK and Windows, the
+				// registry loads the editors in the background after startup, so this
+				// usually returns at once.
 				ps.runInUI(PlatformUI.getWorkbench().getActiveWorkbenchWindow(), runnable, null);
 			} catch (InvocationTargetException e) {
 				Throwable cause = e.getCause();
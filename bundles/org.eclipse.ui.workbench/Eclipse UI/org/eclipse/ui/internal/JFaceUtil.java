@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2021 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,17 +14,22 @@
 
 package org.eclipse.ui.internal;
 
+import java.io.File;
+import java.net.URISyntaxException;
+import java.net.URL;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.NodeChangeEvent;
 import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jface.internal.ImageDataCache;
 import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.preference.JFacePreferences;
 import org.eclipse.jface.util.Policy;
 import org.eclipse.jface.util.SafeRunnable;
 import org.eclipse.jface.util.StatusHandler;
+import org.eclipse.osgi.service.datalocation.Location;
 import org.eclipse.ui.statushandlers.IStatusAdapterConstants;
 import org.eclipse.ui.statushandlers.StatusAdapter;
 import org.eclipse.ui.statushandlers.StatusManager;
@@ -36,6 +41,14 @@ import org.eclipse.ui.statushandlers.StatusManager;
  */
 final class JFaceUtil {
 
+	/**
+	 * System property that disables the persistent cache of decoded images when
+	 * set to <code>false</code>.
+	 */
+	private static final String PROP_IMAGE_DATA_CACHE = "org.eclipse.ui.imageDataCache"; //$NON-NLS-1$
+
+	private static final String IMAGE_DATA_CACHE_DIR = "org.eclipse.jface/imageDataCache"; //$NON-NLS-1$
+
 	private JFaceUtil() {
 		// prevents instantiation
 	}
@@ -92,6 +105,34 @@ final class JFaceUtil {
 			InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x_PNG_FOR_GIF = "true".equalsIgnoreCase( //$NON-NLS-1$
 					Platform.getDebugOption(Policy.JFACE + "/debug/loadURLImageDescriptor2xPngForGif")); //$NON-NLS-1$
 		}
+
+		initializeImageDataCache();
+	}
+
+	/**
+	 * Stores decoded images in the configuration area, unless it is read-only or
+	 * the cache has been disabled.
+	 */
+	private static void initializeImageDataCache() {
+		if ("false".equalsIgnoreCase(System.getProperty(PROP_IMAGE_DATA_CACHE))) { //$NON-NLS-1$
+			return;
+		}
+		Location configuration = Platform.getConfigurationLocation();
+		if (configuration == null || configuration.isReadOnly()) {
+			return;
+		}
+		URL url = configuration.getURL();
+		if (url == null) {
+			return;
+		}
+		try {
+			File directory = ImageDataCache.toFile(url);
+			if (directory != null) {
+				ImageDataCache.setLocation(new File(directory, IMAGE_DATA_CACHE_DIR));
+			}
+		} catch (URISyntaxException e) {
+			// not a usable location, leave the cache disabled
+		}
 	}
 
 	/**
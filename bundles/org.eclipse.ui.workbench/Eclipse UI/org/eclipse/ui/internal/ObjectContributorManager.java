@@ -24,6 +24,8 @@ import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
 import org.eclipse.core.runtime.Adapters;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IAdapterManager;
@@ -56,6 +58,12 @@ import org.eclipse.ui.PlatformUI;
  * </ul>
  * </li>
  * </ul>
+ * <p>
+ * The contributors found for a class are cached until a contributor is
+ * registered or unregistered for one of the types in its search order. Lookups
+ * may be done from any thread, while contributors are registered and
+ * unregistered from the UI thread.
+ * </p>
  *
  * @see IObjectContributor
  */
@@ -78,25 +86,61 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 		IObjectContributor contributor;
 	}
 
-	/** Table of contributors. */
+	/**
+	 * The class and interface search order of a class, which never changes.
+	 */
+	private static final class SearchOrder {
+		final List<Class<?>> classes;
+		final List<Class<?>> interfaces;
+		final Set<String> typeNames = new HashSet<>();
+
+		SearchOrder(List<Class<?>> classes, List<Class<?>> interfaces) {
+			this.classes = Collections.unmodifiableList(classes);
+			this.interfaces = Collections.unmodifiableList(interfaces);
+			for (Class<?> clazz : classes) {
+				typeNames.add(clazz.getName());
+			}
+			for (Class<?> clazz : interfaces) {
+				typeNames.add(clazz.getName());
+			}
+		}
+	}
+
+	private static final ClassValue<SearchOrder> searchOrders = new ClassValue<>() {
+		@Override
+		protected SearchOrder computeValue(Class<?> type) {
+			List classes = computeClassOrderInternal(type);
+			return new SearchOrder(classes, computeInterfaceOrderInternal(classes));
+		}
+	};
+
+	/**
+	 * Table of contributors. The contributor lists are replaced rather than
+	 * modified, so that they can be read while contributors are registered.
+	 */
 	protected Map contributors;
 
 	/**
-	 * Cache of object class contributor search paths; <code>null</code> if none.
+	 * Cache of object class contributor search paths.
 	 */
 	protected Map objectLookup;
 
 	/**
-	 * Cache of resource adapter class contributor search paths; <code>null</code>
-	 * if none.
+	 * Cache of resource adapter class contributor search paths.
 	 */
 	protected Map resourceAdapterLookup;
 
 	/**
-	 * Cache of adaptable class contributor search paths; <code>null</code> if none.
+	 * Cache of adaptable class contributor search paths.
 	 */
 	protected Map adaptableLookup;
 
+	/**
+	 * Incremented whenever contributors are registered or unregistered, so that a
+	 * search path computed concurrently is not kept in the cache.
+	 */
+	private volatile int generation;
+
 	protected Set contributorRecordSet;
 
 	/**
@@ -105,9 +149,9 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	public ObjectContributorManager() {
 		contributors = new Hashtable(5);
 		contributorRecordSet = new HashSet(5);
-		objectLookup = null;
-		resourceAdapterLookup = null;
-		adaptableLookup = null;
+		objectLookup = new ConcurrentHashMap();
+		resourceAdapterLookup = new ConcurrentHashMap();
+		adaptableLookup = new ConcurrentHashMap();
 		String extensionPointId = getExtensionPointFilter();
 		if (extensionPointId != null) {
 			IExtensionPoint extensionPoint = Platform.getExtensionRegistry().getExtensionPoint(PlatformUI.PLUGIN_ID,
@@ -147,6 +191,10 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	 * The search order is defined in this class' comment.
 	 */
 	protected final List computeClassOrder(Class extensibleClass) {
+		return new ArrayList(searchOrders.get(extensibleClass).classes);
+	}
+
+	private static List computeClassOrderInternal(Class extensibleClass) {
 		ArrayList result = new ArrayList(4);
 		Class clazz = extensibleClass;
 		while (clazz != null) {
@@ -161,6 +209,10 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	 * <code>classList</code>. The search order is defined in this class' comment.
 	 */
 	protected final List computeInterfaceOrder(List classList) {
+		return computeInterfaceOrderInternal(classList);
+	}
+
+	private static List computeInterfaceOrderInternal(List classList) {
 		ArrayList result = new ArrayList(4);
 		Map seen = new HashMap(4);
 		for (Iterator list = classList.iterator(); list.hasNext();) {
@@ -171,46 +223,41 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	}
 
 	/**
-	 * Flushes the cache of contributor search paths. This is generally required
-	 * whenever a contributor is added or removed.
-	 * <p>
-	 * It is likely easier to just toss the whole cache rather than trying to be
-	 * smart and remove only those entries affected.
+	 * Flushes the cache of contributor search paths.
 	 */
 	public void flushLookup() {
-		objectLookup = null;
-		resourceAdapterLookup = null;
-		adaptableLookup = null;
-	}
-
-	/**
-	 * Cache the real adapter class contributor search path.
-	 */
-	private void cacheResourceAdapterLookup(Class adapterClass, List results) {
-		if (resourceAdapterLookup == null) {
-			resourceAdapterLookup = new HashMap();
-		}
-		resourceAdapterLookup.put(adapterClass, results);
+		generation++;
+		objectLookup.clear();
+		resourceAdapterLookup.clear();
+		adaptableLookup.clear();
 	}
 
 	/**
-	 * Cache the real adapter class contributor search path.
+	 * Flushes the contributor search paths that include the given type. This is
+	 * required whenever a contributor is registered for or unregistered from the
+	 * type.
+	 *
+	 * @param targetType the name of the type
 	 */
-	private void cacheAdaptableLookup(String adapterClass, List results) {
-		if (adaptableLookup == null) {
-			adaptableLookup = new HashMap();
-		}
-		adaptableLookup.put(adapterClass, results);
+	private void flushLookup(String targetType) {
+		generation++;
+		objectLookup.keySet().removeIf(clazz -> searchOrders.get((Class) clazz).typeNames.contains(targetType));
+		resourceAdapterLookup.keySet()
+				.removeIf(clazz -> searchOrders.get((Class) clazz).typeNames.contains(targetType));
+		adaptableLookup.remove(targetType);
 	}
 
 	/**
-	 * Cache the object class contributor search path.
+	 * Returns the cached search path for the given key, computing it if
+	 * necessary. A search path computed while contributors changed is not kept.
 	 */
-	private void cacheObjectLookup(Class objectClass, List results) {
-		if (objectLookup == null) {
-			objectLookup = new HashMap();
+	private List getLookup(Map lookup, Object key, Function<Object, List> computation) {
+		int start = generation;
+		List results = (List) lookup.computeIfAbsent(key, computation);
+		if (generation != start) {
+			lookup.remove(key, results);
 		}
-		objectLookup.put(objectClass, results);
+		return results;
 	}
 
 	/**
@@ -229,12 +276,10 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	 * Return the list of contributors for the supplied class.
 	 */
 	protected List addContributorsFor(Class objectClass) {
-
-		List classList = computeClassOrder(objectClass);
+		SearchOrder searchOrder = searchOrders.get(objectClass);
 		List result = new ArrayList();
-		addContributorsFor(classList, result);
-		classList = computeInterfaceOrder(classList); // interfaces
-		addContributorsFor(classList, result);
+		addContributorsFor(searchOrder.classes, result);
+		addContributorsFor(searchOrder.interfaces, result); // interfaces
 		return result;
 	}
 
@@ -255,7 +300,7 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	 * Add interface Class objects to the result list based on the class hierarchy.
 	 * Interfaces will be searched based on their position in the result list.
 	 */
-	private void internalComputeInterfaceOrder(Class[] interfaces, List result, Map seen) {
+	private static void internalComputeInterfaceOrder(Class[] interfaces, List result, Map seen) {
 		List newInterfaces = new ArrayList(seen.size());
 		for (Class currentInterface : interfaces) {
 			if (seen.get(currentInterface) == null) {
@@ -312,12 +357,10 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	 */
 	public void registerContributor(IObjectContributor contributor, String targetType) {
 		List contributorList = (List) contributors.get(targetType);
-		if (contributorList == null) {
-			contributorList = new ArrayList(5);
-			contributors.put(targetType, contributorList);
-		}
+		contributorList = contributorList == null ? new ArrayList(5) : new ArrayList(contributorList);
 		contributorList.add(contributor);
-		flushLookup();
+		contributors.put(targetType, contributorList);
+		flushLookup(targetType);
 
 		IConfigurationElement element = Adapters.adapt(contributor, IConfigurationElement.class);
 
@@ -349,11 +392,14 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 		if (contributorList == null) {
 			return;
 		}
+		contributorList = new ArrayList(contributorList);
 		contributorList.remove(contributor);
 		if (contributorList.isEmpty()) {
 			contributors.remove(targetType);
+		} else {
+			contributors.put(targetType, contributorList);
 		}
-		flushLookup();
+		flushLookup(targetType);
 	}
 
 	/**
@@ -363,7 +409,7 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	 */
 	public void unregisterContributors(String targetType) {
 		contributors.remove(targetType);
-		flushLookup();
+		flushLookup(targetType);
 	}
 
 	protected List getContributors(Object object) {
@@ -409,21 +455,13 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	 * @since 3.1
 	 */
 	protected List getObjectContributors(Class objectClass) {
-		List objectList = null;
-		// Lookup the results in the cache first.
-		if (objectLookup != null) {
-			objectList = (List) objectLookup.get(objectClass);
-		}
-		if (objectList == null) {
-			objectList = addContributorsFor(objectClass);
+		return getLookup(objectLookup, objectClass, key -> {
+			List objectList = addContributorsFor((Class) key);
 			if (objectList.isEmpty()) {
-				objectList = Collections.EMPTY_LIST;
-			} else {
-				objectList = Collections.unmodifiableList(objectList);
+				return Collections.EMPTY_LIST;
 			}
-			cacheObjectLookup(objectClass, objectList);
-		}
-		return objectList;
+			return Collections.unmodifiableList(objectList);
+		});
 	}
 
 	/**
@@ -438,20 +476,13 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	 * @since 3.1
 	 */
 	protected List getResourceContributors(Class resourceClass) {
-		List resourceList = null;
-		if (resourceAdapterLookup != null) {
-			resourceList = (List) resourceAdapterLookup.get(resourceClass);
-		}
-		if (resourceList == null) {
-			resourceList = addContributorsFor(resourceClass);
+		return getLookup(resourceAdapterLookup, resourceClass, key -> {
+			List resourceList = addContributorsFor((Class) key);
 			if (resourceList.isEmpty()) {
-				resourceList = Collections.EMPTY_LIST;
-			} else {
-				resourceList = Collections.unmodifiableList(filterOnlyAdaptableContributors(resourceList));
+				return Collections.EMPTY_LIST;
 			}
-			cacheResourceAdapterLookup(resourceClass, resourceList);
-		}
-		return resourceList;
+			return Collections.unmodifiableList(filterOnlyAdaptableContributors(resourceList));
+		});
 	}
 
 	/**
@@ -464,30 +495,22 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 	 * @since 3.1
 	 */
 	protected List getAdaptableContributors(String adapterType) {
-		List adaptableList = null;
 		// Lookup the results in the cache first, there are two caches
 		// one that stores non-adapter contributions and the other
 		// contains adapter contributions.
-		if (adaptableLookup != null) {
-			adaptableList = (List) adaptableLookup.get(adapterType);
-		}
-		if (adaptableList == null) {
+		return getLookup(adaptableLookup, adapterType, key -> {
 			// ignore resource adapters because these must be adapted via the
 			// IContributorResourceAdapter.
 			if (LegacyResourceSupport.isResourceType(adapterType)
 					|| LegacyResourceSupport.isResourceMappingType(adapterType)) {
-				adaptableList = Collections.EMPTY_LIST;
-			} else {
-				adaptableList = (List) contributors.get(adapterType);
-				if (adaptableList == null || adaptableList.isEmpty()) {
-					adaptableList = Collections.EMPTY_LIST;
-				} else {
-					adaptableList = Collections.unmodifiableList(filterOnlyAdaptableContributors(adaptableList));
-				}
+				return Collections.EMPTY_LIST;
 			}
-			cacheAdaptableLookup(adapterType, adaptableList);
-		}
-		return adaptableList;
+			List adaptableList = (List) contributors.get(adapterType);
+			if (adaptableList == null || adaptableList.isEmpty()) {
+				return Collections.EMPTY_LIST;
+			}
+			return Collections.unmodifiableList(filterOnlyAdaptableContributors(adaptableList));
+		});
 	}
 
 	/**
@@ -680,9 +703,10 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 
 		// Compute all the super classes, interfaces, and adapters
 		// for the first element.
-		List classes = computeClassOrder(objects.get(0).getClass());
+		SearchOrder searchOrder = searchOrders.get(objects.get(0).getClass());
+		List classes = new ArrayList(searchOrder.classes);
 		List adapters = computeAdapterOrder(classes);
-		List interfaces = computeInterfaceOrder(classes);
+		List interfaces = new ArrayList(searchOrder.interfaces);
 
 		// Cache of all types found in the selection - this is needed
 		// to compute common adapters.
@@ -694,14 +718,15 @@ public abstract class ObjectContributorManager implements IExtensionChangeHandle
 		// Traverse the selection if there is more than one element selected.
 		for (int i = 1; i < objects.size(); i++) {
 			// Compute all the super classes for the current element
-			List otherClasses = computeClassOrder(objects.get(i).getClass());
+			SearchOrder otherSearchOrder = searchOrders.get(objects.get(i).getClass());
+			List otherClasses = otherSearchOrder.classes;
 			if (!classesEmpty) {
 				classesEmpty = extractCommonClasses(classes, otherClasses);
 			}
 
 			// Compute all the interfaces for the current element
 			// and all of its super classes.
-			List otherInterfaces = computeInterfaceOrder(otherClasses);
+			List otherInterfaces = otherSearchOrder.interfaces;
 			if (!interfacesEmpty) {
 				interfacesEmpty = extractCommonClasses(interfaces, otherInterfaces);
 			}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2020 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -701,6 +701,7 @@ public class WorkbenchMessages extends NLS {
 
 	public static String EditorRegistry_errorTitle;
 	public static String EditorRegistry_errorMessage;
+	public static String EditorRegistry_loadEditorsFromOSJobName;
 
 	public static String ErrorClosing;
 	public static String ErrorClosingNoArg;
@@ -0,0 +1,176 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.internal.activities;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.eclipse.ui.activities.IActivityPatternBinding;
+
+/**
+ * Finds the activities whose pattern bindings match an identifier.
+ * <p>
+ * Equality patterns are looked up in a map. Regular expressions are stored in a
+ * trie under the literal prefix every string they match has to start with, so
+ * that an identifier is only matched against the expressions found along its
+ * own characters, plus the expressions without such a prefix. Expressions of
+ * activities that already match the identifier are skipped.
+ * </p>
+ * <p>
+ * Instances are immutable and may be used from any thread.
+ * </p>
+ */
+final class ActivityPatternMatcher {
+
+	static final ActivityPatternMatcher EMPTY = new ActivityPatternMatcher(Collections.emptyMap());
+
+	private static final String META_CHARACTERS = "\\.[]()*+?{}^$|"; //$NON-NLS-1$
+
+	private static final String QUANTIFIERS = "*+?{"; //$NON-NLS-1$
+
+	private static final class Node {
+		Map<Character, Node> children;
+		List<ActivityPatternBinding> bindings;
+
+		Node child(char c) {
+			if (children == null) {
+				children = new HashMap<>(4);
+			}
+			return children.computeIfAbsent(Character.valueOf(c), k -> new Node());
+		}
+	}
+
+	private final Map<String, Set<String>> activityIdsByString = new HashMap<>();
+
+	private final Node root = new Node();
+
+	/**
+	 * @param activityPatternBindingsByActivityId the pattern bindings of the
+	 *                                            defined activities
+	 */
+	ActivityPatternMatcher(Map<String, Set<IActivityPatternBinding>> activityPatternBindingsByActivityId) {
+		for (Set<IActivityPatternBinding> activityPatternBindings : activityPatternBindingsByActivityId.values()) {
+			for (IActivityPatternBinding activityPatternBinding : activityPatternBindings) {
+				ActivityPatternBinding binding = (ActivityPatternBinding) activityPatternBinding;
+				if (binding.isEqualityPattern()) {
+					activityIdsByString.computeIfAbsent(binding.getString(), k -> new HashSet<>(2))
+							.add(binding.getActivityId());
+				} else {
+					String prefix = getLiteralPrefix(binding.getPattern());
+					Node node = root;
+					for (int i = 0; i < prefix.length(); i++) {
+						node = node.child(prefix.charAt(i));
+					}
+					if (node.bindings == null) {
+						node.bindings = new ArrayList<>(2);
+					}
+					node.bindings.add(binding);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the ids of the activities with a pattern binding matching the
+	 * given identifier.
+	 *
+	 * @param identifierId the identifier
+	 * @return the activity ids, may be empty
+	 */
+	Set<String> getMatchingActivityIds(String identifierId) {
+		Set<String> activityIds = new HashSet<>();
+		Set<String> equal = activityIdsByString.get(identifierId);
+		if (equal != null) {
+			activityIds.addAll(equal);
+		}
+		Node node = root;
+		int i = 0;
+		while (node != null) {
+			if (node.bindings != null) {
+				for (ActivityPatternBinding binding : node.bindings) {
+					if (!activityIds.contains(binding.getActivityId()) && binding.isMatch(identifierId)) {
+						activityIds.add(binding.getActivityId());
+					}
+				}
+			}
+			if (i == identifierId.length() || node.children == null) {
+				break;
+			}
+			node = node.children.get(Character.valueOf(identifierId.charAt(i++)));
+		}
+		return activityIds;
+	}
+
+	/**
+	 * Returns a string every string matched by the pattern starts with. The
+	 * prefix may be shorter than possible, e.g. it is empty for patterns with
+	 * flags or alternatives.
+	 *
+	 * @param pattern the pattern
+	 * @return the prefix
+	 */
+	static String getLiteralPrefix(Pattern pattern) {
+		String regex = pattern.pattern();
+		if (pattern.flags() != 0 || regex.indexOf('|') >= 0) {
+			return ""; //$NON-NLS-1$
+		}
+		StringBuilder prefix = new StringBuilder();
+		int length = regex.length();
+		// patterns always match whole identifiers
+		int i = regex.startsWith("^") ? 1 : 0; //$NON-NLS-1$
+		while (i < length) {
+			String literal;
+			int next;
+			char c = regex.charAt(i);
+			if (regex.startsWith("\\Q", i)) { //$NON-NLS-1$
+				int end = regex.indexOf("\\E", i + 2); //$NON-NLS-1$
+				literal = end < 0 ? regex.substring(i + 2) : regex.substring(i + 2, end);
+				next = end < 0 ? length : end + 2;
+			} else if (c == '\\') {
+				if (i + 1 == length || Character.isLetterOrDigit(regex.charAt(i + 1))) {
+					// character classes, back references and the like
+					break;
+				}
+				literal = String.valueOf(regex.charAt(i + 1));
+				next = i + 2;
+			} else if (META_CHARACTERS.indexOf(c) >= 0) {
+				break;
+			} else {
+				literal = String.valueOf(c);
+				next = i + 1;
+			}
+			// empty quotes do not separate a quantifier from what it repeats
+			while (regex.startsWith("\\Q\\E", next)) { //$NON-NLS-1$
+				next += 4;
+			}
+			if (literal.isEmpty()) {
+				break;
+			}
+			if (next < length && QUANTIFIERS.indexOf(regex.charAt(next)) >= 0) {
+				// the last character may be repeated or left out
+				prefix.append(literal, 0, Math.max(0, literal.length() - 1));
+				break;
+			}
+			prefix.append(literal);
+			i = next;
+		}
+		return prefix.toString();
+	}
+}
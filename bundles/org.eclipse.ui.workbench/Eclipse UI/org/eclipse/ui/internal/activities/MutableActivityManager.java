@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -85,6 +85,32 @@ public final class MutableActivityManager extends AbstractActivityManager
 
 	private Map<String, Identifier> identifiersById = new HashMap<>();
 
+	/**
+	 * Matches identifiers against the pattern bindings of the defined activities.
+	 */
+	private ActivityPatternMatcher patternMatcher = ActivityPatternMatcher.EMPTY;
+
+	/**
+	 * The ids of the activities matching each known identifier, computed when
+	 * first needed after the pattern bindings changed. Like
+	 * {@link #patternMatcher} and {@link #identifierIdsByActivityId} only
+	 * accessed while holding the lock of this manager, as identifiers are also
+	 * updated by a background job.
+	 */
+	private Map<String, Set<String>> matchingActivityIdsByIdentifierId = new HashMap<>();
+
+	/**
+	 * The ids of the identifiers in {@link #matchingActivityIdsByIdentifierId}
+	 * each activity matches.
+	 */
+	private Map<String, Set<String>> identifierIdsByActivityId = new HashMap<>();
+
+	/**
+	 * Whether an activity has been created for each defined activity id since
+	 * the registry was read.
+	 */
+	private boolean definedActivitiesCreated = false;
+
 	/**
 	 * Avoid endless circular referencing of re-adding activity to evaluation
 	 * listener, because of adding it the first time to evaluation listener.
@@ -380,6 +406,13 @@ public final class MutableActivityManager extends AbstractActivityManager
 		this.activityRequirementBindingsByActivityId = activityRequirementBindingsByActivityId;
 		this.activityDefinitionsById = activityDefinitionsById;
 		this.activityPatternBindingsByActivityId = activityPatternBindingsByActivityId;
+		ActivityPatternMatcher newPatternMatcher = new ActivityPatternMatcher(activityPatternBindingsByActivityId);
+		synchronized (this) {
+			this.patternMatcher = newPatternMatcher;
+			this.matchingActivityIdsByIdentifierId = new HashMap<>();
+			this.identifierIdsByActivityId = new HashMap<>();
+			this.definedActivitiesCreated = false;
+		}
 		this.categoryActivityBindingsByCategoryId = categoryActivityBindingsByCategoryId;
 		this.categoryDefinitionsById = categoryDefinitionsById;
 		boolean definedActivityIdsChanged = false;
@@ -514,10 +547,11 @@ public final class MutableActivityManager extends AbstractActivityManager
 	 */
 	private void updateListeners(boolean activityManagerChanged, Map<String, ActivityEvent> activityEventsByActivityId,
 			Set<String> deltaActivityIds, Set<String> previouslyEnabledActivityIds) {
-		// don't update identifiers if the enabled activity set has not changed
+		// don't update identifiers if the enabled activity set has not changed,
+		// and only those the changed activities match
 		if (activityManagerChanged) {
-			Map<String, IdentifierEvent> identifierEventsByIdentifierId = updateIdentifiers(identifiersById.keySet(),
-					deltaActivityIds);
+			Map<String, IdentifierEvent> identifierEventsByIdentifierId = updateIdentifiers(
+					getMatchedIdentifierIds(deltaActivityIds));
 			if (identifierEventsByIdentifierId != null) {
 				notifyIdentifiers(identifierEventsByIdentifierId);
 			}
@@ -712,12 +746,7 @@ public final class MutableActivityManager extends AbstractActivityManager
 	}
 
 	private IdentifierEvent updateIdentifier(Identifier identifier) {
-		return updateIdentifier(identifier, definedActivityIds);
-	}
-
-	private IdentifierEvent updateIdentifier(Identifier identifier, Set<String> changedActivityIds) {
 		String id = identifier.getId();
-		Set<String> activityIds = new HashSet<>();
 
 		boolean enabled = false;
 
@@ -738,19 +767,8 @@ public final class MutableActivityManager extends AbstractActivityManager
 				return new IdentifierEvent(identifier, activityIdsChanged, enabledChanged);
 			}
 		} else {
-			Set<String> activityIdsToUpdate = new HashSet<>(changedActivityIds);
-			if (identifier.getActivityIds() != null) {
-				activityIdsToUpdate.addAll(identifier.getActivityIds());
-			}
-			for (String activityId : activityIdsToUpdate) {
-				Activity activity = (Activity) getActivity(activityId);
-
-				if (activity.isMatch(id)) {
-					activityIds.add(activityId);
-				}
-			}
-
-			activityIdsChanged = identifier.setActivityIds(activityIds);
+			createDefinedActivities();
+			activityIdsChanged = identifier.setActivityIds(new HashSet<>(getMatchingActivityIds(id)));
 
 			if (advisor != null) {
 				enabled = advisor.computeEnablement(this, identifier);
@@ -765,18 +783,13 @@ public final class MutableActivityManager extends AbstractActivityManager
 	}
 
 	private Map<String, IdentifierEvent> updateIdentifiers(Collection<String> identifierIds) {
-		return updateIdentifiers(identifierIds, definedActivityIds);
-	}
-
-	private Map<String, IdentifierEvent> updateIdentifiers(Collection<String> identifierIds,
-			Set<String> changedActivityIds) {
 		Map<String, IdentifierEvent> identifierEventsByIdentifierId = new TreeMap<>();
 
 		for (String identifierId : identifierIds) {
 			Identifier identifier = identifiersById.get(identifierId);
 
 			if (identifier != null) {
-				IdentifierEvent identifierEvent = updateIdentifier(identifier, changedActivityIds);
+				IdentifierEvent identifierEvent = updateIdentifier(identifier);
 
 				if (identifierEvent != null) {
 					identifierEventsByIdentifierId.put(identifierId, identifierEvent);
@@ -787,6 +800,62 @@ public final class MutableActivityManager extends AbstractActivityManager
 		return identifierEventsByIdentifierId;
 	}
 
+	/**
+	 * Creates the activities of all defined activity ids, which also evaluates
+	 * their enabledWhen expressions.
+	 */
+	private synchronized void createDefinedActivities() {
+		if (!definedActivitiesCreated) {
+			for (String activityId : definedActivityIds) {
+				getActivity(activityId);
+			}
+			definedActivitiesCreated = true;
+		}
+	}
+
+	/**
+	 * Returns the ids of the activities whose pattern bindings match the given
+	 * identifier.
+	 *
+	 * @param identifierId the identifier
+	 * @return the activity ids, not to be modified
+	 */
+	private synchronized Set<String> getMatchingActivityIds(String identifierId) {
+		Set<String> activityIds = matchingActivityIdsByIdentifierId.get(identifierId);
+		if (activityIds == null) {
+			activityIds = patternMatcher.getMatchingActivityIds(identifierId);
+			matchingActivityIdsByIdentifierId.put(identifierId, activityIds);
+			for (String activityId : activityIds) {
+				identifierIdsByActivityId.computeIfAbsent(activityId, k -> new HashSet<>()).add(identifierId);
+			}
+		}
+		return activityIds;
+	}
+
+	/**
+	 * Returns the ids of the known identifiers matched by any of the given
+	 * activities. The enablement of other identifiers does not depend on these
+	 * activities.
+	 *
+	 * @param activityIds the activity ids
+	 * @return the identifier ids
+	 */
+	private synchronized Set<String> getMatchedIdentifierIds(Set<String> activityIds) {
+		if (matchingActivityIdsByIdentifierId.size() < identifiersById.size()) {
+			for (String identifierId : identifiersById.keySet()) {
+				getMatchingActivityIds(identifierId);
+			}
+		}
+		Set<String> identifierIds = new HashSet<>();
+		for (String activityId : activityIds) {
+			Set<String> matched = identifierIdsByActivityId.get(activityId);
+			if (matched != null) {
+				identifierIds.addAll(matched);
+			}
+		}
+		return identifierIds;
+	}
+
 	/**
 	 * Unhook this manager from its registry.
 	 *
@@ -816,14 +885,8 @@ public final class MutableActivityManager extends AbstractActivityManager
 
 				while (!deferredIdentifiers.isEmpty()) {
 					Identifier identifier = deferredIdentifiers.remove(0);
-					Set<String> activityIds = new HashSet<>();
-					for (String activityId : definedActivityIds) {
-						Activity activity = (Activity) getActivity(activityId);
-
-						if (activity.isMatch(identifier.getId())) {
-							activityIds.add(activityId);
-						}
-					}
+					createDefinedActivities();
+					Set<String> activityIds = new HashSet<>(getMatchingActivityIds(identifier.getId()));
 
 					boolean activityIdsChanged = identifier.setActivityIds(activityIds);
 					if (activityIdsChanged) {
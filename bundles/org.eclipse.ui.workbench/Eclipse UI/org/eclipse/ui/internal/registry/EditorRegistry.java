@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2017 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -52,11 +52,13 @@ import org.eclipse.core.runtime.content.IContentTypeManager;
 import org.eclipse.core.runtime.dynamichelpers.ExtensionTracker;
 import org.eclipse.core.runtime.dynamichelpers.IExtensionChangeHandler;
 import org.eclipse.core.runtime.dynamichelpers.IExtensionTracker;
+import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.dialogs.ErrorDialog;
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.jface.util.SafeRunnable;
+import org.eclipse.jface.util.Util;
 import org.eclipse.swt.program.Program;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.ui.IEditorDescriptor;
@@ -131,11 +133,32 @@ public class EditorRegistry extends EventManager implements IEditorRegistry, IEx
 	private Map<IContentType, LinkedHashSet<IEditorDescriptor>> contentTypeToEditorMappingsFromUser = new HashMap<>();
 
 	/**
-	 * Cached images - these include images from registered editors (via plugins)
-	 * and others hence this table is not one to one with the mappings table. It is
-	 * in fact a superset of the keys one would find in typeEditorMappings
+	 * The image of a file editor mapping, together with the default editor it was
+	 * taken from, or <code>null</code> if it is the image of the external program
+	 * for an extension without an editor.
 	 */
-	private Map<Object, ImageDescriptor> extensionImages = new HashMap<>();
+	private static final class MappingImage {
+		final IEditorDescriptor editor;
+		final ImageDescriptor image;
+
+		MappingImage(IEditorDescriptor editor, ImageDescriptor image) {
+			this.editor = editor;
+			this.image = image;
+		}
+	}
+
+	/**
+	 * Cached images of the editors used for content types.
+	 */
+	private Map<IEditorDescriptor, ImageDescriptor> editorImages = new HashMap<>();
+
+	/**
+	 * Cached images per file name or extension, keyed like the mappings table. An
+	 * entry is only used while the editor it was taken from is still the default
+	 * editor of its mapping, so changing the mappings does not discard the images
+	 * of the other extensions.
+	 */
+	private Map<String, MappingImage> extensionImages = new HashMap<>();
 
 	/**
 	 * Vector of EditorDescriptor - all the editors loaded from plugin files. The
@@ -151,6 +174,12 @@ public class EditorRegistry extends EventManager implements IEditorRegistry, IEx
 	private IEditorDescriptor[] sortedEditorsFromOS;
 	final Object sortedEditorsFromOSSynchronizer = new Object();
 
+	/**
+	 * Delay before the editors from the OS are loaded in the background, in
+	 * milliseconds.
+	 */
+	private static final long LOAD_EDITORS_FROM_OS_DELAY = 5000;
+
 	// Map of EditorDescriptor - map editor id to editor.
 	private Map<String, IEditorDescriptor> mapIDtoInternalEditor = initialIdToEditorMap(10);
 	// Map of EditorDescriptor - map editor id to OS editor.
@@ -198,6 +227,7 @@ public class EditorRegistry extends EventManager implements IEditorRegistry, IEx
 				saveAssociations();
 			}
 		});
+		scheduleLoadEditorsFromOS();
 	}
 
 	/**
@@ -518,6 +548,24 @@ public class EditorRegistry extends EventManager implements IEditorRegistry, IEx
 		}
 	}
 
+	/**
+	 * Loads the editors from the OS in a background job, so that the first "Open
+	 * With" menu or editor selection dialog does not wait for the OS to enumerate
+	 * its programs. Only done on the platforms where
+	 * {@link Program#getPrograms()} does not need the display thread.
+	 */
+	private void scheduleLoadEditorsFromOS() {
+		if (!Util.isGtk() && !Util.isWindows()) {
+			return;
+		}
+		Job job = Job.create(WorkbenchMessages.EditorRegistry_loadEditorsFromOSJobName, monitor -> {
+			getSortedEditorsFromOS();
+		});
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule(LOAD_EDITORS_FROM_OS_DELAY);
+	}
+
 	private static IEditorDescriptor[] getStaticSortedEditorsFromOS() {
 		List<IEditorDescriptor> externalEditors = new ArrayList<>();
 
@@ -615,6 +663,7 @@ public class EditorRegistry extends EventManager implements IEditorRegistry, IEx
 	 */
 	private void initializeFromStorage() {
 		typeEditorMappings = new EditorMap();
+		editorImages = new HashMap<>();
 		extensionImages = new HashMap<>();
 
 		// Get editors from the registry
@@ -1097,7 +1146,6 @@ public class EditorRegistry extends EventManager implements IEditorRegistry, IEx
 		for (FileEditorMapping mapping : newResourceTypes) {
 			typeEditorMappings.put(mappingKeyFor(mapping), mapping);
 		}
-		extensionImages = new HashMap<>();
 		rebuildEditorMap();
 		firePropertyChange(PROP_CONTENTS);
 	}
@@ -1282,6 +1330,7 @@ public class EditorRegistry extends EventManager implements IEditorRegistry, IEx
 
 				sortedEditorsFromPlugins.remove(desc);
 				mapIDtoInternalEditor.values().remove(desc);
+				editorImages.remove(desc);
 				removeEditorFromMapping(typeEditorMappings.defaultMap, desc);
 				removeEditorFromMapping(typeEditorMappings.map, desc);
 				removeEditorFromContentTypeMappings(contentTypeToEditorMappingsFromPlugins, desc);
@@ -1395,51 +1444,53 @@ public class EditorRegistry extends EventManager implements IEditorRegistry, IEx
 		if (contentType != null) {
 			IEditorDescriptor desc = getEditorForContentType(filename, contentType);
 			if (desc != null) {
-				ImageDescriptor anImage = extensionImages.get(desc);
+				ImageDescriptor anImage = editorImages.get(desc);
 				if (anImage != null) {
 					return anImage;
 				}
 				anImage = desc.getImageDescriptor();
-				extensionImages.put(desc, anImage);
+				editorImages.put(desc, anImage);
 				return anImage;
 			}
 		}
-		// Lookup in the cache first...
-		String key = mappingKeyFor(filename);
-		ImageDescriptor anImage = extensionImages.get(key);
-		if (anImage != null) {
-			return anImage;
-		}
 
 		// See if we have a mapping for the filename or extension
 		FileEditorMapping[] mapping = getMappingForFilename(filename);
 		for (int i = 0; i < 2; i++) {
 			if (mapping[i] != null) {
-				// Lookup in the cache first...
-				String mappingKey = mappingKeyFor(mapping[i]);
-				ImageDescriptor mappingImage = extensionImages.get(key);
-				if (mappingImage != null) {
-					return mappingImage;
-				}
-				// Create it and cache it
 				IEditorDescriptor editor = mapping[i].getDefaultEditor();
 				if (editor != null) {
-					mappingImage = editor.getImageDescriptor();
-					extensionImages.put(mappingKey, mappingImage);
-					return mappingImage;
+					// Lookup in the cache first...
+					String mappingKey = mappingKeyFor(mapping[i]);
+					MappingImage mappingImage = extensionImages.get(mappingKey);
+					if (mappingImage == null || mappingImage.editor != editor) {
+						// Create it and cache it
+						mappingImage = new MappingImage(editor, editor.getImageDescriptor());
+						extensionImages.put(mappingKey, mappingImage);
+					}
+					return mappingImage.image;
 				}
 			}
 		}
 
-		// Nothing - time to look externally for the icon
-		anImage = getSystemExternalEditorImageDescriptor(filename);
-		if (anImage == null) {
-			anImage = getDefaultImage();
+		// Nothing - time to look externally for the icon. The image is cached per
+		// extension, it is only used as long as no editor is mapped to the
+		// extension.
+		int extensionIndex = filename.lastIndexOf('.');
+		if (extensionIndex < 0) {
+			return getDefaultImage();
 		}
-		// for dynamic UI - comment out the next line
-		// extensionImages.put(key, anImage);
-		return anImage;
-
+		String key = mappingKeyFor("*" + filename.substring(extensionIndex)); //$NON-NLS-1$
+		MappingImage externalImage = extensionImages.get(key);
+		if (externalImage == null || externalImage.editor != null) {
+			ImageDescriptor anImage = getSystemExternalEditorImageDescriptor(filename);
+			if (anImage == null) {
+				anImage = getDefaultImage();
+			}
+			externalImage = new MappingImage(null, anImage);
+			extensionImages.put(key, externalImage);
+		}
+		return externalImage.image;
 	}
 
 	/**
@@ -0,0 +1,209 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.e4.emf.xpath.test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertThrows;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import org.apache.commons.jxpath.ClassFunctions;
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathNotFoundException;
+import org.eclipse.e4.emf.internal.xpath.JXPathContextImpl;
+import org.eclipse.e4.emf.xpath.EcoreXPathContextFactory;
+import org.eclipse.e4.emf.xpath.XPathContext;
+import org.eclipse.e4.emf.xpath.XPathExpression;
+import org.eclipse.e4.ui.internal.workbench.E4XMIResourceFactory;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.commands.MCommand;
+import org.eclipse.e4.ui.model.application.commands.MCommandsFactory;
+import org.eclipse.e4.ui.model.application.commands.MHandler;
+import org.eclipse.e4.ui.model.application.impl.ApplicationPackageImpl;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Checks that expressions evaluated without JXPath give the results JXPath
+ * gives.
+ */
+@SuppressWarnings("restriction")
+public class CompiledQueriesApplicationTest {
+
+	private static final String[] CHILD_QUERIES = { "/", ".", "children", "children/children",
+			"children[1]/children[1]/children", "children/mainMenu/children[2]",
+			"children/mainMenu/children[@elementId='help']", "children/mainMenu/children[@label!='File']",
+			"children/mainMenu/children[@label='File' or (@label='Help')][1]",
+			"children/mainMenu/children[ecore:eClassName(.)='Menu' and @label!='']",
+			"children/mainMenu/children[@unknown='x']", "children[@elementId='']", "handlers/command",
+			"handlers[2]/command/@elementId", "persistedState", ".[@elementId='nixda']" };
+
+	private ResourceSet resourceSet;
+	private Resource resource;
+	private EObject application;
+
+	@Before
+	public void setUp() {
+		resourceSet = new ResourceSetImpl();
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap()
+				.put(Resource.Factory.Registry.DEFAULT_EXTENSION, new E4XMIResourceFactory());
+		resourceSet.getPackageRegistry().put(ApplicationPackageImpl.eNS_URI, ApplicationPackageImpl.eINSTANCE);
+
+		URI uri = URI.createPlatformPluginURI("/org.eclipse.e4.emf.xpath.test/model/Application.e4xmi", true);
+		resource = resourceSet.getResource(uri, true);
+		application = resource.getContents().get(0);
+	}
+
+	@After
+	public void tearDown() {
+		resource.unload();
+		resourceSet.getResources().remove(resource);
+	}
+
+	@Test
+	public void testChildQueriesMatchJXPath() {
+		XPathContext context = EcoreXPathContextFactory.newInstance().newContext(application);
+		XPathContext containmentContext = EcoreXPathContextFactory.newContainmentInstance().newContext(application);
+		JXPathContext jxpathContext = newJXPathContext();
+		for (String xpath : CHILD_QUERIES) {
+			List<Object> expected = toList(jxpathContext.iterate(xpath));
+			assertEquals(xpath, expected, toList(context.iterate(xpath)));
+			assertEquals(xpath, expected, toList(context.iterate(context.compile(xpath))));
+			assertEquals(xpath, expected, toList(containmentContext.iterate(xpath)));
+			assertEquals(xpath, getValue(jxpathContext, xpath), getValue(context, xpath));
+			assertEquals(xpath, getValue(jxpathContext, xpath), getValue(containmentContext, xpath));
+		}
+	}
+
+	@Test
+	public void testContainmentDescendantQueries() {
+		XPathContext context = EcoreXPathContextFactory.newContainmentInstance().newContext(application);
+		JXPathContext jxpathContext = newJXPathContext();
+		for (String xpath : new String[] { "//*[@elementId='org.eclipse.ui.main.menu']", "//children",
+				"//children[1]", "//*[ecore:eClassName(.)='Menu']", "//*[@elementId='']", "//mainMenu" }) {
+			List<Object> results = toList(context.iterate(xpath));
+			Set<Object> distinct = newIdentitySet(results);
+			assertEquals(xpath, distinct.size(), results.size());
+
+			// JXPath also descends along other references
+			Set<Object> expected = newIdentitySet(Collections.emptyList());
+			for (Object result : toList(jxpathContext.iterate(xpath))) {
+				if (isContained(result)) {
+					expected.add(result);
+				}
+			}
+			assertEquals(xpath, expected, distinct);
+		}
+
+		Object menu = context.getValue("//*[@elementId='org.eclipse.ui.main.menu']");
+		assertTrue(menu instanceof MMenu);
+		assertSame(menu, context.getValue("//mainMenu", MMenu.class));
+	}
+
+	@Test
+	public void testContainmentMiss() {
+		MCommand command = MCommandsFactory.INSTANCE.createCommand();
+		command.setElementId("org.eclipse.e4.emf.xpath.test.uncontained");
+		MHandler handler = MCommandsFactory.INSTANCE.createHandler();
+		handler.setCommand(command);
+		((MApplication) application).getHandlers().add(handler);
+		String xpath = "//*[@elementId='org.eclipse.e4.emf.xpath.test.uncontained']";
+		// JXPath finds the command through the reference of the handler
+		assertSame(command, newJXPathContext().getValue(xpath));
+
+		XPathContext context = EcoreXPathContextFactory.newContainmentInstance().newContext(application);
+		assertFalse(context.iterate(xpath).hasNext());
+		assertEquals(JXPathNotFoundException.class, getValue(context, xpath));
+		assertThrows(JXPathNotFoundException.class, () -> context.getValue(xpath, MCommand.class));
+		assertThrows(JXPathNotFoundException.class, () -> context.getValue(context.compile(xpath)));
+	}
+
+	@Test
+	public void testUnsupportedQueriesFallBackToJXPath() {
+		XPathContext context = EcoreXPathContextFactory.newContainmentInstance().newContext(application);
+		JXPathContext jxpathContext = newJXPathContext();
+		for (String xpath : new String[] { "//children[@toBeRendered='true']", "children/children/..",
+				"count(//children)", "children[last()]" }) {
+			assertEquals(xpath, toList(jxpathContext.iterate(xpath)), toList(context.iterate(xpath)));
+		}
+	}
+
+	@Test
+	public void testCompiledExpressionIsReusable() {
+		XPathExpression expression = EcoreXPathContextFactory.newInstance().newContext(application)
+				.compile("children[1]/@elementId");
+		assertEquals("children[1]/@elementId", expression.getExpression());
+
+		XPathContext first = EcoreXPathContextFactory.newInstance().newContext(application);
+		XPathContext second = EcoreXPathContextFactory.newContainmentInstance().newContext(application);
+		assertEquals("aaaa.window.main", first.getValue(expression));
+		assertEquals("aaaa.window.main", second.getValue(expression, String.class));
+	}
+
+	private JXPathContext newJXPathContext() {
+		JXPathContext context = JXPathContext.newContext(application);
+		context.setFunctions(new ClassFunctions(JXPathContextImpl.EMFFunctions.class, "ecore"));
+		return context;
+	}
+
+	private boolean isContained(Object object) {
+		if (!(object instanceof EObject)) {
+			return false;
+		}
+		for (EObject e = (EObject) object; e != null; e = e.eContainer()) {
+			if (e == application) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static Object getValue(Object context, String xpath) {
+		try {
+			if (context instanceof JXPathContext) {
+				return ((JXPathContext) context).getValue(xpath);
+			}
+			return ((XPathContext) context).getValue(xpath);
+		} catch (JXPathNotFoundException e) {
+			return JXPathNotFoundException.class;
+		}
+	}
+
+	private static Set<Object> newIdentitySet(List<Object> elements) {
+		Set<Object> set = Collections.newSetFromMap(new IdentityHashMap<>());
+		set.addAll(elements);
+		return set;
+	}
+
+	private static List<Object> toList(Iterator<?> iterator) {
+		List<Object> list = new ArrayList<>();
+		iterator.forEachRemaining(list::add);
+		return list;
+	}
+}
@@ -21,7 +21,8 @@ import org.junit.runners.Suite.SuiteClasses;
 @RunWith(Suite.class)
 @SuiteClasses({
 		ExampleQueriesTestCase.class,
-		ExampleQueriesApplicationTest.class })
+		ExampleQueriesApplicationTest.class,
+		CompiledQueriesApplicationTest.class })
 public class EMFTestSuite {
 
 }
@@ -0,0 +1,109 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.css.core.parser;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+import org.eclipse.e4.ui.css.core.impl.engine.AbstractCSSEngine;
+import org.eclipse.e4.ui.css.core.impl.engine.StyleSheetCache;
+import org.eclipse.e4.ui.tests.css.core.util.ParserTestUtil;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.css.sac.InputSource;
+import org.w3c.dom.css.CSSRuleList;
+import org.w3c.dom.css.CSSStyleSheet;
+
+public class StyleSheetCacheTest {
+
+	private static final String URI = "platform:/plugin/org.eclipse.e4.ui.tests.css.core/cached.css";
+
+	private static final String CSS = "Shell > Composite.MPart, #main Label:selected { color: rgb(255, 128, 0); font: bold 12px 'Segoe UI', Arial }\n" //
+			+ ".MPartStack.active CTabFolder[style~='SWT.TOP'] { swt-tab-height: 1.5em; background-image: url(./a.png) }\n" //
+			+ "Button + Label, *[lang|='en'] { background-color: #FF0220 inherit; swt-corner-radius: 50% }";
+
+	private File directory;
+
+	@BeforeEach
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("e4.ui.tests-").toFile();
+	}
+
+	@AfterEach
+	public void tearDown() {
+		File[] files = directory.listFiles();
+		if (files != null) {
+			for (File file : files) {
+				file.delete();
+			}
+		}
+		directory.delete();
+	}
+
+	@Test
+	public void testCachedStyleSheetEqualsParsedStyleSheet() throws Exception {
+		String parsed = getCssText(parse(null, CSS));
+		String recorded = getCssText(parse(new StyleSheetCache(directory), CSS));
+		assertEquals(1, directory.list().length);
+		String replayed = getCssText(parse(new StyleSheetCache(directory), CSS));
+
+		assertEquals(parsed, recorded);
+		assertEquals(parsed, replayed);
+	}
+
+	@Test
+	public void testChangedStyleSheetIsParsedAgain() throws Exception {
+		StyleSheetCache cache = new StyleSheetCache(directory);
+		parse(cache, CSS);
+
+		String changed = "Label { color: blue }";
+		assertEquals(getCssText(parse(null, changed)), getCssText(parse(cache, changed)));
+		assertEquals(1, directory.list().length);
+	}
+
+	@Test
+	public void testDamagedEntryIsParsedAgain() throws Exception {
+		StyleSheetCache cache = new StyleSheetCache(directory);
+		parse(cache, CSS);
+		File entry = directory.listFiles()[0];
+		byte[] bytes = Files.readAllBytes(entry.toPath());
+		Files.write(entry.toPath(), Arrays.copyOf(bytes, bytes.length / 2));
+
+		assertEquals(getCssText(parse(null, CSS)), getCssText(parse(cache, CSS)));
+	}
+
+	private static CSSStyleSheet parse(StyleSheetCache cache, String css) throws IOException {
+		AbstractCSSEngine engine = (AbstractCSSEngine) ParserTestUtil.createEngine();
+		engine.setStyleSheetCache(cache);
+		InputSource source = new InputSource(URI);
+		source.setByteStream(new ByteArrayInputStream(css.getBytes(StandardCharsets.UTF_8)));
+		return (CSSStyleSheet) engine.parseStyleSheet(source);
+	}
+
+	private static String getCssText(CSSStyleSheet styleSheet) {
+		StringBuilder text = new StringBuilder();
+		CSSRuleList rules = styleSheet.getCssRules();
+		for (int i = 0; i < rules.getLength(); i++) {
+			text.append(rules.item(i).getCssText()).append('\n');
+		}
+		return text.toString();
+	}
+}
@@ -120,6 +120,33 @@ public class ViewCSSTest {
 		assertEquals("color: blue;", buttonStyle.getCssText());
 	}
 
+	@Test
+	public void testDescendantSelectorsOnAncestorClassesAndIds() throws Exception {
+		String css = ".dark Button { color: black; }\n" + "#main > Composite Button.primary { color: red; }\n"
+				+ "Label Button { color: green; }\n";
+		ViewCSS viewCSS = createViewCss(css);
+
+		final TestElement shell = new TestElement("Shell", engine);
+		shell.setId("main");
+		final TestElement composite = new TestElement("Composite", shell, engine);
+		composite.setClass("light  other");
+		final TestElement button = new TestElement("Button", composite, engine);
+		button.setClass("primary");
+
+		CSSStyleDeclaration buttonStyle = viewCSS.getComputedStyle(button, null);
+		assertNotNull(buttonStyle);
+		assertEquals("color: red;", buttonStyle.getCssText());
+
+		button.setClass(null);
+		assertNull(viewCSS.getComputedStyle(button, null));
+
+		// the class names of the ancestors are looked up again
+		composite.setClass("other dark");
+		buttonStyle = viewCSS.getComputedStyle(button, null);
+		assertNotNull(buttonStyle);
+		assertEquals("color: black;", buttonStyle.getCssText());
+	}
+
 	@SuppressWarnings("unchecked")
 	@Test
 	public void testRuleCaching() throws Exception {
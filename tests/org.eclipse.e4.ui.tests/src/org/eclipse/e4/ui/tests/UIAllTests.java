@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2019 IBM Corporation and others.
+ * Copyright (c) 2009, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,6 +28,7 @@ import org.eclipse.e4.ui.tests.application.UIEventTypesTest;
 import org.eclipse.e4.ui.tests.workbench.AreaRendererTest;
 import org.eclipse.e4.ui.tests.workbench.Bug308317Test;
 import org.eclipse.e4.ui.tests.workbench.ContextTest;
+import org.eclipse.e4.ui.tests.workbench.ContributionIndexTest;
 import org.eclipse.e4.ui.tests.workbench.ContributionsAnalyzerTest;
 import org.eclipse.e4.ui.tests.workbench.ExtensionsSortTests;
 import org.eclipse.e4.ui.tests.workbench.HandlerActivationTest;
@@ -41,12 +42,15 @@ import org.eclipse.e4.ui.tests.workbench.MSashTest;
 import org.eclipse.e4.ui.tests.workbench.MSaveablePartTest;
 import org.eclipse.e4.ui.tests.workbench.MToolItemTest;
 import org.eclipse.e4.ui.tests.workbench.MWindowTest;
+import org.eclipse.e4.ui.tests.workbench.MergeSessionTest;
 import org.eclipse.e4.ui.tests.workbench.ModelAssemblerFragmentOrderingTests;
 import org.eclipse.e4.ui.tests.workbench.ModelAssemblerTests;
+import org.eclipse.e4.ui.tests.workbench.ModelFragmentLoaderTest;
 import org.eclipse.e4.ui.tests.workbench.ModelServiceImplTest;
 import org.eclipse.e4.ui.tests.workbench.PartFocusTest;
 import org.eclipse.e4.ui.tests.workbench.PartOnTopManagerTest;
 import org.eclipse.e4.ui.tests.workbench.PartRenderingEngineTests;
+import org.eclipse.e4.ui.tests.workbench.RenderingTimelineTest;
 import org.eclipse.e4.ui.tests.workbench.SWTPartRendererTest;
 import org.eclipse.e4.ui.tests.workbench.SashRendererTest;
 import org.eclipse.e4.ui.tests.workbench.TopoSortTests;
@@ -75,6 +79,7 @@ import org.junit.runners.Suite;
 		MApplicationCommandAccessTest.class,
 		MMenuItemTest.class,
 		ContributionsAnalyzerTest.class,
+		ContributionIndexTest.class,
 		MPartTest.class,
 		MPartSashContainerTest.class,
 		MSaveablePartTest.class,
@@ -99,9 +104,12 @@ import org.junit.runners.Suite;
 		HandlerActivationTest.class,
 		ModelAssemblerTests.class,
 		ModelAssemblerFragmentOrderingTests.class,
+		ModelFragmentLoaderTest.class,
+		MergeSessionTest.class,
 		E4ResourceTest.class,
 		AreaRendererTest.class,
 		SWTPartRendererTest.class,
+		RenderingTimelineTest.class,
 		ModelServiceImplTest.class
 })
 public class UIAllTests {
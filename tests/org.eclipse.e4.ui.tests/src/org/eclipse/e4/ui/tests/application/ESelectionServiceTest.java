@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,7 @@ import org.eclipse.e4.core.contexts.RunAndTrack;
 import org.eclipse.e4.core.di.annotations.Execute;
 import org.eclipse.e4.core.di.annotations.Optional;
 import org.eclipse.e4.ui.di.UISynchronize;
+import org.eclipse.e4.ui.internal.workbench.SelectionAggregator;
 import org.eclipse.e4.ui.internal.workbench.UIEventPublisher;
 import org.eclipse.e4.ui.model.application.MApplication;
 import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
@@ -538,6 +539,66 @@ public class ESelectionServiceTest extends UITest {
 		assertEquals(selection, listener.getSelection());
 	}
 
+	@Test
+	public void testSelectionListener_HiddenPart() {
+		MWindow window = ems.createModelElement(MWindow.class);
+		application.getChildren().add(window);
+		application.setSelectedElement(window);
+
+		MPart partA = ems.createModelElement(MPart.class);
+		partA.setElementId("partA"); //$NON-NLS-1$
+		window.getChildren().add(partA);
+		window.setSelectedElement(partA);
+
+		MPartStack partStack = ems.createModelElement(MPartStack.class);
+		MPart partB = ems.createModelElement(MPart.class);
+		partB.setElementId("partB"); //$NON-NLS-1$
+		partStack.getChildren().add(partB);
+		MPart partC = ems.createModelElement(MPart.class);
+		partC.setElementId("partC"); //$NON-NLS-1$
+		partStack.getChildren().add(partC);
+		partStack.setSelectedElement(partB);
+		window.getChildren().add(partStack);
+
+		initialize();
+		getEngine().createGui(window);
+
+		IEclipseContext windowContext = window.getContext();
+		EPartService partService = windowContext.get(EPartService.class);
+		SelectionAggregator aggregator = windowContext.get(SelectionAggregator.class);
+		partService.activate(partA);
+		partService.showPart("partC", PartState.CREATE); //$NON-NLS-1$
+
+		ESelectionService serviceA = partA.getContext().get(ESelectionService.class);
+		ESelectionService serviceC = partC.getContext().get(ESelectionService.class);
+		SelectionListener listener = new SelectionListener();
+		serviceC.addSelectionListener(listener);
+
+		Object selection1 = new Object();
+		Object selection2 = new Object();
+		serviceA.setSelection(selection1);
+		serviceA.setSelection(selection2);
+
+		// partC is hidden behind partB
+		assertEquals(0, listener.getCount());
+		assertEquals(2, aggregator.getDeferredCount());
+		assertEquals(1, aggregator.getDroppedCount());
+
+		partStack.setSelectedElement(partC);
+
+		// only the latest selection is delivered
+		assertEquals(1, listener.getCount());
+		assertEquals(partA, listener.getPart());
+		assertEquals(selection2, listener.getSelection());
+
+		partStack.setSelectedElement(partB);
+		partC.getTags().add(SelectionAggregator.NOTIFY_WHEN_HIDDEN_TAG);
+		serviceA.setSelection(selection1);
+
+		assertEquals(2, listener.getCount());
+		assertEquals(selection1, listener.getSelection());
+	}
+
 	static class ConsumerPart {
 		public Object input;
 
@@ -0,0 +1,281 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.workbench;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.eclipse.e4.ui.internal.workbench.ContributionsAnalyzer;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenuContribution;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenuFactory;
+import org.eclipse.e4.ui.model.application.ui.menu.MPopupMenu;
+import org.eclipse.e4.ui.model.application.ui.menu.MToolBar;
+import org.eclipse.e4.ui.model.application.ui.menu.MToolBarContribution;
+import org.eclipse.emf.common.util.EList;
+import org.eclipse.emf.ecore.EObject;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the contribution index used by {@link ContributionsAnalyzer}
+ * follows the changes of the contribution lists of the application and
+ * returns the same contributions, in the same order, as a scan of the whole
+ * list.
+ */
+public class ContributionIndexTest {
+
+	private MApplication application;
+
+	private EList<MMenuContribution> contributions;
+
+	private MMenu menu;
+
+	@Before
+	public void setUp() {
+		application = MApplicationFactory.INSTANCE.createApplication();
+		contributions = (EList<MMenuContribution>) application.getMenuContributions();
+		menu = MMenuFactory.INSTANCE.createMenu();
+	}
+
+	@Test
+	public void testAdd() {
+		MMenuContribution a1 = add("a");
+		add("b");
+		assertContributions("a", a1);
+
+		MMenuContribution a2 = add("a");
+		assertContributions("a", a1, a2);
+		assertContributions("b", contributions.get(1));
+	}
+
+	@Test
+	public void testAddMany() {
+		MMenuContribution a1 = add("a");
+		assertContributions("a", a1);
+
+		MMenuContribution a2 = create("a");
+		MMenuContribution b1 = create("b");
+		MMenuContribution a3 = create("a");
+		contributions.addAll(Arrays.asList(a2, b1, a3));
+		assertContributions("a", a1, a2, a3);
+		assertContributions("b", b1);
+	}
+
+	@Test
+	public void testInsertInMiddle() {
+		MMenuContribution a1 = add("a");
+		MMenuContribution a2 = add("a");
+		assertContributions("a", a1, a2);
+
+		MMenuContribution a3 = create("a");
+		contributions.add(1, a3);
+		assertContributions("a", a1, a3, a2);
+
+		MMenuContribution a4 = create("a");
+		MMenuContribution a5 = create("a");
+		contributions.addAll(0, Arrays.asList(a4, a5));
+		assertContributions("a", a4, a5, a1, a3, a2);
+	}
+
+	@Test
+	public void testMove() {
+		MMenuContribution a1 = add("a");
+		MMenuContribution b1 = add("b");
+		MMenuContribution a2 = add("a");
+		assertContributions("a", a1, a2);
+
+		contributions.move(2, 0);
+		assertContributions("a", a2, a1);
+		assertContributions("b", b1);
+	}
+
+	@Test
+	public void testRemove() {
+		MMenuContribution a1 = add("a");
+		MMenuContribution a2 = add("a");
+		MMenuContribution a3 = add("a");
+		MMenuContribution a4 = add("a");
+		assertContributions("a", a1, a2, a3, a4);
+
+		contributions.remove(a2);
+		assertContributions("a", a1, a3, a4);
+		assertTrue(((EObject) a2).eAdapters().isEmpty());
+
+		contributions.removeAll(Arrays.asList(a1, a4));
+		assertContributions("a", a3);
+		assertTrue(((EObject) a1).eAdapters().isEmpty());
+		assertTrue(((EObject) a4).eAdapters().isEmpty());
+
+		MMenuContribution a5 = create("a");
+		contributions.set(0, a5);
+		assertContributions("a", a5);
+		assertTrue(((EObject) a3).eAdapters().isEmpty());
+
+		// a removed contribution no longer affects the index
+		a3.setParentId("b");
+		assertContributions("a", a5);
+		assertContributions("b");
+	}
+
+	@Test
+	public void testParentIdChange() {
+		MMenuContribution a1 = add("a");
+		MMenuContribution a2 = add("a");
+		MMenuContribution b1 = add("b");
+		assertContributions("a", a1, a2);
+		assertContributions("b", b1);
+
+		a1.setParentId("b");
+		assertContributions("a", a2);
+		assertContributions("b", a1, b1);
+
+		b1.setParentId(null);
+		assertContributions("b", a1);
+
+		b1.setParentId("a");
+		assertContributions("a", a2, b1);
+	}
+
+	@Test
+	public void testPopupOrder() {
+		MPopupMenu popupMenu = MMenuFactory.INSTANCE.createPopupMenu();
+		MMenuContribution a1 = add("a");
+		MMenuContribution any1 = add(ContributionsAnalyzer.POPUP_PARENT_ID);
+		MMenuContribution b1 = add("b");
+		MMenuContribution a2 = add("a");
+		MMenuContribution any2 = add(ContributionsAnalyzer.POPUP_PARENT_ID);
+		add("c");
+
+		// the contributions to any popup come first, each group keeps the
+		// order of the contribution list
+		assertEquals(Arrays.asList(any1, any2, a1, a2), gather(popupMenu, "a", true));
+		assertEquals(expectedPopup(popupMenu, "a"), gather(popupMenu, "a", true));
+
+		popupMenu.getTags().add("popup:b");
+		assertEquals(Arrays.asList(any1, any2, a1, b1, a2), gather(popupMenu, "a", true));
+		assertEquals(expectedPopup(popupMenu, "a"), gather(popupMenu, "a", true));
+
+		MMenuContribution b2 = create("b");
+		contributions.add(0, b2);
+		a2.setParentId("b");
+		assertEquals(Arrays.asList(any1, any2, b2, a1, b1, a2), gather(popupMenu, "a", true));
+		assertEquals(expectedPopup(popupMenu, "a"), gather(popupMenu, "a", true));
+
+		// a regular menu does not see the contributions to any popup
+		assertEquals(Arrays.asList(a1), gather(menu, "a", false));
+	}
+
+	@Test
+	public void testToolBarContributions() {
+		List<MToolBarContribution> toolBarContributions = application.getToolBarContributions();
+		MToolBar toolBar = MMenuFactory.INSTANCE.createToolBar();
+		MToolBarContribution a1 = MMenuFactory.INSTANCE.createToolBarContribution();
+		a1.setParentId("a");
+		MToolBarContribution b1 = MMenuFactory.INSTANCE.createToolBarContribution();
+		b1.setParentId("b");
+		toolBarContributions.add(a1);
+		toolBarContributions.add(b1);
+
+		ArrayList<MToolBarContribution> result = new ArrayList<>();
+		ContributionsAnalyzer.XXXgatherToolBarContributions(toolBar, toolBarContributions, "a", result);
+		assertEquals(Arrays.asList(a1), result);
+
+		b1.setParentId("a");
+		MToolBarContribution a2 = MMenuFactory.INSTANCE.createToolBarContribution();
+		a2.setParentId("a");
+		toolBarContributions.add(0, a2);
+		result.clear();
+		ContributionsAnalyzer.XXXgatherToolBarContributions(toolBar, toolBarContributions, "a", result);
+		assertEquals(Arrays.asList(a2, a1, b1), result);
+	}
+
+	@Test
+	public void testListNotOwnedByApplication() {
+		List<MMenuContribution> list = new ArrayList<>();
+		MMenuContribution a1 = create("a");
+		MMenuContribution b1 = create("b");
+		MMenuContribution a2 = create("a");
+		list.addAll(Arrays.asList(a1, b1, a2));
+
+		ArrayList<MMenuContribution> result = new ArrayList<>();
+		ContributionsAnalyzer.XXXgatherMenuContributions(menu, list, "a", result, null, false);
+		assertEquals(Arrays.asList(a1, a2), result);
+		assertTrue(((EObject) a1).eAdapters().isEmpty());
+	}
+
+	private MMenuContribution create(String parentId) {
+		MMenuContribution contribution = MMenuFactory.INSTANCE.createMenuContribution();
+		contribution.setParentId(parentId);
+		return contribution;
+	}
+
+	private MMenuContribution add(String parentId) {
+		MMenuContribution contribution = create(parentId);
+		contributions.add(contribution);
+		return contribution;
+	}
+
+	private List<MMenuContribution> gather(MMenu menuModel, String id, boolean includePopups) {
+		ArrayList<MMenuContribution> result = new ArrayList<>();
+		ContributionsAnalyzer.XXXgatherMenuContributions(menuModel, contributions, id, result, null, includePopups);
+		return result;
+	}
+
+	/**
+	 * Asserts that a regular menu with the given id gets the given
+	 * contributions, and that these are the contributions found by a scan of
+	 * the whole list.
+	 */
+	private void assertContributions(String id, MMenuContribution... expected) {
+		List<MMenuContribution> scanned = new ArrayList<>();
+		for (MMenuContribution contribution : contributions) {
+			if (id.equals(contribution.getParentId())) {
+				scanned.add(contribution);
+			}
+		}
+		assertEquals(Arrays.asList(expected), scanned);
+		assertEquals(scanned, gather(menu, id, false));
+	}
+
+	/**
+	 * Returns the contributions to a popup menu found by a scan of the whole
+	 * list, the contributions to any popup menu first.
+	 */
+	private List<MMenuContribution> expectedPopup(MPopupMenu popupMenu, String id) {
+		List<String> popupIds = new ArrayList<>();
+		popupIds.add(id);
+		for (String tag : popupMenu.getTags()) {
+			if (tag.startsWith("popup:")) {
+				popupIds.add(tag.substring("popup:".length()));
+			}
+		}
+		List<MMenuContribution> popupAny = new ArrayList<>();
+		List<MMenuContribution> targeted = new ArrayList<>();
+		for (MMenuContribution contribution : contributions) {
+			if (ContributionsAnalyzer.POPUP_PARENT_ID.equals(contribution.getParentId())) {
+				popupAny.add(contribution);
+			} else if (popupIds.contains(contribution.getParentId())) {
+				targeted.add(contribution);
+			}
+		}
+		popupAny.addAll(targeted);
+		return popupAny;
+	}
+}
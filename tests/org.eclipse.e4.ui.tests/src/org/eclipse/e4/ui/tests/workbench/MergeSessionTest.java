@@ -0,0 +1,160 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.workbench;
+
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import java.util.Collections;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.e4.ui.model.internal.MergeSession;
+import org.eclipse.e4.ui.model.internal.ModelUtils;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the id index of {@link MergeSession} finds the same elements as
+ * {@link ModelUtils#findElementById} while fragments are merged.
+ */
+public class MergeSessionTest {
+
+	private MApplication application;
+
+	private MPartStack stack1;
+
+	private MPartStack stack2;
+
+	private MergeSession session;
+
+	@Before
+	public void setUp() {
+		application = MApplicationFactory.INSTANCE.createApplication();
+		MTrimmedWindow window = MBasicFactory.INSTANCE.createTrimmedWindow();
+		window.setElementId("window");
+		application.getChildren().add(window);
+		stack1 = createStack("stack1");
+		stack2 = createStack("stack2");
+		window.getChildren().add(stack1);
+		window.getChildren().add(stack2);
+		session = new MergeSession(application);
+	}
+
+	@Test
+	public void testFindElementById() {
+		MPart part = createPart("part");
+		stack2.getChildren().add(part);
+
+		assertFound("window");
+		assertSame(part, session.findElementById("part"));
+		assertNull(session.findElementById("unknown"));
+		assertNull(session.findElementById(""));
+		assertNull(session.findElementById(null));
+	}
+
+	@Test
+	public void testDuplicateIds() {
+		MPart first = createPart("part");
+		MPart second = createPart("part");
+		stack1.getChildren().add(first);
+		stack2.getChildren().add(second);
+
+		// the first element in depth-first order is found
+		assertSame(first, session.findElementById("part"));
+		assertFound("part");
+
+		// an element merged before the indexed one
+		MPart merged = createPart("part");
+		stack1.getChildren().add(0, merged);
+		session.elementsAdded(Collections.singletonList(merged));
+		assertSame(merged, session.findElementById("part"));
+		assertFound("part");
+
+		stack1.getChildren().remove(merged);
+		assertSame(first, session.findElementById("part"));
+		stack1.getChildren().remove(first);
+		assertSame(second, session.findElementById("part"));
+	}
+
+	@Test
+	public void testElementMergedBeforeIndexedElement() {
+		MPart part = createPart("part");
+		stack2.getChildren().add(part);
+		assertSame(part, session.findElementById("part"));
+
+		MPart merged = createPart("part");
+		stack1.getChildren().add(merged);
+		session.elementsAdded(Collections.singletonList(merged));
+		assertSame(merged, session.findElementById("part"));
+		assertFound("part");
+	}
+
+	@Test
+	public void testElementMergedAfterIndexedElement() {
+		MPart part = createPart("part");
+		stack1.getChildren().add(part);
+		assertSame(part, session.findElementById("part"));
+
+		MPartStack merged = createStack("stack3");
+		MPart mergedPart = createPart("part");
+		MPart other = createPart("other");
+		merged.getChildren().add(mergedPart);
+		merged.getChildren().add(other);
+		stack2.getParent().getChildren().add(merged);
+		session.elementsAdded(Collections.singletonList(merged));
+		assertSame(part, session.findElementById("part"));
+		assertSame(other, session.findElementById("other"));
+		assertFound("stack3");
+	}
+
+	@Test
+	public void testRemovedAndRenamedElements() {
+		MPart part = createPart("part");
+		stack1.getChildren().add(part);
+		assertSame(part, session.findElementById("part"));
+
+		stack1.getChildren().remove(part);
+		assertNull(session.findElementById("part"));
+
+		stack2.getChildren().add(part);
+		session.elementsAdded(Collections.singletonList(part));
+		assertSame(part, session.findElementById("part"));
+
+		part.setElementId("renamed");
+		MPart other = createPart("part");
+		stack1.getChildren().add(other);
+		assertSame(other, session.findElementById("part"));
+		assertSame(part, session.findElementById("renamed"));
+	}
+
+	private void assertFound(String id) {
+		assertSame(ModelUtils.findElementById(application, id), session.findElementById(id));
+	}
+
+	private static MPartStack createStack(String id) {
+		MPartStack stack = MBasicFactory.INSTANCE.createPartStack();
+		stack.setElementId(id);
+		return stack;
+	}
+
+	private static MPart createPart(String id) {
+		MPart part = MBasicFactory.INSTANCE.createPart();
+		part.setElementId(id);
+		return part;
+	}
+}
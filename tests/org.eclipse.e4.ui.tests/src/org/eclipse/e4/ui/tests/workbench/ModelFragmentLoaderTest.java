@@ -0,0 +1,224 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.e4.ui.tests.workbench;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+import org.eclipse.e4.ui.internal.workbench.E4XMIResource;
+import org.eclipse.e4.ui.internal.workbench.E4XMIResourceFactory;
+import org.eclipse.e4.ui.internal.workbench.ModelAssembler;
+import org.eclipse.e4.ui.internal.workbench.ModelFragmentLoader;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.fragment.MFragmentFactory;
+import org.eclipse.e4.ui.model.fragment.MModelFragments;
+import org.eclipse.e4.ui.model.fragment.MStringModelFragment;
+import org.eclipse.emf.common.util.TreeIterator;
+import org.eclipse.emf.common.util.URI;
+import org.eclipse.emf.ecore.EObject;
+import org.eclipse.emf.ecore.resource.Resource;
+import org.eclipse.emf.ecore.resource.ResourceSet;
+import org.eclipse.emf.ecore.resource.impl.ResourceSetImpl;
+import org.eclipse.emf.ecore.util.EcoreUtil;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests the cache of parsed model fragments written by
+ * {@link ModelFragmentLoader}.
+ */
+@SuppressWarnings("nls")
+public class ModelFragmentLoaderTest {
+
+	private File directory;
+
+	private File cacheFile;
+
+	private final List<URI> uris = new ArrayList<>();
+
+	private final Map<URI, String> stamps = new HashMap<>();
+
+	@Before
+	public void setUp() throws IOException {
+		directory = Files.createTempDirectory("fragments").toFile();
+		cacheFile = new File(directory, "modelFragments.cache");
+		for (int i = 0; i < 3; i++) {
+			URI uri = URI.createFileURI(new File(directory, "fragment" + i + ".e4xmi").getAbsolutePath());
+			writeFragment(uri, "part" + i, "Part " + i);
+			uris.add(uri);
+			stamps.put(uri, "1");
+		}
+	}
+
+	@After
+	public void tearDown() throws IOException {
+		try (Stream<java.nio.file.Path> paths = Files.walk(directory.toPath())) {
+			paths.sorted(Comparator.reverseOrder()).map(java.nio.file.Path::toFile).forEach(File::delete);
+		}
+	}
+
+	@Test
+	public void testCacheMatchesParsedResources() throws IOException {
+		ResourceSet written = load("salt");
+		assertTrue(cacheFile.isFile());
+
+		// the fragment files are not needed to restore the resources
+		for (URI uri : uris) {
+			Files.delete(new File(uri.toFileString()).toPath());
+		}
+		ResourceSet restored = load("salt");
+
+		for (URI uri : uris) {
+			Resource expected = written.getResource(uri, false);
+			Resource actual = restored.getResource(uri, false);
+			assertNotNull(uri.toString(), actual);
+			assertResourceEquals(expected, actual);
+			assertFalse(actual.isModified());
+		}
+	}
+
+	@Test
+	public void testCacheMatchesFreshParse() {
+		load("salt");
+		ResourceSet restored = load("salt");
+
+		ResourceSet parsed = createResourceSet();
+		for (URI uri : uris) {
+			assertResourceEquals(parsed.getResource(uri, true), restored.getResource(uri, false));
+		}
+	}
+
+	@Test
+	public void testCacheInvalidatedWhenBundleChanges() throws IOException {
+		load("salt");
+
+		URI changed = uris.get(1);
+		writeFragment(changed, "part1", "Changed");
+		// the stamp of the contributing bundle is unchanged, the cache is used
+		assertEquals("Part 1", getPartLabel(load("salt"), changed));
+
+		stamps.put(changed, "2");
+		ResourceSet reloaded = load("salt");
+		assertEquals("Changed", getPartLabel(reloaded, changed));
+		assertEquals("Part 0", getPartLabel(reloaded, uris.get(0)));
+
+		// the cache has been rewritten
+		for (URI uri : uris) {
+			Files.delete(new File(uri.toFileString()).toPath());
+		}
+		assertEquals("Changed", getPartLabel(load("salt"), changed));
+	}
+
+	@Test
+	public void testCacheInvalidatedWhenSaltChanges() throws IOException {
+		load("salt");
+		writeFragment(uris.get(0), "part0", "Changed");
+		assertEquals("Changed", getPartLabel(load("other salt"), uris.get(0)));
+	}
+
+	@Test
+	public void testNoCacheForUnstampedResources() {
+		stamps.remove(uris.get(2));
+		ResourceSet resourceSet = load("salt");
+		assertFalse(cacheFile.exists());
+		for (URI uri : uris) {
+			assertNotNull(resourceSet.getResource(uri, false));
+		}
+	}
+
+	@Test
+	public void testURIMapOfResourceSet() {
+		ResourceSet resourceSet = createResourceSet();
+		List<URI> mapped = new ArrayList<>();
+		for (int i = 0; i < uris.size(); i++) {
+			URI uri = URI.createURI("platform:/plugin/org.eclipse.e4.ui.tests.mapped/fragment" + i + ".e4xmi");
+			resourceSet.getURIConverter().getURIMap().put(uri, uris.get(i));
+			stamps.put(uri, "1");
+			mapped.add(uri);
+		}
+		new ModelFragmentLoader(new ModelAssembler(), resourceSet, cacheFile, stamps::get, "salt", 2).load(mapped);
+		for (int i = 0; i < mapped.size(); i++) {
+			assertEquals("Part " + i, getPartLabel(resourceSet, mapped.get(i)));
+		}
+	}
+
+	private ResourceSet load(String salt) {
+		ResourceSet resourceSet = createResourceSet();
+		new ModelFragmentLoader(new ModelAssembler(), resourceSet, cacheFile, stamps::get, salt, 2).load(uris);
+		return resourceSet;
+	}
+
+	private static ResourceSet createResourceSet() {
+		ResourceSetImpl resourceSet = new ResourceSetImpl();
+		resourceSet.getResourceFactoryRegistry().getExtensionToFactoryMap().put(Resource.Factory.Registry.DEFAULT_EXTENSION,
+				new E4XMIResourceFactory());
+		return resourceSet;
+	}
+
+	private static void writeFragment(URI uri, String partId, String label) throws IOException {
+		MModelFragments fragments = MFragmentFactory.INSTANCE.createModelFragments();
+		MStringModelFragment fragment = MFragmentFactory.INSTANCE.createStringModelFragment();
+		fragment.setFeaturename("children");
+		fragment.setParentElementId("org.eclipse.e4.ui.tests.stack");
+		MPartStack stack = MBasicFactory.INSTANCE.createPartStack();
+		stack.setElementId(partId + ".stack");
+		MPart part = MBasicFactory.INSTANCE.createPart();
+		part.setElementId(partId);
+		part.setLabel(label);
+		part.getTags().add("tag");
+		part.getPersistedState().put("key", "value");
+		stack.getChildren().add(part);
+		stack.setSelectedElement(part);
+		fragment.getElements().add(stack);
+		fragments.getFragments().add(fragment);
+
+		Resource resource = new E4XMIResourceFactory().createResource(uri);
+		resource.getContents().add((EObject) fragments);
+		resource.save(null);
+	}
+
+	private static String getPartLabel(ResourceSet resourceSet, URI uri) {
+		MModelFragments fragments = (MModelFragments) resourceSet.getResource(uri, false).getContents().get(0);
+		MPartStack stack = (MPartStack) fragments.getFragments().get(0).getElements().get(0);
+		return ((MPart) stack.getChildren().get(0)).getLabel();
+	}
+
+	private static void assertResourceEquals(Resource expected, Resource actual) {
+		assertTrue(EcoreUtil.equals(expected.getContents(), actual.getContents()));
+		TreeIterator<EObject> expectedContents = expected.getAllContents();
+		TreeIterator<EObject> actualContents = actual.getAllContents();
+		while (expectedContents.hasNext()) {
+			EObject expectedObject = expectedContents.next();
+			EObject actualObject = actualContents.next();
+			assertEquals(((E4XMIResource) expected).getInternalId(expectedObject),
+					((E4XMIResource) actual).getInternalId(actualObject));
+		}
+		assertFalse(actualContents.hasNext());
+	}
+}
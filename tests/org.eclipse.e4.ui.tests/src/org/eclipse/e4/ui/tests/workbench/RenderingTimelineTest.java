@@ -0,0 +1,218 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.e4.ui.tests.workbench;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.eclipse.e4.ui.internal.workbench.swt.Policy;
+import org.eclipse.e4.ui.internal.workbench.swt.RenderingTimeline;
+import org.eclipse.e4.ui.internal.workbench.swt.RenderingTimeline.Span;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests the recording and export of the rendering timeline.
+ */
+public class RenderingTimelineTest {
+
+	private static final Pattern EVENT = Pattern.compile(
+			"\\{\"name\":\"([^\"]*)\",\"cat\":\"([^\"]*)\",\"ph\":\"X\",\"ts\":(\\d+),\"dur\":(\\d+),\"pid\":1,\"tid\":(\\d+),\"args\":\\{(.*)\\}\\}");
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private boolean wasEnabled;
+
+	private File file;
+
+	private MPart part;
+
+	/**
+	 * A recorded span.
+	 */
+	private static class Event {
+		final String name;
+		final String category;
+		final long start;
+		final long end;
+		final long thread;
+		final String args;
+
+		Event(Matcher matcher) {
+			name = matcher.group(1);
+			category = matcher.group(2);
+			start = Long.parseLong(matcher.group(3));
+			end = start + Long.parseLong(matcher.group(4));
+			thread = Long.parseLong(matcher.group(5));
+			args = matcher.group(6);
+		}
+	}
+
+	@Before
+	public void setUp() throws IOException {
+		wasEnabled = Policy.DEBUG_RENDERER_TIMELINE;
+		// drop the spans recorded before
+		RenderingTimeline.setFile(folder.newFile("before.json"));
+		RenderingTimeline.write();
+
+		file = new File(folder.getRoot(), "timeline.json");
+		RenderingTimeline.setFile(file);
+		part = MBasicFactory.INSTANCE.createPart();
+		part.setElementId("org.eclipse.e4.ui.tests.part");
+	}
+
+	@After
+	public void tearDown() {
+		Policy.DEBUG_RENDERER_TIMELINE = wasEnabled;
+		RenderingTimeline.setFile(null);
+	}
+
+	private String read() throws IOException {
+		return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+	}
+
+	private List<Event> readEvents() throws IOException {
+		String content = read();
+		assertTrue(content.startsWith("[\n"));
+		List<Event> result = new ArrayList<>();
+		for (String line : content.substring(2).split(",\n")) {
+			Matcher matcher = EVENT.matcher(line);
+			assertTrue("Not an event: " + line, matcher.matches());
+			result.add(new Event(matcher));
+		}
+		return result;
+	}
+
+	@Test
+	public void testDisabled() {
+		Policy.DEBUG_RENDERER_TIMELINE = false;
+		assertFalse(RenderingTimeline.isEnabled());
+
+		Span span = RenderingTimeline.begin(RenderingTimeline.CREATE_GUI, part);
+		Span other = RenderingTimeline.begin(RenderingTimeline.STYLE, new Object());
+		assertSame(span, other);
+		other.close();
+		span.close();
+
+		RenderingTimeline.write();
+		assertFalse("Nothing should have been recorded", file.exists());
+	}
+
+	@Test
+	public void testNesting() throws IOException {
+		Policy.DEBUG_RENDERER_TIMELINE = true;
+		try (Span outer = RenderingTimeline.begin(RenderingTimeline.CREATE_GUI, part)) {
+			try (Span inner = RenderingTimeline.begin(RenderingTimeline.CREATE_WIDGET, part)) {
+				busyWait();
+			}
+			try (Span inner = RenderingTimeline.begin(RenderingTimeline.STYLE, "widget")) {
+				busyWait();
+			}
+		}
+		RenderingTimeline.write();
+
+		List<Event> events = readEvents();
+		assertEquals(3, events.size());
+		// spans are recorded when they are closed
+		Event widget = events.get(0);
+		Event style = events.get(1);
+		Event gui = events.get(2);
+		assertEquals("createWidget Part", widget.name);
+		assertEquals(RenderingTimeline.CREATE_WIDGET, widget.category);
+		assertEquals(RenderingTimeline.STYLE, style.name);
+		assertEquals("createGui Part", gui.name);
+		assertEquals(RenderingTimeline.CREATE_GUI, gui.category);
+
+		// times are truncated to microseconds
+		assertTrue(gui.start <= widget.start && widget.end <= gui.end + 2);
+		assertTrue(gui.start <= style.start && style.end <= gui.end + 2);
+		assertTrue(widget.end <= style.start + 2);
+		assertEquals(Thread.currentThread().getId(), gui.thread);
+		assertEquals(gui.thread, widget.thread);
+	}
+
+	@Test
+	public void testCloseTwice() throws IOException {
+		Policy.DEBUG_RENDERER_TIMELINE = true;
+		Span span = RenderingTimeline.begin(RenderingTimeline.CREATE_GUI, part);
+		span.close();
+		span.close();
+		RenderingTimeline.write();
+
+		assertEquals(1, readEvents().size());
+	}
+
+	@Test
+	public void testExport() throws IOException {
+		Policy.DEBUG_RENDERER_TIMELINE = true;
+		part.setElementId("quote\" backslash\\ tab\t");
+		RenderingTimeline.begin(RenderingTimeline.CREATE_GUI, part).close();
+		RenderingTimeline.begin(RenderingTimeline.STYLE, "widget").close();
+		RenderingTimeline.write();
+
+		List<Event> events = readEvents();
+		assertEquals(2, events.size());
+		assertEquals("\"element\":\"Part\",\"id\":\"quote\\\" backslash\\\\ tab\\u0009\"", events.get(0).args);
+		assertEquals("\"widget\":\"java.lang.String\"", events.get(1).args);
+
+		// nothing recorded, the file is not touched
+		String content = read();
+		RenderingTimeline.write();
+		assertEquals(content, read());
+
+		// later writes append to the array, the closing bracket is left out
+		RenderingTimeline.begin(RenderingTimeline.REMOVE_GUI, part).close();
+		RenderingTimeline.write();
+		String appended = read();
+		assertTrue(appended.startsWith(content + ",\n"));
+		assertFalse(appended.endsWith("]"));
+		events = readEvents();
+		assertEquals(3, events.size());
+		assertEquals("removeGui Part", events.get(2).name);
+
+		// a new file is replaced by its first write
+		file = new File(folder.getRoot(), "other.json");
+		Files.write(file.toPath(), "stale".getBytes(StandardCharsets.UTF_8));
+		RenderingTimeline.setFile(file);
+		RenderingTimeline.begin(RenderingTimeline.CREATE_GUI, part).close();
+		RenderingTimeline.write();
+		events = readEvents();
+		assertEquals(1, events.size());
+		assertNotNull(events.get(0).args);
+	}
+
+	private static void busyWait() {
+		long end = System.nanoTime() + 2_000_000;
+		while (System.nanoTime() < end) {
+			Thread.onSpinWait();
+		}
+	}
+}
@@ -16,6 +16,8 @@
 package org.eclipse.core.tests.internal.databinding.beans;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
 
 import org.eclipse.core.databinding.beans.typed.BeanProperties;
 import org.eclipse.core.databinding.observable.value.IObservableValue;
@@ -32,6 +34,47 @@ import org.junit.Test;
  *
  */
 public class BeanValuePropertyTest extends AbstractDefaultRealmTestCase {
+	public static class PrimitiveBean {
+		private long count;
+
+		public long getCount() {
+			return count;
+		}
+
+		public void setCount(long count) {
+			this.count = count;
+		}
+
+		public String getBroken() {
+			throw new IllegalStateException();
+		}
+	}
+
+	@Test
+	public void testGetAndSetPrimitiveValue() {
+		PrimitiveBean bean = new PrimitiveBean();
+		IValueProperty<PrimitiveBean, Object> property = BeanProperties.value(PrimitiveBean.class, "count");
+
+		property.setValue(bean, 2L);
+		assertEquals(2L, bean.getCount());
+		assertEquals(Long.valueOf(2), property.getValue(bean));
+
+		// an int is widened like in a reflective call
+		property.setValue(bean, 3);
+		assertEquals(3L, bean.getCount());
+	}
+
+	@Test
+	public void testExceptionInGetterIsRethrown() {
+		IValueProperty<PrimitiveBean, String> property = BeanProperties.value(PrimitiveBean.class, "broken");
+		try {
+			property.getValue(new PrimitiveBean());
+			fail("Expected the exception of the getter");
+		} catch (RuntimeException e) {
+			assertSame(IllegalStateException.class, e.getCause().getClass());
+		}
+	}
+
 	@Test
 	public void testChangeListenerIsOnlyNotifiedWhenWatchedPropertyChanges()
 			throws Exception {
@@ -15,7 +15,9 @@
 package org.eclipse.jface.tests.databinding.viewers;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Arrays;
 import java.util.Collections;
@@ -126,6 +128,42 @@ public class ObservableListContentProviderTest extends AbstractDefaultRealmTestC
 		assertEquals(Collections.EMPTY_SET, realizedElements);
 	}
 
+	@Test
+	public void testVisibleElements_NotVirtual() {
+		assertSame(contentProvider.getKnownElements(), contentProvider.getVisibleElements());
+	}
+
+	@Test
+	public void testVisibleElements_VirtualTable() {
+		TableViewer virtualViewer = new TableViewer(shell, SWT.VIRTUAL);
+		ObservableListContentProvider<Object> virtualContentProvider = new ObservableListContentProvider<>();
+		virtualViewer.setContentProvider(virtualContentProvider);
+		IObservableSet<Object> visibleElements = virtualContentProvider.getVisibleElements();
+
+		WritableList<Object> elements = new WritableList<>();
+		for (int i = 0; i < 1000; i++) {
+			elements.add(new Mutable(i));
+		}
+		virtualViewer.getTable().setBounds(0, 0, 100, 100);
+		shell.setSize(200, 200);
+		shell.open();
+		virtualViewer.setInput(elements);
+		runAsync();
+
+		assertTrue(visibleElements.contains(elements.get(0)));
+		assertTrue(visibleElements.size() < elements.size());
+
+		virtualViewer.getTable().setTopIndex(500);
+		virtualViewer.getTable().redraw();
+		virtualViewer.getTable().update();
+		runAsync();
+		assertTrue(visibleElements.contains(elements.get(500)));
+		assertFalse(visibleElements.contains(elements.get(0)));
+
+		elements.remove(500);
+		assertFalse(visibleElements.contains(new Mutable(500)));
+	}
+
 	static class Mutable {
 		public int id;
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 Matthew Hall and others.
+ * Copyright (c) 2009, 2022 Matthew Hall and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
 
 package org.eclipse.jface.tests.databinding.viewers;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
 import java.util.Arrays;
@@ -38,6 +39,8 @@ import org.eclipse.jface.viewers.AbstractTreeViewer;
 import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Table;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -123,6 +126,79 @@ public class ViewerSupportTest extends AbstractSWTTestCase {
 		ViewerSupport.bind(viewer, input1, labelProp);
 	}
 
+	@Test
+	public void testBindList_VirtualTable() {
+		TableViewer viewer = new TableViewer(getShell(), SWT.VIRTUAL);
+		structuredViewer = viewer;
+		IObservableList<Bean> input = WritableList.withElementType(Bean.class);
+		for (int i = 0; i < 100; i++) {
+			input.add(new Bean("element" + i));
+		}
+		ViewerSupport.bind(viewer, input, BeanProperties.value(Bean.class, "value"));
+
+		Table table = viewer.getTable();
+		assertEquals("element0", table.getItem(0).getText());
+		assertEquals("element99", table.getItem(99).getText());
+
+		input.get(0).setValue("changed");
+		assertEquals("changed", table.getItem(0).getText());
+	}
+
+	@Test
+	public void testBindSet_VirtualTable() {
+		TableViewer viewer = new TableViewer(getShell(), SWT.VIRTUAL);
+		structuredViewer = viewer;
+		IObservableSet<Bean> input = WritableSet.withElementType(Bean.class);
+		Bean bean = new Bean("element");
+		input.add(bean);
+		ViewerSupport.bind(viewer, input, BeanProperties.value(Bean.class, "value"));
+
+		Table table = viewer.getTable();
+		assertEquals("element", table.getItem(0).getText());
+
+		bean.setValue("changed");
+		assertEquals("changed", table.getItem(0).getText());
+	}
+
+	@Test
+	public void testBindVisibleElementsList_VirtualTable() {
+		TableViewer viewer = new TableViewer(getShell(), SWT.VIRTUAL);
+		structuredViewer = viewer;
+		IObservableList<Bean> input = WritableList.withElementType(Bean.class);
+		for (int i = 0; i < 100; i++) {
+			input.add(new Bean("element" + i));
+		}
+		viewer.getTable().setBounds(0, 0, 100, 100);
+		getShell().setSize(200, 200);
+		getShell().open();
+		ViewerSupport.bindVisibleElements(viewer, input, BeanProperties.value(Bean.class, "value"));
+		runAsync();
+
+		Table table = viewer.getTable();
+		assertEquals("element0", table.getItem(0).getText());
+
+		input.get(0).setValue("changed");
+		assertEquals("changed", table.getItem(0).getText());
+	}
+
+	@Test
+	public void testBindVisibleElementsSet_VirtualTable() {
+		TableViewer viewer = new TableViewer(getShell(), SWT.VIRTUAL);
+		structuredViewer = viewer;
+		IObservableSet<Bean> input = WritableSet.withElementType(Bean.class);
+		Bean bean = new Bean("element");
+		input.add(bean);
+		getShell().open();
+		ViewerSupport.bindVisibleElements(viewer, input, BeanProperties.value(Bean.class, "value"));
+		runAsync();
+
+		Table table = viewer.getTable();
+		assertEquals("element", table.getItem(0).getText());
+
+		bean.setValue("changed");
+		assertEquals("changed", table.getItem(0).getText());
+	}
+
 	@Test
 	public void testBindListTree_Twice() {
 		AbstractTreeViewer viewer = getTreeViewer();
@@ -1,5 +1,5 @@
 /*******************************************************************************
-* Copyright (c) 2017 Benjamin Leipold and others.
+* Copyright (c) 2017, 2022 Benjamin Leipold and others.
 *
 * This program and the accompanying materials
 * are made available under the terms of the Eclipse Public License 2.0
@@ -14,13 +14,23 @@
 package org.eclipse.jface.tests.fieldassist;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.fieldassist.ContentProposal;
 import org.eclipse.jface.fieldassist.ContentProposalAdapter;
+import org.eclipse.jface.fieldassist.IContentProposal;
 import org.eclipse.jface.fieldassist.IContentProposalProvider;
 import org.eclipse.jface.fieldassist.SimpleContentProposalProvider;
 import org.eclipse.jface.fieldassist.TextContentAdapter;
+import org.eclipse.jface.internal.provisional.fieldassist.IAsyncContentProposalProvider;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Display;
@@ -125,6 +135,61 @@ public class ContentProposalAdapterTest {
 		assertOneShellUp();
 	}
 
+	/**
+	 * Tests that the popup opens with the proposals of an asynchronous provider
+	 * that reports its proposals in several parts.
+	 */
+	@Test
+	public void testAsyncProposalsOpenPopup() {
+		contentProposalAdapter.setContentProposalProvider(new IAsyncContentProposalProvider() {
+			@Override
+			public void computeProposals(String contents, int position, Consumer<IContentProposal[]> proposals,
+					IProgressMonitor monitor) {
+				proposals.accept(new IContentProposal[] { new ContentProposal("one") });
+				proposals.accept(new IContentProposal[] { new ContentProposal("two") });
+			}
+		});
+		sendFocusInToControl();
+		contentProposalAdapter.openProposalPopup();
+		assertTrue("Popup should open once the proposals are computed",
+				spinEventLoopUntil(contentProposalAdapter::isProposalPopupOpen));
+	}
+
+	/**
+	 * Tests that requesting proposals again cancels the computation of the
+	 * proposals requested before.
+	 */
+	@Test
+	public void testAsyncProposalsCanceledWhenSuperseded() {
+		List<IProgressMonitor> monitors = new CopyOnWriteArrayList<>();
+		contentProposalAdapter.setContentProposalProvider(new IAsyncContentProposalProvider() {
+			@Override
+			public void computeProposals(String contents, int position, Consumer<IContentProposal[]> proposals,
+					IProgressMonitor monitor) {
+				monitors.add(monitor);
+				long timeout = System.currentTimeMillis() + 5000;
+				while (!monitor.isCanceled() && System.currentTimeMillis() < timeout) {
+					try {
+						Thread.sleep(10);
+					} catch (InterruptedException e) {
+						return;
+					}
+				}
+			}
+		});
+		sendFocusInToControl();
+		contentProposalAdapter.openProposalPopup();
+		assertTrue(spinEventLoopUntil(() -> monitors.size() == 1));
+		contentProposalAdapter.openProposalPopup();
+		assertTrue(spinEventLoopUntil(() -> monitors.size() == 2));
+
+		assertTrue("First computation should be canceled", monitors.get(0).isCanceled());
+		assertFalse("Second computation should not be canceled", monitors.get(1).isCanceled());
+		assertFalse(contentProposalAdapter.isProposalPopupOpen());
+		contentProposalAdapter.setContentProposalProvider(createContentProposalProvider());
+		assertTrue("Changing the provider should cancel the computation", monitors.get(1).isCanceled());
+	}
+
 	// most of the following code is copied from AbstractFieldAssistTestCase
 
 	@Before
@@ -198,6 +263,22 @@ public class ContentProposalAdapterTest {
 		}
 	}
 
+	private boolean spinEventLoopUntil(BooleanSupplier condition) {
+		long timeout = System.currentTimeMillis() + 5000;
+		while (!condition.getAsBoolean()) {
+			if (System.currentTimeMillis() > timeout) {
+				return false;
+			}
+			spinEventLoop();
+			try {
+				Thread.sleep(10);
+			} catch (InterruptedException e) {
+				return false;
+			}
+		}
+		return true;
+	}
+
 	private static ContentProposalAdapter createContentProposalAdapter(Control control) {
 		ContentProposalAdapter contentProposalAdapter = new ContentProposalAdapter(control, new TextContentAdapter(),
 				createContentProposalProvider(), null, null);
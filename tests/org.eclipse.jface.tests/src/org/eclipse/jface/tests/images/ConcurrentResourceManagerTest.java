@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.images;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.jface.resource.ColorDescriptor;
+import org.eclipse.jface.resource.ConcurrentResourceManager;
+import org.eclipse.jface.resource.DeviceResourceDescriptor;
+import org.eclipse.jface.resource.DeviceResourceException;
+import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Color;
+import org.eclipse.swt.graphics.RGB;
+import org.eclipse.swt.widgets.Display;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests sharing a {@link ConcurrentResourceManager} between threads.
+ */
+public class ConcurrentResourceManagerTest extends TestCase {
+
+	/**
+	 * A descriptor whose resources are plain objects, all instances share the same
+	 * hash code so they end up in the same bin of the manager's map.
+	 */
+	private static class TestDescriptor extends DeviceResourceDescriptor {
+		final String name;
+		final CountDownLatch started = new CountDownLatch(1);
+		final CountDownLatch release = new CountDownLatch(1);
+		int created;
+		int destroyed;
+
+		TestDescriptor(String name) {
+			this.name = name;
+		}
+
+		@Override
+		public Object createResource(Device device) {
+			started.countDown();
+			try {
+				if (!release.await(10, TimeUnit.SECONDS)) {
+					throw new DeviceResourceException(this);
+				}
+			} catch (InterruptedException e) {
+				throw new DeviceResourceException(this, e);
+			}
+			synchronized (this) {
+				created++;
+			}
+			return name;
+		}
+
+		@Override
+		public void destroyResource(Object previouslyCreatedObject) {
+			synchronized (this) {
+				destroyed++;
+			}
+		}
+
+		@Override
+		public int hashCode() {
+			return 0;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			return obj instanceof TestDescriptor && ((TestDescriptor) obj).name.equals(name);
+		}
+	}
+
+	private ConcurrentResourceManager manager;
+
+	@Override
+	protected void setUp() throws Exception {
+		super.setUp();
+		manager = new ConcurrentResourceManager(Display.getDefault());
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		manager.dispose();
+		super.tearDown();
+	}
+
+	public void testReferenceCounting() {
+		ColorDescriptor descriptor = ColorDescriptor.createFrom(new RGB(10, 20, 30));
+		Color first = manager.createColor(descriptor);
+		Color second = manager.createColor(descriptor);
+		assertSame(first, second);
+		assertEquals(1, manager.getStatistics().getLiveResources());
+		assertEquals(2, manager.getStatistics().getReferences());
+
+		manager.destroyColor(descriptor);
+		assertSame(first, manager.find(descriptor));
+		assertFalse(first.isDisposed());
+
+		manager.destroyColor(descriptor);
+		assertNull(manager.find(descriptor));
+		assertEquals(0, manager.getStatistics().getLiveResources());
+		assertEquals(1, manager.getStatistics().getDeallocations());
+	}
+
+	public void testConcurrentCreate() throws Exception {
+		int threads = 8;
+		int colors = 50;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Future<Color[]>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				results.add(executor.submit((Callable<Color[]>) () -> {
+					Color[] created = new Color[colors];
+					for (int i = 0; i < colors; i++) {
+						created[i] = manager.createColor(new RGB(i, i, i));
+					}
+					return created;
+				}));
+			}
+			Color[] expected = results.get(0).get();
+			for (Future<Color[]> result : results) {
+				Color[] created = result.get();
+				for (int i = 0; i < colors; i++) {
+					assertSame(expected[i], created[i]);
+				}
+			}
+		} finally {
+			executor.shutdown();
+		}
+		ConcurrentResourceManager.Statistics statistics = manager.getStatistics();
+		assertEquals(colors, statistics.getLiveResources());
+		assertEquals(colors, statistics.getAllocations());
+		assertEquals(threads * colors, statistics.getReferences());
+	}
+
+	public void testLeakedResources() {
+		ConcurrentResourceManager local = new ConcurrentResourceManager(Display.getDefault());
+		Color color = local.createColor(new RGB(1, 2, 3));
+		local.createColor(new RGB(4, 5, 6));
+		local.destroyColor(new RGB(4, 5, 6));
+		assertEquals(2, local.getStatistics().getPeakLiveResources());
+
+		local.dispose();
+		assertTrue(color.isDisposed());
+		assertEquals(1, local.getStatistics().getLeakedResources());
+		assertEquals(0, local.getStatistics().getLiveResources());
+	}
+
+	public void testCreateDoesNotBlockOtherResources() throws Exception {
+		TestDescriptor slow = new TestDescriptor("slow");
+		TestDescriptor fast = new TestDescriptor("fast");
+		fast.release.countDown();
+		ExecutorService executor = Executors.newFixedThreadPool(2);
+		try {
+			Future<Object> first = executor.submit(() -> manager.create(slow));
+			assertTrue(slow.started.await(10, TimeUnit.SECONDS));
+			Future<Object> second = executor.submit(() -> manager.create(slow));
+
+			// a descriptor in the same bin is allocated while the slow one is pending
+			assertEquals("fast", manager.create(fast));
+			assertNull(manager.find(slow));
+			assertFalse(second.isDone());
+
+			slow.release.countDown();
+			assertEquals("slow", first.get(10, TimeUnit.SECONDS));
+			assertSame(first.get(), second.get(10, TimeUnit.SECONDS));
+		} finally {
+			executor.shutdown();
+		}
+		assertEquals(1, slow.created);
+		assertEquals(2, manager.getStatistics().getLiveResources());
+		assertEquals(3, manager.getStatistics().getReferences());
+
+		manager.destroy(slow);
+		manager.destroy(slow);
+		assertEquals(1, slow.destroyed);
+		assertEquals(1, manager.getStatistics().getLiveResources());
+	}
+
+	public void testFailedCreate() {
+		TestDescriptor failing = new TestDescriptor("failing") {
+			@Override
+			public Object createResource(Device device) {
+				throw new DeviceResourceException(this);
+			}
+		};
+		try {
+			manager.create(failing);
+			fail("Expected a DeviceResourceException");
+		} catch (DeviceResourceException e) {
+			// expected
+		}
+		assertNull(manager.find(failing));
+		assertEquals(0, manager.getStatistics().getAllocations());
+		assertEquals(0, manager.getStatistics().getReferences());
+
+		TestDescriptor working = new TestDescriptor("failing");
+		working.release.countDown();
+		assertEquals("failing", manager.create(working));
+		assertEquals(1, manager.getStatistics().getAllocations());
+	}
+}
@@ -0,0 +1,256 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.tests.images;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.eclipse.jface.internal.ImageDataCache;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+import junit.framework.TestCase;
+
+/**
+ * Test the persistent cache of decoded image data.
+ */
+public class ImageDataCacheTest extends TestCase {
+
+	private File previousLocation;
+
+	private File directory;
+
+	private File imageFile;
+
+	private final AtomicInteger loads = new AtomicInteger();
+
+	@Override
+	protected void setUp() throws Exception {
+		previousLocation = ImageDataCache.getLocation();
+		// spaces are encoded in file URLs, the cache must cope with that
+		directory = Files.createTempDirectory("image data cache").toFile();
+		File icons = new File(directory, "icons dir");
+		icons.mkdirs();
+		imageFile = new File(icons, "zoomIn.png");
+		try (InputStream in = ImageDataCacheTest.class.getResourceAsStream("/icons/imagetests/zoomIn.png")) {
+			Files.copy(in, imageFile.toPath());
+		}
+		ImageDataCache.setLocation(new File(directory, "cache dir"));
+	}
+
+	@Override
+	protected void tearDown() throws Exception {
+		ImageDataCache.awaitWrites(5000);
+		ImageDataCache.setLocation(previousLocation);
+		try (Stream<Path> files = Files.walk(directory.toPath())) {
+			files.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+	}
+
+	private Supplier<ImageData> loader() {
+		return () -> {
+			loads.incrementAndGet();
+			return createImageData();
+		};
+	}
+
+	private static ImageData createImageData() {
+		ImageData data = new ImageData(3, 2, 24, new PaletteData(0xFF0000, 0xFF00, 0xFF));
+		for (int x = 0; x < 3; x++) {
+			for (int y = 0; y < 2; y++) {
+				data.setPixel(x, y, x * 0x405060 + y * 0x10);
+			}
+		}
+		data.alphaData = new byte[] { 0, 50, 100, (byte) 150, (byte) 200, (byte) 255 };
+		data.type = 5;
+		return data;
+	}
+
+	private static Supplier<ImageData> failingLoader() {
+		return () -> {
+			fail("Image data should have been read from the cache");
+			return null;
+		};
+	}
+
+	private void checkRoundTrip(URL url) throws Exception {
+		assertFalse(ImageDataCache.contains(url, 100));
+		ImageData loaded = ImageDataCache.computeIfAbsent(url, 100, loader());
+		assertEquals(1, loads.get());
+		assertTrue("Entry was not written", ImageDataCache.awaitWrites(5000));
+		assertTrue(ImageDataCache.contains(url, 100));
+
+		assertImageDataEquals(loaded, ImageDataCache.computeIfAbsent(url, 100, failingLoader()));
+	}
+
+	public void testRoundTripEncodedURL() throws Exception {
+		URL url = imageFile.toURI().toURL();
+		assertTrue(url.toExternalForm().contains("%20"));
+		checkRoundTrip(url);
+	}
+
+	public void testRoundTripUnencodedURL() throws Exception {
+		checkRoundTrip(new URL("file", null, imageFile.getAbsolutePath()));
+	}
+
+	public void testMissingImageIsCached() throws Exception {
+		URL url = imageFile.toURI().toURL();
+		assertNull(ImageDataCache.computeIfAbsent(url, 200, () -> null));
+		assertTrue("Entry was not written", ImageDataCache.awaitWrites(5000));
+
+		assertTrue(ImageDataCache.contains(url, 200));
+		assertNull(ImageDataCache.computeIfAbsent(url, 200, failingLoader()));
+	}
+
+	public void testRead() throws Exception {
+		URL url = imageFile.toURI().toURL();
+		assertNull(ImageDataCache.read(url, 100));
+		ImageData loaded = ImageDataCache.computeIfAbsent(url, 100, loader());
+		assertNull(ImageDataCache.computeIfAbsent(url, 200, () -> null));
+		assertTrue("Entries were not written", ImageDataCache.awaitWrites(5000));
+
+		assertImageDataEquals(loaded, ImageDataCache.read(url, 100));
+		// a missing image reads like no entry
+		assertNull(ImageDataCache.read(url, 200));
+
+		imageFile.setLastModified(imageFile.lastModified() - 10000);
+		assertNull(ImageDataCache.read(url, 100));
+	}
+
+	public void testPrune() throws Exception {
+		URL url = imageFile.toURI().toURL();
+		File cacheDirectory = ImageDataCache.getLocation();
+		int[] zooms = { 100, 125, 150, 200 };
+		Set<String> known = new HashSet<>();
+		long size = 0;
+		long time = System.currentTimeMillis() - 100000;
+		for (int zoom : zooms) {
+			ImageDataCache.computeIfAbsent(url, zoom, loader());
+			assertTrue("Entry was not written", ImageDataCache.awaitWrites(5000));
+			for (File file : cacheDirectory.listFiles()) {
+				if (known.add(file.getName())) {
+					// entries written later are newer
+					file.setLastModified(time += 10000);
+					size += file.length();
+				}
+			}
+		}
+		assertEquals(zooms.length, known.size());
+
+		ImageDataCache.prune(size);
+		assertTrue(ImageDataCache.awaitWrites(5000));
+		for (int zoom : zooms) {
+			assertTrue(ImageDataCache.contains(url, zoom));
+		}
+
+		// the two oldest entries are removed to get below three quarters of the size
+		ImageDataCache.prune(size - 1);
+		assertTrue(ImageDataCache.awaitWrites(5000));
+		assertFalse(ImageDataCache.contains(url, 100));
+		assertFalse(ImageDataCache.contains(url, 125));
+		assertTrue(ImageDataCache.contains(url, 150));
+		assertTrue(ImageDataCache.contains(url, 200));
+	}
+
+	public void testFill() throws Exception {
+		URL url = imageFile.toURI().toURL();
+		ImageDataCache.fill(url, new int[] { 100, 200 }, zoom -> zoom == 100 ? loader().get() : null);
+		assertTrue("Entries were not written", ImageDataCache.awaitWrites(5000));
+
+		assertEquals(1, loads.get());
+		assertImageDataEquals(createImageData(), ImageDataCache.computeIfAbsent(url, 100, failingLoader()));
+		assertNull(ImageDataCache.computeIfAbsent(url, 200, failingLoader()));
+	}
+
+	public void testInvalidatedByChangedFile() throws Exception {
+		URL url = imageFile.toURI().toURL();
+		ImageDataCache.computeIfAbsent(url, 100, loader());
+		assertTrue("Entry was not written", ImageDataCache.awaitWrites(5000));
+		assertTrue(ImageDataCache.contains(url, 100));
+
+		imageFile.setLastModified(imageFile.lastModified() - 10000);
+		assertFalse(ImageDataCache.contains(url, 100));
+		ImageDataCache.computeIfAbsent(url, 100, loader());
+		assertEquals(2, loads.get());
+	}
+
+	public void testWriteReadDirectPalette() throws IOException {
+		ImageData data = createImageData();
+		assertImageDataEquals(data, writeAndRead(data));
+	}
+
+	public void testWriteReadIndexedPalette() throws IOException {
+		ImageData data = new ImageData(4, 4, 8,
+				new PaletteData(new RGB(0, 0, 0), new RGB(255, 255, 255), new RGB(12, 34, 56)));
+		for (int x = 0; x < 4; x++) {
+			data.setPixel(x, x, x % 3);
+		}
+		data.transparentPixel = 2;
+		data.maskPad = 2;
+		data.maskData = new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 };
+		data.alpha = 128;
+
+		assertImageDataEquals(data, writeAndRead(data));
+	}
+
+	private static ImageData writeAndRead(ImageData data) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			ImageDataCache.writeImageData(out, data);
+		}
+		try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+			return ImageDataCache.readImageData(in);
+		}
+	}
+
+	private static void assertImageDataEquals(ImageData expected, ImageData actual) {
+		assertNotNull(actual);
+		assertEquals(expected.width, actual.width);
+		assertEquals(expected.height, actual.height);
+		assertEquals(expected.depth, actual.depth);
+		assertEquals(expected.scanlinePad, actual.scanlinePad);
+		assertEquals(expected.bytesPerLine, actual.bytesPerLine);
+		assertEquals(expected.palette.isDirect, actual.palette.isDirect);
+		if (expected.palette.isDirect) {
+			assertEquals(expected.palette.redMask, actual.palette.redMask);
+			assertEquals(expected.palette.greenMask, actual.palette.greenMask);
+			assertEquals(expected.palette.blueMask, actual.palette.blueMask);
+		} else {
+			assertTrue(Arrays.equals(expected.palette.getRGBs(), actual.palette.getRGBs()));
+		}
+		assertTrue(Arrays.equals(expected.data, actual.data));
+		assertEquals(expected.maskPad, actual.maskPad);
+		assertTrue(Arrays.equals(expected.maskData, actual.maskData));
+		assertTrue(Arrays.equals(expected.alphaData, actual.alphaData));
+		assertEquals(expected.alpha, actual.alpha);
+		assertEquals(expected.transparentPixel, actual.transparentPixel);
+		assertEquals(expected.type, actual.type);
+	}
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.benchmarks;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.beans.PropertyDescriptor;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.databinding.beans.typed.BeanProperties;
+import org.eclipse.core.databinding.beans.typed.PojoProperties;
+import org.eclipse.core.databinding.property.value.IValueProperty;
+import org.eclipse.core.internal.databinding.beans.BeanPropertyHelper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Reads and writes bean properties through the value properties of
+ * <code>org.eclipse.core.databinding.beans</code>, as a table bound with
+ * <code>ViewerSupport.bind</code> does for each cell, and through the
+ * reflective <code>BeanPropertyHelper</code> the properties used before for
+ * comparison.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BeanPropertyAccessorBenchmark {
+
+	/**
+	 * A bean with an object and a primitive property.
+	 */
+	public static class Person {
+		private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+
+		private String name;
+
+		private int age;
+
+		public void addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+			changeSupport.addPropertyChangeListener(propertyName, listener);
+		}
+
+		public void removePropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+			changeSupport.removePropertyChangeListener(propertyName, listener);
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public void setName(String name) {
+			changeSupport.firePropertyChange("name", this.name, this.name = name); //$NON-NLS-1$
+		}
+
+		public int getAge() {
+			return age;
+		}
+
+		public void setAge(int age) {
+			changeSupport.firePropertyChange("age", this.age, this.age = age); //$NON-NLS-1$
+		}
+	}
+
+	private Person person;
+
+	private IValueProperty<Person, String> name;
+
+	private IValueProperty<Person, Integer> age;
+
+	private IValueProperty<Person, String> pojoName;
+
+	private PropertyDescriptor nameDescriptor;
+
+	private int counter;
+
+	@Setup
+	public void setUp() {
+		person = new Person();
+		person.setName("Jane"); //$NON-NLS-1$
+		person.setAge(42);
+		name = BeanProperties.value(Person.class, "name"); //$NON-NLS-1$
+		age = BeanProperties.value(Person.class, "age"); //$NON-NLS-1$
+		pojoName = PojoProperties.value(Person.class, "name"); //$NON-NLS-1$
+		nameDescriptor = BeanPropertyHelper.getPropertyDescriptor(Person.class, "name"); //$NON-NLS-1$
+	}
+
+	@Benchmark
+	public String getValue() {
+		return name.getValue(person);
+	}
+
+	@Benchmark
+	public Integer getPrimitiveValue() {
+		return age.getValue(person);
+	}
+
+	@Benchmark
+	public String getPojoValue() {
+		return pojoName.getValue(person);
+	}
+
+	@Benchmark
+	public Object getReflectiveValue() {
+		return BeanPropertyHelper.readProperty(person, nameDescriptor);
+	}
+
+	@Benchmark
+	public void setValue() {
+		name.setValue(person, nextName());
+	}
+
+	@Benchmark
+	public void setReflectiveValue() {
+		BeanPropertyHelper.writeProperty(person, nameDescriptor, nextName());
+	}
+
+	private String nextName() {
+		return (counter++ & 1) == 0 ? "Jane" : "John"; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
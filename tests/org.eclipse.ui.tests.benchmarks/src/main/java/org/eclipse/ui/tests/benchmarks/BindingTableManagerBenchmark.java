@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.benchmarks;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.commands.Category;
+import org.eclipse.core.commands.Command;
+import org.eclipse.core.commands.CommandManager;
+import org.eclipse.core.commands.ParameterizedCommand;
+import org.eclipse.core.commands.contexts.Context;
+import org.eclipse.core.commands.contexts.ContextManager;
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.bindings.internal.BindingTable;
+import org.eclipse.e4.ui.bindings.internal.BindingTableManager;
+import org.eclipse.e4.ui.bindings.internal.ContextSet;
+import org.eclipse.jface.bindings.Binding;
+import org.eclipse.jface.bindings.keys.KeyBinding;
+import org.eclipse.jface.bindings.keys.KeySequence;
+import org.eclipse.jface.bindings.keys.ParseException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Looks up key bindings in the binding tables of a chain of nested contexts,
+ * the way the key binding dispatcher does for every key stroke and the menus
+ * do for every accelerator they show.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BindingTableManagerBenchmark {
+
+	private static final String SCHEME_ID = "org.eclipse.ui.defaultAcceleratorConfiguration"; //$NON-NLS-1$
+
+	private static final String[] MODIFIERS = { "M1+", "M2+", "M3+", "M1+M2+", "M1+M3+", "M2+M3+" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+	/**
+	 * Number of nested contexts that are active.
+	 */
+	@Param({ "5", "20" })
+	private int depth;
+
+	@Param({ "50", "500" })
+	private int bindingsPerContext;
+
+	private IEclipseContext eclipseContext;
+
+	private BindingTableManager manager;
+
+	private ContextSet contextSet;
+
+	private List<KeySequence> hits;
+
+	private List<KeySequence> prefixes;
+
+	private List<ParameterizedCommand> commands;
+
+	private KeySequence miss;
+
+	private int counter;
+
+	@Setup
+	public void setUp() throws ParseException {
+		ContextManager contextManager = new ContextManager();
+		ContextSet.setComparator(new ContextSet.CComp(contextManager));
+		CommandManager commandManager = new CommandManager();
+		Category category = commandManager.getCategory("benchmark"); //$NON-NLS-1$
+		category.define("Benchmark", null); //$NON-NLS-1$
+
+		eclipseContext = EclipseContextFactory.create();
+		manager = ContextInjectionFactory.make(BindingTableManager.class, eclipseContext);
+
+		hits = new ArrayList<>();
+		prefixes = new ArrayList<>();
+		commands = new ArrayList<>();
+		List<Context> active = new ArrayList<>();
+		String parentId = null;
+		for (int c = 0; c < depth; c++) {
+			Context context = contextManager.getContext("context" + c); //$NON-NLS-1$
+			context.define("Context " + c, null, parentId); //$NON-NLS-1$
+			parentId = context.getId();
+			active.add(context);
+
+			BindingTable table = new BindingTable(context);
+			for (int b = 0; b < bindingsPerContext; b++) {
+				Command command = commandManager.getCommand("command" + c + '.' + b); //$NON-NLS-1$
+				command.define("Command " + b, null, category); //$NON-NLS-1$
+				ParameterizedCommand parameterized = new ParameterizedCommand(command, null);
+				KeySequence sequence = KeySequence.getInstance(trigger(c, b));
+				table.addBinding(new KeyBinding(sequence, parameterized, SCHEME_ID, context.getId(), null, null,
+						null, Binding.SYSTEM));
+				if (b % 10 == 0) {
+					hits.add(sequence);
+					commands.add(parameterized);
+					if (sequence.getKeyStrokes().length > 1) {
+						prefixes.add(KeySequence.getInstance(sequence.getKeyStrokes()[0]));
+					}
+				}
+			}
+			manager.addTable(table);
+		}
+		contextSet = manager.createContextSet(active);
+		manager.setActiveSchemes(new String[] { SCHEME_ID });
+		miss = KeySequence.getInstance("M1+M2+M3+F12 M1+M2+M3+F12"); //$NON-NLS-1$
+	}
+
+	@TearDown
+	public void tearDown() {
+		eclipseContext.dispose();
+	}
+
+	/**
+	 * Spreads the bindings over single key strokes and two stroke sequences,
+	 * with the first stroke shared by several bindings.
+	 */
+	private static String trigger(int context, int binding) {
+		String key = String.valueOf((char) ('A' + binding % 26));
+		String modifiers = MODIFIERS[(binding / 26) % MODIFIERS.length];
+		int round = binding / (26 * MODIFIERS.length);
+		if (round == 0 && context % 2 == 0) {
+			return modifiers + key;
+		}
+		return "M1+M3+F" + (1 + (context + round) % 12) + ' ' + modifiers + key; //$NON-NLS-1$
+	}
+
+	@Benchmark
+	public Binding getPerfectMatch() {
+		return manager.getPerfectMatch(contextSet, hits.get(counter++ % hits.size()));
+	}
+
+	@Benchmark
+	public Binding getPerfectMatchMiss() {
+		return manager.getPerfectMatch(contextSet, miss);
+	}
+
+	@Benchmark
+	public boolean isPartialMatch() {
+		return manager.isPartialMatch(contextSet, prefixes.get(counter++ % prefixes.size()));
+	}
+
+	@Benchmark
+	public Binding getBestSequenceFor() {
+		return manager.getBestSequenceFor(contextSet, commands.get(counter++ % commands.size()));
+	}
+
+	@Benchmark
+	public Collection<Binding> getActiveBindings() {
+		return manager.getActiveBindings();
+	}
+}
@@ -0,0 +1,266 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.benchmarks;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.e4.ui.css.core.dom.ElementAdapter;
+import org.eclipse.e4.ui.css.core.engine.CSSEngine;
+import org.eclipse.e4.ui.css.core.impl.engine.CSSEngineImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.css.sac.SelectorList;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+import org.w3c.dom.css.CSSStyleDeclaration;
+import org.w3c.dom.css.ViewCSS;
+
+/**
+ * Computes the style of every element of a widget tree against a style sheet
+ * shaped like a workbench theme: type, class and id selectors, attribute
+ * selectors and descendant and child combinators. The tree is a shell with
+ * nested composites, tab folders, tool bars and controls, like a workbench
+ * window with part stacks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CSSSelectorBenchmark {
+
+	private static final String[] TYPES = { "Composite", "CTabFolder", "ToolBar", "Button", "Label", "Text" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+	private static final String[] CLASSES = { "MPartStack", "MPart", "MTrimBar", "active", "Editor", "View" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+
+	private static class BenchmarkEngine extends CSSEngineImpl {
+		@Override
+		public void reapply() {
+			// nothing to reapply
+		}
+	}
+
+	private static class BenchmarkElement extends ElementAdapter {
+		private final String type;
+		private final BenchmarkElement parent;
+		private final List<Node> children = new ArrayList<>();
+		private final Map<String, String> attributes = new HashMap<>();
+		private String cssClass;
+		private String id;
+
+		BenchmarkElement(String type, BenchmarkElement parent, CSSEngine engine) {
+			super(null, engine);
+			this.type = type;
+			this.parent = parent;
+			if (parent != null) {
+				parent.children.add(this);
+			}
+		}
+
+		@Override
+		public String getLocalName() {
+			return type;
+		}
+
+		@Override
+		public String getNamespaceURI() {
+			return null;
+		}
+
+		@Override
+		public Node getParentNode() {
+			return parent;
+		}
+
+		@Override
+		public NodeList getChildNodes() {
+			return new NodeList() {
+				@Override
+				public Node item(int index) {
+					return children.get(index);
+				}
+
+				@Override
+				public int getLength() {
+					return children.size();
+				}
+			};
+		}
+
+		@Override
+		public String getAttribute(String name) {
+			String value = attributes.get(name);
+			return value == null ? "" : value; //$NON-NLS-1$
+		}
+
+		@Override
+		public boolean hasAttribute(String name) {
+			return attributes.containsKey(name);
+		}
+
+		@Override
+		public void setAttribute(String name, String value) {
+			attributes.put(name, value);
+		}
+
+		@Override
+		public String getCSSClass() {
+			return cssClass;
+		}
+
+		@Override
+		public String getCSSId() {
+			return id;
+		}
+
+		@Override
+		public String getCSSStyle() {
+			return null;
+		}
+	}
+
+	/**
+	 * Number of rules in the style sheet.
+	 */
+	@Param({ "100", "400" })
+	private int rules;
+
+	/**
+	 * Depth of the widget tree below the shell.
+	 */
+	@Param({ "4", "6" })
+	private int depth;
+
+	private BenchmarkEngine engine;
+
+	private ViewCSS viewCSS;
+
+	private SelectorList selectors;
+
+	private List<BenchmarkElement> elements;
+
+	private BenchmarkElement deepest;
+
+	@Setup
+	public void setUp() throws IOException {
+		engine = new BenchmarkEngine();
+		engine.setErrorHandler(e -> {
+			throw new IllegalStateException(e);
+		});
+		StringBuilder css = new StringBuilder();
+		StringBuilder selectorText = new StringBuilder();
+		for (int i = 0; i < rules; i++) {
+			String selector = selector(i);
+			css.append(selector).append(" { color: #").append(String.format("%06x", Integer.valueOf(i))) //$NON-NLS-1$ //$NON-NLS-2$
+					.append("; }\n"); //$NON-NLS-1$
+			if (i > 0) {
+				selectorText.append(", "); //$NON-NLS-1$
+			}
+			selectorText.append(selector);
+		}
+		engine.parseStyleSheet(new StringReader(css.toString()));
+		selectors = engine.parseSelectors(selectorText.toString());
+		viewCSS = engine.getViewCSS();
+
+		elements = new ArrayList<>();
+		BenchmarkElement shell = new BenchmarkElement("Shell", null, engine); //$NON-NLS-1$
+		elements.add(shell);
+		deepest = shell;
+		fill(shell, 0);
+	}
+
+	@TearDown
+	public void tearDown() {
+		engine.dispose();
+	}
+
+	private void fill(BenchmarkElement parent, int level) {
+		if (level == depth) {
+			return;
+		}
+		// two composites to descend into and a few leaves per level
+		for (int i = 0; i < 2 + TYPES.length; i++) {
+			String type = i < 2 ? TYPES[level % 2] : TYPES[i - 2];
+			BenchmarkElement element = new BenchmarkElement(type, parent, engine);
+			element.cssClass = CLASSES[(level + i) % CLASSES.length];
+			element.id = "element" + elements.size(); //$NON-NLS-1$
+			if (i % 3 == 0) {
+				element.setAttribute("style", "SWT.FLAT"); //$NON-NLS-1$ //$NON-NLS-2$
+			}
+			elements.add(element);
+			if (i < 2) {
+				deepest = element;
+				fill(element, level + 1);
+			}
+		}
+	}
+
+	private static String selector(int i) {
+		String type = TYPES[i % TYPES.length];
+		String cssClass = CLASSES[(i / TYPES.length) % CLASSES.length];
+		switch (i % 7) {
+		case 0:
+			return type;
+		case 1:
+			return '.' + cssClass;
+		case 2:
+			return type + '.' + cssClass;
+		case 3:
+			return "#element" + i; //$NON-NLS-1$
+		case 4:
+			return "Shell ." + cssClass + ' ' + type; //$NON-NLS-1$
+		case 5:
+			return "CTabFolder > " + type + "[style~='SWT.FLAT']"; //$NON-NLS-1$ //$NON-NLS-2$
+		default:
+			return "Shell .MPartStack ." + cssClass + " Composite > " + type + ".missing" + i; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+		}
+	}
+
+	@Benchmark
+	public void computeStyles(Blackhole blackhole) {
+		for (BenchmarkElement element : elements) {
+			CSSStyleDeclaration style = viewCSS.getComputedStyle(element, null);
+			blackhole.consume(style);
+		}
+	}
+
+	@Benchmark
+	public int matchSelectors() {
+		int matches = 0;
+		for (int i = 0; i < selectors.getLength(); i++) {
+			if (engine.matches(selectors.item(i), deepest, null)) {
+				matches++;
+			}
+		}
+		return matches;
+	}
+}
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.benchmarks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.databinding.observable.Diffs;
+import org.eclipse.core.databinding.observable.list.ListDiff;
+import org.eclipse.core.databinding.observable.map.MapDiff;
+import org.eclipse.core.databinding.observable.set.SetDiff;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Computes list, set and map diffs between two versions of a collection, like
+ * the ones a viewer sees when its input is refreshed: most elements stay, some
+ * are removed, some are added and a few move.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class DiffsBenchmark {
+
+	@Param({ "100", "1000", "10000" })
+	private int size;
+
+	/**
+	 * Percentage of the elements that are removed, added or moved.
+	 */
+	@Param({ "1", "10" })
+	private int changePercent;
+
+	private List<String> oldList;
+
+	private List<String> newList;
+
+	private Set<String> oldSet;
+
+	private Set<String> newSet;
+
+	private Map<String, Integer> oldMap;
+
+	private Map<String, Integer> newMap;
+
+	@Setup
+	public void setUp() {
+		Random random = new Random(42);
+		int changes = Math.max(1, size * changePercent / 100);
+
+		oldList = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			oldList.add("element" + i); //$NON-NLS-1$
+		}
+		newList = new ArrayList<>(oldList);
+		for (int i = 0; i < changes; i++) {
+			newList.remove(random.nextInt(newList.size()));
+		}
+		for (int i = 0; i < changes; i++) {
+			newList.add(random.nextInt(newList.size() + 1), "added" + i); //$NON-NLS-1$
+		}
+		for (int i = 0; i < changes; i++) {
+			String moved = newList.remove(random.nextInt(newList.size()));
+			newList.add(random.nextInt(newList.size() + 1), moved);
+		}
+
+		oldSet = new HashSet<>(oldList);
+		newSet = new HashSet<>(newList);
+
+		oldMap = new HashMap<>();
+		for (String element : oldList) {
+			oldMap.put(element, element.length());
+		}
+		newMap = new HashMap<>();
+		for (String element : newList) {
+			newMap.put(element, random.nextInt(100) < changePercent ? -1 : element.length());
+		}
+	}
+
+	@Benchmark
+	public ListDiff<String> computeListDiff() {
+		return Diffs.computeListDiff(oldList, newList);
+	}
+
+	@Benchmark
+	public int computeLazyListDiff() {
+		return Diffs.computeLazyListDiff(oldList, newList).getDifferences().length;
+	}
+
+	@Benchmark
+	public ListDiff<String> computeListDiffUnchanged() {
+		return Diffs.computeListDiff(oldList, new ArrayList<>(oldList));
+	}
+
+	@Benchmark
+	public SetDiff<String> computeSetDiff() {
+		return Diffs.computeSetDiff(oldSet, newSet);
+	}
+
+	@Benchmark
+	public MapDiff<String, Integer> computeMapDiff() {
+		return Diffs.computeMapDiff(oldMap, newMap);
+	}
+}
@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.benchmarks;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.runtime.IExtensionRegistry;
+import org.eclipse.core.runtime.RegistryFactory;
+import org.eclipse.core.runtime.spi.RegistryStrategy;
+import org.eclipse.e4.core.contexts.EclipseContextFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.core.services.events.IEventBroker;
+import org.eclipse.e4.ui.internal.workbench.ModelServiceImpl;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.ui.MUIElement;
+import org.eclipse.e4.ui.model.application.ui.advanced.MAdvancedFactory;
+import org.eclipse.e4.ui.model.application.ui.advanced.MArea;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspective;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPerspectiveStack;
+import org.eclipse.e4.ui.model.application.ui.advanced.MPlaceholder;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartSashContainer;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.e4.ui.workbench.modeling.EModelService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.osgi.service.event.EventHandler;
+
+/**
+ * Queries an application model shaped like the one of the IDE with the model
+ * service: windows with a perspective stack, perspectives with part stacks of
+ * views, and a shared editor area that every perspective shows through a
+ * placeholder.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModelServiceBenchmark {
+
+	private static final int WINDOWS = 2;
+
+	private static final int STACKS = 4;
+
+	private static final String VIEW_TAG = "View"; //$NON-NLS-1$
+
+	private static final String EDITOR_TAG = "Editor"; //$NON-NLS-1$
+
+	/**
+	 * Outside of OSGi the model service subscribes to the event broker of the
+	 * context instead of registering an event handler service.
+	 */
+	private static class NullEventBroker implements IEventBroker {
+		@Override
+		public boolean send(String topic, Object data) {
+			return true;
+		}
+
+		@Override
+		public boolean post(String topic, Object data) {
+			return true;
+		}
+
+		@Override
+		public boolean subscribe(String topic, EventHandler eventHandler) {
+			return true;
+		}
+
+		@Override
+		public boolean subscribe(String topic, String filter, EventHandler eventHandler, boolean headers) {
+			return true;
+		}
+
+		@Override
+		public boolean unsubscribe(EventHandler eventHandler) {
+			return true;
+		}
+	}
+
+	@Param({ "2", "8" })
+	private int perspectives;
+
+	@Param({ "10", "50" })
+	private int partsPerStack;
+
+	private IEclipseContext context;
+
+	private ModelServiceImpl modelService;
+
+	private MApplication application;
+
+	private MTrimmedWindow window;
+
+	private String lastPartId;
+
+	@Setup
+	public void setUp() {
+		context = EclipseContextFactory.create();
+		context.set(IEventBroker.class, new NullEventBroker());
+		context.set(IExtensionRegistry.class,
+				RegistryFactory.createRegistry(new RegistryStrategy(null, null), this, this));
+		modelService = new ModelServiceImpl(context);
+
+		application = MApplicationFactory.INSTANCE.createApplication();
+		application.setElementId("application"); //$NON-NLS-1$
+		for (int w = 0; w < WINDOWS; w++) {
+			window = MBasicFactory.INSTANCE.createTrimmedWindow();
+			window.setElementId("window" + w); //$NON-NLS-1$
+			application.getChildren().add(window);
+
+			MArea area = MAdvancedFactory.INSTANCE.createArea();
+			area.setElementId("org.eclipse.ui.editorss"); //$NON-NLS-1$
+			area.getChildren().add(createStack("editors" + w, EDITOR_TAG)); //$NON-NLS-1$
+			window.getSharedElements().add(area);
+
+			MPerspectiveStack perspectiveStack = MAdvancedFactory.INSTANCE.createPerspectiveStack();
+			window.getChildren().add(perspectiveStack);
+			for (int p = 0; p < perspectives; p++) {
+				MPerspective perspective = MAdvancedFactory.INSTANCE.createPerspective();
+				perspective.setElementId("window" + w + ".perspective" + p); //$NON-NLS-1$ //$NON-NLS-2$
+				perspectiveStack.getChildren().add(perspective);
+
+				MPartSashContainer sash = MBasicFactory.INSTANCE.createPartSashContainer();
+				perspective.getChildren().add(sash);
+				MPlaceholder placeholder = MAdvancedFactory.INSTANCE.createPlaceholder();
+				placeholder.setRef(area);
+				sash.getChildren().add(placeholder);
+				for (int s = 0; s < STACKS; s++) {
+					sash.getChildren().add(createStack(perspective.getElementId() + ".stack" + s, VIEW_TAG)); //$NON-NLS-1$
+				}
+			}
+			perspectiveStack.setSelectedElement(perspectiveStack.getChildren().get(0));
+		}
+	}
+
+	@TearDown
+	public void tearDown() {
+		context.dispose();
+	}
+
+	private MPartStack createStack(String id, String tag) {
+		MPartStack stack = MBasicFactory.INSTANCE.createPartStack();
+		stack.setElementId(id);
+		for (int i = 0; i < partsPerStack; i++) {
+			MPart part = MBasicFactory.INSTANCE.createPart();
+			lastPartId = id + ".part" + i; //$NON-NLS-1$
+			part.setElementId(lastPartId);
+			part.getTags().add(tag);
+			stack.getChildren().add(part);
+		}
+		return stack;
+	}
+
+	@Benchmark
+	public MUIElement findById() {
+		return modelService.find(lastPartId, application);
+	}
+
+	@Benchmark
+	public List<MPart> findPartsAnywhere() {
+		return modelService.findElements(application, null, MPart.class);
+	}
+
+	@Benchmark
+	public List<MPart> findPartsByTag() {
+		return modelService.findElements(application, null, MPart.class, Collections.singletonList(EDITOR_TAG));
+	}
+
+	@Benchmark
+	public List<MPart> findPartsInActivePerspective() {
+		return modelService.findElements(window, null, MPart.class, null, EModelService.PRESENTATION);
+	}
+}
@@ -0,0 +1,135 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.databinding.observable.IChangeListener;
+import org.eclipse.core.databinding.observable.IObservable;
+import org.eclipse.core.databinding.observable.ObservableTracker;
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.value.ComputedValue;
+import org.eclipse.core.databinding.observable.value.IObservableValue;
+import org.eclipse.core.databinding.observable.value.WritableValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Tracks the observables read by a computation, the way {@link ComputedValue}
+ * and the databinding of a form do: a number of values is read, most of them
+ * several times, and the computed value is recomputed whenever one of them
+ * changes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ObservableTrackerBenchmark {
+
+	/**
+	 * A realm that is current on every thread. JMH calls the setup and the
+	 * benchmark methods on threads of its own, so there is no single thread to
+	 * bind the realm to.
+	 */
+	private static class BenchmarkRealm extends Realm {
+		static void install() {
+			setDefault(new BenchmarkRealm());
+		}
+
+		@Override
+		public boolean isCurrent() {
+			return true;
+		}
+	}
+
+	@Param({ "10", "100", "1000" })
+	private int observables;
+
+	/**
+	 * How often the computation reads each observable.
+	 */
+	@Param({ "1", "4" })
+	private int reads;
+
+	private WritableValue<Integer>[] values;
+
+	private IObservableValue<Integer> sum;
+
+	private IChangeListener listener = event -> {
+		// nothing to do
+	};
+
+	private int counter;
+
+	@SuppressWarnings({ "unchecked", "rawtypes" })
+	@Setup
+	public void setUp() {
+		BenchmarkRealm.install();
+		values = new WritableValue[observables];
+		for (int i = 0; i < observables; i++) {
+			values[i] = new WritableValue<>(Integer.valueOf(i), Integer.class);
+		}
+		sum = ComputedValue.create(this::sum);
+	}
+
+	@TearDown
+	public void tearDown() {
+		sum.dispose();
+		for (WritableValue<Integer> value : values) {
+			value.dispose();
+		}
+	}
+
+	private Integer sum() {
+		int result = 0;
+		for (int i = 0; i < reads; i++) {
+			for (WritableValue<Integer> value : values) {
+				result += value.getValue().intValue();
+			}
+		}
+		return Integer.valueOf(result);
+	}
+
+	@Benchmark
+	public IObservable[] runAndMonitor() {
+		return ObservableTracker.runAndMonitor(this::sum, listener, null);
+	}
+
+	@Benchmark
+	public IObservable[] runAndCollect() {
+		return ObservableTracker.runAndCollect(() -> {
+			for (int i = 0; i < observables; i++) {
+				new WritableValue<>(null, Integer.class).dispose();
+			}
+		});
+	}
+
+	@Benchmark
+	public Integer recomputeAfterChange() {
+		values[counter++ % observables].setValue(Integer.valueOf(counter));
+		return sum.getValue();
+	}
+}
@@ -0,0 +1,139 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.commands.operations.AbstractOperation;
+import org.eclipse.core.commands.operations.DefaultOperationHistory;
+import org.eclipse.core.commands.operations.IUndoContext;
+import org.eclipse.core.commands.operations.IUndoableOperation;
+import org.eclipse.core.commands.operations.ObjectUndoContext;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Executes, undoes and redoes operations in a history that is shared by many
+ * undo contexts, like the workbench operation history with one context per
+ * open editor. Every context is filled up to its limit, so executing an
+ * operation also trims the oldest one of its context.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OperationHistoryBenchmark {
+
+	private static class BenchmarkOperation extends AbstractOperation {
+		BenchmarkOperation(IUndoContext context) {
+			super("Typing"); //$NON-NLS-1$
+			addContext(context);
+		}
+
+		@Override
+		public IStatus execute(IProgressMonitor monitor, IAdaptable info) {
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public IStatus redo(IProgressMonitor monitor, IAdaptable info) {
+			return Status.OK_STATUS;
+		}
+
+		@Override
+		public IStatus undo(IProgressMonitor monitor, IAdaptable info) {
+			return Status.OK_STATUS;
+		}
+	}
+
+	@Param({ "1", "20", "200" })
+	private int contexts;
+
+	@Param({ "25", "100" })
+	private int limit;
+
+	private DefaultOperationHistory history;
+
+	private IUndoContext[] undoContexts;
+
+	private int counter;
+
+	@Setup
+	public void setUp() throws ExecutionException {
+		history = new DefaultOperationHistory();
+		undoContexts = new IUndoContext[contexts];
+		for (int i = 0; i < contexts; i++) {
+			undoContexts[i] = new ObjectUndoContext(this, "Editor " + i); //$NON-NLS-1$
+			history.setLimit(undoContexts[i], limit);
+		}
+		for (int i = 0; i < limit; i++) {
+			for (IUndoContext context : undoContexts) {
+				history.execute(new BenchmarkOperation(context), null, null);
+			}
+		}
+	}
+
+	private IUndoContext nextContext() {
+		return undoContexts[counter++ % contexts];
+	}
+
+	@Benchmark
+	public IStatus execute() throws ExecutionException {
+		return history.execute(new BenchmarkOperation(nextContext()), null, null);
+	}
+
+	/**
+	 * Adds an operation without executing it, as text editors do when typing,
+	 * and asks whether its context can be undone.
+	 */
+	@Benchmark
+	public boolean addAndCanUndo() {
+		IUndoContext context = nextContext();
+		history.add(new BenchmarkOperation(context));
+		return history.canUndo(context);
+	}
+
+	@Benchmark
+	public IStatus undoRedo() throws ExecutionException {
+		IUndoContext context = nextContext();
+		history.undo(context, null, null);
+		return history.redo(context, null, null);
+	}
+
+	@Benchmark
+	public IUndoableOperation getUndoOperation() {
+		return history.getUndoOperation(nextContext());
+	}
+
+	@Benchmark
+	public IUndoableOperation[] getUndoHistory() {
+		return history.getUndoHistory(nextContext());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2018 Ralf M Petter<ralf.petter@gmail.com> and others.
+ * Copyright (c) 2018, 2022 Ralf M Petter<ralf.petter@gmail.com> and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,8 +14,17 @@
 package org.eclipse.ui.tests.forms.widgets;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
+import org.eclipse.ui.internal.forms.widgets.BulletParagraph;
 import org.eclipse.ui.internal.forms.widgets.FormTextModel;
+import org.eclipse.ui.internal.forms.widgets.ImageHyperlinkSegment;
+import org.eclipse.ui.internal.forms.widgets.ImageSegment;
+import org.eclipse.ui.internal.forms.widgets.Paragraph;
+import org.eclipse.ui.internal.forms.widgets.ParagraphSegment;
+import org.eclipse.ui.internal.forms.widgets.TextHyperlinkSegment;
+import org.eclipse.ui.internal.forms.widgets.TextSegment;
 import org.junit.Test;
 
 /**
@@ -41,6 +50,13 @@ public class FormTextModelTest {
 				"   line with        whitespace  Test " + System.lineSeparator(), formTextModel.getAccessibleText());
 	}
 
+	@Test
+	public void testCommentsAndCDATA() {
+		FormTextModel formTextModel = new FormTextModel();
+		formTextModel.parseTaggedText("<form><p>one<!-- comment --> two<![CDATA[ ignored]]></p></form>", false);
+		assertEquals("one two" + System.lineSeparator(), formTextModel.getAccessibleText());
+	}
+
 	@Test
 	public void testTextWithAmpersand() {
 		FormTextModel formTextModel = new FormTextModel();
@@ -91,4 +107,101 @@ public class FormTextModelTest {
 		goParse(lin, lout);
 	}
 
+	@Test
+	public void testDoubleAmpersand() {
+		goParse("Foo && Bar", "Foo && Bar");
+		goParse("Foo&&Bar", "Foo&&Bar");
+		goParse("&&&amp;", "&&&");
+	}
+
+	@Test
+	public void testTrailingAmpersand() {
+		goParse("Foo &", "Foo &");
+		goParse("Foo&&", "Foo&&");
+		FormTextModel formTextModel = new FormTextModel();
+		formTextModel.parseTaggedText("<form><p>Foo &</p><p>Bar&amp;</p></form>", false);
+		assertEquals("Foo &" + System.lineSeparator() + "Bar&" + System.lineSeparator(),
+				formTextModel.getAccessibleText());
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void testUndeclaredNamespacePrefix() {
+		FormTextModel formTextModel = new FormTextModel();
+		formTextModel.parseTaggedText("<form><p><x:b>Foo</x:b></p></form>", false);
+	}
+
+	@Test
+	public void testDeclaredNamespacePrefix() {
+		FormTextModel formTextModel = new FormTextModel();
+		formTextModel.parseTaggedText("<form xmlns:x=\"urn:x\"><p>Foo <x:b>Bar</x:b></p></form>", false);
+		Paragraph[] paragraphs = formTextModel.getParagraphs();
+		assertEquals(1, paragraphs.length);
+		// the element is not known by its qualified name and ignored
+		assertEquals("Foo " + System.lineSeparator(), formTextModel.getAccessibleText());
+	}
+
+	@Test
+	public void testListStructure() {
+		FormTextModel formTextModel = new FormTextModel();
+		formTextModel.parseTaggedText("<form><p>Items</p><li>one</li>"
+				+ "<li style=\"text\" value=\"2.\" indent=\"20\" bindent=\"5\">two <b>bold</b></li></form>", false);
+		Paragraph[] paragraphs = formTextModel.getParagraphs();
+		assertEquals(3, paragraphs.length);
+		assertFalse(paragraphs[0] instanceof BulletParagraph);
+
+		BulletParagraph first = (BulletParagraph) paragraphs[1];
+		assertEquals(BulletParagraph.CIRCLE, first.getBulletStyle());
+		assertSegmentTexts(first, "one");
+
+		BulletParagraph second = (BulletParagraph) paragraphs[2];
+		assertEquals(BulletParagraph.TEXT, second.getBulletStyle());
+		assertEquals("2.", second.getBulletText());
+		assertEquals(20, second.getIndent());
+		assertEquals(5, second.getBulletIndent());
+		assertSegmentTexts(second, "two ", "bold");
+	}
+
+	@Test
+	public void testLinkStructure() {
+		FormTextModel formTextModel = new FormTextModel();
+		formTextModel.parseTaggedText(
+				"<form><p>see <a href=\"http://www.eclipse.org\" alt=\"tip\">the link</a> here</p></form>", false);
+		Paragraph[] paragraphs = formTextModel.getParagraphs();
+		assertEquals(1, paragraphs.length);
+		assertSegmentTexts(paragraphs[0], "see ", "the link", " here");
+		ParagraphSegment[] segments = paragraphs[0].getSegments();
+		assertFalse(segments[0] instanceof TextHyperlinkSegment);
+		TextHyperlinkSegment link = (TextHyperlinkSegment) segments[1];
+		assertEquals("http://www.eclipse.org", link.getHref());
+		assertEquals("tip", link.getTooltipText());
+		assertEquals(1, formTextModel.getHyperlinkCount());
+	}
+
+	@Test
+	public void testImageStructure() {
+		FormTextModel formTextModel = new FormTextModel();
+		formTextModel.parseTaggedText("<form><p><img href=\"image\"/> text <a href=\"link\"><img href=\"linked\"/></a></p></form>",
+				false);
+		Paragraph[] paragraphs = formTextModel.getParagraphs();
+		assertEquals(1, paragraphs.length);
+		ParagraphSegment[] segments = paragraphs[0].getSegments();
+		assertEquals(3, segments.length);
+		assertFalse(segments[0] instanceof ImageHyperlinkSegment);
+		assertEquals("i.image", ((ImageSegment) segments[0]).getObjectId());
+		assertEquals(" text ", ((TextSegment) segments[1]).getText());
+		assertTrue(segments[2] instanceof ImageHyperlinkSegment);
+		ImageHyperlinkSegment link = (ImageHyperlinkSegment) segments[2];
+		assertEquals("i.linked", link.getObjectId());
+		assertEquals("link", link.getHref());
+		assertEquals(1, formTextModel.getHyperlinkCount());
+	}
+
+	private static void assertSegmentTexts(Paragraph paragraph, String... texts) {
+		ParagraphSegment[] segments = paragraph.getSegments();
+		assertEquals(texts.length, segments.length);
+		for (int i = 0; i < texts.length; i++) {
+			assertEquals(texts[i], ((TextSegment) segments[i]).getText());
+		}
+	}
+
 }
@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.navigator;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.eclipse.jface.viewers.ITreePathContentProvider;
+import org.eclipse.jface.viewers.TreePath;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.ui.navigator.CommonViewer;
+import org.eclipse.ui.progress.PendingUpdateAdapter;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
+import org.eclipse.ui.tests.navigator.extension.TestDeferredContentProvider;
+import org.eclipse.ui.tests.navigator.extension.TestDeferredContentProvider.Node;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests a viewer that computes the children of its elements, and whether they
+ * have children, in the background.
+ */
+public class DeferredChildrenTest {
+
+	private static final long TIMEOUT = 5000;
+
+	/**
+	 * The maximum number of children the viewer adds at once.
+	 */
+	private static final int BATCH_SIZE = 256;
+
+	private Display display;
+
+	private Shell shell;
+
+	private CommonViewer viewer;
+
+	private Node root;
+
+	private Node parent;
+
+	private Node child;
+
+	private Node grandchild;
+
+	private Node leaf;
+
+	/**
+	 * The sizes of the batches of children added to the viewer, by parent
+	 * element.
+	 */
+	private final Map<Object, List<Integer>> addedBatches = new ConcurrentHashMap<>();
+
+	@Before
+	public void setUp() {
+		TestDeferredContentProvider.resetTest();
+		root = new Node("root");
+		parent = root.add("parent");
+		child = parent.add("child");
+		grandchild = child.add("grandchild");
+		leaf = root.add("leaf");
+
+		display = Display.getCurrent();
+		shell = new Shell(display);
+		viewer = new CommonViewer(NavigatorTestBase.TEST_VIEWER_DEFERRED, shell, SWT.NONE) {
+			@Override
+			public void add(Object parentElement, Object... childElements) {
+				Object element = parentElement instanceof TreePath ? ((TreePath) parentElement).getLastSegment()
+						: parentElement;
+				addedBatches.computeIfAbsent(element, e -> new CopyOnWriteArrayList<>())
+						.add(Integer.valueOf(childElements.length));
+				super.add(parentElement, childElements);
+			}
+		};
+		viewer.setInput(root);
+	}
+
+	@After
+	public void tearDown() {
+		TestDeferredContentProvider.unblock();
+		shell.dispose();
+	}
+
+	private boolean hasChildren(Node node) {
+		return ((ITreePathContentProvider) viewer.getContentProvider())
+				.hasChildren(new TreePath(new Object[] { node }));
+	}
+
+	private TreeItem findItem(Node node) {
+		return findItem(viewer.getTree().getItems(), node);
+	}
+
+	private static TreeItem findItem(TreeItem[] items, Object data) {
+		for (TreeItem item : items) {
+			if (item.getData() == data) {
+				return item;
+			}
+		}
+		return null;
+	}
+
+	private boolean isPending(TreeItem item) {
+		return item.getItemCount() == 1 && item.getItem(0).getData() instanceof PendingUpdateAdapter;
+	}
+
+	private void waitForResults() {
+		assertTrue("hasChildren was not computed",
+				DisplayHelper.waitForCondition(display, TIMEOUT,
+						() -> TestDeferredContentProvider.getHasChildrenCalls(parent) > 0
+								&& TestDeferredContentProvider.getHasChildrenCalls(leaf) > 0
+								&& findItem(leaf) != null && findItem(leaf).getItemCount() == 0));
+		// let any other scheduled computation finish
+		DisplayHelper.runEventLoop(display, 100);
+	}
+
+	@Test
+	public void testHasChildrenComputedOnce() {
+		// asked before the result is known, the computation is not repeated
+		for (int i = 0; i < 10; i++) {
+			assertTrue(hasChildren(parent));
+		}
+		waitForResults();
+
+		for (int i = 0; i < 10; i++) {
+			assertTrue(hasChildren(parent));
+			assertFalse(hasChildren(leaf));
+		}
+		DisplayHelper.runEventLoop(display, 100);
+
+		assertEquals(1, TestDeferredContentProvider.getHasChildrenCalls(parent));
+		assertEquals(1, TestDeferredContentProvider.getHasChildrenCalls(leaf));
+		assertTrue(findItem(parent).getItemCount() > 0);
+	}
+
+	@Test
+	public void testRefreshComputesAgain() {
+		waitForResults();
+
+		leaf.add("newChild");
+		viewer.refresh(leaf);
+		assertTrue("hasChildren was not computed again", DisplayHelper.waitForCondition(display, TIMEOUT,
+				() -> TestDeferredContentProvider.getHasChildrenCalls(leaf) == 2));
+		DisplayHelper.runEventLoop(display, 100);
+
+		assertTrue(hasChildren(leaf));
+		assertTrue(findItem(leaf).getItemCount() > 0);
+		// the refresh of the leaf does not affect its sibling
+		assertEquals(1, TestDeferredContentProvider.getHasChildrenCalls(parent));
+	}
+
+	@Test
+	public void testRefreshOfInputComputesAll() {
+		waitForResults();
+
+		viewer.refresh();
+		assertTrue("hasChildren was not computed again",
+				DisplayHelper.waitForCondition(display, TIMEOUT,
+						() -> TestDeferredContentProvider.getHasChildrenCalls(parent) == 2
+								&& TestDeferredContentProvider.getHasChildrenCalls(leaf) == 2));
+		DisplayHelper.runEventLoop(display, 100);
+
+		assertTrue(hasChildren(parent));
+		assertFalse(hasChildren(leaf));
+		assertEquals(2, TestDeferredContentProvider.getHasChildrenCalls(parent));
+		assertEquals(2, TestDeferredContentProvider.getHasChildrenCalls(leaf));
+	}
+
+	@Test
+	public void testPlaceholderWhileFetching() {
+		waitForResults();
+
+		TestDeferredContentProvider.block(parent);
+		viewer.setExpandedState(parent, true);
+		TreeItem item = findItem(parent);
+		assertTrue("the placeholder is not shown", isPending(item));
+		DisplayHelper.runEventLoop(display, 100);
+		assertTrue("the placeholder is not shown while fetching", isPending(item));
+
+		TestDeferredContentProvider.unblock();
+		assertTrue("the children were not added", DisplayHelper.waitForCondition(display, TIMEOUT,
+				() -> item.getItemCount() == 1 && item.getItem(0).getData() == child));
+	}
+
+	@Test
+	public void testChildrenAddedInBatches() {
+		Node big = root.add("big");
+		int count = 2 * BATCH_SIZE + 10;
+		for (int i = 0; i < count; i++) {
+			big.add("node" + i);
+		}
+		viewer.refresh();
+
+		viewer.setExpandedState(big, true);
+		TreeItem item = findItem(big);
+		assertTrue("the children were not added", DisplayHelper.waitForCondition(display, TIMEOUT,
+				() -> item.getItemCount() == count && !(item.getItem(0).getData() instanceof PendingUpdateAdapter)));
+
+		List<Integer> batches = addedBatches.get(big);
+		int added = 0;
+		for (Integer batch : batches) {
+			assertTrue("batch too large: " + batch, batch.intValue() <= BATCH_SIZE);
+			added += batch.intValue();
+		}
+		assertEquals(count, added);
+		assertEquals(3, batches.size());
+	}
+
+	@Test
+	public void testCollapseCancelsFetch() {
+		waitForResults();
+
+		TestDeferredContentProvider.block(parent);
+		viewer.setExpandedState(parent, true);
+		TreeItem item = findItem(parent);
+		assertTrue(isPending(item));
+
+		item.setExpanded(false);
+		Event event = new Event();
+		event.item = item;
+		viewer.getTree().notifyListeners(SWT.Collapse, event);
+		TestDeferredContentProvider.unblock();
+		DisplayHelper.runEventLoop(display, 500);
+
+		assertEquals(null, addedBatches.get(parent));
+		assertEquals(null, findItem(item.getItems(), child));
+
+		// expanding again fetches the children again
+		viewer.setExpandedState(parent, true);
+		assertTrue("the children were not added", DisplayHelper.waitForCondition(display, TIMEOUT,
+				() -> findItem(item.getItems(), child) != null && !isPending(item)));
+		assertEquals(1, item.getItemCount());
+	}
+
+	@Test
+	public void testInputChangeCancelsFetch() {
+		waitForResults();
+
+		TestDeferredContentProvider.block(parent);
+		viewer.setExpandedState(parent, true);
+		assertTrue(isPending(findItem(parent)));
+
+		Node otherRoot = new Node("otherRoot");
+		Node other = otherRoot.add("other");
+		viewer.setInput(otherRoot);
+		TestDeferredContentProvider.unblock();
+		DisplayHelper.runEventLoop(display, 500);
+
+		assertEquals(null, addedBatches.get(parent));
+		assertEquals(1, viewer.getTree().getItemCount());
+		assertTrue(viewer.getTree().getItem(0).getData() == other);
+	}
+
+	@Test
+	public void testRefreshKeepsExpansion() {
+		waitForResults();
+
+		viewer.setExpandedState(parent, true);
+		TreeItem parentItem = findItem(parent);
+		assertTrue("the children were not added", DisplayHelper.waitForCondition(display, TIMEOUT,
+				() -> findItem(parentItem.getItems(), child) != null));
+		viewer.setExpandedState(new TreePath(new Object[] { parent, child }), true);
+		assertTrue("the grandchildren were not added", DisplayHelper.waitForCondition(display, TIMEOUT, () -> {
+			TreeItem childItem = findItem(parentItem.getItems(), child);
+			return findItem(childItem.getItems(), grandchild) != null;
+		}));
+
+		viewer.refresh(parent);
+		assertTrue("the expansion was not restored", DisplayHelper.waitForCondition(display, TIMEOUT, () -> {
+			TreeItem childItem = findItem(parentItem.getItems(), child);
+			return childItem != null && childItem.getExpanded()
+					&& findItem(childItem.getItems(), grandchild) != null;
+		}));
+		assertTrue(parentItem.getExpanded());
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015, 2019 IBM Corporation and others.
+ * Copyright (c) 2003, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -75,6 +75,7 @@ public class NavigatorTestBase {
 	public static final String TEST_VIEWER_INITIAL_ACTIVATION = "org.eclipse.ui.tests.navigator.InitialActivationView";
 	public static final String TEST_VIEWER_LINK_HELPER = "org.eclipse.ui.tests.navigator.TestLinkHelperView";
 	public static final String TEST_VIEWER_SHOW_IN = "org.eclipse.ui.tests.navigator.TestShowInView";
+	public static final String TEST_VIEWER_DEFERRED = "org.eclipse.ui.tests.navigator.DeferredTestView";
 
 	public static final String TEST_VIEW_NON_COMMONVIEWER = "org.eclipse.ui.tests.navigator.NonCommonViewerTestView";
 
@@ -131,6 +132,8 @@ public class NavigatorTestBase {
 
 	public static final String TEST_CONTENT_TRACKING_LABEL = "org.eclipse.ui.tests.navigator.testTrackingLabel";
 
+	public static final String TEST_CONTENT_DEFERRED = "org.eclipse.ui.tests.navigator.testContentDeferred";
+
 	public static final String TEST_CONTENT_JST = "org.eclipse.ui.tests.navigator.jst.ContentProvider";
 
 	protected static final String TEST_ACTIVITY = "org.eclipse.ui.tests.navigator.testActivity";
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.navigator.extension;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.jface.viewers.ITreeContentProvider;
+import org.eclipse.jface.viewers.Viewer;
+
+/**
+ * Provides a tree of {@link Node}s and counts how often it is asked whether a
+ * node has children. Computing the children of a node can be blocked. Used by
+ * viewers that compute their children in the background.
+ */
+public class TestDeferredContentProvider implements ITreeContentProvider {
+
+	private static final Map<Node, AtomicInteger> hasChildrenCalls = new ConcurrentHashMap<>();
+
+	private static volatile Node blockedNode;
+
+	private static volatile CountDownLatch blockedLatch;
+
+	public static class Node {
+		public final String name;
+
+		public final List<Node> children = new CopyOnWriteArrayList<>();
+
+		public Node(String name) {
+			this.name = name;
+		}
+
+		public Node add(String childName) {
+			Node child = new Node(childName);
+			children.add(child);
+			return child;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	public static void resetTest() {
+		hasChildrenCalls.clear();
+		unblock();
+	}
+
+	/**
+	 * Makes computing the children of the given node wait until
+	 * {@link #unblock()} is called.
+	 */
+	public static void block(Node node) {
+		blockedLatch = new CountDownLatch(1);
+		blockedNode = node;
+	}
+
+	public static void unblock() {
+		blockedNode = null;
+		CountDownLatch latch = blockedLatch;
+		if (latch != null) {
+			latch.countDown();
+		}
+	}
+
+	/**
+	 * @return how often the provider was asked whether the node has children
+	 */
+	public static int getHasChildrenCalls(Node node) {
+		AtomicInteger calls = hasChildrenCalls.get(node);
+		return calls == null ? 0 : calls.get();
+	}
+
+	@Override
+	public Object[] getElements(Object inputElement) {
+		return getChildren(inputElement);
+	}
+
+	@Override
+	public Object[] getChildren(Object parentElement) {
+		CountDownLatch latch = blockedLatch;
+		if (parentElement == blockedNode && latch != null) {
+			try {
+				latch.await(10, TimeUnit.SECONDS);
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		if (parentElement instanceof Node) {
+			return ((Node) parentElement).children.toArray();
+		}
+		return new Object[0];
+	}
+
+	@Override
+	public Object getParent(Object element) {
+		return null;
+	}
+
+	@Override
+	public boolean hasChildren(Object element) {
+		if (element instanceof Node) {
+			hasChildrenCalls.computeIfAbsent((Node) element, node -> new AtomicInteger()).incrementAndGet();
+			return !((Node) element).children.isEmpty();
+		}
+		return false;
+	}
+
+	@Override
+	public void inputChanged(Viewer viewer, Object oldInput, Object newInput) {
+	}
+
+	@Override
+	public void dispose() {
+	}
+}
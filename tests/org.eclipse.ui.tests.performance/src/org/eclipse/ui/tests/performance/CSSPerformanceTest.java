@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.io.InputStream;
+import java.net.URL;
+
+import org.eclipse.core.runtime.Platform;
+import org.eclipse.e4.ui.css.swt.dom.WidgetElement;
+import org.eclipse.e4.ui.css.swt.engine.CSSSWTEngineImpl;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.custom.CTabFolder;
+import org.eclipse.swt.custom.CTabItem;
+import org.eclipse.swt.widgets.Button;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Label;
+import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Text;
+import org.w3c.css.sac.InputSource;
+
+/**
+ * Measures styling a synthetic tree of 10000 widgets with the dark theme,
+ * which has many descendant selectors.
+ *
+ * @since 3.20
+ */
+public class CSSPerformanceTest extends BasicPerformanceTest {
+
+	private static final String THEMES = "platform:/plugin/org.eclipse.ui.themes/css/";
+
+	private static final int FOLDERS = 20;
+
+	private static final int COMPOSITES = 10;
+
+	private static final int WIDGETS = 50;
+
+	private static final int ITERATIONS = 5;
+
+	private CSSSWTEngineImpl engine;
+
+	private Shell shell;
+
+	public CSSPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		Display display = Display.getCurrent();
+		engine = new CSSSWTEngineImpl(display);
+		String styleSheet = THEMES + getDarkStyleSheet();
+		try (InputStream stream = new URL(styleSheet).openStream()) {
+			InputSource source = new InputSource();
+			source.setURI(styleSheet);
+			source.setByteStream(stream);
+			engine.parseStyleSheet(source);
+		}
+
+		shell = new Shell(display);
+		WidgetElement.setCSSClass(shell, "MTrimmedWindow topLevel");
+		for (int f = 0; f < FOLDERS; f++) {
+			CTabFolder folder = new CTabFolder(shell, SWT.BORDER);
+			WidgetElement.setCSSClass(folder, f % 2 == 0 ? "MPartStack active" : "MPartStack");
+			for (int c = 0; c < COMPOSITES; c++) {
+				Composite composite = new Composite(folder, SWT.NONE);
+				WidgetElement.setCSSClass(composite, "MPart");
+				CTabItem item = new CTabItem(folder, SWT.NONE);
+				item.setText("Part " + c);
+				item.setControl(composite);
+				for (int w = 0; w < WIDGETS; w++) {
+					switch (w % 3) {
+					case 0:
+						new Label(composite, SWT.NONE).setText("Label " + w);
+						break;
+					case 1:
+						new Button(composite, SWT.CHECK).setText("Button " + w);
+						break;
+					default:
+						new Text(composite, SWT.BORDER).setText("Text " + w);
+					}
+				}
+			}
+		}
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		shell.dispose();
+		engine.dispose();
+		super.doTearDown();
+	}
+
+	public void testApplyDarkTheme() {
+		// warm up the element and style caches
+		engine.applyStyles(shell, true);
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			engine.applyStyles(shell, true);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private static String getDarkStyleSheet() {
+		switch (Platform.getOS()) {
+		case Platform.OS_WIN32:
+			return "e4-dark_win.css";
+		case Platform.OS_MACOSX:
+			return "e4-dark_mac.css";
+		default:
+			return "e4-dark_linux.css";
+		}
+	}
+}
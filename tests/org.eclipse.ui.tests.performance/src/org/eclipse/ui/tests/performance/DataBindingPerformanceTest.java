@@ -0,0 +1,151 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.beans.PropertyChangeListener;
+import java.beans.PropertyChangeSupport;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.databinding.beans.typed.BeanProperties;
+import org.eclipse.core.databinding.observable.Realm;
+import org.eclipse.core.databinding.observable.list.WritableList;
+import org.eclipse.core.databinding.observable.map.IObservableMap;
+import org.eclipse.core.databinding.observable.set.WritableSet;
+import org.eclipse.core.databinding.property.Properties;
+import org.eclipse.core.databinding.property.value.IValueProperty;
+import org.eclipse.jface.databinding.swt.DisplayRealm;
+import org.eclipse.jface.databinding.viewers.ViewerSupport;
+import org.eclipse.jface.viewers.TableViewer;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.layout.FillLayout;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Shell;
+
+/**
+ * Measures reading bean properties of 100000 rows. Observing the properties of
+ * all rows reads every property of every row and registers a listener with
+ * each bean. Binding a virtual table with {@link ViewerSupport#bind} reads the
+ * properties of the visible rows only.
+ *
+ * @since 3.20
+ */
+public class DataBindingPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ROWS = 100000;
+
+	private static final int ITERATIONS = 10;
+
+	public static class Row {
+		private final PropertyChangeSupport changeSupport = new PropertyChangeSupport(this);
+
+		private final String name;
+
+		private final int size;
+
+		private final boolean enabled;
+
+		Row(int i) {
+			name = "Row " + i;
+			size = i;
+			enabled = i % 2 == 0;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public boolean isEnabled() {
+			return enabled;
+		}
+
+		public void addPropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+			changeSupport.addPropertyChangeListener(propertyName, listener);
+		}
+
+		public void removePropertyChangeListener(String propertyName, PropertyChangeListener listener) {
+			changeSupport.removePropertyChangeListener(propertyName, listener);
+		}
+	}
+
+	private Shell shell;
+
+	private List<Row> rows;
+
+	public DataBindingPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		shell = new Shell(Display.getCurrent());
+		shell.setSize(500, 500);
+		shell.setLayout(new FillLayout());
+		shell.open();
+		rows = new ArrayList<>(ROWS);
+		for (int i = 0; i < ROWS; i++) {
+			rows.add(new Row(i));
+		}
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		shell.dispose();
+		super.doTearDown();
+	}
+
+	public void testObserveBeanProperties() {
+		IValueProperty<Row, Object>[] properties = BeanProperties.values(Row.class, "name", "size", "enabled");
+		Realm.runWithDefault(DisplayRealm.getRealm(shell.getDisplay()), () -> {
+			for (int i = 0; i < ITERATIONS; i++) {
+				startMeasuring();
+				IObservableMap<Row, ?>[] maps = Properties.observeEach(new WritableSet<>(rows, Row.class),
+						properties);
+				for (IObservableMap<Row, ?> map : maps) {
+					for (Row row : rows) {
+						map.get(row);
+					}
+				}
+				for (IObservableMap<Row, ?> map : maps) {
+					map.dispose();
+				}
+				stopMeasuring();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testBindBeanTable() {
+		Realm.runWithDefault(DisplayRealm.getRealm(shell.getDisplay()), () -> {
+			for (int i = 0; i < ITERATIONS; i++) {
+				TableViewer viewer = new TableViewer(shell, SWT.VIRTUAL | SWT.FULL_SELECTION);
+				shell.layout();
+				startMeasuring();
+				ViewerSupport.bind(viewer, new WritableList<>(rows, Row.class),
+						BeanProperties.values(Row.class, "name", "size", "enabled"));
+				processEvents();
+				stopMeasuring();
+				viewer.getTable().dispose();
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+}
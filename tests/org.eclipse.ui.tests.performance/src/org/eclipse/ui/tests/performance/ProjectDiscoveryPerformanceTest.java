@@ -0,0 +1,115 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ui.internal.wizards.datatransfer.ProjectFilesCrawler;
+import org.eclipse.ui.internal.wizards.datatransfer.WizardProjectsImportPage;
+
+/**
+ * Measures the search for projects done by the "Import Existing Projects"
+ * wizard on a synthetic deep directory tree, once with a single worker thread
+ * and once with the default number of threads.
+ *
+ * @since 3.20
+ */
+public class ProjectDiscoveryPerformanceTest extends BasicPerformanceTest {
+
+	private static final int DEPTH = 7;
+
+	private static final int FAN_OUT = 4;
+
+	private static final int ITERATIONS = 10;
+
+	private Path root;
+
+	private int expectedProjects;
+
+	public ProjectDiscoveryPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		root = Files.createTempDirectory("projectDiscovery");
+		expectedProjects = createTree(root, DEPTH);
+		// a workspace metadata folder and a link back to the root must both
+		// be skipped
+		createTree(Files.createDirectory(root.resolve(WizardProjectsImportPage.METADATA_FOLDER)), 3);
+		try {
+			Files.createSymbolicLink(root.resolve("loop"), root);
+		} catch (IOException | UnsupportedOperationException e) {
+			// symbolic links not supported
+		}
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		try (Stream<Path> paths = Files.walk(root)) {
+			paths.sorted(Comparator.reverseOrder()).map(Path::toFile).forEach(File::delete);
+		}
+		super.doTearDown();
+	}
+
+	public void testSingleThreadedCrawl() {
+		measure(new ProjectFilesCrawler(true,
+				dir -> WizardProjectsImportPage.METADATA_FOLDER.equals(dir.getFileName().toString()), 1));
+	}
+
+	public void testParallelCrawl() {
+		measure(new ProjectFilesCrawler(true));
+	}
+
+	private void measure(ProjectFilesCrawler crawler) {
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			List<File> files = crawler.collect(root.toFile(), new NullProgressMonitor());
+			stopMeasuring();
+			assertNotNull(files);
+			assertEquals(expectedProjects, files.size());
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Creates a tree of directories with {@link #FAN_OUT} children per level.
+	 * Every other directory of the deepest two levels is a project.
+	 *
+	 * @return the number of projects created
+	 */
+	private static int createTree(Path directory, int depth) throws IOException {
+		int projects = 0;
+		if (depth <= 2 && directory.getFileName().toString().endsWith("0")) {
+			Files.createFile(directory.resolve(".project"));
+			projects++;
+		}
+		if (depth == 0) {
+			return projects;
+		}
+		for (int i = 0; i < FAN_OUT; i++) {
+			projects += createTree(Files.createDirectory(directory.resolve("folder" + depth + "_" + i)), depth - 1);
+		}
+		return projects;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2009 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -46,5 +46,10 @@ public class UIPerformanceTestSuite extends FilteredTestSuite {
 		addTest(new JUnit4TestAdapter(LabelProviderTest.class));
 		addTestSuite(ProgressReportingTest.class);
 		addTestSuite(OpenProjectExplorerFolderTest.class);
+		addTestSuite(ProjectDiscoveryPerformanceTest.class);
+		addTestSuite(XPathPerformanceTest.class);
+		addTestSuite(CSSPerformanceTest.class);
+		addTestSuite(DataBindingPerformanceTest.class);
+		addTestSuite(XMLMementoPerformanceTest.class);
 	}
 }
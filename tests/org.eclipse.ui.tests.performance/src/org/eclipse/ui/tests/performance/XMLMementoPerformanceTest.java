@@ -0,0 +1,141 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+
+import org.eclipse.ui.IMemento;
+import org.eclipse.ui.XMLMemento;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.xml.sax.InputSource;
+
+/**
+ * Measures reading and writing a large memento, shaped like the state of a
+ * workbench with many windows, editors and working sets. Each operation is
+ * measured once with the mementos created by <code>XMLMemento</code>, which
+ * are streamed, and once with mementos on a DOM document for comparison.
+ *
+ * @since 3.20
+ */
+public class XMLMementoPerformanceTest extends BasicPerformanceTest {
+
+	private static final int WINDOWS = 4;
+
+	private static final int DEPTH = 5;
+
+	private static final int CHILDREN = 5;
+
+	private static final int ITERATIONS = 20;
+
+	private String contents;
+
+	public XMLMementoPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		contents = write(XMLMemento.createWriteRoot("workbench"));
+	}
+
+	public void testReadStreaming() throws Exception {
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			read(XMLMemento.createReadRoot(new StringReader(contents)));
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testReadDOM() throws Exception {
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder()
+					.parse(new InputSource(new StringReader(contents)));
+			read(new XMLMemento(document, document.getDocumentElement()));
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testWriteStreaming() throws Exception {
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			write(XMLMemento.createWriteRoot("workbench"));
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	public void testWriteDOM() throws Exception {
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+			Element root = document.createElement("workbench");
+			document.appendChild(root);
+			String result = write(new XMLMemento(document, root));
+			stopMeasuring();
+			assertEquals(contents, result);
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private static String write(XMLMemento memento) throws IOException {
+		for (int i = 0; i < WINDOWS; i++) {
+			fill(memento.createChild("window", String.valueOf(i)), i, DEPTH);
+		}
+		StringWriter writer = new StringWriter();
+		memento.save(writer);
+		return writer.toString();
+	}
+
+	private static void fill(IMemento memento, int n, int depth) {
+		memento.putString("label", "Element <" + n + "> & more");
+		memento.putInteger("index", n);
+		memento.putBoolean("visible", n % 2 == 0);
+		memento.putFloat("ratio", n / 3f);
+		if (n % 3 == 0) {
+			memento.putTextData("/project/folder/file" + n + ".txt");
+		}
+		if (depth > 0) {
+			for (int i = 0; i < CHILDREN; i++) {
+				fill(memento.createChild(i % 2 == 0 ? "editor" : "item", String.valueOf(i)), n * CHILDREN + i,
+						depth - 1);
+			}
+		}
+	}
+
+	private static int read(IMemento memento) {
+		int count = 1;
+		for (IMemento child : memento.getChildren()) {
+			assertNotNull(child.getString("label"));
+			assertNotNull(child.getInteger("index"));
+			assertNotNull(child.getBoolean("visible"));
+			assertNotNull(child.getFloat("ratio"));
+			child.getTextData();
+			count += read(child);
+		}
+		return count;
+	}
+}
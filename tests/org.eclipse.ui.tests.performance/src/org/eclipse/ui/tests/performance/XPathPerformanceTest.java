@@ -0,0 +1,150 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.performance;
+
+import java.util.Iterator;
+
+import org.eclipse.e4.emf.xpath.EcoreXPathContextFactory;
+import org.eclipse.e4.emf.xpath.XPathContext;
+import org.eclipse.e4.emf.xpath.XPathExpression;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.model.application.MApplicationFactory;
+import org.eclipse.e4.ui.model.application.commands.MCommand;
+import org.eclipse.e4.ui.model.application.commands.MCommandsFactory;
+import org.eclipse.e4.ui.model.application.commands.MHandler;
+import org.eclipse.e4.ui.model.application.ui.basic.MBasicFactory;
+import org.eclipse.e4.ui.model.application.ui.basic.MPart;
+import org.eclipse.e4.ui.model.application.ui.basic.MPartStack;
+import org.eclipse.e4.ui.model.application.ui.basic.MTrimmedWindow;
+import org.eclipse.e4.ui.model.application.ui.menu.MHandledMenuItem;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenu;
+import org.eclipse.e4.ui.model.application.ui.menu.MMenuFactory;
+import org.eclipse.emf.ecore.EObject;
+
+/**
+ * Measures XPath queries on a large synthetic application model, as done when
+ * model fragments are merged: the descendant queries once with the JXPath
+ * semantics and once in a containment context, and a child query that is
+ * evaluated without JXPath.
+ *
+ * @since 3.20
+ */
+public class XPathPerformanceTest extends BasicPerformanceTest {
+
+	private static final int WINDOWS = 5;
+
+	private static final int STACKS = 4;
+
+	private static final int PARTS = 8;
+
+	private static final int MENU_ITEMS = 20;
+
+	private static final int COMMANDS = 50;
+
+	private static final int ITERATIONS = 10;
+
+	private static final int QUERIES = 5;
+
+	private MApplication application;
+
+	public XPathPerformanceTest(String testName) {
+		super(testName);
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		application = MApplicationFactory.INSTANCE.createApplication();
+		application.setElementId("application");
+		for (int i = 0; i < COMMANDS; i++) {
+			MCommand command = MCommandsFactory.INSTANCE.createCommand();
+			command.setElementId("command" + i);
+			application.getCommands().add(command);
+			MHandler handler = MCommandsFactory.INSTANCE.createHandler();
+			handler.setElementId("handler" + i);
+			handler.setCommand(command);
+			application.getHandlers().add(handler);
+		}
+		for (int w = 0; w < WINDOWS; w++) {
+			MTrimmedWindow window = MBasicFactory.INSTANCE.createTrimmedWindow();
+			window.setElementId("window" + w);
+			for (int s = 0; s < STACKS; s++) {
+				MPartStack stack = MBasicFactory.INSTANCE.createPartStack();
+				stack.setElementId("stack" + w + "." + s);
+				for (int p = 0; p < PARTS; p++) {
+					MPart part = MBasicFactory.INSTANCE.createPart();
+					part.setElementId("part" + w + "." + s + "." + p);
+					stack.getChildren().add(part);
+				}
+				window.getChildren().add(stack);
+			}
+			MMenu menu = MMenuFactory.INSTANCE.createMenu();
+			menu.setElementId("menu" + w);
+			for (int i = 0; i < MENU_ITEMS; i++) {
+				MHandledMenuItem item = MMenuFactory.INSTANCE.createHandledMenuItem();
+				item.setElementId("item" + w + "." + i);
+				item.setCommand(application.getCommands().get((w * MENU_ITEMS + i) % COMMANDS));
+				menu.getChildren().add(item);
+			}
+			window.setMainMenu(menu);
+			application.getChildren().add(window);
+		}
+	}
+
+	public void testJXPathDescendantQuery() {
+		measureDescendantQueries(EcoreXPathContextFactory.newInstance().newContext((EObject) application));
+	}
+
+	public void testContainmentDescendantQuery() {
+		measureDescendantQueries(
+				EcoreXPathContextFactory.newContainmentInstance().newContext((EObject) application));
+	}
+
+	public void testChildQuery() {
+		XPathContext context = EcoreXPathContextFactory.newInstance().newContext((EObject) application);
+		XPathExpression[] expressions = new XPathExpression[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			expressions[i] = context
+					.compile("children[" + (i + 1) + "]/children/children[@elementId='part" + i + ".2.3']");
+		}
+		measure(context, expressions, 1000);
+	}
+
+	private void measureDescendantQueries(XPathContext context) {
+		XPathExpression[] expressions = new XPathExpression[QUERIES];
+		for (int i = 0; i < QUERIES; i++) {
+			expressions[i] = context.compile("//*[@elementId='item" + i + "." + (i * 3) + "']");
+		}
+		measure(context, expressions, 1);
+	}
+
+	private void measure(XPathContext context, XPathExpression[] expressions, int repetitions) {
+		for (int i = 0; i < ITERATIONS; i++) {
+			startMeasuring();
+			int found = 0;
+			for (int r = 0; r < repetitions; r++) {
+				for (XPathExpression expression : expressions) {
+					Iterator<Object> results = context.iterate(expression);
+					if (results.hasNext()) {
+						found++;
+					}
+				}
+			}
+			stopMeasuring();
+			assertEquals(expressions.length * repetitions, found);
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2012 IBM Corporation and others.
+ * Copyright (c) 2006, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,8 +24,11 @@ import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.internal.views.properties.tabbed.view.TabbedPropertyComposite;
+import org.eclipse.ui.internal.views.properties.tabbed.view.TabbedPropertyRegistry;
+import org.eclipse.ui.internal.views.properties.tabbed.view.TabbedPropertyRegistryFactory;
 import org.eclipse.ui.tests.views.properties.tabbed.sections.InformationTwoSection;
 import org.eclipse.ui.tests.views.properties.tabbed.sections.NameSection;
+import org.eclipse.ui.tests.views.properties.tabbed.views.InformationToggleFilter;
 import org.eclipse.ui.tests.views.properties.tabbed.views.TestsPerspective;
 import org.eclipse.ui.tests.views.properties.tabbed.views.TestsView;
 import org.eclipse.ui.tests.views.properties.tabbed.views.TestsViewContentProvider;
@@ -325,6 +328,55 @@ public class TabbedPropertySheetPageTest
 		assertEquals(1, TabDescriptors.length);
 	}
 
+	/**
+	 * When an Information Node is selected again after File, Folder and Project
+	 * Nodes, the tab shown before is reused. Tests the reuse of hidden tabs.
+	 */
+	public void test_tabReuse() {
+		setSelection(new TreeNode[] {treeNodes[0]});
+		TabContents tabContents = testsView.getTabbedPropertySheetPage().getCurrentTab();
+		assertNotNull(tabContents);
+		/**
+		 * select the resource nodes, the Name tab is hidden
+		 */
+		setSelection(new TreeNode[] {treeNodes[5], treeNodes[6], treeNodes[7],});
+		assertNotSame(tabContents, testsView.getTabbedPropertySheetPage().getCurrentTab());
+		/**
+		 * select the Information node again, the Name tab is reused
+		 */
+		setSelection(new TreeNode[] {treeNodes[0]});
+		assertEquals("Name", testsView.getTabbedPropertySheetPage().getSelectedTab().getLabel());//$NON-NLS-1$
+		assertSame(tabContents, testsView.getTabbedPropertySheetPage().getCurrentTab());
+	}
+
+	/**
+	 * When the same selection is asked for twice, the section filters are
+	 * evaluated again. Tests that the tab descriptors of a selection are not
+	 * remembered beyond the input change of the page.
+	 */
+	public void test_sameSelectionFilterChange() {
+		setSelection(new TreeNode[] {treeNodes[0]});
+		StructuredSelection selection = new StructuredSelection(treeNodes[0]);
+		TabbedPropertyRegistry registry = TabbedPropertyRegistryFactory.getInstance().createRegistry(testsView);
+		try {
+			ITabDescriptor[] tabDescriptors = registry.getTabDescriptors(testsView, selection);
+			assertEquals("Information", tabDescriptors[1].getLabel());//$NON-NLS-1$
+			assertEquals(1, tabDescriptors[1].getSectionDescriptors().size());
+
+			/**
+			 * the filter of the second section of the Information tab now
+			 * selects the Information node
+			 */
+			InformationToggleFilter.enabled = true;
+			tabDescriptors = registry.getTabDescriptors(testsView, selection);
+			assertEquals("Information", tabDescriptors[1].getLabel());//$NON-NLS-1$
+			assertEquals(2, tabDescriptors[1].getSectionDescriptors().size());
+		} finally {
+			InformationToggleFilter.enabled = false;
+			TabbedPropertyRegistryFactory.getInstance().disposeRegistry(testsView);
+		}
+	}
+
 	/**
 	 * When the view first comes up, there is no properties so the "Properties
 	 * are not available." banner is displayed. Tests null selection in a
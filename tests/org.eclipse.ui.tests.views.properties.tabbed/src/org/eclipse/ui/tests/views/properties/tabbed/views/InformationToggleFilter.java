@@ -0,0 +1,39 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.views.properties.tabbed.views;
+
+import org.eclipse.jface.viewers.IFilter;
+import org.eclipse.jface.viewers.TreeNode;
+import org.eclipse.ui.tests.views.properties.tabbed.model.Information;
+
+/**
+ * A filter for Information messages that only selects them while it is
+ * enabled, so that its result changes for the same selection.
+ */
+public class InformationToggleFilter
+	implements IFilter {
+
+	/**
+	 * Whether Information messages are selected, <code>false</code> by
+	 * default.
+	 */
+	public static boolean enabled;
+
+	@Override
+	public boolean select(Object object) {
+		return enabled && object instanceof TreeNode
+			&& ((TreeNode) object).getValue() instanceof Information;
+	}
+
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2018 IBM Corporation and others.
+ * Copyright (c) 2003, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -198,6 +198,46 @@ public class DynamicTest {
 		assertTrue(manipulatedIdentifiers.size() == 1);
 	}
 
+	/**
+	 * Test identifiers matched by regular expression pattern bindings, with and
+	 * without a literal prefix.
+	 */
+	@Test
+	public void testRegularExpressionIdentifiers() {
+		fixedModelRegistry.addActivityPatternBinding("org.eclipse.activity4", //$NON-NLS-1$
+				"org\\.eclipse\\.dynamic\\..*"); //$NON-NLS-1$
+		fixedModelRegistry.addActivityPatternBinding("org.eclipse.activity5", //$NON-NLS-1$
+				".*\\.dynamicView"); //$NON-NLS-1$
+		IIdentifier prefixed = activityManager.getIdentifier("org.eclipse.dynamic.view"); //$NON-NLS-1$
+		IIdentifier both = activityManager.getIdentifier("org.eclipse.dynamic.dynamicView"); //$NON-NLS-1$
+		IIdentifier unmatched = activityManager.getIdentifier("org.eclipse.dynamicview"); //$NON-NLS-1$
+		assertEquals(Set.of("org.eclipse.activity4"), prefixed.getActivityIds()); //$NON-NLS-1$
+		assertEquals(Set.of("org.eclipse.activity4", "org.eclipse.activity5"), both.getActivityIds()); //$NON-NLS-1$ //$NON-NLS-2$
+		assertTrue(unmatched.getActivityIds().isEmpty());
+		assertFalse(prefixed.isEnabled());
+		assertFalse(both.isEnabled());
+		assertTrue(unmatched.isEnabled());
+
+		Set<String> enabledActivityIds = new HashSet<>(activityManager.getEnabledActivityIds());
+		enabledActivityIds.add("org.eclipse.activity4"); //$NON-NLS-1$
+		enabledActivityIds.add("org.eclipse.activity9"); //$NON-NLS-1$
+		activityManager.setEnabledActivityIds(enabledActivityIds);
+		assertTrue(prefixed.isEnabled());
+		assertTrue(both.isEnabled());
+
+		// changing an unrelated activity leaves the identifiers alone
+		assertTrue(activityManager.getEnabledActivityIds().contains("org.eclipse.activity9")); //$NON-NLS-1$
+		enabledActivityIds.remove("org.eclipse.activity9"); //$NON-NLS-1$
+		activityManager.setEnabledActivityIds(enabledActivityIds);
+		assertTrue(prefixed.isEnabled());
+		assertTrue(unmatched.isEnabled());
+
+		fixedModelRegistry.removeActivityPatternBinding("org\\.eclipse\\.dynamic\\..*"); //$NON-NLS-1$
+		assertTrue(prefixed.getActivityIds().isEmpty());
+		assertEquals(Set.of("org.eclipse.activity5"), both.getActivityIds()); //$NON-NLS-1$
+		assertFalse(both.isEnabled());
+	}
+
 	/**
 	 * Test the activity manager listener.
 	 *
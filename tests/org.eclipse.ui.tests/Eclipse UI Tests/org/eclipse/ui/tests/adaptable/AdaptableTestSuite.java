@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2012 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,6 +25,7 @@ import org.junit.runners.Suite;
 	AdaptableDecoratorTestCase.class,
 	MarkerImageProviderTest.class,
 	WorkingSetTestCase.class,
+	WorkingSetContainmentIndexTest.class,
 	SelectionAdapterTest.class,
 })
 public class AdaptableTestSuite {
@@ -0,0 +1,220 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.adaptable;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Adapters;
+import org.eclipse.core.runtime.IAdaptable;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.ui.IContainmentAdapter;
+import org.eclipse.ui.internal.ide.WorkingSetContainmentIndex;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the working set containment index encloses the same resources as
+ * the element by element comparison that ResourceWorkingSetFilter did before.
+ * The resources are handles only, they need not exist.
+ */
+public class WorkingSetContainmentIndexTest {
+
+	private static final int ALL_CHECKS = IContainmentAdapter.CHECK_CONTEXT | IContainmentAdapter.CHECK_IF_CHILD
+			| IContainmentAdapter.CHECK_IF_ANCESTOR | IContainmentAdapter.CHECK_IF_DESCENDANT;
+
+	/**
+	 * An element with a containment adapter that only contains the
+	 * descendants of a resource, not its ancestors.
+	 */
+	private static final class ContainingElement implements IAdaptable, IContainmentAdapter {
+
+		final IResource container;
+
+		ContainingElement(IResource container) {
+			this.container = container;
+		}
+
+		@SuppressWarnings("unchecked")
+		@Override
+		public <T> T getAdapter(Class<T> adapter) {
+			if (adapter == IContainmentAdapter.class) {
+				return (T) this;
+			}
+			if (adapter == IResource.class) {
+				// the containment adapter takes precedence
+				return (T) container;
+			}
+			return null;
+		}
+
+		@Override
+		public boolean contains(Object workingSetElement, Object element, int flags) {
+			assertSame(this, workingSetElement);
+			assertEquals(ALL_CHECKS, flags);
+			return container.getFullPath().isPrefixOf(((IResource) element).getFullPath());
+		}
+	}
+
+	/**
+	 * An element that adapts to nothing.
+	 */
+	private static final class OtherElement implements IAdaptable {
+		@Override
+		public <T> T getAdapter(Class<T> adapter) {
+			return null;
+		}
+	}
+
+	private IWorkspaceRoot root;
+
+	private IProject p1, p2, p10;
+
+	private IResource a, ab, b, file, c, p2a;
+
+	private IResource[] resources;
+
+	@Before
+	public void setUp() {
+		root = ResourcesPlugin.getWorkspace().getRoot();
+		p1 = root.getProject("p1");
+		p2 = root.getProject("p2");
+		p10 = root.getProject("p10");
+		a = p1.getFolder("a");
+		ab = p1.getFolder("ab");
+		b = p1.getFolder("a/b");
+		file = p1.getFile("a/b/f.txt");
+		c = p1.getFolder("c");
+		p2a = p2.getFolder("a");
+		resources = new IResource[] { root, p1, p2, p10, a, ab, b, file, c, p2a };
+	}
+
+	@Test
+	public void testEqualAncestorAndDescendant() {
+		WorkingSetContainmentIndex index = WorkingSetContainmentIndex.get(new IAdaptable[] { a });
+		assertTrue(index.isEnclosed(a));
+		assertTrue(index.isEnclosed(p1));
+		assertTrue(index.isEnclosed(b));
+		assertTrue(index.isEnclosed(file));
+		assertFalse(index.isEnclosed(ab));
+		assertFalse(index.isEnclosed(c));
+		assertFalse(index.isEnclosed(p2));
+		assertFalse(index.isEnclosed(p2a));
+		assertFalse(index.isEnclosed(p10));
+	}
+
+	@Test
+	public void testWorkspaceRoot() {
+		WorkingSetContainmentIndex rootIndex = WorkingSetContainmentIndex.get(new IAdaptable[] { root });
+		for (IResource resource : resources) {
+			assertTrue(resource.toString(), rootIndex.isEnclosed(resource));
+		}
+		assertTrue(WorkingSetContainmentIndex.get(new IAdaptable[] { file }).isEnclosed(root));
+		assertFalse(WorkingSetContainmentIndex.get(new IAdaptable[0]).isEnclosed(root));
+		assertFalse(WorkingSetContainmentIndex.get(new IAdaptable[] { new OtherElement() }).isEnclosed(root));
+	}
+
+	@Test
+	public void testAdaptingElement() {
+		WorkingSetContainmentIndex index = WorkingSetContainmentIndex
+				.get(new IAdaptable[] { new AdaptableResourceWrapper(b) });
+		assertTrue(index.isEnclosed(p1));
+		assertTrue(index.isEnclosed(a));
+		assertTrue(index.isEnclosed(b));
+		assertTrue(index.isEnclosed(file));
+		assertFalse(index.isEnclosed(ab));
+		assertFalse(index.isEnclosed(p2));
+	}
+
+	@Test
+	public void testContainmentAdapter() {
+		WorkingSetContainmentIndex index = WorkingSetContainmentIndex
+				.get(new IAdaptable[] { new ContainingElement(a), p2a });
+		assertTrue(index.isEnclosed(a));
+		assertTrue(index.isEnclosed(file));
+		// the adapter decides, the resource of the element is not used
+		assertFalse(index.isEnclosed(p1));
+		assertTrue(index.isEnclosed(p2));
+		assertFalse(index.isEnclosed(ab));
+	}
+
+	@Test
+	public void testSharedIndex() {
+		IAdaptable[] elements = new IAdaptable[] { a, p2 };
+		WorkingSetContainmentIndex index = WorkingSetContainmentIndex.get(elements);
+		assertSame(index, WorkingSetContainmentIndex.get(new IAdaptable[] { a, p2 }));
+		elements[0] = c;
+		assertTrue(index.isEnclosed(a));
+		assertNotSame(index, WorkingSetContainmentIndex.get(elements));
+	}
+
+	@Test
+	public void testSameAsElementComparison() {
+		List<IAdaptable[]> elementSets = new ArrayList<>();
+		elementSets.add(new IAdaptable[0]);
+		elementSets.add(new IAdaptable[] { new OtherElement() });
+		for (IResource resource : resources) {
+			elementSets.add(new IAdaptable[] { resource });
+			elementSets.add(new IAdaptable[] { new AdaptableResourceWrapper(resource) });
+			elementSets.add(new IAdaptable[] { new ContainingElement(resource) });
+		}
+		elementSets.add(new IAdaptable[] { a, p2a, new OtherElement() });
+		elementSets.add(new IAdaptable[] { file, ab, new AdaptableResourceWrapper(p10) });
+		elementSets.add(new IAdaptable[] { new ContainingElement(p1), c, b });
+		elementSets.add(new IAdaptable[] { b, a, file, new ContainingElement(p2a) });
+
+		for (IAdaptable[] elements : elementSets) {
+			WorkingSetContainmentIndex index = WorkingSetContainmentIndex.get(elements);
+			for (IResource resource : resources) {
+				assertEquals(resource + " in " + List.of(elements), isEnclosed(elements, resource),
+						index.isEnclosed(resource));
+			}
+		}
+	}
+
+	/**
+	 * The element by element comparison ResourceWorkingSetFilter did before it
+	 * used the index.
+	 */
+	private static boolean isEnclosed(IAdaptable[] elements, IResource resource) {
+		IPath path = resource.getFullPath();
+		for (IAdaptable element : elements) {
+			IContainmentAdapter adapter = element.getAdapter(IContainmentAdapter.class);
+			if (adapter != null) {
+				if (adapter.contains(element, resource, ALL_CHECKS)) {
+					return true;
+				}
+			} else if (element.equals(resource)) {
+				return true;
+			} else {
+				IResource elementResource = Adapters.adapt(element, IResource.class);
+				if (elementResource != null && (elementResource.getFullPath().isPrefixOf(path)
+						|| path.isPrefixOf(elementResource.getFullPath()))) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+}
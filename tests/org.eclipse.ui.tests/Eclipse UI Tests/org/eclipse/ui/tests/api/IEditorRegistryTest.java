@@ -555,6 +555,30 @@ public class IEditorRegistryTest {
 		}
 	}
 
+	@Test
+	public void testImageDescriptorFollowsDefaultEditor() {
+		IEditorDescriptor editor = fReg.getDefaultEditor("a.mock1");
+		assertEquals(editor.getImageDescriptor(), fReg.getImageDescriptor("a.mock1"));
+
+		FileEditorMapping map = null;
+		for (IFileEditorMapping mapping : fReg.getFileEditorMappings()) {
+			if (mapping.getExtension().equals("mock1")) {
+				map = (FileEditorMapping) mapping;
+				break;
+			}
+		}
+		assertNotNull("Parameter map should not be null", map);
+
+		EditorDescriptor replacementDescriptor = EditorDescriptor.createForProgram("notepad.exe");
+		try {
+			map.setDefaultEditor(replacementDescriptor);
+			assertEquals(replacementDescriptor.getImageDescriptor(), fReg.getImageDescriptor("b.mock1"));
+		} finally {
+			map.setDefaultEditor(editor);
+		}
+		assertEquals(editor.getImageDescriptor(), fReg.getImageDescriptor("a.mock1"));
+	}
+
 	@Test
 	public void testBug308894() throws Throwable {
 		FileEditorMapping newMapping = new FileEditorMapping("*.abc");
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2017 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,10 +22,14 @@ import java.io.Reader;
 import java.io.StringReader;
 import java.io.StringWriter;
 
+import javax.xml.parsers.DocumentBuilderFactory;
+
 import org.eclipse.ui.IMemento;
 import org.eclipse.ui.WorkbenchException;
 import org.eclipse.ui.XMLMemento;
 import org.junit.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 /**
  * Testing XMLMemento (see bug 93262). Emphasis is on ensuring that the 3.1
@@ -546,6 +550,39 @@ public class XMLMementoTest {
 		});
 	}
 
+	@Test
+	public void testCreateReadRootTextData() throws WorkbenchException {
+		XMLMemento memento = XMLMemento.createReadRoot(new StringReader(
+				"<root><a>first<!-- comment -->second</a><b><![CDATA[<data>]]>more</b><c>&lt;x&#x09;<d/>tail</c><e><f/>after</e></root>"));
+		// the text data is the first text node, as in a DOM document
+		assertEquals("first", memento.getChild("a").getTextData());
+		assertEquals("<data>", memento.getChild("b").getTextData());
+		assertEquals("<x\t", memento.getChild("c").getTextData());
+		assertEquals("after", memento.getChild("e").getTextData());
+		assertEquals(null, memento.getChild("e").getChild("f").getTextData());
+		assertEquals("", memento.getChild("a").getID());
+	}
+
+	@Test
+	public void testDocumentMemento() throws Exception {
+		Document document = DocumentBuilderFactory.newInstance().newDocumentBuilder().newDocument();
+		Element root = document.createElement("root");
+		document.appendChild(root);
+		XMLMemento domMemento = new XMLMemento(document, root);
+		fillMemento(domMemento);
+		XMLMemento memento = XMLMemento.createWriteRoot("root");
+		fillMemento(memento);
+		assertEquals(domMemento.toString(), memento.toString());
+
+		// copy between mementos on a document and streamed mementos
+		IMemento copy = memento.copyChild(domMemento);
+		checkMemento(copy, true);
+		copy = domMemento.copyChild(memento);
+		checkMemento(copy, true);
+		// the copy is in the document
+		assertEquals("a string", ((Element) root.getLastChild()).getAttribute("stringKey"));
+	}
+
 	private static interface MementoChecker {
 		void prepareAndCheckBeforeSerialization(XMLMemento mementoToSerialize);
 
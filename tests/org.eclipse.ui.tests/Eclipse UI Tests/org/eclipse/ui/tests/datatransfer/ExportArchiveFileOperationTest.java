@@ -24,6 +24,7 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
+import java.util.zip.Deflater;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipFile;
@@ -117,6 +118,46 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
 		verifyCompressed(ZIP_FILE_EXT);
 	}
 
+	@Test
+	public void testExportZipParallelMatchesSingleThreaded() throws Exception {
+		List<IProject> resources = new ArrayList<>();
+		resources.add(project);
+
+		filePath = localDirectory + "/" + FILE_NAME + "1." + ZIP_FILE_EXT;
+		ArchiveFileExportOperation operation = new ArchiveFileExportOperation(new ArrayList<>(resources), filePath);
+		operation.setUseCompression(true);
+		operation.setThreadCount(1);
+		operation.run(new NullProgressMonitor());
+		List<String> singleThreaded = readZipEntries();
+
+		filePath = localDirectory + "/" + FILE_NAME + "4." + ZIP_FILE_EXT;
+		operation = new ArchiveFileExportOperation(new ArrayList<>(resources), filePath);
+		operation.setUseCompression(true);
+		operation.setThreadCount(4);
+		operation.run(new NullProgressMonitor());
+		assertTrue(operation.getStatus().isOK());
+		assertEquals(singleThreaded, readZipEntries());
+		verifyCompressed(ZIP_FILE_EXT);
+		// +1 for .settings
+		verifyFolders(directoryNames.length + emptyDirectoryNames.length + 1, ZIP_FILE_EXT);
+	}
+
+	@Test
+	public void testExportZipCompressionLevel() throws Exception {
+		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
+		List<IProject> resources = new ArrayList<>();
+		resources.add(project);
+		ArchiveFileExportOperation operation =
+			new ArchiveFileExportOperation(resources, filePath);
+
+		operation.setUseCompression(true);
+		operation.setCompressionLevel(Deflater.BEST_COMPRESSION);
+		operation.setUseTarFormat(false);
+		operation.run(new NullProgressMonitor());
+		verifyCompressed(ZIP_FILE_EXT);
+		verifyFolders(directoryNames.length + emptyDirectoryNames.length + 1, ZIP_FILE_EXT);
+	}
+
 	@Test
 	public void testExportZipCreateSelectedDirectories() throws Exception {
 		filePath = localDirectory + "/" + FILE_NAME + "." + ZIP_FILE_EXT;
@@ -389,6 +430,18 @@ public class ExportArchiveFileOperationTest extends UITestCase implements
 		}
 	}
 
+	private List<String> readZipEntries() throws IOException {
+		List<String> names = new ArrayList<>();
+		try (ZipFile zipFile = new ZipFile(filePath)) {
+			Enumeration<? extends ZipEntry> entries = zipFile.entries();
+			while (entries.hasMoreElements()) {
+				ZipEntry entry = entries.nextElement();
+				names.add(entry.getName() + ':' + entry.getCrc() + ':' + entry.getSize());
+			}
+		}
+		return names;
+	}
+
 	private void verifyCompressed(String type){
 		String fileName = "";
 		boolean compressed = false;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -63,5 +63,6 @@ import org.junit.runners.Suite;
 	Bug540297WorkbenchPageFindViewTest.class,
 	Bug549139Test.class,
 	LargeFileLimitsPreferenceHandlerTest.class,
+	ObjectContributorManagerTest.class,
 })
 public class InternalTestSuite {}
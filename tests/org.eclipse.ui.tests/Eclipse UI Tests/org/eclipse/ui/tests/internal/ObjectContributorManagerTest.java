@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.internal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.eclipse.core.runtime.IExtension;
+import org.eclipse.core.runtime.dynamichelpers.IExtensionTracker;
+import org.eclipse.ui.internal.IObjectContributor;
+import org.eclipse.ui.internal.ObjectContributorManager;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that registering or unregistering a contributor only flushes the
+ * cached lookups of the types it affects.
+ */
+public class ObjectContributorManagerTest {
+
+	private interface Marker {
+	}
+
+	private static class TypeA {
+	}
+
+	private static class SubTypeA extends TypeA {
+	}
+
+	private static class TypeB {
+	}
+
+	private static class TypeC implements Marker {
+	}
+
+	private static class TestContributor implements IObjectContributor {
+		@Override
+		public boolean isApplicableTo(Object object) {
+			return true;
+		}
+
+		@Override
+		public boolean canAdapt() {
+			return false;
+		}
+	}
+
+	private static class TestManager extends ObjectContributorManager {
+		List lookup(Class type) {
+			return getObjectContributors(type);
+		}
+
+		boolean isCached(Class type) {
+			return objectLookup.containsKey(type);
+		}
+
+		@Override
+		public void addExtension(IExtensionTracker tracker, IExtension extension) {
+			// not tracked
+		}
+	}
+
+	private TestManager manager;
+
+	private IObjectContributor contributorA;
+
+	private IObjectContributor contributorB;
+
+	@Before
+	public void setUp() {
+		manager = new TestManager();
+		contributorA = new TestContributor();
+		contributorB = new TestContributor();
+		manager.registerContributor(contributorA, TypeA.class.getName());
+		manager.registerContributor(contributorB, TypeB.class.getName());
+	}
+
+	@Test
+	public void testRegisterFlushesOnlyAffectedLookups() {
+		assertEquals(Collections.singletonList(contributorA), manager.lookup(TypeA.class));
+		List lookupB = manager.lookup(TypeB.class);
+		assertEquals(Collections.singletonList(contributorB), lookupB);
+
+		IObjectContributor added = new TestContributor();
+		manager.registerContributor(added, TypeA.class.getName());
+		assertFalse(manager.isCached(TypeA.class));
+		assertTrue(manager.isCached(TypeB.class));
+		assertSame(lookupB, manager.lookup(TypeB.class));
+
+		assertEquals(Arrays.asList(contributorA, added), manager.lookup(TypeA.class));
+	}
+
+	@Test
+	public void testUnregisterFlushesOnlyAffectedLookups() {
+		manager.lookup(TypeA.class);
+		List lookupB = manager.lookup(TypeB.class);
+
+		manager.unregisterContributor(contributorA, TypeA.class.getName());
+		assertFalse(manager.isCached(TypeA.class));
+		assertTrue(manager.isCached(TypeB.class));
+		assertSame(lookupB, manager.lookup(TypeB.class));
+
+		assertEquals(Collections.emptyList(), manager.lookup(TypeA.class));
+	}
+
+	@Test
+	public void testUnregisterTypeFlushesOnlyAffectedLookups() {
+		manager.lookup(TypeA.class);
+		List lookupB = manager.lookup(TypeB.class);
+
+		manager.unregisterContributors(TypeA.class.getName());
+		assertFalse(manager.isCached(TypeA.class));
+		assertSame(lookupB, manager.lookup(TypeB.class));
+		assertEquals(Collections.emptyList(), manager.lookup(TypeA.class));
+	}
+
+	@Test
+	public void testRegisterFlushesSubclassLookups() {
+		assertEquals(Collections.singletonList(contributorA), manager.lookup(SubTypeA.class));
+		manager.lookup(TypeB.class);
+
+		IObjectContributor added = new TestContributor();
+		manager.registerContributor(added, TypeA.class.getName());
+		assertFalse(manager.isCached(SubTypeA.class));
+		assertTrue(manager.isCached(TypeB.class));
+		assertEquals(Arrays.asList(contributorA, added), manager.lookup(SubTypeA.class));
+	}
+
+	@Test
+	public void testRegisterFlushesInterfaceLookups() {
+		assertEquals(Collections.emptyList(), manager.lookup(TypeC.class));
+		manager.lookup(TypeA.class);
+
+		IObjectContributor added = new TestContributor();
+		manager.registerContributor(added, Marker.class.getName());
+		assertFalse(manager.isCached(TypeC.class));
+		assertTrue(manager.isCached(TypeA.class));
+		assertEquals(Collections.singletonList(added), manager.lookup(TypeC.class));
+	}
+}
@@ -0,0 +1,374 @@
+/*******************************************************************************
+ * Copyright (c) 2022 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.operations;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.core.commands.ExecutionException;
+import org.eclipse.core.commands.operations.DefaultOperationHistory;
+import org.eclipse.core.commands.operations.IOperationHistory;
+import org.eclipse.core.commands.operations.IUndoContext;
+import org.eclipse.core.commands.operations.IUndoableOperation;
+import org.eclipse.core.commands.operations.ObjectUndoContext;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests that the undo and redo history, which are indexed by the contexts of
+ * their operations, follow contexts added to or removed from operations that
+ * are already in the history.
+ */
+public class OperationHistoryIndexTest {
+
+	private static final int LARGE_LIMIT = 10000;
+
+	private DefaultOperationHistory history;
+
+	private ObjectUndoContext contextA, contextB, contextC, contextD, contextAB;
+
+	private IUndoContext[] contexts;
+
+	@Before
+	public void setUp() {
+		history = new DefaultOperationHistory();
+		contextA = new ObjectUndoContext("A");
+		contextB = new ObjectUndoContext("B");
+		contextC = new ObjectUndoContext("C");
+		contextD = new ObjectUndoContext("D");
+		contextAB = new ObjectUndoContext("AB");
+		contextAB.addMatch(contextA);
+		contextAB.addMatch(contextB);
+		contexts = new IUndoContext[] { contextA, contextB, contextC, contextD, contextAB };
+	}
+
+	@Test
+	public void testContextAddedInUndoHistory() throws ExecutionException {
+		IUndoableOperation op1 = execute("op1", contextA);
+		IUndoableOperation op2 = execute("op2", contextB);
+
+		op1.addContext(contextC);
+
+		assertArrayEquals(new IUndoableOperation[] { op1 }, history.getUndoHistory(contextC));
+		assertSame(op1, history.getUndoOperation(contextC));
+		assertArrayEquals(new IUndoableOperation[] { op1, op2 }, history.getUndoHistory(contextAB));
+
+		op2.addContext(contextC);
+
+		assertArrayEquals(new IUndoableOperation[] { op1, op2 }, history.getUndoHistory(contextC));
+		assertSame(op2, history.getUndoOperation(contextC));
+	}
+
+	@Test
+	public void testContextRemovedInUndoHistory() throws ExecutionException {
+		IUndoableOperation op1 = execute("op1", contextA, contextB);
+		IUndoableOperation op2 = execute("op2", contextA);
+
+		op2.removeContext(contextA);
+		op1.removeContext(contextB);
+
+		assertArrayEquals(new IUndoableOperation[] { op1 }, history.getUndoHistory(contextA));
+		assertSame(op1, history.getUndoOperation(contextA));
+		assertArrayEquals(new IUndoableOperation[0], history.getUndoHistory(contextB));
+		assertFalse(history.canUndo(contextB));
+	}
+
+	@Test
+	public void testContextChangedInRedoHistory() throws ExecutionException {
+		IUndoableOperation op1 = execute("op1", contextA);
+		IUndoableOperation op2 = execute("op2", contextA, contextB);
+		history.undo(contextA, null, null);
+		history.undo(contextA, null, null);
+
+		op1.addContext(contextC);
+		op2.removeContext(contextA);
+
+		assertArrayEquals(new IUndoableOperation[] { op2, op1 }, history.getRedoHistory(IOperationHistory.GLOBAL_UNDO_CONTEXT));
+		assertArrayEquals(new IUndoableOperation[] { op1 }, history.getRedoHistory(contextA));
+		assertSame(op1, history.getRedoOperation(contextC));
+		assertTrue(history.canRedo(contextC));
+
+		history.redo(contextC, null, null);
+		assertArrayEquals(new IUndoableOperation[] { op1 }, history.getUndoHistory(contextC));
+	}
+
+	@Test
+	public void testLimitAfterContextAdded() throws ExecutionException {
+		history.setLimit(contextB, 2);
+		IUndoableOperation op1 = execute("op1", contextA);
+		IUndoableOperation op2 = execute("op2", contextB);
+
+		op1.addContext(contextB);
+		// the oldest operation of B loses the context to make room
+		IUndoableOperation op3 = execute("op3", contextB);
+
+		assertArrayEquals(new IUndoableOperation[] { op2, op3 }, history.getUndoHistory(contextB));
+		assertArrayEquals(new IUndoableOperation[] { op1 }, history.getUndoHistory(contextA));
+		assertFalse(op1.hasContext(contextB));
+	}
+
+	@Test
+	public void testLimitAfterContextRemoved() throws ExecutionException {
+		history.setLimit(contextB, 2);
+		IUndoableOperation op1 = execute("op1", contextA, contextB);
+		IUndoableOperation op2 = execute("op2", contextB);
+
+		op1.removeContext(contextB);
+		// B has room for another operation
+		IUndoableOperation op3 = execute("op3", contextB);
+
+		assertArrayEquals(new IUndoableOperation[] { op2, op3 }, history.getUndoHistory(contextB));
+		assertArrayEquals(new IUndoableOperation[] { op1 }, history.getUndoHistory(contextA));
+	}
+
+	@Test
+	public void testContextChangedAfterReplace() throws ExecutionException {
+		IUndoableOperation op1 = execute("op1", contextA);
+		IUndoableOperation replacement = new TestOperation("replacement");
+		replacement.addContext(contextB);
+		replacement.execute(null, null);
+		history.replaceOperation(op1, new IUndoableOperation[] { replacement });
+
+		replacement.addContext(contextC);
+
+		assertSame(replacement, history.getUndoOperation(contextC));
+		assertArrayEquals(new IUndoableOperation[0], history.getUndoHistory(contextA));
+	}
+
+	/**
+	 * Runs random sequences of history operations and context changes and
+	 * compares the history with a reference history that is made of plain
+	 * lists.
+	 */
+	@Test
+	public void testRandomChanges() throws ExecutionException {
+		for (long seed = 0; seed < 20; seed++) {
+			setUp();
+			runRandomChanges(new Random(seed), 500);
+		}
+	}
+
+	private void runRandomChanges(Random random, int steps) throws ExecutionException {
+		for (IUndoContext context : contexts) {
+			history.setLimit(context, LARGE_LIMIT);
+		}
+		ReferenceHistory reference = new ReferenceHistory();
+		int count = 0;
+		for (int step = 0; step < steps; step++) {
+			int action = random.nextInt(10);
+			IUndoableOperation operation = reference.pick(random);
+			IUndoContext context = pickContext(random);
+			if (action < 3 || operation == null) {
+				TestOperation added = newOperation("op" + count++, random);
+				reference.add(added);
+				history.execute(added, null, null);
+			} else if (action == 3) {
+				reference.undo(context);
+				history.undo(context, null, null);
+			} else if (action == 4) {
+				reference.redo(context);
+				history.redo(context, null, null);
+			} else if (action == 5) {
+				IUndoContext added = contexts[random.nextInt(contexts.length)];
+				reference.addContext(operation, added);
+				operation.addContext(added);
+			} else if (action == 6) {
+				IUndoContext removed = contexts[random.nextInt(contexts.length)];
+				reference.removeContext(operation, removed);
+				operation.removeContext(removed);
+			} else if (action == 7) {
+				boolean undoable = reference.undoList.contains(operation);
+				IUndoableOperation[] replacements = new IUndoableOperation[1 + random.nextInt(2)];
+				for (int i = 0; i < replacements.length; i++) {
+					replacements[i] = newOperation("op" + count++, random);
+					if (undoable) {
+						replacements[i].execute(null, null);
+					}
+				}
+				reference.replace(operation, replacements);
+				history.replaceOperation(operation, replacements);
+			} else if (action == 8) {
+				boolean flushUndo = random.nextBoolean();
+				reference.dispose(context, flushUndo, !flushUndo);
+				history.dispose(context, flushUndo, !flushUndo, false);
+			} else {
+				history.operationChanged(operation);
+			}
+			reference.assertSameAs(history);
+		}
+	}
+
+	private IUndoableOperation execute(String label, IUndoContext... operationContexts) throws ExecutionException {
+		IUndoableOperation operation = new TestOperation(label);
+		for (IUndoContext context : operationContexts) {
+			operation.addContext(context);
+		}
+		history.execute(operation, null, null);
+		return operation;
+	}
+
+	private TestOperation newOperation(String label, Random random) {
+		TestOperation operation = new TestOperation(label);
+		int size = 1 + random.nextInt(3);
+		for (int i = 0; i < size; i++) {
+			operation.addContext(contexts[random.nextInt(contexts.length)]);
+		}
+		return operation;
+	}
+
+	private IUndoContext pickContext(Random random) {
+		int index = random.nextInt(contexts.length + 1);
+		return index == contexts.length ? IOperationHistory.GLOBAL_UNDO_CONTEXT : contexts[index];
+	}
+
+	/**
+	 * The expected undo and redo history, kept in lists that are searched
+	 * operation by operation. The contexts of the operations are tracked
+	 * separately, so that the history cannot change them unnoticed.
+	 */
+	private final class ReferenceHistory {
+
+		final List<IUndoableOperation> undoList = new ArrayList<>();
+
+		final List<IUndoableOperation> redoList = new ArrayList<>();
+
+		final Map<IUndoableOperation, List<IUndoContext>> operationContexts = new HashMap<>();
+
+		IUndoableOperation pick(Random random) {
+			int size = undoList.size() + redoList.size();
+			if (size == 0) {
+				return null;
+			}
+			int index = random.nextInt(size);
+			return index < undoList.size() ? undoList.get(index) : redoList.get(index - undoList.size());
+		}
+
+		void add(IUndoableOperation operation) {
+			operationContexts.put(operation, new ArrayList<>(Arrays.asList(operation.getContexts())));
+			undoList.add(operation);
+			for (IUndoContext context : operation.getContexts()) {
+				flush(redoList, context);
+			}
+		}
+
+		void undo(IUndoContext context) {
+			IUndoableOperation operation = last(undoList, context);
+			if (operation != null && operation.canUndo()) {
+				undoList.remove(operation);
+				redoList.add(operation);
+			}
+		}
+
+		void redo(IUndoContext context) {
+			IUndoableOperation operation = last(redoList, context);
+			if (operation != null && operation.canRedo()) {
+				redoList.remove(operation);
+				undoList.add(operation);
+			}
+		}
+
+		void addContext(IUndoableOperation operation, IUndoContext context) {
+			List<IUndoContext> current = operationContexts.get(operation);
+			if (!current.contains(context)) {
+				current.add(context);
+			}
+		}
+
+		void removeContext(IUndoableOperation operation, IUndoContext context) {
+			operationContexts.get(operation).remove(context);
+		}
+
+		void replace(IUndoableOperation operation, IUndoableOperation[] replacements) {
+			List<IUndoableOperation> list = undoList.contains(operation) ? undoList : redoList;
+			int index = list.indexOf(operation);
+			list.remove(index);
+			for (IUndoableOperation replacement : replacements) {
+				operationContexts.put(replacement, new ArrayList<>(Arrays.asList(replacement.getContexts())));
+				list.add(index, replacement);
+			}
+		}
+
+		void dispose(IUndoContext context, boolean flushUndo, boolean flushRedo) {
+			if (flushUndo) {
+				flush(undoList, context);
+			}
+			if (flushRedo) {
+				flush(redoList, context);
+			}
+		}
+
+		private void flush(List<IUndoableOperation> list, IUndoContext context) {
+			for (IUndoableOperation operation : filter(list, context)) {
+				List<IUndoContext> current = operationContexts.get(operation);
+				if (context == IOperationHistory.GLOBAL_UNDO_CONTEXT || current.size() == 1) {
+					list.remove(operation);
+				} else {
+					current.removeIf(each -> each.matches(context));
+					if (current.isEmpty()) {
+						list.remove(operation);
+					}
+				}
+			}
+		}
+
+		private IUndoableOperation[] filter(List<IUndoableOperation> list, IUndoContext context) {
+			List<IUndoableOperation> filtered = new ArrayList<>();
+			for (IUndoableOperation operation : list) {
+				if (hasContext(operation, context)) {
+					filtered.add(operation);
+				}
+			}
+			return filtered.toArray(new IUndoableOperation[filtered.size()]);
+		}
+
+		private IUndoableOperation last(List<IUndoableOperation> list, IUndoContext context) {
+			IUndoableOperation[] filtered = filter(list, context);
+			return filtered.length == 0 ? null : filtered[filtered.length - 1];
+		}
+
+		private boolean hasContext(IUndoableOperation operation, IUndoContext context) {
+			for (IUndoContext each : operationContexts.get(operation)) {
+				if (context.matches(each) || each.matches(context)) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		void assertSameAs(IOperationHistory actual) {
+			for (IUndoableOperation operation : operationContexts.keySet()) {
+				List<IUndoContext> expected = operationContexts.get(operation);
+				assertArrayEquals(operation.getLabel(), expected.toArray(), operation.getContexts());
+			}
+			List<IUndoContext> queried = new ArrayList<>(Arrays.asList(contexts));
+			queried.add(IOperationHistory.GLOBAL_UNDO_CONTEXT);
+			for (IUndoContext context : queried) {
+				assertArrayEquals(context.getLabel(), filter(undoList, context), actual.getUndoHistory(context));
+				assertArrayEquals(context.getLabel(), filter(redoList, context), actual.getRedoHistory(context));
+				assertSame(context.getLabel(), last(undoList, context), actual.getUndoOperation(context));
+				assertSame(context.getLabel(), last(redoList, context), actual.getRedoOperation(context));
+			}
+		}
+	}
+}
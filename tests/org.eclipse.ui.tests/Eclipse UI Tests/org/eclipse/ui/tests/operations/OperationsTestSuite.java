@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2022 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,7 @@ import org.junit.runners.Suite;
 @RunWith(Suite.class)
 @Suite.SuiteClasses({
 	OperationsAPITest.class,
+	OperationHistoryIndexTest.class,
 	WorkbenchOperationHistoryTests.class,
 	MultiThreadedOperationsTests.class,
 	WorkbenchOperationStressTests.class,